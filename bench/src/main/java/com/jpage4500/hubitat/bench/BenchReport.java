@@ -0,0 +1,41 @@
+package com.jpage4500.hubitat.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a benchmark run (written as JSON; a saved run is the baseline for the regression gate)
+ */
+public class BenchReport {
+    public long startTime;
+    public String javaVersion;
+    public long latencyMs;          // stub hub delay per request
+    public int iterations;
+    public List<Scenario> scenarios = new ArrayList<>();
+
+    public static class Scenario {
+        public String name;         // update-64KB-500
+        public String flow;         // update (lookupAppId -> updateApp) / install (lookupAppId -> installApp)
+        public int sourceBytes;
+        public int typeCount;       // entries in userDeviceTypes list
+        public double p50Ms;
+        public double p99Ms;
+        public double meanMs;
+        public long requestsPerOp;
+        public long sentBytesPerOp;
+        public long receivedBytesPerOp;
+        public long allocBytesPerOp; // client side (all threads except the stub hub's); -1 if not supported
+        public int failed;
+
+        public long getWireBytesPerOp() {
+            return sentBytesPerOp + receivedBytesPerOp;
+        }
+    }
+
+    public Scenario find(String name) {
+        for (Scenario scenario : scenarios) {
+            if (scenario.name.equals(name)) return scenario;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jpage4500.hubitat.bench;
+
+import com.jpage4500.hubitat.utils.HttpTransport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes requests to another transport and counts HTTP bytes sent/received
+ * - bodies are counted as sent (ie: still gzipped); request/status lines and headers are counted as HTTP/1.1
+ *   would write them (headers added by HttpURLConnection itself are not included)
+ */
+public class CountingTransport implements HttpTransport {
+    private final HttpTransport delegate;
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    public CountingTransport(HttpTransport delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        requestCount.incrementAndGet();
+        // "POST /device/ideUpdate?id=885 HTTP/1.1\r\n"
+        long sent = request.method.length() + getPathLength(request.url) + 12;
+        for (Map.Entry<String, String> entry : request.headers.entrySet()) {
+            sent += entry.getKey().length() + 2 + length(entry.getValue()) + 2;
+        }
+        sent += 2;
+        if (request.body != null) sent += request.body.length;
+        sentBytes.addAndGet(sent);
+
+        Response response = delegate.execute(request);
+        // "HTTP/1.1 200 OK\r\n"
+        long received = 17;
+        for (Map.Entry<String, List<String>> entry : response.headers.entrySet()) {
+            // status line is returned under a null key
+            if (entry.getKey() == null) continue;
+            for (String value : entry.getValue()) {
+                received += entry.getKey().length() + 2 + length(value) + 2;
+            }
+        }
+        received += 2;
+        if (response.body != null) received += response.body.length;
+        receivedBytes.addAndGet(received);
+        return response;
+    }
+
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void reset() {
+        sentBytes.set(0);
+        receivedBytes.set(0);
+        requestCount.set(0);
+    }
+
+    private static int getPathLength(String url) {
+        try {
+            URI uri = new URI(url);
+            String path = uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+            return path.length();
+        } catch (Exception e) {
+            return url.length();
+        }
+    }
+
+    private static int length(String value) {
+        return value != null ? value.getBytes(StandardCharsets.ISO_8859_1).length : 0;
+    }
+}
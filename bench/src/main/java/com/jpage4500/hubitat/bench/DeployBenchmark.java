@@ -0,0 +1,426 @@
+package com.jpage4500.hubitat.bench;
+
+import com.jpage4500.hubitat.engine.DeployEngine;
+import com.jpage4500.hubitat.engine.DeployResult;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.TextUtils;
+import com.jpage4500.hubitat.utils.UrlConnectionTransport;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * End-to-end deploy benchmark against an in-process StubHub
+ * <pre>
+ * java -cp ... DeployBenchmark --latency 10 --sizes 1K,64K,2M --types 10,500,5000 --out results.json --baseline baseline.json
+ * </pre>
+ * - runs the whole DeployEngine flow for each source size x list size: update (lookupAppId -> updateApp) and
+ *   install (lookupAppId -> installApp); app/driver lists are fetched on every deploy (no cache)
+ * - reports p50/p99 latency, bytes on the wire and client allocation per deploy
+ * - with --baseline: exit code is 1 if any scenario regressed compared to the baseline
+ *   - gated: requests/op (any increase), bytes on the wire, allocation (skipped if the baseline was recorded on
+ *     another Java version)
+ *   - latency depends on the machine; only reported, unless --latency-threshold is given
+ */
+public class DeployBenchmark {
+    private static final int DEFAULT_ITERATIONS = 30;
+    private static final int DEFAULT_WARMUP = 10;
+    private static final long DEFAULT_LATENCY_MS = 10;
+    private static final double DEFAULT_THRESHOLD_PCT = 25;
+    private static final double DEFAULT_WIRE_THRESHOLD_PCT = 5;
+    // smaller changes are noise (timer/scheduler resolution, GC)
+    private static final double MIN_LATENCY_DELTA_MS = 5;
+    private static final long MIN_ALLOC_DELTA_BYTES = 256 * 1024;
+
+    private static final String FLOW_UPDATE = "update";
+    private static final String FLOW_INSTALL = "install";
+    private static final String INSTALL_NAME = "Bench New Driver";
+
+    private int iterations = DEFAULT_ITERATIONS;
+    private int warmup = DEFAULT_WARMUP;
+    private long latencyMs = DEFAULT_LATENCY_MS;
+    private final List<Integer> sizeList = new ArrayList<>(List.of(1024, 64 * 1024, 2 * 1024 * 1024));
+    private final List<Integer> typeList = new ArrayList<>(List.of(10, 500, 5000));
+    private final List<String> flowList = new ArrayList<>(List.of(FLOW_UPDATE, FLOW_INSTALL));
+    private double thresholdPct = DEFAULT_THRESHOLD_PCT;
+    private double wireThresholdPct = DEFAULT_WIRE_THRESHOLD_PCT;
+    // < 0: latency is only reported
+    private double latencyThresholdPct = -1;
+    private Path outPath;
+    private Path baselinePath;
+
+    public static void main(String[] args) {
+        DeployBenchmark benchmark = new DeployBenchmark();
+        String error = benchmark.parseArgs(args);
+        if (error != null) {
+            System.err.println(error);
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        try {
+            BenchReport report = benchmark.run();
+            System.exit(benchmark.checkBaseline(report));
+        } catch (Exception e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("usage: DeployBenchmark [--iterations N] [--warmup N] [--latency ms] [--sizes 1K,64K,2M] [--types 10,500,5000] [--flows update,install] [--out <file>] [--baseline <file> [--threshold %] [--wire-threshold %] [--latency-threshold %]]");
+        System.err.println("  --latency         stub hub delay per request (default " + DEFAULT_LATENCY_MS + ")");
+        System.err.println("  --sizes           source sizes in bytes (K/M suffix allowed)");
+        System.err.println("  --types           number of entries in the hub's app/driver list");
+        System.err.println("  --out             write JSON report to file");
+        System.err.println("  --baseline        compare with a saved report; exit code 1 on regression");
+        System.err.println("  --threshold       max allocation increase (default " + DEFAULT_THRESHOLD_PCT + "%)");
+        System.err.println("  --wire-threshold  max bytes-on-the-wire increase (default " + DEFAULT_WIRE_THRESHOLD_PCT + "%)");
+        System.err.println("  --latency-threshold  max p50/p99 increase (default: latency is only reported)");
+    }
+
+    /**
+     * @return error message or null if args are valid
+     */
+    private String parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = (i + 1 < args.length) ? args[i + 1] : null;
+            if (value == null) return "missing value for " + arg;
+            i++;
+            switch (arg) {
+                case "--iterations":
+                    iterations = TextUtils.getNumberInt(value, 0);
+                    if (iterations <= 0) return "invalid value for " + arg + ": " + value;
+                    break;
+                case "--warmup":
+                    warmup = TextUtils.getNumberInt(value, -1);
+                    if (warmup < 0) return "invalid value for " + arg + ": " + value;
+                    break;
+                case "--latency":
+                    latencyMs = TextUtils.getNumberInt(value, -1);
+                    if (latencyMs < 0) return "invalid value for " + arg + ": " + value;
+                    break;
+                case "--sizes":
+                    if (!parseList(value, sizeList)) return "invalid value for " + arg + ": " + value;
+                    break;
+                case "--types":
+                    if (!parseList(value, typeList)) return "invalid value for " + arg + ": " + value;
+                    break;
+                case "--flows":
+                    flowList.clear();
+                    for (String flow : TextUtils.split(value, ",")) {
+                        if (!FLOW_UPDATE.equals(flow) && !FLOW_INSTALL.equals(flow)) return "invalid value for " + arg + ": " + flow;
+                        flowList.add(flow);
+                    }
+                    break;
+                case "--out":
+                    outPath = Paths.get(value);
+                    break;
+                case "--baseline":
+                    baselinePath = Paths.get(value);
+                    break;
+                case "--threshold":
+                case "--wire-threshold":
+                case "--latency-threshold":
+                    double pct;
+                    try {
+                        pct = Double.parseDouble(value);
+                    } catch (NumberFormatException e) {
+                        return "invalid value for " + arg + ": " + value;
+                    }
+                    if (pct < 0) return "invalid value for " + arg + ": " + value;
+                    if (arg.equals("--threshold")) thresholdPct = pct;
+                    else if (arg.equals("--wire-threshold")) wireThresholdPct = pct;
+                    else latencyThresholdPct = pct;
+                    break;
+                default:
+                    return "unknown argument: " + arg;
+            }
+        }
+        if (flowList.isEmpty()) return "--flows can't be empty";
+        return null;
+    }
+
+    /**
+     * "1K,64K,2M" -> [1024, 65536, 2097152]
+     */
+    private static boolean parseList(String value, List<Integer> resultList) {
+        resultList.clear();
+        for (String item : TextUtils.split(value, ",")) {
+            String text = item.trim().toUpperCase(Locale.US);
+            int multiplier = 1;
+            if (text.endsWith("K") || text.endsWith("KB")) multiplier = 1024;
+            else if (text.endsWith("M") || text.endsWith("MB")) multiplier = 1024 * 1024;
+            int number = TextUtils.getNumberInt(text.replaceAll("[KMB]+$", ""), 0);
+            if (number <= 0) return false;
+            resultList.add(number * multiplier);
+        }
+        return !resultList.isEmpty();
+    }
+
+    BenchReport run() throws IOException, InterruptedException {
+        BenchReport report = new BenchReport();
+        report.startTime = System.currentTimeMillis();
+        report.javaVersion = System.getProperty("java.version");
+        report.latencyMs = latencyMs;
+        report.iterations = iterations;
+
+        System.out.println(String.format(Locale.US, "%-22s %8s %8s %8s %12s %12s %6s", "scenario", "p50 ms", "p99 ms", "mean ms", "wire B/op", "alloc B/op", "req/op"));
+        for (String flow : flowList) {
+            for (int size : sizeList) {
+                String source = createSource(size);
+                for (int typeCount : typeList) {
+                    BenchReport.Scenario scenario = runScenario(flow, source, typeCount);
+                    report.scenarios.add(scenario);
+                    System.out.println(String.format(Locale.US, "%-22s %8.1f %8.1f %8.1f %12d %12d %6d%s", scenario.name, scenario.p50Ms,
+                        scenario.p99Ms, scenario.meanMs, scenario.getWireBytesPerOp(), scenario.allocBytesPerOp, scenario.requestsPerOp,
+                        scenario.failed > 0 ? "  FAILED: " + scenario.failed : ""));
+                }
+            }
+        }
+        if (outPath != null) {
+            Path parent = outPath.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.writeString(outPath, GsonHelper.toJson(report), StandardCharsets.UTF_8);
+        }
+        return report;
+    }
+
+    private BenchReport.Scenario runScenario(String flow, String source, int typeCount) throws IOException, InterruptedException {
+        BenchReport.Scenario scenario = new BenchReport.Scenario();
+        scenario.flow = flow;
+        scenario.sourceBytes = source.length();
+        scenario.typeCount = typeCount;
+        scenario.name = flow + "-" + formatSize(source.length()) + "-" + typeCount;
+
+        // new hub (port) per scenario: nothing cached from the previous one
+        StubHub hub = StubHub.start(typeCount, latencyMs);
+        CountingTransport transport = new CountingTransport(new UrlConnectionTransport());
+        HubSession session = HubSession.get(hub.getAddress());
+        session.getNetworkHelper().setTransport(transport);
+        try {
+            for (int i = 0; i < warmup; i++) {
+                deploy(session, flow, source);
+            }
+            transport.reset();
+            long[] timeList = new long[iterations];
+            Map<Long, Long> allocStart = getAllocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                long startNs = System.nanoTime();
+                DeployResult result = deploy(session, flow, source);
+                timeList[i] = System.nanoTime() - startNs;
+                if (result == null || !result.isSuccess()) scenario.failed++;
+            }
+            Map<Long, Long> allocEnd = getAllocatedBytes();
+
+            Arrays.sort(timeList);
+            scenario.p50Ms = toMs(percentile(timeList, 50));
+            scenario.p99Ms = toMs(percentile(timeList, 99));
+            long totalNs = 0;
+            for (long timeNs : timeList) totalNs += timeNs;
+            scenario.meanMs = toMs(totalNs / iterations);
+            scenario.requestsPerOp = transport.getRequestCount() / iterations;
+            scenario.sentBytesPerOp = transport.getSentBytes() / iterations;
+            scenario.receivedBytesPerOp = transport.getReceivedBytes() / iterations;
+            scenario.allocBytesPerOp = allocStart != null && allocEnd != null ? getDelta(allocStart, allocEnd) / iterations : -1;
+        } finally {
+            session.getNetworkHelper().setTransport(null);
+            hub.stop();
+        }
+        return scenario;
+    }
+
+    /**
+     * one deploy through DeployEngine; list cache is dropped first so every deploy does the full lookup
+     */
+    private static DeployResult deploy(HubSession session, String flow, String source) throws InterruptedException {
+        session.invalidate(true);
+        session.invalidate(false);
+        DriverDetails details = new DriverDetails();
+        details.hubIp = session.getHubAddress();
+        details.isApp = false;
+        details.name = FLOW_UPDATE.equals(flow) ? StubHub.TARGET_NAME : INSTALL_NAME;
+        details.namespace = StubHub.TARGET_NAMESPACE;
+        details.text = source;
+        try {
+            return DeployEngine.getInstance().deploy(details, null).get();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * driver source of exactly size bytes
+     */
+    static String createSource(int size) {
+        StringBuilder sb = new StringBuilder(size + 256);
+        sb.append("metadata {\n    definition(name: \"").append(StubHub.TARGET_NAME).append("\", namespace: \"")
+            .append(StubHub.TARGET_NAMESPACE).append("\", author: \"bench\") {\n        capability \"Switch\"\n    }\n}\n\n");
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append("def method").append(i).append("(value) {\n")
+                .append("    log.debug \"method").append(i).append(": ${value}\"\n")
+                .append("    sendEvent(name: \"switch\", value: value ? \"on\" : \"off\")\n}\n\n");
+        }
+        sb.setLength(size);
+        return sb.toString();
+    }
+
+    /**
+     * thread id -> bytes allocated so far, for every thread except the stub hub's
+     *
+     * @return null if the JVM can't measure allocation per thread
+     */
+    private static Map<Long, Long> getAllocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadAllocatedMemorySupported()) return null;
+        if (!threadBean.isThreadAllocatedMemoryEnabled()) threadBean.setThreadAllocatedMemoryEnabled(true);
+        long[] idList = threadBean.getAllThreadIds();
+        ThreadInfo[] infoList = threadBean.getThreadInfo(idList);
+        long[] bytesList = threadBean.getThreadAllocatedBytes(idList);
+        Map<Long, Long> resultMap = new HashMap<>();
+        for (int i = 0; i < idList.length; i++) {
+            if (infoList[i] == null || bytesList[i] < 0 || infoList[i].getThreadName().startsWith(StubHub.THREAD_NAME)) continue;
+            resultMap.put(idList[i], bytesList[i]);
+        }
+        return resultMap;
+    }
+
+    /**
+     * NOTE: threads that ended in between aren't counted
+     */
+    private static long getDelta(Map<Long, Long> startMap, Map<Long, Long> endMap) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : endMap.entrySet()) {
+            total += Math.max(0, entry.getValue() - startMap.getOrDefault(entry.getKey(), 0L));
+        }
+        return total;
+    }
+
+    /**
+     * nearest-rank percentile of a sorted array
+     */
+    static long percentile(long[] sortedList, double pct) {
+        int rank = (int) Math.ceil(pct / 100 * sortedList.length);
+        return sortedList[Math.max(0, Math.min(sortedList.length, rank) - 1)];
+    }
+
+    private static double toMs(long ns) {
+        return Math.round(ns / 100_000.0) / 10.0;
+    }
+
+    private static String formatSize(int bytes) {
+        if (bytes >= 1024 * 1024 && bytes % (1024 * 1024) == 0) return bytes / (1024 * 1024) + "MB";
+        else if (bytes >= 1024 && bytes % 1024 == 0) return bytes / 1024 + "KB";
+        return bytes + "B";
+    }
+
+    /**
+     * @return exit code: 0 = ok (or no baseline), 1 = regression or failed deploys, 2 = baseline can't be compared
+     */
+    private int checkBaseline(BenchReport report) throws IOException {
+        int failed = 0;
+        for (BenchReport.Scenario scenario : report.scenarios) failed += scenario.failed;
+        if (failed > 0) {
+            System.err.println("FAILED: " + failed + " deploys failed");
+            return 1;
+        }
+        if (baselinePath == null) return 0;
+        if (!Files.exists(baselinePath)) {
+            System.err.println("ERROR: no baseline at " + baselinePath + " (save one with --out " + baselinePath + ")");
+            return 2;
+        }
+        BenchReport baseline = GsonHelper.fromJson(Files.readString(baselinePath, StandardCharsets.UTF_8), BenchReport.class);
+        if (baseline == null) {
+            System.err.println("ERROR: unable to read baseline: " + baselinePath);
+            return 2;
+        }
+        if (baseline.latencyMs != report.latencyMs) {
+            System.err.println("ERROR: baseline was recorded with --latency " + baseline.latencyMs + "; this run used " + report.latencyMs);
+            return 2;
+        }
+        // allocation depends on the JIT/GC of the Java version
+        boolean isAllocComparable = TextUtils.equals(getMajorVersion(baseline.javaVersion), getMajorVersion(report.javaVersion));
+        if (!isAllocComparable) {
+            System.err.println("NOTE: baseline was recorded on Java " + baseline.javaVersion + "; allocation not compared");
+        }
+        // report-only unless a latency threshold was given
+        List<String> latencyList = findLatencyChanges(baseline, report, latencyThresholdPct >= 0 ? latencyThresholdPct : DEFAULT_THRESHOLD_PCT);
+        if (latencyThresholdPct < 0) {
+            for (String change : latencyList) System.err.println("NOTE: slower (not gated): " + change);
+            latencyList.clear();
+        }
+        List<String> regressionList = findRegressions(baseline, report, isAllocComparable ? thresholdPct : -1, wireThresholdPct);
+        regressionList.addAll(latencyList);
+        if (regressionList.isEmpty()) {
+            System.err.println("no regressions vs " + baselinePath + " (requests/op, wire: " + wireThresholdPct + "%"
+                + (isAllocComparable ? ", alloc: " + thresholdPct + "%" : "")
+                + (latencyThresholdPct >= 0 ? ", latency: " + latencyThresholdPct + "%" : "") + ")");
+            return 0;
+        }
+        System.err.println("REGRESSIONS vs " + baselinePath + ":");
+        for (String regression : regressionList) System.err.println("  " + regression);
+        return 1;
+    }
+
+    /**
+     * compare the machine-independent metrics of every scenario that's also in the baseline
+     *
+     * @param allocThresholdPct max allocation increase; < 0 to not compare allocation
+     * @return description of each metric that got worse by more than the threshold
+     */
+    static List<String> findRegressions(BenchReport baseline, BenchReport report, double allocThresholdPct, double wireThresholdPct) {
+        List<String> resultList = new ArrayList<>();
+        for (BenchReport.Scenario scenario : report.scenarios) {
+            BenchReport.Scenario base = baseline.find(scenario.name);
+            if (base == null) continue;
+            check(resultList, scenario.name, "wire bytes/op", base.getWireBytesPerOp(), scenario.getWireBytesPerOp(), wireThresholdPct, 0);
+            if (allocThresholdPct >= 0 && base.allocBytesPerOp >= 0 && scenario.allocBytesPerOp >= 0) {
+                check(resultList, scenario.name, "alloc bytes/op", base.allocBytesPerOp, scenario.allocBytesPerOp, allocThresholdPct, MIN_ALLOC_DELTA_BYTES);
+            }
+            if (scenario.requestsPerOp > base.requestsPerOp) {
+                resultList.add(scenario.name + ": requests/op " + base.requestsPerOp + " -> " + scenario.requestsPerOp);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * @return p50/p99 latencies that got worse by more than thresholdPct
+     */
+    static List<String> findLatencyChanges(BenchReport baseline, BenchReport report, double thresholdPct) {
+        List<String> resultList = new ArrayList<>();
+        for (BenchReport.Scenario scenario : report.scenarios) {
+            BenchReport.Scenario base = baseline.find(scenario.name);
+            if (base == null) continue;
+            check(resultList, scenario.name, "p50 ms", base.p50Ms, scenario.p50Ms, thresholdPct, MIN_LATENCY_DELTA_MS);
+            check(resultList, scenario.name, "p99 ms", base.p99Ms, scenario.p99Ms, thresholdPct, MIN_LATENCY_DELTA_MS);
+        }
+        return resultList;
+    }
+
+    /**
+     * "17.0.9" -> "17"; "1.8.0_392" -> "1.8"
+     */
+    private static String getMajorVersion(String javaVersion) {
+        if (javaVersion == null) return null;
+        String[] parts = javaVersion.split("\\.");
+        return parts[0].equals("1") && parts.length > 1 ? "1." + parts[1] : parts[0];
+    }
+
+    private static void check(List<String> resultList, String name, String metric, double base, double value, double thresholdPct, double minDelta) {
+        if (value - base <= minDelta || value <= base * (1 + thresholdPct / 100)) return;
+        String change = base > 0 ? String.format(Locale.US, " (+%.0f%%)", (value - base) * 100 / base) : "";
+        resultList.add(String.format(Locale.US, "%s: %s %.1f -> %.1f%s", name, metric, base, value, change));
+    }
+}
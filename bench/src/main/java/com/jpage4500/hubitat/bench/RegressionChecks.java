@@ -0,0 +1,475 @@
+package com.jpage4500.hubitat.bench;
+
+import com.jpage4500.hubitat.engine.DeployEngine;
+import com.jpage4500.hubitat.engine.DeployEvent;
+import com.jpage4500.hubitat.engine.DeployHistory;
+import com.jpage4500.hubitat.engine.DeployOutbox;
+import com.jpage4500.hubitat.engine.DeployResult;
+import com.jpage4500.hubitat.engine.HubInventory;
+import com.jpage4500.hubitat.engine.HubSourceCheck;
+import com.jpage4500.hubitat.engine.SourceIndex;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.utils.ConcurrencyLimiter;
+import com.jpage4500.hubitat.utils.DeployQueue;
+import com.jpage4500.hubitat.utils.HttpCapture;
+import com.jpage4500.hubitat.utils.HttpTransport;
+import com.jpage4500.hubitat.utils.HubAddressResolver;
+import com.jpage4500.hubitat.utils.HubEndpoint;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.utils.RecordingTransport;
+import com.jpage4500.hubitat.utils.ReplayTransport;
+import com.jpage4500.hubitat.utils.UrlConnectionTransport;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Regression checks for engine behavior that's easy to break and hard to notice in the IDE
+ * <pre>
+ * java -cp ... RegressionChecks
+ * </pre>
+ * - each check prints PASS/FAIL; exit code is 1 if any check failed
+ * - hub traffic goes to an in-process StubHub
+ */
+public class RegressionChecks {
+    private int passed;
+    private final List<String> failList = new ArrayList<>();
+
+    public static void main(String[] args) {
+        RegressionChecks checks = new RegressionChecks();
+        try {
+            checks.checkInventory();
+            checks.checkSourceSearch();
+            checks.checkDeployQueue();
+            checks.checkOutbox();
+            checks.checkSourceCheck();
+            checks.checkReplay();
+            checks.checkHistory();
+            checks.checkInstallHistory();
+            checks.checkLegacyHistory();
+            checks.checkHubAddress();
+            checks.checkLimiter();
+        } catch (Exception e) {
+            System.err.println("ERROR: " + e);
+            e.printStackTrace();
+            System.exit(2);
+            return;
+        }
+        System.out.println(checks.passed + " passed, " + checks.failList.size() + " failed");
+        for (String fail : checks.failList) System.err.println("  FAILED: " + fail);
+        System.exit(checks.failList.isEmpty() ? 0 : 1);
+    }
+
+    private void check(String name, boolean isOk, Object detail) {
+        if (isOk) {
+            passed++;
+            System.out.println("PASS " + name);
+        } else {
+            failList.add(name + " (" + detail + ")");
+            System.out.println("FAIL " + name + ": " + detail);
+        }
+    }
+
+    /**
+     * HubInventory is shared by every project on a hub; each tool window table has to end up with the full list,
+     * including a table created after another one already consumed refresh()'s diff
+     */
+    private void checkInventory() throws Exception {
+        StubHub stubHub = StubHub.start(10, 0);
+        try {
+            HubInventory inventory = HubInventory.get(stubHub.getAddress());
+            // 1st project's table
+            List<HubInventory.Item> tableA = new ArrayList<>();
+            inventory.refresh();
+            apply(tableA, HubInventory.diff(tableA, inventory.getItems()));
+            check("inventory: first table has all apps + drivers", tableA.size() == 20, tableA.size());
+
+            // 2nd project opens on the same hub: its first refresh() diff is empty
+            List<HubInventory.Item> tableB = new ArrayList<>();
+            HubInventory.Diff refreshDiff = inventory.refresh();
+            check("inventory: shared refresh() diff is empty for 2nd table", refreshDiff.isEmpty(), refreshDiff);
+            apply(tableB, HubInventory.diff(tableB, inventory.getItems()));
+            check("inventory: second table starts out complete", tableB.size() == 20, tableB.size());
+
+            // hub changes; table A's refresh consumes the change, then table B syncs
+            stubHub.setTypeCount(12);
+            inventory.refresh();
+            apply(tableA, HubInventory.diff(tableA, inventory.getItems()));
+            HubInventory.Diff diffB = HubInventory.diff(tableB, inventory.getItems());
+            check("inventory: second table sees change consumed by first", diffB.added.size() == 4 && diffB.removed.isEmpty(), diffB);
+            apply(tableB, diffB);
+            check("inventory: both tables match hub", tableA.size() == 24 && keys(tableA).equals(keys(tableB)),
+                tableA.size() + " / " + tableB.size());
+        } finally {
+            stubHub.stop();
+        }
+    }
+
+    /**
+     * regex search must find every matching source; the trigram prefilter may only require text that every match
+     * contains (not text in optional groups or group syntax like "(?:")
+     */
+    private void checkSourceSearch() throws Exception {
+        // ids 1, 2, 3 + TARGET_ID
+        StubHub stubHub = StubHub.start(4, 0);
+        stubHub.setSource(1, "def bar() {\n}");
+        stubHub.setSource(2, "log.debug 'xyz'");
+        stubHub.setSource(3, "def zzz = 1");
+        stubHub.setSource(StubHub.TARGET_ID, "def foobar() {\n    runIn(60, 'abc')\n}");
+        try {
+            SourceIndex index = SourceIndex.get(stubHub.getAddress(), Files.createTempDirectory("hubitat-checks"));
+            SourceIndex.RefreshResult result = index.refresh();
+            check("search: index refreshed", result.error == null && result.failed == 0 && index.getDocCount() == 8,
+                result.error + ", failed:" + result.failed + ", docs:" + index.getDocCount());
+
+            checkSearch(index, "(foo)?bar", 1, StubHub.TARGET_ID);
+            checkSearch(index, "(runIn)*xyz", 2);
+            checkSearch(index, "(?:abc){0}zz", 3);
+            checkSearch(index, "(?:runIn)\\(", StubHub.TARGET_ID);
+            checkSearch(index, "(?<name>foo)bar", StubHub.TARGET_ID);
+            checkSearch(index, "(?i)RUNIN\\(", StubHub.TARGET_ID);
+            checkSearch(index, "(?=def)\\w+ zz", 3);
+            checkSearch(index, "((foo)?ba)+r\\(", 1, StubHub.TARGET_ID);
+            checkSearch(index, "(foo)?nothere");
+        } finally {
+            stubHub.stop();
+        }
+    }
+
+    private void checkSearch(SourceIndex index, String regex, Integer... expectedIds) {
+        Set<Integer> foundSet = new TreeSet<>();
+        for (SourceIndex.Match match : index.search(regex, true, 100)) foundSet.add(match.doc.id);
+        Set<Integer> expectedSet = new TreeSet<>(Arrays.asList(expectedIds));
+        check("search: " + regex, foundSet.equals(expectedSet), "expected " + expectedSet + ", found " + foundSet);
+    }
+
+    /**
+     * deploys of the same app/driver share a queue slot whether or not the caller already knew its id
+     */
+    private void checkDeployQueue() throws Exception {
+        StubHub stubHub = StubHub.start(10, 200);
+        try {
+            DeployEngine engine = DeployEngine.getInstance();
+            List<DeployEvent.Type> eventListB = new CopyOnWriteArrayList<>();
+            List<DeployEvent.Type> eventListC = new CopyOnWriteArrayList<>();
+            // A: id not known (lookup); B: id known; C: id not known
+            CompletableFuture<DeployResult> futureA = engine.deploy(newTargetDetails(stubHub, null, "// A"), null);
+            CompletableFuture<DeployResult> futureB = engine.deploy(newTargetDetails(stubHub, StubHub.TARGET_ID, "// B"), event -> eventListB.add(event.type));
+            CompletableFuture<DeployResult> futureC = engine.deploy(newTargetDetails(stubHub, null, "// C"), event -> eventListC.add(event.type));
+            DeployResult resultA = futureA.get();
+            DeployResult resultB = futureB.get();
+            DeployResult resultC = futureC.get();
+            check("queue: id/no-id deploys of the same target are serialized", eventListB.contains(DeployEvent.Type.QUEUED), eventListB);
+            check("queue: older queued deploy superseded", resultB.status == DeployResult.Status.SUPERSEDED, resultB.status);
+            check("queue: first and latest deploy went out", resultA.status == DeployResult.Status.UPDATED && resultC.status == DeployResult.Status.UPDATED,
+                resultA.status + " / " + resultC.status);
+        } finally {
+            stubHub.stop();
+        }
+    }
+
+    /**
+     * flushing while the hub is still offline keeps the pending deploy (engine reports OUTBOX again)
+     */
+    private void checkOutbox() throws Exception {
+        DeployOutbox outbox = DeployOutbox.get(Files.createTempDirectory("hubitat-checks"));
+        DeployEngine engine = new DeployEngine(DeployQueue.getInstance());
+        engine.setOutbox(outbox);
+        List<DeployResult> flushedList = new CopyOnWriteArrayList<>();
+        outbox.start(engine, (entry, result) -> flushedList.add(result));
+
+        DriverDetails details = new DriverDetails();
+        // nothing listens on port 1
+        details.hubIp = "127.0.0.1:1";
+        details.isApp = false;
+        details.appId = StubHub.TARGET_ID;
+        details.name = StubHub.TARGET_NAME;
+        details.namespace = StubHub.TARGET_NAMESPACE;
+        details.text = "// offline";
+        DeployResult result = engine.deploy(details, null).get();
+        check("outbox: offline deploy kept", result.status == DeployResult.Status.OUTBOX && outbox.size() == 1, result.status + ", pending=" + outbox.size());
+
+        outbox.flushAsync().get();
+        check("outbox: flush to offline hub keeps entry", outbox.size() == 1, "pending=" + outbox.size());
+        check("outbox: flush to offline hub not reported", flushedList.isEmpty(), flushedList.isEmpty() ? "" : flushedList.get(0).status);
+    }
+
+    /**
+     * our own deploy isn't reported as a hub-side change by the next check (app/driver list still cached)
+     */
+    private void checkSourceCheck() throws Exception {
+        StubHub stubHub = StubHub.start(10, 0);
+        DeployHistory history = DeployHistory.get(Files.createTempDirectory("hubitat-checks"));
+        DeployEngine engine = DeployEngine.getInstance();
+        engine.setHistory(history);
+        try {
+            HubSourceCheck sourceCheck = HubSourceCheck.getInstance();
+            DeployResult result = engine.deploy(newTargetDetails(stubHub, StubHub.TARGET_ID, "// v1"), null).get();
+            check("source check: deploy v1", result.status == DeployResult.Status.UPDATED, result.status);
+            HubSourceCheck.Result checkResult = sourceCheck.check(newTargetDetails(stubHub, StubHub.TARGET_ID, "// v2"), history);
+            check("source check: hub has last deploy", checkResult.status == HubSourceCheck.Status.DEPLOYED, checkResult.status);
+
+            result = engine.deploy(newTargetDetails(stubHub, StubHub.TARGET_ID, "// v2"), null).get();
+            check("source check: deploy v2", result.status == DeployResult.Status.UPDATED, result.status);
+            checkResult = sourceCheck.check(newTargetDetails(stubHub, StubHub.TARGET_ID, "// v3"), history);
+            check("source check: own deploy is not a hub change", checkResult.status == HubSourceCheck.Status.DEPLOYED, checkResult.status);
+
+            DriverDetails newDetails = newTargetDetails(stubHub, null, "// new");
+            newDetails.name = "Checks Not Installed";
+            checkResult = sourceCheck.check(newDetails, history);
+            check("source check: not on hub", checkResult.status == HubSourceCheck.Status.NOT_FOUND, checkResult.status);
+            DriverDetails offlineDetails = newTargetDetails(stubHub, null, "// offline");
+            offlineDetails.hubIp = "127.0.0.1:1";
+            checkResult = sourceCheck.check(offlineDetails, history);
+            check("source check: hub not reachable", checkResult.status == HubSourceCheck.Status.UNKNOWN, checkResult.status);
+        } finally {
+            engine.setHistory(null);
+            stubHub.stop();
+        }
+    }
+
+    /**
+     * lookup + update and install recorded against StubHub replay (stub stopped) to the same results and requests
+     */
+    private void checkReplay() throws Exception {
+        StubHub stubHub = StubHub.start(10, 0);
+        Path captureFile = Files.createTempDirectory("hubitat-checks").resolve("deploy.hcap");
+        String recordHub = stubHub.getAddress();
+        List<String> recordRequestList = new CopyOnWriteArrayList<>();
+        List<DeployResult> recordResultList;
+        try (HttpCapture.Writer writer = HttpCapture.create(captureFile)) {
+            HttpTransport transport = new RecordingTransport(new UrlConnectionTransport(), writer);
+            HubSession.get(recordHub).getNetworkHelper().setTransport(logRequests(transport, recordRequestList));
+            recordResultList = deployLookupAndInstall(recordHub);
+        } finally {
+            stubHub.stop();
+        }
+
+        // different (unused) address: nothing cached in its HubSession
+        String replayHub = "127.0.0.2:" + recordHub.substring(recordHub.lastIndexOf(':') + 1);
+        List<String> replayRequestList = new CopyOnWriteArrayList<>();
+        HttpTransport transport = ReplayTransport.load(captureFile, 0);
+        HubSession.get(replayHub).getNetworkHelper().setTransport(logRequests(transport, replayRequestList));
+        List<DeployResult> replayResultList = deployLookupAndInstall(replayHub);
+
+        for (int i = 0; i < recordResultList.size(); i++) {
+            DeployResult recorded = recordResultList.get(i);
+            DeployResult replayed = replayResultList.get(i);
+            check("replay: deploy " + i + " recorded", recorded.isSuccess(), recorded.status + ": " + recorded.message);
+            check("replay: deploy " + i + " same result", recorded.status == replayed.status && Objects.equals(recorded.appId, replayed.appId)
+                && recorded.httpStatus == replayed.httpStatus, recorded.status + "/" + recorded.appId + " vs " + replayed.status + "/" + replayed.appId);
+        }
+        check("replay: same request sequence", !recordRequestList.isEmpty() && recordRequestList.equals(replayRequestList), recordRequestList + " vs " + replayRequestList);
+    }
+
+    /**
+     * deploy StubHub's target without an id (lookupAppId -> updateApp), then a new driver (installApp)
+     */
+    private static List<DeployResult> deployLookupAndInstall(String hub) throws Exception {
+        DeployEngine engine = DeployEngine.getInstance();
+        DriverDetails details = new DriverDetails();
+        details.hubIp = hub;
+        details.isApp = false;
+        details.name = StubHub.TARGET_NAME;
+        details.namespace = StubHub.TARGET_NAMESPACE;
+        details.text = "// replay update";
+        DeployResult updateResult = engine.deploy(details, null).get();
+
+        DriverDetails newDetails = new DriverDetails();
+        newDetails.hubIp = hub;
+        newDetails.isApp = false;
+        newDetails.name = "Checks Replay";
+        newDetails.namespace = StubHub.TARGET_NAMESPACE;
+        newDetails.text = "// replay install";
+        DeployResult installResult = engine.deploy(newDetails, null).get();
+        return List.of(updateResult, installResult);
+    }
+
+    /**
+     * @return transport that adds "METHOD /path?query" of every request to requestList
+     */
+    private static HttpTransport logRequests(HttpTransport delegate, List<String> requestList) {
+        return request -> {
+            URI uri = URI.create(request.url);
+            requestList.add(request.method + " " + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+            return delegate.execute(request);
+        };
+    }
+
+    private static DriverDetails newTargetDetails(StubHub stubHub, Integer appId, String text) {
+        DriverDetails details = new DriverDetails();
+        details.hubIp = stubHub.getAddress();
+        details.isApp = false;
+        details.appId = appId;
+        details.name = StubHub.TARGET_NAME;
+        details.namespace = StubHub.TARGET_NAMESPACE;
+        details.text = text;
+        return details;
+    }
+
+    /**
+     * trimming to MAX_VERSIONS_PER_TARGET releases blobs; history.json is written once per burst
+     */
+    private void checkHistory() throws Exception {
+        Path dir = Files.createTempDirectory("hubitat-checks");
+        DeployHistory history = DeployHistory.get(dir);
+        int count = DeployHistory.MAX_VERSIONS_PER_TARGET + 20;
+        for (int i = 0; i < count; i++) history.record(newDetails(1, "// version " + i));
+        // one more target sharing a source with a version about to be trimmed
+        history.record(newDetails(2, "// version 20"));
+        history.record(newDetails(1, "// version " + count));
+
+        String target = DeployHistory.target("hub", false, 1, null, null);
+        List<DeployHistory.Version> versionList = history.getVersions(target);
+        check("history: versions trimmed", versionList.size() == DeployHistory.MAX_VERSIONS_PER_TARGET, versionList.size());
+        long blobCount;
+        long blobBytes = 0;
+        try (Stream<Path> stream = Files.list(dir.resolve("blobs"))) {
+            List<Path> blobList = stream.toList();
+            blobCount = blobList.size();
+            for (Path blob : blobList) blobBytes += Files.size(blob);
+        }
+        // 100 of target 1 + "version 20" (still used by target 2)
+        check("history: trimmed blobs deleted", blobCount == DeployHistory.MAX_VERSIONS_PER_TARGET + 1, blobCount);
+        check("history: trimmed blobs uncounted", history.getTotalBytes() == blobBytes, history.getTotalBytes() + " != " + blobBytes);
+        check("history: shared blob kept", "// version 20".equals(history.getText(history.getVersions(DeployHistory.target("hub", false, 2, null, null)).get(0))), "missing");
+
+        Path indexFile = dir.resolve("history.json");
+        check("history: save is deferred", !Files.exists(indexFile), "written on record()");
+        history.flush();
+        check("history: flush() saves", Files.exists(indexFile), "not written");
+    }
+
+    /**
+     * install (id not known yet) and the following update end up in the same id target
+     */
+    private void checkInstallHistory() throws Exception {
+        StubHub stubHub = StubHub.start(10, 0);
+        DeployHistory history = DeployHistory.get(Files.createTempDirectory("hubitat-checks"));
+        DeployEngine engine = DeployEngine.getInstance();
+        engine.setHistory(history);
+        try {
+            DriverDetails details = new DriverDetails();
+            details.hubIp = stubHub.getAddress();
+            details.isApp = false;
+            details.name = "Checks Install";
+            details.namespace = StubHub.TARGET_NAMESPACE;
+            details.text = "// installed";
+            DeployResult result = engine.deploy(details, null).get();
+            check("history: install succeeded", result.status == DeployResult.Status.INSTALLED, result.status + ": " + result.message);
+            int newId = StubHub.TARGET_ID + 1;
+            check("history: install returns new id", Objects.equals(result.appId, newId), result.appId);
+
+            details.text = "// updated";
+            details.appId = newId;
+            result = engine.deploy(details, null).get();
+            check("history: update succeeded", result.status == DeployResult.Status.UPDATED, result.status + ": " + result.message);
+
+            String idTarget = DeployHistory.target(details.hubIp, false, newId, null, null);
+            DeployHistory.Version previous = history.getPrevious(idTarget);
+            check("history: previous of update is the install", previous != null && "// installed".equals(history.getText(previous)),
+                history.getVersions(idTarget).size() + " versions");
+            String nameTarget = DeployHistory.target(details.hubIp, false, null, details.namespace, details.name);
+            check("history: nothing under namespace:name", history.getVersions(nameTarget).isEmpty(), history.getVersions(nameTarget).size());
+        } finally {
+            engine.setHistory(null);
+            stubHub.stop();
+        }
+    }
+
+    /**
+     * history saved with install under namespace:name and later deploys under id is merged on load
+     */
+    private void checkLegacyHistory() throws Exception {
+        Path dir = Files.createTempDirectory("hubitat-checks");
+        String json = "{\"targets\":{"
+            + "\"hub/driver/ns:Legacy\":[{\"target\":\"hub/driver/ns:Legacy\",\"hub\":\"hub\",\"is_app\":false,\"name\":\"Legacy\",\"namespace\":\"ns\",\"hash\":\"a\",\"time_ms\":1000,\"length\":1}],"
+            + "\"hub/driver/7\":[{\"target\":\"hub/driver/7\",\"hub\":\"hub\",\"is_app\":false,\"app_id\":7,\"name\":\"Legacy\",\"namespace\":\"ns\",\"hash\":\"b\",\"time_ms\":2000,\"length\":1}]"
+            + "},\"blobs\":{\"a\":{\"size\":1,\"last_used_ms\":1000},\"b\":{\"size\":1,\"last_used_ms\":2000}}}";
+        Files.writeString(dir.resolve("history.json"), json, StandardCharsets.UTF_8);
+        DeployHistory history = DeployHistory.get(dir);
+        DeployHistory.Version previous = history.getPrevious("hub/driver/7");
+        check("history: legacy install merged into id target", previous != null && "a".equals(previous.hash) && Objects.equals(previous.appId, 7),
+            history.getVersions("hub/driver/7").size() + " versions");
+        check("history: legacy namespace:name target dropped", history.getVersions("hub/driver/ns:Legacy").isEmpty(), "still there");
+    }
+
+    /**
+     * hub address validation: numeric names that aren't IPv4 are rejected; IPv6 only in brackets
+     */
+    private void checkHubAddress() {
+        for (String address : List.of("192.168.1.10", "192.168.1.10:8080", "hubitat.local", "hub-1.example.com:80", "[::1]", "[fe80::1]:8080")) {
+            check("address: valid " + address, HubAddressResolver.isValidHubAddress(address), "rejected");
+        }
+        for (String address : List.of("999.1.1.1", "1.2.3", "12345", "192.168.1.10:0", "192.168.1.10:99999", "hub:-1",
+            "fe80::1", "fe80::1:8080", "[fe80::1", "[fe80::1]x", "[hubitat]:80", "[::1]:")) {
+            check("address: invalid " + address, !HubAddressResolver.isValidHubAddress(address), "accepted");
+        }
+        // refused connection: no lookup per request while the hub stays offline
+        String offlineHub = "127.0.0.1:2";
+        CompletableFuture<HubEndpoint> resolveFuture = HubAddressResolver.resolveAsync(offlineHub);
+        NetworkHelper.HttpResponse response = HubSession.get(offlineHub).getRequest("/hub2/userDeviceTypes", null);
+        check("address: refused connection is a connect error", response.status == -1 && response.isConnectError, response.status + ": " + response.body);
+        check("address: recent lookup kept after connect error", HubAddressResolver.resolveAsync(offlineHub) == resolveFuture, "looked up again");
+
+        HubEndpoint endpoint = HubAddressResolver.resolve("[::1]:8080");
+        check("address: [v6]:port resolves with port", endpoint != null && endpoint.port == 8080
+            && "[::1]:8080".equals(endpoint.getAuthority()) && endpoint.getBaseUrl().endsWith(":8080"), endpoint);
+    }
+
+    /**
+     * a long upload/download (released without a latency sample) doesn't shrink the limit for everything else
+     */
+    private void checkLimiter() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(1, TimeUnit.SECONDS);
+            limiter.release(20, false);
+        }
+        ConcurrencyLimiter.Stats before = limiter.getStats();
+        limiter.acquire(1, TimeUnit.SECONDS);
+        limiter.release(false);
+        ConcurrencyLimiter.Stats after = limiter.getStats();
+        check("limiter: transfer doesn't change latency", after.latencyMs == before.latencyMs && after.baselineMs == before.baselineMs, after);
+        check("limiter: transfer doesn't lower limit", after.limit == before.limit && after.inFlight == 0, after);
+    }
+
+    private static DriverDetails newDetails(int appId, String text) {
+        DriverDetails details = new DriverDetails();
+        details.hubIp = "hub";
+        details.isApp = false;
+        details.appId = appId;
+        details.name = "Driver " + appId;
+        details.namespace = "ns";
+        details.text = text;
+        return details;
+    }
+
+    /**
+     * same as InventoryTableModel.applyDiff()
+     */
+    private static void apply(List<HubInventory.Item> itemList, HubInventory.Diff diff) {
+        Set<String> removedKeys = keys(diff.removed);
+        itemList.removeIf(item -> removedKeys.contains(item.getKey()));
+        for (HubInventory.Item item : diff.changed) {
+            for (int i = 0; i < itemList.size(); i++) {
+                if (itemList.get(i).getKey().equals(item.getKey())) itemList.set(i, item);
+            }
+        }
+        itemList.addAll(diff.added);
+    }
+
+    private static Set<String> keys(List<HubInventory.Item> itemList) {
+        Set<String> keySet = new HashSet<>();
+        for (HubInventory.Item item : itemList) keySet.add(item.getKey());
+        return keySet;
+    }
+}
@@ -0,0 +1,202 @@
+package com.jpage4500.hubitat.bench;
+
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measure what EngineStartup.start() (run on every project open) costs and fail if it's over budget
+ * <pre>
+ * java -cp ... StartupBudget [--max-ms 100] [--max-classes 16] [--max-heap-kb 128]
+ * </pre>
+ * - engine and Gson classes are loaded by a fresh class loader, so they start out unloaded (like a new IDE session)
+ * - reports time, classes loaded, retained heap and threads started
+ * - classes that must wait for first use (Gson, NetworkHelper/HubSession, regex-heavy parsers) fail the budget
+ *   if startup loads them
+ * - exit code is 1 if over budget
+ */
+public class StartupBudget {
+    private static final long DEFAULT_MAX_MS = 100;
+    private static final int DEFAULT_MAX_CLASSES = 16;
+    private static final long DEFAULT_MAX_HEAP_KB = 128;
+
+    private static final String STARTUP_CLASS = "com.jpage4500.hubitat.engine.EngineStartup";
+    private static final String LISTENER_CLASS = "com.jpage4500.hubitat.engine.DeployOutbox$Listener";
+    // plugin threads are named hubitat-*
+    private static final String THREAD_PREFIX = "hubitat-";
+
+    // must not be loaded until something actually needs them
+    private static final List<String> LAZY_CLASSES = List.of(
+        "com.google.gson.Gson",
+        "com.jpage4500.hubitat.utils.GsonHelper",
+        "com.jpage4500.hubitat.utils.NetworkHelper",
+        "com.jpage4500.hubitat.utils.HubSession",
+        "com.jpage4500.hubitat.engine.SourceParser",
+        "com.jpage4500.hubitat.engine.SourceLint",
+        "com.jpage4500.hubitat.engine.HubInventory"
+    );
+
+    private long maxMs = DEFAULT_MAX_MS;
+    private int maxClasses = DEFAULT_MAX_CLASSES;
+    private long maxHeapKb = DEFAULT_MAX_HEAP_KB;
+
+    /**
+     * loads engine/Gson classes itself (child-first) and remembers which ones were loaded
+     */
+    private static class IsolatedLoader extends URLClassLoader {
+        private final Set<String> loadedSet = ConcurrentHashMap.newKeySet();
+
+        IsolatedLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith("com.jpage4500.") && !name.startsWith("com.google.gson.")) return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                if (loadedClass == null) {
+                    loadedClass = findClass(name);
+                    loadedSet.add(name);
+                }
+                if (resolve) resolveClass(loadedClass);
+                return loadedClass;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        StartupBudget budget = new StartupBudget();
+        String error = budget.parseArgs(args);
+        if (error != null) {
+            System.err.println(error);
+            System.err.println("usage: StartupBudget [--max-ms N] [--max-classes N] [--max-heap-kb N]");
+            System.exit(2);
+            return;
+        }
+        try {
+            System.exit(budget.run() ? 0 : 1);
+        } catch (Exception e) {
+            System.err.println("ERROR: " + e);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @return error message or null if args are valid
+     */
+    private String parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--max-")) return "unknown argument: " + arg;
+            String value = (i + 1 < args.length) ? args[i + 1] : null;
+            int number = TextUtils.getNumberInt(value, -1);
+            if (number < 0) return "invalid value for " + arg + ": " + value;
+            i++;
+            switch (arg) {
+                case "--max-ms":
+                    maxMs = number;
+                    break;
+                case "--max-classes":
+                    maxClasses = number;
+                    break;
+                case "--max-heap-kb":
+                    maxHeapKb = number;
+                    break;
+                default:
+                    return "unknown argument: " + arg;
+            }
+        }
+        return null;
+    }
+
+    private boolean run() throws Exception {
+        List<URL> urlList = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urlList.add(new File(entry).toURI().toURL());
+        }
+        Path baseDir = Files.createTempDirectory("hubitat-startup");
+        Path traceDir = baseDir.resolve("trace");
+        // the IDE has logging up and running before any plugin code
+        LoggerFactory.getLogger(StartupBudget.class);
+
+        ClassLoadingMXBean classBean = ManagementFactory.getClassLoadingMXBean();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        try (IsolatedLoader loader = new IsolatedLoader(urlList.toArray(new URL[0]), StartupBudget.class.getClassLoader())) {
+            Set<String> threadsBefore = getThreadNames();
+            long heapBefore = getUsedHeap(memoryBean);
+            long classesBefore = classBean.getTotalLoadedClassCount();
+
+            long startNs = System.nanoTime();
+            Class<?> startupClass = Class.forName(STARTUP_CLASS, true, loader);
+            Method startMethod = startupClass.getMethod("start", Path.class, Path.class, loader.loadClass(LISTENER_CLASS));
+            startMethod.invoke(null, baseDir, traceDir, null);
+            long elapsedMs = (System.nanoTime() - startNs) / 1_000_000;
+
+            long jvmClasses = classBean.getTotalLoadedClassCount() - classesBefore;
+            // startupClass keeps loader (and every static it created) reachable
+            long heapKb = (getUsedHeap(memoryBean) - heapBefore) / 1024;
+            Set<String> newThreads = getThreadNames();
+            newThreads.removeAll(threadsBefore);
+            newThreads.removeIf(name -> !name.startsWith(THREAD_PREFIX));
+            Objects.requireNonNull(startupClass);
+
+            List<String> failList = new ArrayList<>();
+            System.out.println("startup time:     " + elapsedMs + " ms (max " + maxMs + ")");
+            if (elapsedMs > maxMs) failList.add("startup took " + elapsedMs + " ms");
+            System.out.println("plugin classes:   " + loader.loadedSet.size() + " (max " + maxClasses + "); JVM total: " + jvmClasses);
+            if (loader.loadedSet.size() > maxClasses) failList.add(loader.loadedSet.size() + " plugin classes loaded");
+            System.out.println("retained heap:    " + heapKb + " KB (max " + maxHeapKb + ")");
+            if (heapKb > maxHeapKb) failList.add("retained " + heapKb + " KB");
+            System.out.println("threads started:  " + newThreads);
+            if (!newThreads.isEmpty()) failList.add("started threads " + newThreads);
+            if (Files.exists(traceDir)) failList.add("created trace directory before any request");
+            for (String className : LAZY_CLASSES) {
+                if (loader.loadedSet.contains(className)) failList.add("loaded " + className + " (should wait for first use)");
+            }
+
+            if (failList.isEmpty()) {
+                System.out.println("startup budget: OK");
+                return true;
+            }
+            List<String> classList = new ArrayList<>(loader.loadedSet);
+            Collections.sort(classList);
+            System.err.println("classes loaded: " + classList);
+            System.err.println("startup budget: FAILED");
+            for (String fail : failList) System.err.println("  " + fail);
+            return false;
+        }
+    }
+
+    /**
+     * used heap after GC
+     * NOTE: a single System.gc() can leave MBs behind; repeat until it stops shrinking
+     */
+    private static long getUsedHeap(MemoryMXBean memoryBean) {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = memoryBean.getHeapMemoryUsage().getUsed();
+            if (now >= used - 1024) return Math.min(now, used);
+            used = now;
+        }
+        return used;
+    }
+
+    private static Set<String> getThreadNames() {
+        Set<String> nameSet = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) nameSet.add(thread.getName());
+        return nameSet;
+    }
+}
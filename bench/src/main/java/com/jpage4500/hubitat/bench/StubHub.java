@@ -0,0 +1,201 @@
+package com.jpage4500.hubitat.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process fake hub with just the endpoints a deploy uses
+ * - GET /hub2/userAppTypes, /hub2/userDeviceTypes: typeCount entries; the last one is "Bench Target" (worst case
+ *   for a lookup by name)
+ * - GET /app/create, /driver/create; POST /app/saveOrUpdateJson, /driver/saveOrUpdateJson (install)
+ * - POST /app/ideUpdate, /device/ideUpdate (update; body becomes the source for that id)
+ * - GET /app/ajax/code, /driver/ajax/code: source set by setSource() (or a one-line comment)
+ * - every response is delayed by latencyMs; lists are gzipped when the client accepts it (like the hub)
+ * NOTE: server threads are named THREAD_NAME so the benchmark can leave them out of allocation totals
+ */
+public class StubHub {
+    public static final String THREAD_NAME = "stub-hub";
+    public static final String TARGET_NAME = "Bench Target";
+    public static final String TARGET_NAMESPACE = "bench";
+    public static final int TARGET_ID = 1_000_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    // replaced together by setTypeCount()
+    private volatile byte[] listJson;
+    private volatile byte[] listGzip;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    // app/driver id -> source
+    private final Map<Integer, String> sourceMap = new ConcurrentHashMap<>();
+
+    private StubHub(HttpServer server, int typeCount, long latencyMs) throws IOException {
+        this.server = server;
+        this.latencyMs = latencyMs;
+        this.listJson = createTypeList(typeCount);
+        this.listGzip = gzip(listJson);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, THREAD_NAME + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * start stub on a free local port
+     */
+    public static StubHub start(int typeCount, long latencyMs) throws IOException {
+        // headers and body are written separately; without this, Nagle + delayed ACK add ~40ms to small responses
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        StubHub hub = new StubHub(server, typeCount, latencyMs);
+        server.start();
+        return hub;
+    }
+
+    /**
+     * @return address to deploy to (ie: "127.0.0.1:51234")
+     */
+    public String getAddress() {
+        InetSocketAddress address = server.getAddress();
+        return address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    /**
+     * change what the app/driver lists return from now on (ie: apps/drivers added or removed on the hub)
+     */
+    public void setTypeCount(int typeCount) throws IOException {
+        byte[] json = createTypeList(typeCount);
+        byte[] gzip = gzip(json);
+        listJson = json;
+        listGzip = gzip;
+    }
+
+    /**
+     * source returned for app/driver id
+     */
+    public void setSource(int id, String source) {
+        sourceMap.put(id, source);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            // read the whole upload, like the hub does before answering
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            if (latencyMs > 0) Thread.sleep(latencyMs);
+
+            String path = exchange.getRequestURI().getPath();
+            switch (path) {
+                case "/hub2/userAppTypes":
+                case "/hub2/userDeviceTypes":
+                    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                    boolean isGzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+                    byte[] json = listJson;
+                    byte[] gzip = listGzip;
+                    if (isGzip) exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                    send(exchange, 200, "application/json", isGzip ? gzip : json);
+                    break;
+                case "/app/create":
+                case "/driver/create":
+                    send(exchange, 200, "text/html", "<html><body>editor</body></html>".getBytes(StandardCharsets.UTF_8));
+                    break;
+                case "/app/ajax/code":
+                case "/driver/ajax/code":
+                    // ?id=885
+                    String query = exchange.getRequestURI().getQuery();
+                    int id = query != null && query.startsWith("id=") ? Integer.parseInt(query.substring(3)) : 0;
+                    String source = sourceMap.getOrDefault(id, "// source " + id);
+                    send(exchange, 200, "application/json", ("{\"id\":" + id + ",\"version\":1,\"status\":\"success\",\"source\":\""
+                        + source.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"}").getBytes(StandardCharsets.UTF_8));
+                    break;
+                case "/app/saveOrUpdateJson":
+                case "/driver/saveOrUpdateJson":
+                    send(exchange, 200, "application/json", ("{\"success\":true,\"message\":\"\",\"id\":" + (TARGET_ID + 1) + ",\"version\":1}").getBytes(StandardCharsets.UTF_8));
+                    break;
+                case "/app/ideUpdate":
+                case "/device/ideUpdate":
+                    // ?id=885
+                    String updateQuery = exchange.getRequestURI().getQuery();
+                    if (updateQuery != null && updateQuery.startsWith("id=")) {
+                        sourceMap.put(Integer.parseInt(updateQuery.substring(3)), new String(body, StandardCharsets.UTF_8));
+                    }
+                    send(exchange, 200, "application/json", "{\"success\":true,\"message\":\"\",\"version\":2}".getBytes(StandardCharsets.UTF_8));
+                    break;
+                default:
+                    send(exchange, 404, "text/plain", "not found".getBytes(StandardCharsets.UTF_8));
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * same shape as the hub's list:
+     * [{"id":884,"name":"Dropbox Album","namespace":"jpage4500","oauth":"enabled","lastModified":"2025-06-12T18:39:52+0000","usedBy":[]}]
+     */
+    private static byte[] createTypeList(int typeCount) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < typeCount; i++) {
+            boolean isTarget = i == typeCount - 1;
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(isTarget ? TARGET_ID : i + 1)
+                .append(",\"name\":\"").append(isTarget ? TARGET_NAME : "Bench Driver " + i)
+                .append("\",\"namespace\":\"").append(isTarget ? TARGET_NAMESPACE : "ns" + (i % 50))
+                .append("\",\"oauth\":\"disabled\",\"lastModified\":\"2025-06-12T18:39:52+0000\",\"usedBy\":[");
+            // a few instances per app/driver
+            for (int j = 0; j < i % 4; j++) {
+                if (j > 0) sb.append(',');
+                sb.append("{\"id\":").append(i * 4 + j).append(",\"name\":\"Device ").append(i * 4 + j).append("\"}");
+            }
+            sb.append("]}");
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
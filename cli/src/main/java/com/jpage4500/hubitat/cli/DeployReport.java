@@ -0,0 +1,30 @@
+package com.jpage4500.hubitat.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Machine-readable result of a CLI deploy run (written as JSON)
+ */
+public class DeployReport {
+    public long startTime;
+    public long elapsedMs;
+    public int parallel;
+    public int deployed;
+    public int failed;
+    public int skipped;
+    public List<Entry> files = new ArrayList<>();
+
+    public static class Entry {
+        public String file;         // path relative to source directory
+        public String hub;
+        public String type;         // app / driver
+        public String name;
+        public String namespace;
+        public Integer appId;
+        public String status;       // UPDATED, INSTALLED, FAILED, SUPERSEDED, UNCHANGED, BLOCKED
+        public int httpStatus;
+        public String message;
+        public long latencyMs;
+    }
+}
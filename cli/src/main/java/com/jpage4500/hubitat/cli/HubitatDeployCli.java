@@ -0,0 +1,344 @@
+package com.jpage4500.hubitat.cli;
+
+import com.jpage4500.hubitat.engine.DeployEngine;
+import com.jpage4500.hubitat.engine.DeployResult;
+import com.jpage4500.hubitat.engine.SourceLint;
+import com.jpage4500.hubitat.engine.SourceParser;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.HashUtils;
+import com.jpage4500.hubitat.utils.HttpCapture;
+import com.jpage4500.hubitat.utils.HttpTrace;
+import com.jpage4500.hubitat.utils.HubAddressResolver;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.utils.RecordingTransport;
+import com.jpage4500.hubitat.utils.ReplayTransport;
+import com.jpage4500.hubitat.utils.TextUtils;
+import com.jpage4500.hubitat.utils.UrlConnectionTransport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Deploy a directory of Hubitat apps/drivers from the command line (ie: CI)
+ * <pre>
+ * java -jar hubitat-deploy.jar --dir src/drivers --hub 192.168.0.200,staging.local --parallel 4 --report report.json
+ * </pre>
+ * - uses the same "// hub:" "// type:" "// id:" comments as the IDE plugin
+ * - only files that changed since the last successful deploy to a hub are sent (unless --all)
+ * - exit code is 1 if any deploy failed
+ */
+public class HubitatDeployCli {
+    private static final String STATE_FILE = ".hubitat-deploy-state.json";
+    private static final int DEFAULT_PARALLEL = 4;
+
+    private Path dir;
+    private final List<String> hubList = new ArrayList<>();
+    private int parallel = DEFAULT_PARALLEL;
+    private Path reportPath;
+    private Path statePath;
+    private boolean deployAll;
+    private Path recordPath;
+    private Path replayPath;
+    private double replaySpeed = 1;
+    private boolean isLintBlocking;
+
+    public static void main(String[] args) {
+        HubitatDeployCli cli = new HubitatDeployCli();
+        String error = cli.parseArgs(args);
+        if (error != null) {
+            System.err.println(error);
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        try {
+            DeployReport report = cli.run();
+            System.exit(report.failed > 0 ? 1 : 0);
+        } catch (Exception e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("usage: hubitat-deploy --dir <sources> [--hub <address>[,<address>...]] [--parallel N] [--report <file>] [--state <file>] [--trace <dir>] [--record <file> | --replay <file> [--replay-speed X]] [--lint] [--all] [--verbose]");
+        System.err.println("  --hub       deploy to these hubs; default is the \"// hub:\" comment in each file");
+        System.err.println("  --parallel  max concurrent deploys (default " + DEFAULT_PARALLEL + "); requests per hub adapt to hub load");
+        System.err.println("  --report    write JSON report to file (default: stdout)");
+        System.err.println("  --state     hashes of last deployed sources (default: <dir>/" + STATE_FILE + ")");
+        System.err.println("  --trace     write HTTP trace of every hub request (cookies redacted) to a file in dir");
+        System.err.println("  --record    save every hub request/response to a capture file (cookies redacted)");
+        System.err.println("  --replay    answer hub requests from a capture file instead of the network; state is not saved");
+        System.err.println("  --replay-speed  replay timing: 1 = as recorded (default), 2 = twice as fast, 0 = no delay");
+        System.err.println("  --lint      don't deploy files with error-level performance findings (runIn loops, pauseExecution, ...)");
+        System.err.println("  --all       deploy all files, not just changed ones");
+    }
+
+    /**
+     * @return error message or null if args are valid
+     */
+    private String parseArgs(String[] args) {
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (arg) {
+                case "--dir":
+                    if (value == null) return "missing value for " + arg;
+                    dir = Paths.get(value);
+                    i++;
+                    break;
+                case "--hub":
+                    if (value == null) return "missing value for " + arg;
+                    hubList.addAll(Arrays.asList(TextUtils.split(value, ",")));
+                    i++;
+                    break;
+                case "--parallel":
+                    parallel = TextUtils.getNumberInt(value, 0);
+                    if (parallel <= 0) return "invalid value for " + arg + ": " + value;
+                    i++;
+                    break;
+                case "--report":
+                    if (value == null) return "missing value for " + arg;
+                    reportPath = Paths.get(value);
+                    i++;
+                    break;
+                case "--state":
+                    if (value == null) return "missing value for " + arg;
+                    statePath = Paths.get(value);
+                    i++;
+                    break;
+                case "--trace":
+                    if (value == null) return "missing value for " + arg;
+                    HttpTrace.start(Paths.get(value));
+                    i++;
+                    break;
+                case "--record":
+                    if (value == null) return "missing value for " + arg;
+                    recordPath = Paths.get(value);
+                    i++;
+                    break;
+                case "--replay":
+                    if (value == null) return "missing value for " + arg;
+                    replayPath = Paths.get(value);
+                    i++;
+                    break;
+                case "--replay-speed":
+                    try {
+                        replaySpeed = Double.parseDouble(value);
+                    } catch (NumberFormatException | NullPointerException e) {
+                        return "invalid value for " + arg + ": " + value;
+                    }
+                    if (replaySpeed < 0) return "invalid value for " + arg + ": " + value;
+                    i++;
+                    break;
+                case "--lint":
+                    isLintBlocking = true;
+                    break;
+                case "--all":
+                    deployAll = true;
+                    break;
+                case "--verbose":
+                    verbose = true;
+                    break;
+                default:
+                    return "unknown argument: " + arg;
+            }
+        }
+        if (dir == null || !Files.isDirectory(dir)) return "--dir must be an existing directory";
+        for (String hub : hubList) {
+            if (!HubAddressResolver.isValidHubAddress(hub)) return "invalid hub address: " + hub;
+        }
+        if (statePath == null) statePath = dir.resolve(STATE_FILE);
+        if (recordPath != null && replayPath != null) return "--record and --replay can't be used together";
+        try {
+            if (recordPath != null) {
+                // NOTE: every record is flushed as it's written; nothing to close before System.exit()
+                HttpCapture.Writer writer = HttpCapture.create(recordPath);
+                NetworkHelper.setDefaultTransport(new RecordingTransport(new UrlConnectionTransport(), writer));
+            } else if (replayPath != null) {
+                NetworkHelper.setDefaultTransport(ReplayTransport.load(replayPath, replaySpeed > 0 ? 1 / replaySpeed : 0));
+            }
+        } catch (IOException e) {
+            return "unable to open capture file: " + e.getMessage();
+        }
+        if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", verbose ? "debug" : "warn");
+        }
+        return null;
+    }
+
+    private static class Task {
+        final String file;
+        final DriverDetails details;
+        final String hash;
+
+        Task(String file, DriverDetails details, String hash) {
+            this.file = file;
+            this.details = details;
+            this.hash = hash;
+        }
+
+        String stateKey() {
+            return details.hubIp + "|" + file;
+        }
+    }
+
+    DeployReport run() throws IOException, InterruptedException {
+        DeployReport report = new DeployReport();
+        report.startTime = System.currentTimeMillis();
+        report.parallel = parallel;
+
+        Map<String, String> state = loadState();
+        List<Task> taskList = new ArrayList<>();
+        for (Path path : findSources()) {
+            String file = dir.relativize(path).toString();
+            String text = Files.readString(path, StandardCharsets.UTF_8);
+            DriverDetails parsed = SourceParser.parse(text, path.getFileName().toString());
+            if (parsed == null) continue;
+            if (parsed.isApp == null) {
+                System.err.println("WARN: " + file + ": unknown type; add \"// type: app\" or \"// type: device\"");
+                continue;
+            }
+            List<String> targetHubs = !hubList.isEmpty() ? hubList : (parsed.hubIp != null ? List.of(parsed.hubIp) : List.of());
+            if (targetHubs.isEmpty()) {
+                System.err.println("WARN: " + file + ": no hub; use --hub or add \"// hub: <address>\"");
+                continue;
+            }
+            String hash = HashUtils.sha256(text);
+            List<SourceLint.Finding> findingList = SourceLint.check(text);
+            for (SourceLint.Finding finding : findingList) {
+                System.err.println(finding.severity + ": " + file + ":" + finding.line + ": " + finding.message);
+            }
+            boolean isBlocked = isLintBlocking && SourceLint.hasErrors(findingList);
+            for (String hub : targetHubs) {
+                DriverDetails details = new DriverDetails();
+                details.text = text;
+                details.name = parsed.name;
+                details.namespace = parsed.namespace;
+                details.isApp = parsed.isApp;
+                details.hubIp = hub;
+                // ids are per hub: "// id:" is only valid for the hub named in the source (or the only hub deployed to);
+                // otherwise look up by namespace/name on each hub
+                boolean isIdHub = parsed.hubIp != null ? TextUtils.equals(parsed.hubIp, hub) : targetHubs.size() == 1;
+                if (isIdHub) details.appId = parsed.appId;
+                Task task = new Task(file, details, hash);
+                if (isBlocked) {
+                    DeployReport.Entry entry = newEntry(task, "BLOCKED");
+                    entry.message = "error-level performance findings (--lint)";
+                    report.files.add(entry);
+                    report.failed++;
+                    continue;
+                }
+                if (!deployAll && TextUtils.equals(state.get(task.stateKey()), hash)) {
+                    report.files.add(newEntry(task, "UNCHANGED"));
+                    report.skipped++;
+                    continue;
+                }
+                taskList.add(task);
+            }
+        }
+
+        // fetch app/driver lists once per hub up front instead of once per file
+        Set<String> hubSet = taskList.stream().map(t -> t.details.hubIp).collect(Collectors.toCollection(TreeSet::new));
+        for (String hub : hubSet) {
+            HubSession.get(hub).prewarm(null);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallel);
+        List<Future<DeployReport.Entry>> futureList = new ArrayList<>();
+        for (Task task : taskList) {
+            futureList.add(executor.submit(() -> deploy(task)));
+        }
+        for (int i = 0; i < futureList.size(); i++) {
+            DeployReport.Entry entry;
+            try {
+                entry = futureList.get(i).get();
+            } catch (Exception e) {
+                entry = newEntry(taskList.get(i), DeployResult.Status.FAILED.name());
+                entry.message = e.getMessage();
+            }
+            report.files.add(entry);
+            if (TextUtils.equalsAny(entry.status, false, DeployResult.Status.UPDATED.name(), DeployResult.Status.INSTALLED.name())) {
+                report.deployed++;
+                state.put(taskList.get(i).stateKey(), taskList.get(i).hash);
+            } else {
+                report.failed++;
+            }
+        }
+        executor.shutdown();
+
+        // nothing was really deployed
+        if (replayPath == null) saveState(state);
+        report.elapsedMs = System.currentTimeMillis() - report.startTime;
+        writeReport(report);
+        System.err.println("deployed: " + report.deployed + ", failed: " + report.failed + ", unchanged: " + report.skipped + ", " + report.elapsedMs + "ms");
+        // --parallel is an upper bound; each hub's request limit adapts to how fast it responds
+        for (String hub : hubSet) {
+            System.err.println("  " + hub + ": " + HubSession.get(hub).getNetworkHelper().getLimiterStats());
+        }
+        return report;
+    }
+
+    private DeployReport.Entry deploy(Task task) {
+        DeployResult result = DeployEngine.getInstance().deploy(task.details, null).join();
+        DeployReport.Entry entry = newEntry(task, result.status.name());
+        entry.appId = result.appId != null ? result.appId : task.details.appId;
+        entry.httpStatus = result.httpStatus;
+        entry.message = result.message;
+        entry.latencyMs = result.elapsedMs;
+        System.err.println(result.status + ": " + task.file + " -> " + task.details.hubIp + " (" + result.elapsedMs + "ms)");
+        return entry;
+    }
+
+    private DeployReport.Entry newEntry(Task task, String status) {
+        DeployReport.Entry entry = new DeployReport.Entry();
+        entry.file = task.file;
+        entry.hub = task.details.hubIp;
+        entry.type = task.details.isApp ? "app" : "driver";
+        entry.name = task.details.name;
+        entry.namespace = task.details.namespace;
+        entry.appId = task.details.appId;
+        entry.status = status;
+        return entry;
+    }
+
+    private List<Path> findSources() throws IOException {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .filter(p -> TextUtils.endsWithIgnoreCase(p.getFileName().toString(), ".groovy"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private Map<String, String> loadState() throws IOException {
+        if (!Files.exists(statePath)) return new HashMap<>();
+        return GsonHelper.stringToMap(Files.readString(statePath, StandardCharsets.UTF_8), String.class, String.class);
+    }
+
+    private void saveState(Map<String, String> state) throws IOException {
+        Files.writeString(statePath, GsonHelper.toJson(new TreeMap<>(state)), StandardCharsets.UTF_8);
+    }
+
+    private void writeReport(DeployReport report) throws IOException {
+        String json = GsonHelper.toJson(report);
+        if (reportPath != null) {
+            Files.writeString(reportPath, json, StandardCharsets.UTF_8);
+        } else {
+            System.out.println(json);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.models.InstallRequest;
+import com.jpage4500.hubitat.models.InstallResult;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.DeployQueue;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.LogUtils;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deploy an app/driver to a Hubitat hub; no UI dependencies
+ * - updates existing app/driver when ID is known (or can be looked up by name/namespace)
+ * - otherwise installs a new app/driver
+ * - all requests run on the DeployQueue; progress is reported through DeployListener
+ */
+public class DeployEngine {
+    private static final Logger log = LoggerFactory.getLogger(DeployEngine.class);
+
+    private static final DeployEngine instance = new DeployEngine(DeployQueue.getInstance());
+
+    private final DeployQueue queue;
+    private volatile DeployHistory history;
+    private volatile DeployOutbox outbox;
+
+    public interface DeployListener {
+        /**
+         * NOTE: called on a background thread
+         */
+        void onEvent(DeployEvent event);
+    }
+
+    public DeployEngine(DeployQueue queue) {
+        this.queue = queue;
+    }
+
+    public static DeployEngine getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param history where successful deploys are recorded; null to disable
+     */
+    public void setHistory(DeployHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * @param outbox where deploys that can't reach the hub are kept for later; null to disable
+     */
+    public void setOutbox(DeployOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    /**
+     * deploy app/driver in the background
+     *
+     * @param details hubIp, isApp, name/namespace and text are required; appId is optional
+     * @return future which always completes normally with a DeployResult
+     */
+    public CompletableFuture<DeployResult> deploy(DriverDetails details, DeployListener listener) {
+        CompletableFuture<DeployResult> future = new CompletableFuture<>();
+        long startMs = System.currentTimeMillis();
+        DeployListener eventListener = listener != null ? listener : event -> {
+        };
+
+        String key = DeployQueue.key(details.hubIp, details.isApp, details.namespace, details.name);
+        // lookup may fill in appId; outbox entry would still be under the original target
+        String target = details.isApp != null ? DeployHistory.target(details.hubIp, details.isApp, details.appId, details.namespace, details.name) : null;
+        queue.submit(key, () -> {
+            DeployResult result;
+            try {
+                if (details.appId == null || details.appId <= 0) {
+                    // lookup existing app/driver by name/namespace
+                    result = lookupAppId(details, eventListener);
+                } else {
+                    result = updateApp(details, eventListener);
+                }
+            } catch (Exception e) {
+                log.error("deploy: {}", e.getMessage(), e);
+                result = failed(-1, e.getMessage(), eventListener);
+            }
+            result = updateOutbox(details, target, startMs, result, eventListener);
+            result.elapsedMs = System.currentTimeMillis() - startMs;
+            future.complete(result);
+        }, new DeployQueue.Listener() {
+            @Override
+            public void onQueued(int depth) {
+                DeployEvent event = new DeployEvent(DeployEvent.Type.QUEUED, "Waiting for previous upload to finish (queue depth: " + depth + ")");
+                event.queueDepth = depth;
+                eventListener.onEvent(event);
+            }
+
+            @Override
+            public void onStarted(long waitMs) {
+                DeployEvent event = new DeployEvent(DeployEvent.Type.STARTED, "Waited " + waitMs + "ms in queue");
+                event.waitMs = waitMs;
+                eventListener.onEvent(event);
+            }
+
+            @Override
+            public void onSuperseded() {
+                eventListener.onEvent(new DeployEvent(DeployEvent.Type.SUPERSEDED, "Skipped; a newer version was queued"));
+                DeployResult result = new DeployResult();
+                result.status = DeployResult.Status.SUPERSEDED;
+                result.elapsedMs = System.currentTimeMillis() - startMs;
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * keep deploys that couldn't reach the hub; drop pending ones once a later deploy of the same target succeeds
+     *
+     * @return OUTBOX result if deploy was kept for later
+     */
+    private DeployResult updateOutbox(DriverDetails details, String target, long startMs, DeployResult result,
+                                      DeployListener listener) {
+        DeployOutbox deployOutbox = outbox;
+        if (deployOutbox == null || target == null) return result;
+        if (result.isSuccess()) {
+            deployOutbox.remove(target, startMs);
+            String idTarget = DeployHistory.target(details.hubIp, details.isApp, details.appId, details.namespace, details.name);
+            if (!idTarget.equals(target)) deployOutbox.remove(idTarget, startMs);
+            // hub is reachable; deploy anything else that's waiting
+            if (deployOutbox.size() > 0) deployOutbox.flushAsync();
+        } else if (DeployOutbox.isRetryable(result)) {
+            deployOutbox.add(details);
+            listener.onEvent(new DeployEvent(DeployEvent.Type.OUTBOX, "Hub not reachable; will deploy when it's back"));
+            DeployResult outboxResult = new DeployResult();
+            outboxResult.status = DeployResult.Status.OUTBOX;
+            outboxResult.httpStatus = result.httpStatus;
+            outboxResult.message = result.message;
+            return outboxResult;
+        }
+        return result;
+    }
+
+    /**
+     * Lookup app/driver ID by name/namespace; update if found, otherwise install
+     */
+    private DeployResult lookupAppId(DriverDetails details, DeployListener listener) {
+        String type = (details.isApp ? "app" : "driver");
+        listener.onEvent(new DeployEvent(DeployEvent.Type.LOOKUP, "Looking up " + type + " ID for \"" + details.name + "\"..."));
+
+        // use list pre-fetched when file was opened (if still fresh)
+        HubSession session = HubSession.get(details.hubIp);
+        List<UserDeviceType> deviceTypeList = session.getCachedTypeList(details.isApp);
+        if (deviceTypeList == null) {
+            NetworkHelper.HttpResponse response = session.fetchTypeList(details.isApp);
+            if (response.status != 200) {
+                return failed(response.status, response.body, listener);
+            }
+            deviceTypeList = session.getCachedTypeList(details.isApp);
+        } else {
+            log.debug("lookupAppId: using cached list: {}", deviceTypeList.size());
+        }
+
+        //     {
+        //        "id": 884,
+        //        "name": "Dropbox Album",
+        //        "namespace": "jpage4500",
+        //        "oauth": "enabled",
+        //        "lastModified": "2025-06-12T18:39:52+0000",
+        //        "usedBy": []
+        //    },
+        for (UserDeviceType deviceType : deviceTypeList) {
+            if (TextUtils.equals(deviceType.name, details.name) &&
+                TextUtils.equals(deviceType.namespace, details.namespace)) {
+                DeployEvent event = new DeployEvent(DeployEvent.Type.FOUND, "Found " + type + " ID: " + deviceType.id);
+                event.appId = deviceType.id;
+                listener.onEvent(event);
+                log.info("lookupAppId: FOUND: {}", LogUtils.json(deviceType));
+                details.appId = deviceType.id;
+                return updateApp(details, listener);
+            }
+        }
+        listener.onEvent(new DeployEvent(DeployEvent.Type.NOT_FOUND, "\"" + details.name + "\" not found"));
+        log.error("lookupAppId: NOT_FOUND: results:{}, {}", deviceTypeList.size(), LogUtils.json(details));
+        return installApp(details, listener);
+    }
+
+    private DeployResult installApp(DriverDetails details, DeployListener listener) {
+        // TODO: prompt user to confirm install of new app/driver
+        String typeName = (details.isApp ? "app" : "driver");
+        listener.onEvent(new DeployEvent(DeployEvent.Type.INSTALLING, "Installing " + typeName + " on Hubitat..."));
+
+        String type = details.isApp ? "/app" : "/driver";
+        HubSession session = HubSession.get(details.hubIp);
+        String createUrl = session.getUrl(type + "/create");
+        session.getRequest(type + "/create", session.getHeaders());
+
+        // install new app/driver
+        // POST http://192.168.0.200/driver/saveOrUpdateJson
+        // POST http://192.168.0.200/app/saveOrUpdateJson
+        String authority = session.getAuthority();
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept", "*/*");
+        headers.put("Accept-Encoding", "gzip, deflate");
+        headers.put("Accept-Language", "en-US,en;q=0.9");
+        headers.put("Content-Type", "application/json");
+        headers.put("Host", authority);
+        headers.put("Origin", "http://" + authority);
+        if (createUrl != null) headers.put("Referer", createUrl);
+        headers.put("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36");
+
+        InstallRequest request = new InstallRequest();
+        request.source = details.text;
+
+        NetworkHelper.HttpResponse response = session.postRequest(type + "/saveOrUpdateJson", GsonHelper.toJson(request), headers);
+        // new app/driver (and ID) won't be in the cached list
+        session.invalidate(details.isApp);
+        return handleResult(response, DeployResult.Status.INSTALLED, details, listener);
+    }
+
+    private DeployResult updateApp(DriverDetails details, DeployListener listener) {
+        String type = details.isApp ? "/app" : "/device";
+        listener.onEvent(new DeployEvent(DeployEvent.Type.UPDATING, "Updating " + (details.isApp ? "app" : "device") + " on Hubitat..."));
+
+        // POST /device/ideUpdate?id=885 HTTP/1.1
+        HubSession session = HubSession.get(details.hubIp);
+        NetworkHelper.HttpResponse response = session.postRequest(type + "/ideUpdate?id=" + details.appId, details.text, session.getHeaders());
+        return handleResult(response, DeployResult.Status.UPDATED, details, listener);
+    }
+
+    private DeployResult handleResult(NetworkHelper.HttpResponse response, DeployResult.Status successStatus,
+                                      DriverDetails details, DeployListener listener) {
+        if (response.status != 200) {
+            return failed(response.status, response.body, listener);
+        }
+        InstallResult installResult = GsonHelper.fromJson(response.body, InstallResult.class);
+        if (installResult == null || !installResult.success) {
+            String errorMsg = (installResult == null) ? "Unknown error" : installResult.message;
+            return failed(response.status, "Error: " + errorMsg, listener);
+        }
+
+        // history/outbox are keyed by id; record a new install under the id it got
+        if (details.appId == null || details.appId <= 0) {
+            if (installResult.id != null && installResult.id > 0) {
+                details.appId = installResult.id;
+            } else {
+                // response without id: look it up (list was invalidated, so this fetches the new one)
+                UserDeviceType deviceType = HubSession.get(details.hubIp).findType(details.isApp, null, details.namespace, details.name);
+                if (deviceType != null) details.appId = deviceType.id;
+            }
+        }
+        listener.onEvent(new DeployEvent(DeployEvent.Type.SUCCESS, "Success!"));
+        // otherwise the next check (within the list cache time) compares against the pre-deploy hub source
+        HubSourceCheck.getInstance().onDeployed(details);
+        DeployHistory deployHistory = history;
+        if (deployHistory != null) deployHistory.record(details);
+        DeployResult result = new DeployResult();
+        result.status = successStatus;
+        result.appId = details.appId;
+        result.httpStatus = response.status;
+        return result;
+    }
+
+    private DeployResult failed(int httpStatus, String message, DeployListener listener) {
+        listener.onEvent(new DeployEvent(DeployEvent.Type.ERROR, message));
+        DeployResult result = new DeployResult();
+        result.status = DeployResult.Status.FAILED;
+        result.httpStatus = httpStatus;
+        result.message = message;
+        return result;
+    }
+}
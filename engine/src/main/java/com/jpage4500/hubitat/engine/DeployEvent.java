@@ -0,0 +1,37 @@
+package com.jpage4500.hubitat.engine;
+
+/**
+ * Progress event emitted by DeployEngine while a deploy runs
+ */
+public class DeployEvent {
+    public enum Type {
+        QUEUED,         // waiting for a previous upload to the same target
+        STARTED,        // left the queue
+        LOOKUP,         // looking up app/driver ID by name/namespace
+        FOUND,          // existing app/driver found
+        NOT_FOUND,      // no existing app/driver; will install
+        UPDATING,       // uploading source to existing app/driver
+        INSTALLING,     // installing new app/driver
+        SUCCESS,
+        ERROR,
+        SUPERSEDED,     // dropped in favor of a newer upload
+        OUTBOX,         // hub not reachable; saved to deploy later
+    }
+
+    public final Type type;
+    public final String message;
+    public final long timeMs = System.currentTimeMillis();
+    public Integer appId;       // FOUND
+    public int queueDepth;      // QUEUED
+    public long waitMs;         // STARTED
+
+    public DeployEvent(Type type, String message) {
+        this.type = type;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + message;
+    }
+}
@@ -0,0 +1,393 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local history of every successful deploy
+ * <pre>
+ * baseDir/
+ *   history.json           target -> versions (newest first) + blob sizes/last use
+ *   blobs/3f2a...e1.gz     source (gzip), named by SHA-256 of the source
+ * </pre>
+ * - identical sources are stored once, no matter how many times (or where) they were deployed
+ * - total blob size is capped; least recently used blobs (and the versions pointing at them) are evicted first;
+ *   blobs no version points at anymore (trimmed to MAX_VERSIONS_PER_TARGET) are deleted right away
+ * - versions are kept in memory so lookups never touch the disk; only getText() reads a blob
+ * - history.json is written SAVE_DELAY_MS after a change (one write for a burst of deploys) and on exit
+ * - versions recorded before the id was known (namespace:name target) are moved to the id target once it is
+ */
+public class DeployHistory {
+    private static final Logger log = LoggerFactory.getLogger(DeployHistory.class);
+
+    private static final Map<Path, DeployHistory> historyMap = new ConcurrentHashMap<>();
+
+    private static final String INDEX_FILE = "history.json";
+    public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+    public static final int MAX_VERSIONS_PER_TARGET = 100;
+    private static final long SAVE_DELAY_MS = 2000;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hubitat-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path baseDir;
+    private final Path blobDir;
+    private final long maxBytes;
+
+    // guarded by 'this'
+    private final Map<String, List<Version>> targetMap = new HashMap<>();
+    // hash -> blob; access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Blob> blobMap = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private boolean isLoaded;
+    private volatile int modCount;
+    // guarded by 'this'; pending write of history.json
+    private ScheduledFuture<?> saveFuture;
+    private boolean isShutdownHookAdded;
+
+    public static class Version {
+        public String target;           // hub/app/884
+        public String hub;
+        public boolean isApp;
+        public Integer appId;
+        public String name;
+        public String namespace;
+        public String hash;
+        public long timeMs;
+        public int length;
+    }
+
+    static class Blob {
+        long size;                      // compressed
+        long lastUsedMs;
+    }
+
+    /**
+     * saved as history.json
+     */
+    static class Index {
+        Map<String, List<Version>> targets;
+        Map<String, Blob> blobs;
+    }
+
+    private DeployHistory(Path baseDir, long maxBytes) {
+        this.baseDir = baseDir;
+        this.blobDir = baseDir.resolve("blobs");
+        this.maxBytes = maxBytes;
+    }
+
+    public static DeployHistory get(Path baseDir) {
+        return historyMap.computeIfAbsent(baseDir, dir -> new DeployHistory(dir, DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * @return key shared by all versions of an app/driver (hub/type/id; hub/type/namespace:name if id isn't known)
+     */
+    public static String target(String hub, boolean isApp, Integer appId, String namespace, String name) {
+        if (appId != null && appId > 0) return HubInventory.key(hub, isApp, appId);
+        return hub + "/" + (isApp ? "app" : "driver") + "/" + namespace + ":" + name;
+    }
+
+    /**
+     * record a successfully deployed source
+     *
+     * @return recorded version; null on error
+     */
+    public Version record(DriverDetails details) {
+        if (details.text == null || details.isApp == null) return null;
+        Version version = new Version();
+        version.target = target(details.hubIp, details.isApp, details.appId, details.namespace, details.name);
+        version.hub = details.hubIp;
+        version.isApp = details.isApp;
+        version.appId = details.appId;
+        version.name = details.name;
+        version.namespace = details.namespace;
+        version.hash = HashUtils.sha256(details.text);
+        version.timeMs = System.currentTimeMillis();
+        version.length = details.text.length();
+
+        synchronized (this) {
+            ensureLoaded();
+            try {
+                Blob blob = blobMap.get(version.hash);
+                if (blob == null) {
+                    blob = new Blob();
+                    blob.size = writeBlob(version.hash, details.text);
+                    blobMap.put(version.hash, blob);
+                    totalBytes += blob.size;
+                }
+                blob.lastUsedMs = version.timeMs;
+            } catch (IOException e) {
+                log.error("record: {}: {}", version.target, e.getMessage());
+                return null;
+            }
+
+            List<Version> versionList = targetMap.computeIfAbsent(version.target, k -> new ArrayList<>());
+            // redeploying the current version again only moves it to the top
+            if (!versionList.isEmpty() && versionList.get(0).hash.equals(version.hash)) versionList.remove(0);
+            versionList.add(0, version);
+            trim(versionList);
+            if (version.appId != null && version.appId > 0) {
+                // deployed before the id was known (ie: first install)
+                moveVersions(target(version.hub, version.isApp, null, version.namespace, version.name), version.target, version.appId);
+            }
+
+            evict();
+            scheduleSave();
+            modCount++;
+        }
+        log.debug("record: {}: {}", version.target, version.hash);
+        return version;
+    }
+
+    /**
+     * @return versions of target (newest first)
+     */
+    public synchronized List<Version> getVersions(String target) {
+        ensureLoaded();
+        List<Version> versionList = targetMap.get(target);
+        return versionList != null ? new ArrayList<>(versionList) : new ArrayList<>();
+    }
+
+    /**
+     * @return all versions of all targets (newest first)
+     */
+    public synchronized List<Version> getAllVersions() {
+        ensureLoaded();
+        List<Version> resultList = new ArrayList<>();
+        for (List<Version> versionList : targetMap.values()) resultList.addAll(versionList);
+        resultList.sort((a, b) -> Long.compare(b.timeMs, a.timeMs));
+        return resultList;
+    }
+
+    /**
+     * @return version deployed before the current one; null if there isn't one
+     */
+    public synchronized Version getPrevious(String target) {
+        ensureLoaded();
+        List<Version> versionList = targetMap.get(target);
+        return versionList != null && versionList.size() > 1 ? versionList.get(1) : null;
+    }
+
+    /**
+     * @return deployed source of version; null if evicted or on error
+     * NOTE: reads under the lock so evict() can't delete the blob while it's being read
+     */
+    public synchronized String getText(Version version) {
+        ensureLoaded();
+        Blob blob = blobMap.get(version.hash);
+        if (blob == null) return null;
+        blob.lastUsedMs = System.currentTimeMillis();
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(blobDir.resolve(version.hash + ".gz")))) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.error("getText: {}: {}", version.hash, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return details that will deploy this version again (no need to read/parse the local file)
+     */
+    public DriverDetails toDetails(Version version) {
+        String text = getText(version);
+        if (text == null) return null;
+        DriverDetails details = new DriverDetails();
+        details.hubIp = version.hub;
+        details.isApp = version.isApp;
+        details.appId = version.appId;
+        details.name = version.name;
+        details.namespace = version.namespace;
+        details.text = text;
+        return details;
+    }
+
+    /**
+     * @return changes every time a version is recorded (cheap way for UI to poll for changes)
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    public synchronized long getTotalBytes() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    private long writeBlob(String hash, String text) throws IOException {
+        Files.createDirectories(blobDir);
+        Path file = blobDir.resolve(hash + ".gz");
+        Path tmp = blobDir.resolve(hash + ".tmp");
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            os.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(file);
+    }
+
+    /**
+     * write history.json now if a change is still waiting to be saved
+     */
+    public synchronized void flush() {
+        if (saveFuture == null) return;
+        saveFuture.cancel(false);
+        saveFuture = null;
+        save();
+    }
+
+    private void scheduleSave() {
+        // already pending; that write will include this change
+        if (saveFuture != null) return;
+        saveFuture = scheduler.schedule(this::flush, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        if (!isShutdownHookAdded) {
+            isShutdownHookAdded = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "hubitat-history-save"));
+        }
+    }
+
+    /**
+     * move versions of fromTarget into toTarget (newest first) and drop fromTarget
+     *
+     * @return false if fromTarget has no versions
+     */
+    private boolean moveVersions(String fromTarget, String toTarget, Integer appId) {
+        List<Version> fromList = targetMap.remove(fromTarget);
+        if (fromList == null) return false;
+        List<Version> toList = targetMap.computeIfAbsent(toTarget, k -> new ArrayList<>());
+        for (Version version : fromList) {
+            version.target = toTarget;
+            version.appId = appId;
+            toList.add(version);
+        }
+        toList.sort((a, b) -> Long.compare(b.timeMs, a.timeMs));
+        trim(toList);
+        log.debug("moveVersions: {} -> {}: {}", fromTarget, toTarget, fromList.size());
+        return true;
+    }
+
+    /**
+     * keep newest MAX_VERSIONS_PER_TARGET versions; delete blobs that no version points at anymore
+     */
+    private void trim(List<Version> versionList) {
+        if (versionList.size() <= MAX_VERSIONS_PER_TARGET) return;
+        Set<String> trimmedSet = new HashSet<>();
+        while (versionList.size() > MAX_VERSIONS_PER_TARGET) trimmedSet.add(versionList.remove(versionList.size() - 1).hash);
+        // identical sources are shared by versions of other targets too
+        for (List<Version> list : targetMap.values()) {
+            for (Version version : list) trimmedSet.remove(version.hash);
+        }
+        for (String hash : trimmedSet) {
+            Blob blob = blobMap.remove(hash);
+            if (blob == null) continue;
+            totalBytes -= blob.size;
+            deleteBlob(hash);
+        }
+    }
+
+    private void deleteBlob(String hash) {
+        try {
+            Files.deleteIfExists(blobDir.resolve(hash + ".gz"));
+        } catch (IOException e) {
+            log.error("deleteBlob: {}: {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * drop least recently used blobs (and the versions that point at them) until under maxBytes
+     */
+    private void evict() {
+        if (totalBytes <= maxBytes) return;
+        Set<String> evictedSet = new HashSet<>();
+        Iterator<Map.Entry<String, Blob>> iterator = blobMap.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Blob> entry = iterator.next();
+            iterator.remove();
+            totalBytes -= entry.getValue().size;
+            evictedSet.add(entry.getKey());
+            deleteBlob(entry.getKey());
+        }
+        Iterator<List<Version>> targetIterator = targetMap.values().iterator();
+        while (targetIterator.hasNext()) {
+            List<Version> versionList = targetIterator.next();
+            versionList.removeIf(version -> evictedSet.contains(version.hash));
+            if (versionList.isEmpty()) targetIterator.remove();
+        }
+        log.debug("evict: {} blobs, total:{}", evictedSet.size(), totalBytes);
+    }
+
+    private void ensureLoaded() {
+        if (isLoaded) return;
+        isLoaded = true;
+        Path indexFile = baseDir.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) return;
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            Index index = GsonHelper.fromJson(reader, Index.class);
+            if (index == null || index.targets == null || index.blobs == null) return;
+            // rebuild LRU order from last use
+            List<Map.Entry<String, Blob>> blobList = new ArrayList<>(index.blobs.entrySet());
+            blobList.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsedMs));
+            for (Map.Entry<String, Blob> entry : blobList) {
+                blobMap.put(entry.getKey(), entry.getValue());
+                totalBytes += entry.getValue().size;
+            }
+            targetMap.putAll(index.targets);
+            mergeNameTargets();
+            log.debug("ensureLoaded: targets:{}, blobs:{}, bytes:{}", targetMap.size(), blobMap.size(), totalBytes);
+        } catch (Exception e) {
+            log.error("ensureLoaded: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * history saved before installs were recorded by id: move namespace:name versions to the id target of the same
+     * app/driver
+     */
+    private void mergeNameTargets() {
+        Map<String, Version> idMap = new HashMap<>();
+        for (List<Version> versionList : targetMap.values()) {
+            for (Version version : versionList) {
+                if (version.appId == null || version.appId <= 0) continue;
+                idMap.putIfAbsent(target(version.hub, version.isApp, null, version.namespace, version.name), version);
+            }
+        }
+        boolean isChanged = false;
+        for (Map.Entry<String, Version> entry : idMap.entrySet()) {
+            isChanged |= moveVersions(entry.getKey(), entry.getValue().target, entry.getValue().appId);
+        }
+        if (isChanged) scheduleSave();
+    }
+
+    private void save() {
+        Index index = new Index();
+        index.targets = targetMap;
+        index.blobs = blobMap;
+        try {
+            Files.createDirectories(baseDir);
+            Path tmp = baseDir.resolve(INDEX_FILE + ".tmp");
+            Files.writeString(tmp, GsonHelper.toJson(index), StandardCharsets.UTF_8);
+            Files.move(tmp, baseDir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("save: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.HashUtils;
+import com.jpage4500.hubitat.utils.HubAddressResolver;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deploys that couldn't reach the hub (offline, VPN, hub rebooting), kept until the hub is back
+ * <pre>
+ * baseDir/
+ *   outbox.journal     append-only log of PUT (target + details + deflated source) and REMOVE records
+ * </pre>
+ * - each record is [length][crc32][payload] and is fsync'd before add()/remove() return; a torn record at the
+ *   end (IDE killed mid-write) is dropped on load
+ * - one entry per target: a newer source replaces the pending one (latest wins)
+ * - journal is rewritten with only the pending entries once most of it is dead records
+ * - every FLUSH_INTERVAL_SEC, hubs with pending entries are probed with their oldest entry; once one goes
+ *   through the rest are deployed, at most MAX_PARALLEL at a time
+ */
+public class DeployOutbox {
+    private static final Logger log = LoggerFactory.getLogger(DeployOutbox.class);
+
+    private static final Map<Path, DeployOutbox> outboxMap = new ConcurrentHashMap<>();
+
+    private static final String JOURNAL_FILE = "outbox.journal";
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    // larger lengths mean a corrupt record
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final long MIN_COMPACT_BYTES = 64 * 1024;
+    private static final long FLUSH_INTERVAL_SEC = 30;
+    private static final int MAX_PARALLEL = 2;
+    private static final long DEPLOY_TIMEOUT_SEC = 120;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hubitat-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path baseDir;
+    private final Path journalFile;
+
+    // guarded by 'this'; target -> pending entry (oldest first)
+    private final LinkedHashMap<String, Entry> entryMap = new LinkedHashMap<>();
+    private long journalBytes;
+    private long liveBytes;
+    private boolean isLoaded;
+    private volatile int modCount;
+
+    private volatile DeployEngine engine;
+    private volatile Listener listener;
+    // guarded by 'this'; only scheduled while entries are pending
+    private ScheduledFuture<?> flushFuture;
+    // guarded by 'this'
+    private boolean isFlushing;
+
+    public interface Listener {
+        /**
+         * pending entry was deployed (or permanently failed and was dropped)
+         * NOTE: called on a background thread
+         */
+        void onFlushed(Entry entry, DeployResult result);
+    }
+
+    public static class Entry {
+        public String target;           // see DeployHistory.target()
+        public DriverDetails details;   // text not included
+        public String hash;             // SHA-256 of source
+        public long timeMs;             // when deploy was attempted
+        byte[] data;                    // deflated source
+        int recordBytes;
+
+        /**
+         * @return details including source, ready to deploy
+         */
+        public DriverDetails toDetails() {
+            DriverDetails copy = GsonHelper.fromJson(GsonHelper.toJson(details), DriverDetails.class);
+            copy.text = inflate(data);
+            return copy;
+        }
+    }
+
+    private DeployOutbox(Path baseDir) {
+        this.baseDir = baseDir;
+        this.journalFile = baseDir.resolve(JOURNAL_FILE);
+    }
+
+    public static DeployOutbox get(Path baseDir) {
+        return outboxMap.computeIfAbsent(baseDir, DeployOutbox::new);
+    }
+
+    /**
+     * @return true if a failed deploy should be kept for later (hub not reachable, busy or restarting)
+     */
+    public static boolean isRetryable(DeployResult result) {
+        if (result.status != DeployResult.Status.FAILED) return false;
+        return result.httpStatus == -1 || result.httpStatus == NetworkHelper.HTTP_BUSY || result.httpStatus >= 500;
+    }
+
+    /**
+     * start flushing pending entries through engine in the background (no-op if already started)
+     * - cheap when nothing is pending: the journal isn't read here, and the periodic flush only runs while there
+     *   are pending entries
+     */
+    public synchronized void start(DeployEngine engine, Listener listener) {
+        this.engine = engine;
+        this.listener = listener;
+        // left over from an earlier session: try now; the journal is loaded on the scheduler thread
+        if (Files.exists(journalFile)) {
+            scheduleFlush();
+            flushAsync();
+        }
+    }
+
+    private synchronized void scheduleFlush() {
+        if (flushFuture != null || engine == null) return;
+        flushFuture = scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SEC, FLUSH_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    private synchronized void cancelFlush() {
+        if (flushFuture == null) return;
+        flushFuture.cancel(false);
+        flushFuture = null;
+    }
+
+    /**
+     * add (or replace) pending deploy for details' target
+     *
+     * @return false if the same source is already pending (or on error)
+     */
+    public boolean add(DriverDetails details) {
+        if (details.text == null || details.isApp == null) return false;
+        Entry entry = new Entry();
+        entry.target = DeployHistory.target(details.hubIp, details.isApp, details.appId, details.namespace, details.name);
+        entry.details = GsonHelper.fromJson(GsonHelper.toJson(details), DriverDetails.class);
+        entry.hash = HashUtils.sha256(details.text);
+        entry.timeMs = System.currentTimeMillis();
+        entry.data = deflate(details.text);
+
+        synchronized (this) {
+            ensureLoaded();
+            Entry existing = entryMap.get(entry.target);
+            if (existing != null && existing.hash.equals(entry.hash)) return false;
+            try {
+                entry.recordBytes = append(putRecord(entry));
+            } catch (IOException e) {
+                log.error("add: {}: {}", entry.target, e.getMessage());
+                return false;
+            }
+            if (existing != null) {
+                liveBytes -= existing.recordBytes;
+                entryMap.remove(entry.target);
+            }
+            entryMap.put(entry.target, entry);
+            liveBytes += entry.recordBytes;
+            modCount++;
+        }
+        log.debug("add: {}: {}, {} bytes", entry.target, entry.hash, entry.data.length);
+        scheduleFlush();
+        return true;
+    }
+
+    /**
+     * drop pending entry for target if it's not newer than timeMs (ie: a later deploy of the target went through)
+     */
+    public synchronized void remove(String target, long timeMs) {
+        ensureLoaded();
+        Entry entry = entryMap.get(target);
+        if (entry == null || entry.timeMs > timeMs) return;
+        try {
+            append(removeRecord(target, entry.timeMs));
+        } catch (IOException e) {
+            log.error("remove: {}: {}", target, e.getMessage());
+            return;
+        }
+        entryMap.remove(target);
+        liveBytes -= entry.recordBytes;
+        modCount++;
+        log.debug("remove: {}", target);
+        if (entryMap.isEmpty()) clearJournal();
+        else if (journalBytes > MIN_COMPACT_BYTES && journalBytes > 2 * liveBytes) compact();
+    }
+
+    /**
+     * nothing pending; delete journal so the next session doesn't have to look at it
+     */
+    private void clearJournal() {
+        try {
+            Files.deleteIfExists(journalFile);
+            journalBytes = 0;
+            liveBytes = 0;
+        } catch (IOException e) {
+            log.error("clearJournal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return pending entries (oldest first)
+     */
+    public synchronized List<Entry> getEntries() {
+        ensureLoaded();
+        return new ArrayList<>(entryMap.values());
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return entryMap.size();
+    }
+
+    /**
+     * @return changes every time an entry is added/removed
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * try to deploy pending entries now
+     *
+     * @return future which completes once this flush is done
+     */
+    public CompletableFuture<Void> flushAsync() {
+        return CompletableFuture.runAsync(this::flush, scheduler);
+    }
+
+    /**
+     * NOTE: blocking; runs on scheduler thread
+     */
+    private void flush() {
+        DeployEngine deployEngine = engine;
+        List<Entry> entryList;
+        synchronized (this) {
+            if (deployEngine == null || isFlushing) return;
+            ensureLoaded();
+            if (entryMap.isEmpty()) {
+                cancelFlush();
+                return;
+            }
+            entryList = new ArrayList<>(entryMap.values());
+            isFlushing = true;
+        }
+        try {
+            Map<String, List<Entry>> hubMap = new LinkedHashMap<>();
+            for (Entry entry : entryList) hubMap.computeIfAbsent(entry.details.hubIp, k -> new ArrayList<>()).add(entry);
+            for (Map.Entry<String, List<Entry>> hubEntry : hubMap.entrySet()) {
+                flushHub(deployEngine, hubEntry.getKey(), hubEntry.getValue());
+            }
+        } catch (Exception e) {
+            log.error("flush: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                isFlushing = false;
+            }
+        }
+    }
+
+    private void flushHub(DeployEngine deployEngine, String hub, List<Entry> entryList) {
+        // still can't find the hub; don't bother trying
+        if (HubAddressResolver.resolve(hub) == null) return;
+        // oldest entry first, on its own; tells us whether the hub is really back
+        int batchSize = 1;
+        for (int i = 0; i < entryList.size(); i += batchSize) {
+            List<Entry> batchList = entryList.subList(i, Math.min(i + batchSize, entryList.size()));
+            // DeployEngine runs these concurrently
+            List<CompletableFuture<DeployResult>> futureList = new ArrayList<>();
+            for (Entry entry : batchList) futureList.add(deploy(deployEngine, entry));
+            boolean isReachable = true;
+            for (int j = 0; j < batchList.size(); j++) isReachable &= onResult(batchList.get(j), futureList.get(j));
+            if (!isReachable) return;
+            batchSize = MAX_PARALLEL;
+        }
+    }
+
+    private CompletableFuture<DeployResult> deploy(DeployEngine deployEngine, Entry entry) {
+        DriverDetails details = entry.toDetails();
+        if (details.text == null) {
+            DeployResult result = new DeployResult();
+            result.status = DeployResult.Status.FAILED;
+            result.message = "Corrupt outbox entry";
+            return CompletableFuture.completedFuture(result);
+        }
+        return deployEngine.deploy(details, null);
+    }
+
+    /**
+     * @return false if hub still isn't reachable
+     */
+    private boolean onResult(Entry entry, CompletableFuture<DeployResult> future) {
+        DeployResult result;
+        try {
+            result = future.get(DEPLOY_TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("onResult: {}: {}", entry.target, e.getMessage());
+            return false;
+        }
+        // OUTBOX: engine has this outbox set and kept (re-added) the entry -- hub still isn't reachable
+        if (result.status == DeployResult.Status.OUTBOX || isRetryable(result)) {
+            log.debug("onResult: {}: still not reachable: {}", entry.target, result.httpStatus);
+            return false;
+        } else if (result.status == DeployResult.Status.SUPERSEDED) {
+            // a newer deploy of the same target is running; it takes care of the entry
+            return true;
+        }
+        // DeployEngine already removed it on success; a compile error (etc) won't go away by retrying
+        remove(entry.target, entry.timeMs);
+        log.debug("onResult: {}: {}", entry.target, result.status);
+        Listener flushListener = listener;
+        if (flushListener != null) flushListener.onFlushed(entry, result);
+        return true;
+    }
+
+    private byte[] putRecord(Entry entry) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(entry.data.length + 256);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeByte(OP_PUT);
+        out.writeUTF(entry.target);
+        out.writeLong(entry.timeMs);
+        out.writeUTF(entry.hash);
+        out.writeUTF(GsonHelper.toJson(entry.details));
+        out.writeInt(entry.data.length);
+        out.write(entry.data);
+        return bos.toByteArray();
+    }
+
+    private byte[] removeRecord(String target, long timeMs) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeByte(OP_REMOVE);
+        out.writeUTF(target);
+        out.writeLong(timeMs);
+        return bos.toByteArray();
+    }
+
+    /**
+     * append record to journal and force it to disk
+     *
+     * @return bytes written
+     */
+    private int append(byte[] payload) throws IOException {
+        Files.createDirectories(baseDir);
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = frame(payload);
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+            journalBytes += length;
+            return length;
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * replay journal into entryMap; anything after the first bad record is truncated
+     */
+    private void ensureLoaded() {
+        if (isLoaded) return;
+        isLoaded = true;
+        if (!Files.exists(journalFile)) return;
+        long goodBytes = 0;
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int crcValue = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) throw new IOException("bad record length: " + length);
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != crcValue) throw new IOException("bad checksum");
+                apply(payload, 8 + length);
+                goodBytes += 8 + length;
+                records++;
+            }
+        } catch (IOException e) {
+            // torn/corrupt tail; keep what was read so far
+            log.error("ensureLoaded: {} at {}; truncating", e.getMessage(), goodBytes);
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(goodBytes);
+            } catch (IOException e2) {
+                log.error("ensureLoaded: truncate: {}", e2.getMessage());
+            }
+        }
+        journalBytes = goodBytes;
+        log.debug("ensureLoaded: records:{}, pending:{}, bytes:{}", records, entryMap.size(), journalBytes);
+    }
+
+    private void apply(byte[] payload, int recordBytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        switch (op) {
+            case OP_PUT: {
+                Entry entry = new Entry();
+                entry.target = in.readUTF();
+                entry.timeMs = in.readLong();
+                entry.hash = in.readUTF();
+                entry.details = GsonHelper.fromJson(in.readUTF(), DriverDetails.class);
+                entry.data = new byte[in.readInt()];
+                in.readFully(entry.data);
+                entry.recordBytes = recordBytes;
+                if (entry.details == null) throw new IOException("bad details: " + entry.target);
+                Entry existing = entryMap.remove(entry.target);
+                if (existing != null) liveBytes -= existing.recordBytes;
+                entryMap.put(entry.target, entry);
+                liveBytes += recordBytes;
+                break;
+            }
+            case OP_REMOVE: {
+                String target = in.readUTF();
+                long timeMs = in.readLong();
+                Entry entry = entryMap.get(target);
+                if (entry != null && entry.timeMs <= timeMs) {
+                    entryMap.remove(target);
+                    liveBytes -= entry.recordBytes;
+                }
+                break;
+            }
+            default:
+                throw new IOException("bad op: " + op);
+        }
+    }
+
+    /**
+     * rewrite journal with only the pending entries
+     */
+    private void compact() {
+        Path tmp = baseDir.resolve(JOURNAL_FILE + ".tmp");
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : entryMap.values()) {
+                ByteBuffer buffer = frame(putRecord(entry));
+                entry.recordBytes = buffer.remaining();
+                bytes += buffer.remaining();
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("compact: {}", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("compact: move: {}", e.getMessage());
+            return;
+        }
+        log.debug("compact: {} -> {} bytes", journalBytes, bytes);
+        journalBytes = bytes;
+        liveBytes = bytes;
+    }
+
+    private static byte[] deflate(String text) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(text.length() / 3 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                bos.write(buffer, 0, count);
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return inflated text; null if data is corrupt
+     */
+    private static String inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) return null;
+                bos.write(buffer, 0, count);
+            }
+            return bos.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.jpage4500.hubitat.engine;
+
+/**
+ * Final outcome of DeployEngine.deploy()
+ */
+public class DeployResult {
+    public enum Status {
+        UPDATED,        // existing app/driver updated
+        INSTALLED,      // new app/driver installed
+        FAILED,
+        SUPERSEDED,     // skipped; a newer upload for the same target was queued
+        OUTBOX,         // hub not reachable; kept in DeployOutbox and deployed when hub is back
+    }
+
+    public Status status;
+    public String message;      // error message (FAILED)
+    public Integer appId;
+    public int httpStatus;      // status of last request; -1 if hub not reachable
+    public long elapsedMs;      // from submit to completion (includes time in queue)
+
+    public boolean isSuccess() {
+        return status == Status.UPDATED || status == Status.INSTALLED;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.utils.HttpTrace;
+
+import java.nio.file.Path;
+
+/**
+ * Engine part of plugin startup (runs every time a project opens)
+ * - must stay cheap: no Gson, NetworkHelper/HubSession or regex classes, no file reads or new threads; anything
+ *   heavier starts on first use
+ * - budget is enforced by the bench module (./gradlew :bench:startupBudget)
+ */
+public class EngineStartup {
+    private static final String HISTORY_DIR = "history";
+    private static final String OUTBOX_DIR = "outbox";
+
+    /**
+     * @param baseDir plugin data directory (ie: IDE system dir/hubitat)
+     */
+    public static DeployHistory getHistory(Path baseDir) {
+        return DeployHistory.get(baseDir.resolve(HISTORY_DIR));
+    }
+
+    public static DeployOutbox getOutbox(Path baseDir) {
+        return DeployOutbox.get(baseDir.resolve(OUTBOX_DIR));
+    }
+
+    /**
+     * hook up deploy history/outbox and this session's HTTP trace
+     * - deploys left over from the last session (hub was offline) go out as soon as the hub is reachable again
+     *
+     * @param traceDir where HTTP trace files go; null for no trace
+     */
+    public static void start(Path baseDir, Path traceDir, DeployOutbox.Listener listener) {
+        if (traceDir != null) HttpTrace.start(traceDir);
+        DeployEngine deployEngine = DeployEngine.getInstance();
+        DeployOutbox outbox = getOutbox(baseDir);
+        deployEngine.setHistory(getHistory(baseDir));
+        deployEngine.setOutbox(outbox);
+        // NOTE: application-wide; the first project to open starts it
+        outbox.start(deployEngine, listener);
+    }
+}
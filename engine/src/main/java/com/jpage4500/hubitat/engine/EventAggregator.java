@@ -0,0 +1,117 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.HubEvent;
+
+import java.util.*;
+
+/**
+ * Keeps the latest value of each device attribute and which ones changed since the consumer last looked
+ * - events for the same device/attribute are coalesced; a slow consumer only ever sees the newest value
+ * - drainChanges(max) hands out a bounded batch (sampling); anything left stays queued for the next batch
+ * - number of tracked attributes is capped; least recently updated are evicted
+ */
+public class EventAggregator {
+    private final int maxAttributes;
+
+    // key (deviceId:attribute) -> state; access-ordered for eviction; guarded by 'this'
+    private final LinkedHashMap<String, AttributeState> stateMap;
+    // keys changed since last drain, in order of first change; guarded by 'this'
+    private final LinkedHashSet<String> dirtySet = new LinkedHashSet<>();
+
+    private long received;
+    private long coalesced;
+
+    public static class AttributeState {
+        public final String key;
+        public final int deviceId;
+        public final String attribute;
+        public String displayName;
+        public String value;
+        public String unit;
+        public long count;
+        public long lastTimeMs;
+
+        AttributeState(String key, int deviceId, String attribute) {
+            this.key = key;
+            this.deviceId = deviceId;
+            this.attribute = attribute;
+        }
+
+        AttributeState copy() {
+            AttributeState copy = new AttributeState(key, deviceId, attribute);
+            copy.displayName = displayName;
+            copy.value = value;
+            copy.unit = unit;
+            copy.count = count;
+            copy.lastTimeMs = lastTimeMs;
+            return copy;
+        }
+    }
+
+    public EventAggregator(int maxAttributes) {
+        this.maxAttributes = maxAttributes;
+        this.stateMap = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AttributeState> eldest) {
+                if (size() <= EventAggregator.this.maxAttributes) return false;
+                dirtySet.remove(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    public synchronized void add(HubEvent event) {
+        received++;
+        String key = event.deviceId + ":" + event.name;
+        AttributeState state = stateMap.get(key);
+        if (state == null) {
+            state = new AttributeState(key, event.deviceId, event.name);
+            stateMap.put(key, state);
+        }
+        state.displayName = event.displayName;
+        state.value = event.value;
+        state.unit = event.unit;
+        state.count++;
+        state.lastTimeMs = System.currentTimeMillis();
+        if (!dirtySet.add(key)) coalesced++;
+    }
+
+    /**
+     * @return up to max changed attributes (copies) since last call
+     */
+    public synchronized List<AttributeState> drainChanges(int max) {
+        List<AttributeState> changeList = new ArrayList<>(Math.min(max, dirtySet.size()));
+        Iterator<String> iterator = dirtySet.iterator();
+        while (iterator.hasNext() && changeList.size() < max) {
+            AttributeState state = stateMap.get(iterator.next());
+            iterator.remove();
+            if (state != null) changeList.add(state.copy());
+        }
+        return changeList;
+    }
+
+    /**
+     * @return number of changed attributes waiting to be drained
+     */
+    public synchronized int getPendingCount() {
+        return dirtySet.size();
+    }
+
+    public synchronized long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return number of events replaced by a newer event before the consumer saw them
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized void clear() {
+        stateMap.clear();
+        dirtySet.clear();
+        received = 0;
+        coalesced = 0;
+    }
+}
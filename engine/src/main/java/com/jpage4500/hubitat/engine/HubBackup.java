@@ -0,0 +1,219 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.utils.HashUtils;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Download a hub database backup
+ * <pre>
+ * dir/
+ *   192.168.0.100/
+ *     hub-backup-20261019-091400.lzf           newest 'keep' backups are kept; older ones are deleted
+ *     hub-backup-20261019-091400.lzf.sha256    checksum ("sha256sum -c" format)
+ * </pre>
+ * - streamed to disk through NIO channels; the SHA-256 is computed from the same buffers as they're written
+ * - written to a .part file first; a failed or cancelled download never replaces/rotates out a good backup
+ */
+public class HubBackup {
+    private static final Logger log = LoggerFactory.getLogger(HubBackup.class);
+
+    public static final int DEFAULT_KEEP = 5;
+    private static final String PREFIX = "hub-backup-";
+    private static final String EXT = ".lzf";
+    private static final String PATH = "/hub/backupDB?fileName=latest";
+
+    private final HubSession session;
+    private final Path hubDir;
+    private final int keep;
+    private volatile boolean isCancelled;
+
+    public interface Listener {
+        /**
+         * NOTE: called on the downloading thread after every chunk
+         *
+         * @param totalBytes -1 if not known
+         */
+        void onProgress(long receivedBytes, long totalBytes, long bytesPerSec);
+    }
+
+    public static class Result {
+        public Path file;               // null on error
+        public long bytes;
+        public String sha256;
+        public long elapsedMs;
+        public String error;
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public long getBytesPerSec() {
+            return bytes * 1000 / Math.max(1, elapsedMs);
+        }
+
+        @Override
+        public String toString() {
+            if (!isSuccess()) return "error: " + error;
+            return file.getFileName() + " (" + (bytes / 1024) + " KB, " + (getBytesPerSec() / 1024) + " KB/s, " + elapsedMs + "ms)";
+        }
+    }
+
+    /**
+     * @param dir  backups for each hub go into a sub-folder of dir
+     * @param keep number of backups to keep per hub
+     */
+    public HubBackup(String hubAddress, Path dir, int keep) {
+        this.session = HubSession.get(hubAddress);
+        this.hubDir = dir.resolve(hubAddress.replaceAll("[^A-Za-z0-9._-]", "_"));
+        this.keep = Math.max(1, keep);
+    }
+
+    public Path getHubDir() {
+        return hubDir;
+    }
+
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    /**
+     * NOTE: blocking; call from a background thread
+     */
+    public Result download(Listener listener) {
+        long startMs = System.currentTimeMillis();
+        Result result = new Result();
+        Path file = hubDir.resolve(PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + EXT);
+        Path partFile = Path.of(file + ".part");
+        MessageDigest digest = HashUtils.newSha256();
+        try {
+            Files.createDirectories(hubDir);
+            NetworkHelper.HttpResponse response;
+            try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DigestChannel out = new DigestChannel(channel, digest);
+                response = session.download(PATH, out, (received, total) -> {
+                    if (listener != null) {
+                        long elapsedMs = Math.max(1, System.currentTimeMillis() - startMs);
+                        listener.onProgress(received, total, received * 1000 / elapsedMs);
+                    }
+                });
+                result.bytes = out.bytes;
+                if (response.status == 200) channel.force(true);
+            }
+            if (response.status != 200) {
+                result.error = isCancelled ? "cancelled" : "http:" + response.status + " " + response.body;
+            } else if (result.bytes == 0) {
+                result.error = "hub returned an empty backup";
+            } else {
+                Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                result.file = file;
+                result.sha256 = HashUtils.toHex(digest.digest());
+                Files.writeString(Path.of(file + ".sha256"), result.sha256 + "  " + file.getFileName() + "\n", StandardCharsets.UTF_8);
+                rotate();
+            }
+        } catch (IOException e) {
+            result.error = e.getMessage();
+        } finally {
+            try {
+                Files.deleteIfExists(partFile);
+            } catch (IOException e) {
+                log.error("download: {}: {}", partFile, e.getMessage());
+            }
+        }
+        result.elapsedMs = System.currentTimeMillis() - startMs;
+        log.debug("download: {}: {}", session.getHubAddress(), result);
+        return result;
+    }
+
+    /**
+     * @return backups for this hub, newest first
+     */
+    public List<Path> getBackups() {
+        List<Path> fileList = new ArrayList<>();
+        if (!Files.isDirectory(hubDir)) return fileList;
+        try (Stream<Path> stream = Files.list(hubDir)) {
+            stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(EXT);
+            }).forEach(fileList::add);
+        } catch (IOException e) {
+            log.error("getBackups: {}: {}", hubDir, e.getMessage());
+        }
+        // timestamp in name sorts oldest -> newest
+        fileList.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+        return fileList;
+    }
+
+    /**
+     * delete all but the newest 'keep' backups
+     */
+    private void rotate() {
+        List<Path> fileList = getBackups();
+        for (int i = keep; i < fileList.size(); i++) {
+            Path path = fileList.get(i);
+            try {
+                Files.deleteIfExists(path);
+                Files.deleteIfExists(Path.of(path + ".sha256"));
+                log.debug("rotate: deleted {}", path.getFileName());
+            } catch (IOException e) {
+                log.error("rotate: {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * writes to a file and updates a digest with exactly the bytes written
+     */
+    private class DigestChannel implements WritableByteChannel {
+        private final FileChannel channel;
+        private final MessageDigest digest;
+        private long bytes;
+
+        DigestChannel(FileChannel channel, MessageDigest digest) {
+            this.channel = channel;
+            this.digest = digest;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (isCancelled) throw new InterruptedIOException("cancelled");
+            ByteBuffer written = src.duplicate();
+            int count = channel.write(src);
+            written.limit(written.position() + count);
+            digest.update(written);
+            bytes += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
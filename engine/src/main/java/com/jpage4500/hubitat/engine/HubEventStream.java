@@ -0,0 +1,91 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.HubEvent;
+import com.jpage4500.hubitat.utils.HubSocket;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live device events (ws://hub/eventsocket) aggregated per device/attribute
+ * - events are parsed with a streaming reader on the socket thread and coalesced in EventAggregator
+ * - consumers pull bounded batches at their own pace (see EventAggregator.drainChanges)
+ */
+public class HubEventStream {
+    public static final int MAX_ATTRIBUTES = 5000;
+
+    private final HubSocket socket;
+    private final EventAggregator aggregator = new EventAggregator(MAX_ATTRIBUTES);
+    // only aggregate events from these devices; null = all
+    private volatile Set<Integer> deviceIds;
+    private volatile String status = "Not connected";
+    private volatile long filtered;
+    private final AtomicInteger filterVersion = new AtomicInteger();
+
+    public HubEventStream(String hubAddress) {
+        socket = new HubSocket(hubAddress, "/eventsocket", new HubSocket.Listener() {
+            @Override
+            public void onMessage(String text) {
+                HubEvent event = HubEvent.parse(text);
+                if (event == null || !"DEVICE".equalsIgnoreCase(event.source)) return;
+                Set<Integer> ids = deviceIds;
+                if (ids != null && !ids.contains(event.deviceId)) {
+                    filtered++;
+                    return;
+                }
+                aggregator.add(event);
+            }
+
+            @Override
+            public void onStatus(boolean isConnected, String message) {
+                status = message;
+            }
+        });
+    }
+
+    public String getHubAddress() {
+        return socket.getHubAddress();
+    }
+
+    public EventAggregator getAggregator() {
+        return aggregator;
+    }
+
+    public void setDeviceIds(Set<Integer> deviceIds) {
+        this.deviceIds = deviceIds;
+        aggregator.clear();
+        filterVersion.incrementAndGet();
+    }
+
+    /**
+     * @return incremented every time device filter changes (and aggregated values are cleared)
+     */
+    public int getFilterVersion() {
+        return filterVersion.get();
+    }
+
+    public Set<Integer> getDeviceIds() {
+        return deviceIds;
+    }
+
+    /**
+     * @return number of events ignored by device filter
+     */
+    public long getFiltered() {
+        return filtered;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void start() {
+        status = "Connecting to " + socket.getHubAddress() + "...";
+        socket.start();
+    }
+
+    public void stop() {
+        socket.stop();
+        status = "Not connected";
+    }
+}
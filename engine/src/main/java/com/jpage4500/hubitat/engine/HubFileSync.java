@@ -0,0 +1,294 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.HubFile;
+import com.jpage4500.hubitat.models.InstallResult;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.HashUtils;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Upload a local folder to the hub's File Manager
+ * - files are streamed from disk (see NetworkHelper.postFile()); large media is never held in memory
+ * - up to 'parallel' uploads at a time (the hub's own request limit still applies)
+ * - a file is skipped when its hash matches the last upload to this hub and the hub still has it (same size)
+ * - folder/.hubitat-files.json records every finished upload right away, so an interrupted sync picks up where it
+ *   stopped; local hashes are reused while a file's size/modified time are unchanged
+ * NOTE: File Manager has no folders; "dash/index.html" is uploaded as "dash_index.html"
+ */
+public class HubFileSync {
+    private static final Logger log = LoggerFactory.getLogger(HubFileSync.class);
+
+    public static final String MANIFEST_FILE = ".hubitat-files.json";
+    public static final int DEFAULT_PARALLEL = 3;
+
+    private final HubSession session;
+    private final Path folder;
+    private final int parallel;
+    private volatile boolean isCancelled;
+    private volatile ExecutorService executor;
+
+    public interface Listener {
+        /**
+         * NOTE: called on a background thread (often)
+         *
+         * @param file file being uploaded (hub name)
+         */
+        void onProgress(long sentBytes, long totalBytes, String file);
+    }
+
+    public static class Result {
+        public int uploaded;
+        public int skipped;
+        public int failed;
+        public long bytes;              // uploaded
+        public long elapsedMs;
+        public boolean isCancelled;
+        public final List<String> errorList = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            return "uploaded:" + uploaded + " (" + (bytes / 1024) + " KB), unchanged:" + skipped + ", failed:" + failed
+                + ", " + elapsedMs + "ms" + (isCancelled ? " (cancelled)" : "");
+        }
+    }
+
+    /**
+     * last upload of a file (hub name -> state)
+     */
+    static class FileState {
+        String hash;
+        long size;
+        long modifiedMs;                // local modified time when hash was computed
+    }
+
+    /**
+     * saved as folder/.hubitat-files.json
+     */
+    static class Manifest {
+        // hub -> hub file name -> last upload
+        Map<String, Map<String, FileState>> hubs = new HashMap<>();
+    }
+
+    private static class LocalFile {
+        Path path;
+        String name;                    // hub name
+        long size;
+        long modifiedMs;
+        String hash;
+    }
+
+    public HubFileSync(String hubAddress, Path folder, int parallel) {
+        this.session = HubSession.get(hubAddress);
+        this.folder = folder;
+        this.parallel = Math.max(1, parallel);
+    }
+
+    /**
+     * stop sync; uploads in progress are aborted, finished ones are kept in the manifest
+     */
+    public void cancel() {
+        isCancelled = true;
+        ExecutorService uploadExecutor = executor;
+        if (uploadExecutor != null) uploadExecutor.shutdownNow();
+    }
+
+    /**
+     * NOTE: blocking; call from a background thread
+     */
+    public Result sync(Listener listener) {
+        long startMs = System.currentTimeMillis();
+        Result result = new Result();
+        Manifest manifest = loadManifest();
+        Map<String, FileState> stateMap = manifest.hubs.computeIfAbsent(session.getHubAddress(), k -> new HashMap<>());
+
+        // what's on the hub now
+        NetworkHelper.HttpResponse response = session.getRequest("/hub/fileManager/json", session.getHeaders());
+        if (response.status != 200) {
+            result.errorList.add("Unable to list hub files: http:" + response.status + " " + response.body);
+            result.elapsedMs = System.currentTimeMillis() - startMs;
+            return result;
+        }
+        Map<String, HubFile> hubFileMap = new HashMap<>();
+        for (HubFile hubFile : HubFile.parseList(response.body)) hubFileMap.put(hubFile.name, hubFile);
+
+        List<LocalFile> uploadList = new ArrayList<>();
+        long totalBytes = 0;
+        try {
+            for (LocalFile file : listFiles()) {
+                if (isCancelled) break;
+                FileState state = stateMap.get(file.name);
+                file.hash = (state != null && state.size == file.size && state.modifiedMs == file.modifiedMs)
+                    ? state.hash : hashFile(file.path);
+                HubFile hubFile = hubFileMap.get(file.name);
+                boolean isOnHub = hubFile != null && (hubFile.size < 0 || hubFile.size == file.size);
+                if (state != null && file.hash.equals(state.hash) && isOnHub) {
+                    result.skipped++;
+                    continue;
+                }
+                uploadList.add(file);
+                totalBytes += file.size;
+            }
+        } catch (IOException e) {
+            result.errorList.add("Unable to read " + folder + ": " + e.getMessage());
+            result.elapsedMs = System.currentTimeMillis() - startMs;
+            return result;
+        }
+        log.debug("sync: {} -> {}: upload:{} ({} bytes), unchanged:{}", folder, session.getHubAddress(), uploadList.size(), totalBytes, result.skipped);
+
+        AtomicLong sentBytes = new AtomicLong();
+        long total = totalBytes;
+        ExecutorService uploadExecutor = Executors.newFixedThreadPool(Math.min(parallel, Math.max(1, uploadList.size())), r -> {
+            Thread thread = new Thread(r, "hubitat-file-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = uploadExecutor;
+        List<Future<String>> futureList = new ArrayList<>();
+        for (LocalFile file : uploadList) {
+            futureList.add(uploadExecutor.submit(() -> upload(file, manifest, stateMap, sentBytes, total, listener)));
+        }
+        uploadExecutor.shutdown();
+        for (int i = 0; i < futureList.size(); i++) {
+            LocalFile file = uploadList.get(i);
+            String error;
+            try {
+                error = futureList.get(i).get();
+            } catch (CancellationException | InterruptedException e) {
+                error = "cancelled";
+            } catch (ExecutionException e) {
+                error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            }
+            if (error == null) {
+                result.uploaded++;
+                result.bytes += file.size;
+            } else if (!isCancelled) {
+                result.failed++;
+                result.errorList.add(file.name + ": " + error);
+            }
+        }
+        result.isCancelled = isCancelled;
+        result.elapsedMs = System.currentTimeMillis() - startMs;
+        log.debug("sync: {}", result);
+        return result;
+    }
+
+    /**
+     * @return error message; null on success
+     */
+    private String upload(LocalFile file, Manifest manifest, Map<String, FileState> stateMap, AtomicLong sentBytes,
+                          long totalBytes, Listener listener) {
+        if (isCancelled) return "cancelled";
+        long[] fileSent = {0};
+        NetworkHelper.HttpResponse response = session.postFile("/hub/fileManager/upload", Map.of("folder", "/"),
+            "uploadFile", file.name, file.path, sent -> {
+                long done = sentBytes.addAndGet(sent - fileSent[0]);
+                fileSent[0] = sent;
+                if (listener != null) listener.onProgress(done, totalBytes, file.name);
+            });
+        if (response.status != 200 || isFailed(response.body)) {
+            // don't count a partial upload towards progress
+            sentBytes.addAndGet(-fileSent[0]);
+            log.debug("upload: {}: failed after {} bytes", file.name, fileSent[0]);
+            return "http:" + response.status + " " + response.body;
+        }
+        FileState state = new FileState();
+        state.hash = file.hash;
+        state.size = file.size;
+        state.modifiedMs = file.modifiedMs;
+        synchronized (manifest) {
+            stateMap.put(file.name, state);
+            // saved after every file so an interrupted sync doesn't upload it again
+            saveManifest(manifest);
+        }
+        return null;
+    }
+
+    private static boolean isFailed(String body) {
+        if (body == null || !body.startsWith("{")) return false;
+        InstallResult result = GsonHelper.fromJson(body, InstallResult.class);
+        return result != null && !result.success;
+    }
+
+    private List<LocalFile> listFiles() throws IOException {
+        List<LocalFile> fileList = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                if (!Files.isRegularFile(path)) continue;
+                Path relative = folder.relativize(path);
+                // skip hidden files/folders (.git, .DS_Store, manifest)
+                boolean isHidden = false;
+                for (Path part : relative) isHidden |= part.toString().startsWith(".");
+                if (isHidden) continue;
+                LocalFile file = new LocalFile();
+                file.path = path;
+                file.name = toHubName(relative);
+                file.size = Files.size(path);
+                file.modifiedMs = Files.getLastModifiedTime(path).toMillis();
+                fileList.add(file);
+            }
+        }
+        return fileList;
+    }
+
+    /**
+     * "dash/index page.html" -> "dash_index_page.html"
+     */
+    static String toHubName(Path relative) {
+        StringBuilder sb = new StringBuilder();
+        for (Path part : relative) {
+            if (!sb.isEmpty()) sb.append('_');
+            sb.append(part.toString());
+        }
+        return sb.toString().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * SHA-256 of file contents, streamed
+     */
+    private static String hashFile(Path path) throws IOException {
+        MessageDigest digest = HashUtils.newSha256();
+        byte[] buffer = new byte[NetworkHelper.CHUNK_SIZE];
+        try (InputStream is = Files.newInputStream(path)) {
+            int count;
+            while ((count = is.read(buffer)) != -1) digest.update(buffer, 0, count);
+        }
+        return HashUtils.toHex(digest.digest());
+    }
+
+    private Manifest loadManifest() {
+        Path file = folder.resolve(MANIFEST_FILE);
+        if (!Files.exists(file)) return new Manifest();
+        try {
+            Manifest manifest = GsonHelper.fromJson(Files.readString(file, StandardCharsets.UTF_8), Manifest.class);
+            if (manifest != null && manifest.hubs != null) return manifest;
+        } catch (Exception e) {
+            log.error("loadManifest: {}", e.getMessage());
+        }
+        return new Manifest();
+    }
+
+    private void saveManifest(Manifest manifest) {
+        try {
+            Path tmp = folder.resolve(MANIFEST_FILE + ".tmp");
+            Files.writeString(tmp, GsonHelper.toJson(manifest), StandardCharsets.UTF_8);
+            Files.move(tmp, folder.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("saveManifest: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.UsedBy;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local cache of all apps/drivers installed on a hub
+ * - refresh() fetches the app + driver lists and returns only what changed (by id + lastModified)
+ * - if one list fails to load, the previous items of that type are kept
+ * NOTE: shared by every project on the same hub; refresh()'s diff is relative to the last refresh by anyone, so a
+ * consumer that keeps its own copy (ie: a tool window table) should use diff(itsItems, getItems()) instead
+ */
+public class HubInventory {
+    private static final Logger log = LoggerFactory.getLogger(HubInventory.class);
+
+    private static final Map<String, HubInventory> inventoryMap = new ConcurrentHashMap<>();
+
+    private final String hubAddress;
+    // key -> item; guarded by 'this'
+    private final Map<String, Item> itemMap = new LinkedHashMap<>();
+    private volatile long lastRefreshMs;
+    private volatile String lastError;
+
+    public static class Item {
+        public final String hub;
+        public final boolean isApp;
+        public final UserDeviceType type;
+
+        Item(String hub, boolean isApp, UserDeviceType type) {
+            this.hub = hub;
+            this.isApp = isApp;
+            this.type = type;
+        }
+
+        /**
+         * @return unique key for this app/driver (hub/type/id)
+         */
+        public String getKey() {
+            return key(hub, isApp, type.id);
+        }
+
+        /**
+         * @return key used to match local sources (type + namespace:name)
+         */
+        public String getSourceKey() {
+            return sourceKey(isApp, type.namespace, type.name);
+        }
+    }
+
+    public static class Diff {
+        public final List<Item> added = new ArrayList<>();
+        public final List<Item> changed = new ArrayList<>();
+        public final List<Item> removed = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "added:" + added.size() + ", changed:" + changed.size() + ", removed:" + removed.size();
+        }
+    }
+
+    private HubInventory(String hubAddress) {
+        this.hubAddress = hubAddress;
+    }
+
+    public static HubInventory get(String hubAddress) {
+        return inventoryMap.computeIfAbsent(hubAddress, HubInventory::new);
+    }
+
+    public static String key(String hub, boolean isApp, int id) {
+        return hub + "/" + (isApp ? "app" : "driver") + "/" + id;
+    }
+
+    public static String sourceKey(boolean isApp, String namespace, String name) {
+        return (isApp ? "app" : "driver") + "/" + namespace + ":" + name;
+    }
+
+    public String getHubAddress() {
+        return hubAddress;
+    }
+
+    public synchronized List<Item> getItems() {
+        return new ArrayList<>(itemMap.values());
+    }
+
+    public long getLastRefreshMs() {
+        return lastRefreshMs;
+    }
+
+    /**
+     * @return error from last refresh; null if successful
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * fetch app + driver lists from hub and update cache
+     * NOTE: blocking; call from a background thread
+     *
+     * @return changes since last refresh
+     */
+    public Diff refresh() {
+        HubSession session = HubSession.get(hubAddress);
+        Map<Boolean, List<UserDeviceType>> fetched = new HashMap<>();
+        String error = null;
+        for (boolean isApp : new boolean[]{true, false}) {
+            NetworkHelper.HttpResponse response = session.fetchTypeList(isApp);
+            if (response.status == 200) {
+                fetched.put(isApp, session.getCachedTypeList(isApp));
+            } else {
+                error = TextUtils.firstValid(response.body, "http:" + response.status);
+                // hub not reachable; don't bother with 2nd request
+                if (response.status == -1) break;
+            }
+        }
+        lastError = error;
+
+        Diff diff = new Diff();
+        synchronized (this) {
+            for (Map.Entry<Boolean, List<UserDeviceType>> entry : fetched.entrySet()) {
+                boolean isApp = entry.getKey();
+                Set<String> seenKeys = new HashSet<>();
+                for (UserDeviceType type : entry.getValue()) {
+                    Item item = new Item(hubAddress, isApp, type);
+                    String key = item.getKey();
+                    seenKeys.add(key);
+                    Item existing = itemMap.put(key, item);
+                    if (existing == null) {
+                        diff.added.add(item);
+                    } else if (isChanged(existing.type, type)) {
+                        diff.changed.add(item);
+                    }
+                }
+                // anything of this type not in the new list was removed from the hub
+                Iterator<Item> iterator = itemMap.values().iterator();
+                while (iterator.hasNext()) {
+                    Item item = iterator.next();
+                    if (item.isApp == isApp && !seenKeys.contains(item.getKey())) {
+                        iterator.remove();
+                        diff.removed.add(item);
+                    }
+                }
+            }
+        }
+        lastRefreshMs = System.currentTimeMillis();
+        log.debug("refresh: {}: {}, error:{}", hubAddress, diff, error);
+        return diff;
+    }
+
+    /**
+     * @return what changed going from 'before' to 'after' (matched by item key)
+     */
+    public static Diff diff(Collection<Item> before, Collection<Item> after) {
+        Map<String, Item> beforeMap = new HashMap<>();
+        for (Item item : before) beforeMap.put(item.getKey(), item);
+        Diff diff = new Diff();
+        for (Item item : after) {
+            Item existing = beforeMap.remove(item.getKey());
+            if (existing == null) {
+                diff.added.add(item);
+            } else if (isChanged(existing.type, item.type)) {
+                diff.changed.add(item);
+            }
+        }
+        diff.removed.addAll(beforeMap.values());
+        return diff;
+    }
+
+    private static boolean isChanged(UserDeviceType before, UserDeviceType after) {
+        return !TextUtils.equals(before.lastModified, after.lastModified)
+            || !TextUtils.equals(before.name, after.name)
+            || !TextUtils.equals(before.namespace, after.namespace)
+            || !isSameUsedBy(before.usedBy, after.usedBy);
+    }
+
+    private static boolean isSameUsedBy(List<UsedBy> before, List<UsedBy> after) {
+        int size = before != null ? before.size() : 0;
+        if (size != (after != null ? after.size() : 0)) return false;
+        for (int i = 0; i < size; i++) {
+            UsedBy a = before.get(i);
+            UsedBy b = after.get(i);
+            if (a == null || b == null) {
+                if (a != b) return false;
+            } else if (!Objects.equals(a.id, b.id) || !TextUtils.equals(a.name, b.name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.LogEntry;
+import com.jpage4500.hubitat.utils.HubSocket;
+import com.jpage4500.hubitat.utils.RingBuffer;
+
+/**
+ * Live hub logs (ws://hub/logsocket) kept in a bounded ring buffer
+ * - oldest messages are overwritten so memory stays flat during log storms
+ * - consumers poll getBuffer() by sequence number instead of being called per message
+ */
+public class HubLogStream {
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final RingBuffer<LogEntry> buffer;
+    private final HubSocket socket;
+    private volatile String status = "Not connected";
+
+    public HubLogStream(String hubAddress, int capacity) {
+        buffer = new RingBuffer<>(capacity);
+        socket = new HubSocket(hubAddress, "/logsocket", new HubSocket.Listener() {
+            @Override
+            public void onMessage(String text) {
+                LogEntry entry = LogEntry.parse(text);
+                if (entry != null) buffer.add(entry);
+            }
+
+            @Override
+            public void onStatus(boolean isConnected, String message) {
+                status = message;
+            }
+        });
+    }
+
+    public String getHubAddress() {
+        return socket.getHubAddress();
+    }
+
+    public RingBuffer<LogEntry> getBuffer() {
+        return buffer;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isConnected() {
+        return socket.isConnected();
+    }
+
+    public void start() {
+        status = "Connecting to " + socket.getHubAddress() + "...";
+        socket.start();
+    }
+
+    public void stop() {
+        socket.stop();
+        status = "Not connected";
+    }
+}
@@ -0,0 +1,238 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.RuntimeStats;
+import com.jpage4500.hubitat.models.UsedBy;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hub runtime stats per app/driver (summed over every app/device instance using it)
+ * - instances are mapped to apps/drivers through the usedBy lists of the hub's app/driver lists (the same cached
+ *   lists lookupAppId uses)
+ * - each poll() adds a sample; compare() uses them to tell if an app/driver got slower after a deploy
+ * - getStats() returns an immutable snapshot; safe to read from any thread
+ */
+public class HubRuntimeStats {
+    private static final Logger log = LoggerFactory.getLogger(HubRuntimeStats.class);
+
+    public static final String PATH = "/logs/json";
+    // samples kept per app/driver (24h at the default poll interval)
+    private static final int MAX_SAMPLES = 288;
+
+    private static final Map<String, HubRuntimeStats> statsMap = new ConcurrentHashMap<>();
+
+    private final String hubAddress;
+    // HubInventory key -> stats
+    private volatile Map<String, TypeStats> typeMap = Collections.emptyMap();
+    private volatile long lastPollMs;
+    private volatile String lastError;
+
+    public static class Sample {
+        public final long timeMs;
+        public final long totalMs;
+        public final long count;
+
+        Sample(long timeMs, long totalMs, long count) {
+            this.timeMs = timeMs;
+            this.totalMs = totalMs;
+            this.count = count;
+        }
+    }
+
+    public static class TypeStats {
+        public final HubInventory.Item item;
+        public int instances;
+        public long totalMs;
+        public long count;
+        public double busyPct;
+        // oldest first
+        List<Sample> sampleList = new ArrayList<>();
+
+        TypeStats(HubInventory.Item item) {
+            this.item = item;
+        }
+
+        /**
+         * @return average ms per execution since hub started
+         */
+        public double getAvgMs() {
+            return count > 0 ? (double) totalMs / count : 0;
+        }
+
+        public List<Sample> getSamples() {
+            return Collections.unmodifiableList(sampleList);
+        }
+
+        /**
+         * average ms per execution before vs after a deploy
+         * NOTE: needs a sample before and after deployTimeMs; fields are -1 when unknown
+         */
+        public Comparison compare(long deployTimeMs) {
+            Comparison comparison = new Comparison();
+            Sample firstBefore = null;
+            Sample lastBefore = null;
+            Sample firstAfter = null;
+            Sample lastAfter = null;
+            for (Sample sample : sampleList) {
+                if (sample.timeMs <= deployTimeMs) {
+                    if (firstBefore == null) firstBefore = sample;
+                    lastBefore = sample;
+                } else {
+                    if (firstAfter == null) firstAfter = sample;
+                    lastAfter = sample;
+                }
+            }
+            comparison.beforeAvgMs = getAvgMs(firstBefore, lastBefore);
+            // only one sample since deploy: measure from the last one before it
+            Sample afterFrom = firstAfter != lastAfter ? firstAfter : lastBefore;
+            comparison.afterAvgMs = getAvgMs(afterFrom, lastAfter);
+            if (afterFrom != null && lastAfter != null) comparison.afterCount = lastAfter.count - afterFrom.count;
+            return comparison;
+        }
+
+        private static double getAvgMs(Sample from, Sample to) {
+            if (from == null || to == null || to.count <= from.count) return -1;
+            return (double) (to.totalMs - from.totalMs) / (to.count - from.count);
+        }
+    }
+
+    public static class Comparison {
+        public double beforeAvgMs = -1;
+        public double afterAvgMs = -1;
+        public long afterCount;             // executions measured since deploy
+
+        public boolean isKnown() {
+            return beforeAvgMs > 0 && afterAvgMs >= 0;
+        }
+
+        /**
+         * @return % change in average time per execution (positive = slower)
+         */
+        public double getChangePct() {
+            return isKnown() ? (afterAvgMs - beforeAvgMs) * 100 / beforeAvgMs : 0;
+        }
+    }
+
+    private HubRuntimeStats(String hubAddress) {
+        this.hubAddress = hubAddress;
+    }
+
+    public static HubRuntimeStats get(String hubAddress) {
+        return statsMap.computeIfAbsent(hubAddress, HubRuntimeStats::new);
+    }
+
+    public String getHubAddress() {
+        return hubAddress;
+    }
+
+    public long getLastPollMs() {
+        return lastPollMs;
+    }
+
+    /**
+     * @return error from last poll; null if successful
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return stats from last poll, busiest first
+     */
+    public List<TypeStats> getStats() {
+        List<TypeStats> resultList = new ArrayList<>(typeMap.values());
+        resultList.sort((s1, s2) -> Long.compare(s2.totalMs, s1.totalMs));
+        return resultList;
+    }
+
+    /**
+     * @param appId used when known; otherwise matched by namespace + name
+     * @return stats for a local app/driver; null if not found (or not polled yet)
+     */
+    public TypeStats find(boolean isApp, Integer appId, String namespace, String name) {
+        Map<String, TypeStats> map = typeMap;
+        if (appId != null) return map.get(HubInventory.key(hubAddress, isApp, appId));
+        String sourceKey = HubInventory.sourceKey(isApp, namespace, name);
+        for (TypeStats stats : map.values()) {
+            if (stats.item.getSourceKey().equals(sourceKey)) return stats;
+        }
+        return null;
+    }
+
+    /**
+     * fetch stats from hub and add a sample for every app/driver
+     * NOTE: blocking; call from a background thread
+     *
+     * @return true if stats were updated
+     */
+    public boolean poll() {
+        HubSession session = HubSession.get(hubAddress);
+        NetworkHelper.HttpResponse response = session.getRequest(PATH, session.getHeaders());
+        RuntimeStats stats = response.status == 200 ? RuntimeStats.parse(response.body) : null;
+        if (stats == null) {
+            lastError = response.status == 200 ? "unexpected stats response" : TextUtils.firstValid(response.body, "http:" + response.status);
+            log.debug("poll: {}: {}", hubAddress, lastError);
+            return false;
+        }
+
+        // instance id -> app/driver
+        Map<Integer, HubInventory.Item> appMap = new HashMap<>();
+        Map<Integer, HubInventory.Item> deviceMap = new HashMap<>();
+        for (boolean isApp : new boolean[]{true, false}) {
+            // cached by HubSession; only fetched when stale
+            List<UserDeviceType> typeList = session.getTypeList(isApp);
+            if (typeList == null) continue;
+            for (UserDeviceType type : typeList) {
+                if (type.usedBy == null) continue;
+                HubInventory.Item item = new HubInventory.Item(hubAddress, isApp, type);
+                for (UsedBy usedBy : type.usedBy) {
+                    if (usedBy != null && usedBy.id != null) (isApp ? appMap : deviceMap).put(usedBy.id, item);
+                }
+            }
+        }
+
+        Map<String, TypeStats> previousMap = typeMap;
+        Map<String, TypeStats> newMap = new HashMap<>();
+        add(newMap, stats.appStats, appMap);
+        add(newMap, stats.deviceStats, deviceMap);
+        long nowMs = System.currentTimeMillis();
+        for (Map.Entry<String, TypeStats> entry : newMap.entrySet()) {
+            TypeStats typeStats = entry.getValue();
+            TypeStats previous = previousMap.get(entry.getKey());
+            if (previous != null && !previous.sampleList.isEmpty()) {
+                Sample last = previous.sampleList.get(previous.sampleList.size() - 1);
+                // totals went down: hub restarted (or an instance was removed); earlier samples don't compare
+                if (typeStats.totalMs >= last.totalMs && typeStats.count >= last.count) {
+                    int from = Math.max(0, previous.sampleList.size() - (MAX_SAMPLES - 1));
+                    typeStats.sampleList.addAll(previous.sampleList.subList(from, previous.sampleList.size()));
+                }
+            }
+            typeStats.sampleList.add(new Sample(nowMs, typeStats.totalMs, typeStats.count));
+        }
+        typeMap = newMap;
+        lastPollMs = nowMs;
+        lastError = null;
+        log.debug("poll: {}: apps:{}, devices:{} -> {} apps/drivers", hubAddress, stats.appStats.size(), stats.deviceStats.size(), newMap.size());
+        return true;
+    }
+
+    private void add(Map<String, TypeStats> map, List<RuntimeStats.Entry> entryList, Map<Integer, HubInventory.Item> instanceMap) {
+        for (RuntimeStats.Entry entry : entryList) {
+            HubInventory.Item item = instanceMap.get(entry.id);
+            // built-in app/driver (not user code)
+            if (item == null) continue;
+            TypeStats typeStats = map.computeIfAbsent(item.getKey(), k -> new TypeStats(item));
+            typeStats.instances++;
+            typeStats.totalMs += entry.totalMs;
+            typeStats.count += entry.count;
+            typeStats.busyPct += entry.busyPct;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.models.SourceCode;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.HashUtils;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-deploy check: has the hub copy been changed since we last deployed it (ie: edited in the web IDE)?
+ * - hub source is only downloaded when its lastModified changed since the last check
+ * - hub copy that matches the local file, or the last version deployed from here, is not a conflict
+ * - otherwise the hub copy is diffed against the local file
+ * NOTE: lastModified comes from the (short-lived) cached app/driver list when available
+ */
+public class HubSourceCheck {
+    private static final Logger log = LoggerFactory.getLogger(HubSourceCheck.class);
+
+    private static final HubSourceCheck instance = new HubSourceCheck();
+
+    // target -> last seen hub source
+    private final Map<String, Entry> entryMap = new ConcurrentHashMap<>();
+
+    public enum Status {
+        SAME,           // hub copy matches local file
+        DEPLOYED,       // hub copy is the last version deployed from here
+        CHANGED,        // hub copy was changed elsewhere
+        NOT_FOUND,      // not on hub yet
+        UNKNOWN,        // hub not reachable (or source couldn't be downloaded)
+    }
+
+    public static class Result {
+        public Status status;
+        public String hubText;          // CHANGED only
+        public String lastModified;
+        public Integer appId;           // hub app/driver ID (null if not on hub)
+        public LineDiff.Result diff;    // local vs hub (CHANGED only)
+        public boolean isFetched;       // hub source was downloaded
+        public long elapsedMs;
+    }
+
+    private static class Entry {
+        String lastModified;
+        String hash;
+        SoftReference<String> text;
+    }
+
+    public static HubSourceCheck getInstance() {
+        return instance;
+    }
+
+    /**
+     * NOTE: blocking; call from a background thread
+     *
+     * @param history used to tell our own deploys from changes made elsewhere; can be null
+     */
+    public Result check(DriverDetails details, DeployHistory history) {
+        long startMs = System.currentTimeMillis();
+        Result result = new Result();
+        result.status = Status.UNKNOWN;
+
+        HubSession session = HubSession.get(details.hubIp);
+        // list is cached after this; findType() won't fetch it again
+        boolean isReachable = session.getTypeList(details.isApp) != null;
+        UserDeviceType type = isReachable ? session.findType(details.isApp, details.appId, details.namespace, details.name) : null;
+        if (type == null) {
+            if (isReachable) result.status = Status.NOT_FOUND;
+            result.elapsedMs = System.currentTimeMillis() - startMs;
+            return result;
+        }
+        result.lastModified = type.lastModified;
+        result.appId = type.id;
+        String target = HubInventory.key(details.hubIp, details.isApp, type.id);
+
+        String text = null;
+        Entry entry = entryMap.get(target);
+        if (isStale(entry, type)) {
+            text = fetch(session, details.isApp, type, target);
+            if (text == null) {
+                result.elapsedMs = System.currentTimeMillis() - startMs;
+                return result;
+            }
+            entry = entryMap.get(target);
+            result.isFetched = true;
+        }
+
+        String localHash = HashUtils.sha256(details.text);
+        if (entry.hash.equals(localHash)) {
+            result.status = Status.SAME;
+        } else if (history != null && isLastDeployed(history, details, type.id, entry.hash)) {
+            result.status = Status.DEPLOYED;
+        } else {
+            if (text == null) text = entry.text.get();
+            if (text == null) {
+                // evicted from memory; fetch again
+                text = fetch(session, details.isApp, type, target);
+                if (text == null) {
+                    result.elapsedMs = System.currentTimeMillis() - startMs;
+                    return result;
+                }
+                result.isFetched = true;
+            }
+            result.status = Status.CHANGED;
+            result.hubText = text;
+            result.diff = LineDiff.diff(text, details.text);
+        }
+        result.elapsedMs = System.currentTimeMillis() - startMs;
+        log.debug("check: {}: {}, fetched:{}, diff:{}, {}ms", target, result.status, result.isFetched, result.diff, result.elapsedMs);
+        return result;
+    }
+
+    /**
+     * download hub source ahead of time (ie: when the file is opened) so check() doesn't have to
+     * NOTE: blocking; call from a background thread
+     */
+    public void prefetch(String hubAddress, boolean isApp, Integer id, String namespace, String name) {
+        HubSession session = HubSession.get(hubAddress);
+        UserDeviceType type = session.findType(isApp, id, namespace, name);
+        if (type == null || Thread.currentThread().isInterrupted()) return;
+        String target = HubInventory.key(hubAddress, isApp, type.id);
+        if (isStale(entryMap.get(target), type)) fetch(session, isApp, type, target);
+    }
+
+    /**
+     * app/driver was just deployed from here: hub copy is now details.text
+     * - keeps the lastModified we last saw so a cached (pre-deploy) app/driver list doesn't look like a change;
+     *   a newer list refetches as usual
+     */
+    public void onDeployed(DriverDetails details) {
+        if (details.appId == null || details.text == null) return;
+        String target = HubInventory.key(details.hubIp, details.isApp, details.appId);
+        Entry existing = entryMap.get(target);
+        if (existing == null) return;
+        Entry entry = new Entry();
+        entry.lastModified = existing.lastModified;
+        entry.hash = HashUtils.sha256(details.text);
+        entry.text = new SoftReference<>(details.text);
+        entryMap.put(target, entry);
+    }
+
+    private static boolean isStale(Entry entry, UserDeviceType type) {
+        return entry == null || type.lastModified == null || !TextUtils.equals(entry.lastModified, type.lastModified);
+    }
+
+    /**
+     * @return hub source (and remember its hash); null on error
+     */
+    private String fetch(HubSession session, boolean isApp, UserDeviceType type, String target) {
+        SourceCode sourceCode = session.fetchSource(isApp, type.id);
+        if (sourceCode == null) return null;
+        Entry entry = new Entry();
+        entry.lastModified = type.lastModified;
+        entry.hash = HashUtils.sha256(sourceCode.source);
+        entry.text = new SoftReference<>(sourceCode.source);
+        entryMap.put(target, entry);
+        return sourceCode.source;
+    }
+
+    private static boolean isLastDeployed(DeployHistory history, DriverDetails details, int id, String hash) {
+        List<DeployHistory.Version> versionList = history.getVersions(DeployHistory.target(details.hubIp, details.isApp, id, null, null));
+        return !versionList.isEmpty() && versionList.get(0).hash.equals(hash);
+    }
+}
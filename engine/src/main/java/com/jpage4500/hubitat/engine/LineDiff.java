@@ -0,0 +1,220 @@
+package com.jpage4500.hubitat.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line based diff (Myers, linear space)
+ * - lines are mapped to ints first so comparisons are cheap
+ * - common prefix/suffix is stripped before searching (typical edits touch a few lines of a large file)
+ * - divide-and-conquer on the middle snake keeps memory at O(N+M) even for 10k+ line files
+ * - files with almost nothing in common are expensive (O(N*D)); after MAX_TIME_MS the remaining
+ *   region is reported as one replaced block (still correct, just not minimal)
+ */
+public class LineDiff {
+    private static final long MAX_TIME_MS = 200;
+
+    /**
+     * lines [aStart, aEnd) of a were replaced by lines [bStart, bEnd) of b
+     */
+    public static class Hunk {
+        public int aStart;
+        public int aEnd;
+        public int bStart;
+        public int bEnd;
+
+        Hunk(int aStart, int aEnd, int bStart, int bEnd) {
+            this.aStart = aStart;
+            this.aEnd = aEnd;
+            this.bStart = bStart;
+            this.bEnd = bEnd;
+        }
+    }
+
+    public static class Result {
+        public final List<Hunk> hunks = new ArrayList<>();
+        public int added;
+        public int removed;
+
+        public boolean isSame() {
+            return hunks.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "+" + added + " -" + removed + " lines (" + hunks.size() + " changes)";
+        }
+    }
+
+    public static Result diff(String a, String b) {
+        return diff(a.split("\n", -1), b.split("\n", -1));
+    }
+
+    public static Result diff(String[] a, String[] b) {
+        Map<String, Integer> idMap = new HashMap<>();
+        int[] aIds = toIds(a, idMap);
+        int[] bIds = toIds(b, idMap);
+        Result result = new Result();
+        if (!hasCommonLine(aIds, bIds, idMap.size())) {
+            // completely rewritten; searching for a path would only cost time
+            if (aIds.length > 0 || bIds.length > 0) addHunk(result, 0, aIds.length, 0, bIds.length);
+            return result;
+        }
+        long deadlineNs = System.nanoTime() + MAX_TIME_MS * 1_000_000;
+        diff(aIds, 0, aIds.length, bIds, 0, bIds.length, deadlineNs, result);
+        return result;
+    }
+
+    private static int[] toIds(String[] lines, Map<String, Integer> idMap) {
+        int[] ids = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            // trailing '\r' (CRLF files) shouldn't count as a change
+            String line = lines[i].endsWith("\r") ? lines[i].substring(0, lines[i].length() - 1) : lines[i];
+            ids[i] = idMap.computeIfAbsent(line, k -> idMap.size());
+        }
+        return ids;
+    }
+
+    private static boolean hasCommonLine(int[] aIds, int[] bIds, int idCount) {
+        boolean[] inA = new boolean[idCount];
+        for (int id : aIds) inA[id] = true;
+        for (int id : bIds) {
+            if (inA[id]) return true;
+        }
+        return false;
+    }
+
+    private static void diff(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi, long deadlineNs, Result result) {
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            aLo++;
+            bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            aHi--;
+            bHi--;
+        }
+        if (aLo == aHi || bLo == bHi) {
+            if (aLo < aHi || bLo < bHi) addHunk(result, aLo, aHi, bLo, bHi);
+            return;
+        }
+        int[] split = middleSnake(a, aLo, aHi, b, bLo, bHi, deadlineNs);
+        if (split == null) {
+            // nothing in common (or out of time)
+            addHunk(result, aLo, aHi, bLo, bHi);
+            return;
+        }
+        diff(a, aLo, split[0], b, bLo, split[1], deadlineNs, result);
+        diff(a, split[0], aHi, b, split[1], bHi, deadlineNs, result);
+    }
+
+    /**
+     * walk forward from the start and backward from the end until the paths overlap
+     *
+     * @return {x, y} where the shortest edit script can be split in two; null if a and b have nothing in common
+     * (or deadline passed)
+     */
+    private static int[] middleSnake(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi, long deadlineNs) {
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int vLength = 2 * maxD + 2;
+        int[] v1 = new int[vLength];
+        int[] v2 = new int[vLength];
+        for (int i = 0; i < vLength; i++) {
+            v1[i] = -1;
+            v2[i] = -1;
+        }
+        v1[offset + 1] = 0;
+        v2[offset + 1] = 0;
+        int delta = n - m;
+        // if the total number of lines is odd, the front path collides with the reverse path
+        boolean isFront = (delta % 2 != 0);
+        // offsets for start/end of k loop; prevents mapping of space beyond the grid
+        int k1Start = 0;
+        int k1End = 0;
+        int k2Start = 0;
+        int k2End = 0;
+        for (int d = 0; d < maxD; d++) {
+            if ((d & 63) == 0 && System.nanoTime() > deadlineNs) break;
+            // forward path
+            for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+                int k1Offset = offset + k1;
+                int x1;
+                if (k1 == -d || (k1 != d && v1[k1Offset - 1] < v1[k1Offset + 1])) {
+                    x1 = v1[k1Offset + 1];
+                } else {
+                    x1 = v1[k1Offset - 1] + 1;
+                }
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && a[aLo + x1] == b[bLo + y1]) {
+                    x1++;
+                    y1++;
+                }
+                v1[k1Offset] = x1;
+                if (x1 > n) {
+                    // ran off the right of the graph
+                    k1End += 2;
+                } else if (y1 > m) {
+                    // ran off the bottom of the graph
+                    k1Start += 2;
+                } else if (isFront) {
+                    int k2Offset = offset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < vLength && v2[k2Offset] != -1) {
+                        // mirror x2 onto top-left coordinate system
+                        int x2 = n - v2[k2Offset];
+                        if (x1 >= x2) return new int[]{aLo + x1, bLo + y1};
+                    }
+                }
+            }
+
+            // reverse path
+            for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+                int k2Offset = offset + k2;
+                int x2;
+                if (k2 == -d || (k2 != d && v2[k2Offset - 1] < v2[k2Offset + 1])) {
+                    x2 = v2[k2Offset + 1];
+                } else {
+                    x2 = v2[k2Offset - 1] + 1;
+                }
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && a[aHi - x2 - 1] == b[bHi - y2 - 1]) {
+                    x2++;
+                    y2++;
+                }
+                v2[k2Offset] = x2;
+                if (x2 > n) {
+                    k2End += 2;
+                } else if (y2 > m) {
+                    k2Start += 2;
+                } else if (!isFront) {
+                    int k1Offset = offset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < vLength && v1[k1Offset] != -1) {
+                        int x1 = v1[k1Offset];
+                        int y1 = offset + x1 - k1Offset;
+                        // mirror x2 onto top-left coordinate system
+                        x2 = n - x2;
+                        if (x1 >= x2) return new int[]{aLo + x1, bLo + y1};
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void addHunk(Result result, int aStart, int aEnd, int bStart, int bEnd) {
+        result.removed += aEnd - aStart;
+        result.added += bEnd - bStart;
+        if (!result.hunks.isEmpty()) {
+            Hunk last = result.hunks.get(result.hunks.size() - 1);
+            if (last.aEnd == aStart && last.bEnd == bStart) {
+                last.aEnd = aEnd;
+                last.bEnd = bEnd;
+                return;
+            }
+        }
+        result.hunks.add(new Hunk(aStart, aEnd, bStart, bEnd));
+    }
+}
@@ -0,0 +1,54 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.LogEntry;
+import com.jpage4500.hubitat.utils.TextUtils;
+
+import java.util.Set;
+
+/**
+ * Immutable filter for hub log messages
+ * - ids: only show messages from these device/app instances (ie: devices using the driver just deployed)
+ * - text: case-insensitive match on name or message
+ */
+public class LogFilter {
+    public static final LogFilter NONE = new LogFilter(null, null, null, null);
+
+    public final Boolean isApp;         // null = devices and apps
+    public final Set<Integer> ids;      // null = all
+    public final String text;           // null = all
+    public final String label;          // describes ids (ie: "driver 885 (3 devices)")
+
+    public LogFilter(Boolean isApp, Set<Integer> ids, String text, String label) {
+        this.isApp = isApp;
+        this.ids = ids;
+        this.text = TextUtils.isEmpty(text) ? null : text;
+        this.label = label;
+    }
+
+    public LogFilter withText(String newText) {
+        return new LogFilter(isApp, ids, newText, label);
+    }
+
+    public LogFilter withoutIds() {
+        return new LogFilter(null, null, text, null);
+    }
+
+    public boolean matches(LogEntry entry) {
+        if (isApp != null && isApp != entry.isApp()) return false;
+        if (ids != null && !ids.contains(entry.id)) return false;
+        if (text == null) return true;
+        return TextUtils.containsIgnoreCase(entry.msg, text) || TextUtils.containsIgnoreCase(entry.name, text);
+    }
+
+    /**
+     * @return index of text match in entry.msg; -1 if none
+     */
+    public int findHighlight(LogEntry entry) {
+        if (text == null || entry.msg == null) return -1;
+        int len = text.length();
+        for (int i = 0; i + len <= entry.msg.length(); i++) {
+            if (entry.msg.regionMatches(true, i, text, 0, len)) return i;
+        }
+        return -1;
+    }
+}
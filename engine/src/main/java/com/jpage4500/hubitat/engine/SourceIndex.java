@@ -0,0 +1,501 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.SourceCode;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.GsonHelper;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local, offline search over all app/driver sources on a hub
+ * <pre>
+ * baseDir/
+ *   manifest.json          list of indexed sources (id, name, lastModified, ...)
+ *   docs/app-884.gz        source (gzip)
+ *   docs/app-884.tri       sorted trigram codes of source (lowercase)
+ * </pre>
+ * - refresh() only downloads sources whose lastModified changed
+ * - in memory: trigram -> documents (BitSet) + an LRU cache of recently searched sources (bounded by chars)
+ * - substring search uses trigrams to pick candidate documents, then verifies line by line
+ */
+public class SourceIndex {
+    private static final Logger log = LoggerFactory.getLogger(SourceIndex.class);
+
+    private static final Map<String, SourceIndex> indexMap = new ConcurrentHashMap<>();
+
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final long MAX_CACHED_CHARS = 8 * 1024 * 1024;
+
+    private final String hubAddress;
+    private final Path baseDir;
+    private final Path docsDir;
+
+    // guarded by 'this'
+    private final Map<String, Doc> docMap = new LinkedHashMap<>();
+    private final List<Doc> ordinalList = new ArrayList<>();
+    private final Map<Integer, BitSet> postingMap = new HashMap<>();
+    private boolean isLoaded;
+
+    // LRU cache of decompressed sources
+    private final LinkedHashMap<String, String> textCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedChars;
+
+    public static class Doc {
+        public String key;              // app-884
+        public boolean isApp;
+        public int id;
+        public String name;
+        public String namespace;
+        public String lastModified;
+        public int length;
+        transient int ordinal = -1;
+    }
+
+    public static class Match {
+        public String hub;
+        public Doc doc;
+        public int line;                // 0-based
+        public String text;
+        public int start;               // match position in text
+        public int end;
+    }
+
+    public static class RefreshResult {
+        public int total;
+        public int downloaded;
+        public int removed;
+        public int failed;
+        public String error;
+    }
+
+    private SourceIndex(String hubAddress, Path baseDir) {
+        this.hubAddress = hubAddress;
+        this.baseDir = baseDir;
+        this.docsDir = baseDir.resolve("docs");
+    }
+
+    /**
+     * @param rootDir directory holding the indexes of all hubs (one sub-directory per hub)
+     */
+    public static SourceIndex get(String hubAddress, Path rootDir) {
+        return indexMap.computeIfAbsent(hubAddress, hub -> new SourceIndex(hub, rootDir.resolve(hub.replaceAll("[^A-Za-z0-9._-]", "_"))));
+    }
+
+    public String getHubAddress() {
+        return hubAddress;
+    }
+
+    public synchronized int getDocCount() {
+        ensureLoaded();
+        return docMap.size();
+    }
+
+    /**
+     * download new/changed sources and drop removed ones
+     * NOTE: blocking; call from a background thread. Stops early if the thread is interrupted
+     */
+    public RefreshResult refresh() {
+        synchronized (this) {
+            ensureLoaded();
+        }
+        RefreshResult result = new RefreshResult();
+        HubSession session = HubSession.get(hubAddress);
+        Set<String> seenKeys = new HashSet<>();
+        for (boolean isApp : new boolean[]{true, false}) {
+            NetworkHelper.HttpResponse response = session.fetchTypeList(isApp);
+            if (response.status != 200) {
+                result.error = TextUtils.firstValid(response.body, "http:" + response.status);
+                return result;
+            }
+            for (UserDeviceType type : session.getCachedTypeList(isApp)) {
+                if (Thread.currentThread().isInterrupted()) return result;
+                String key = (isApp ? "app-" : "driver-") + type.id;
+                seenKeys.add(key);
+                result.total++;
+                Doc existing;
+                synchronized (this) {
+                    existing = docMap.get(key);
+                }
+                if (existing != null && type.lastModified != null && TextUtils.equals(existing.lastModified, type.lastModified)) {
+                    continue;
+                }
+                SourceCode sourceCode = session.fetchSource(isApp, type.id);
+                if (sourceCode == null) {
+                    result.failed++;
+                    continue;
+                }
+                Doc doc = new Doc();
+                doc.key = key;
+                doc.isApp = isApp;
+                doc.id = type.id;
+                doc.name = type.name;
+                doc.namespace = type.namespace;
+                doc.lastModified = type.lastModified;
+                doc.length = sourceCode.source.length();
+                try {
+                    int[] trigrams = trigrams(sourceCode.source);
+                    writeDoc(doc, sourceCode.source, trigrams);
+                    synchronized (this) {
+                        putDoc(doc, trigrams);
+                        cacheText(key, sourceCode.source);
+                    }
+                    result.downloaded++;
+                } catch (IOException e) {
+                    log.error("refresh: {}: {}", key, e.getMessage());
+                    result.failed++;
+                }
+            }
+        }
+
+        synchronized (this) {
+            List<String> removedKeys = new ArrayList<>();
+            for (String key : docMap.keySet()) {
+                if (!seenKeys.contains(key)) removedKeys.add(key);
+            }
+            for (String key : removedKeys) {
+                removeDoc(key);
+                result.removed++;
+            }
+            saveManifest();
+        }
+        log.debug("refresh: {}: total:{}, downloaded:{}, removed:{}, failed:{}", hubAddress, result.total, result.downloaded, result.removed, result.failed);
+        return result;
+    }
+
+    /**
+     * @param query      text (case-insensitive) or regex
+     * @param isRegex    true if query is a regular expression
+     * @param maxResults stop after this many matching lines
+     */
+    public List<Match> search(String query, boolean isRegex, int maxResults) {
+        List<Match> matchList = new ArrayList<>();
+        if (TextUtils.isEmpty(query)) return matchList;
+        Pattern pattern = isRegex ? Pattern.compile(query) : null;
+        String literal = isRegex ? longestLiteral(query) : query;
+
+        List<Doc> candidateList;
+        synchronized (this) {
+            ensureLoaded();
+            candidateList = getCandidates(literal);
+        }
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        for (Doc doc : candidateList) {
+            String text = getText(doc);
+            if (text == null) continue;
+            int lineNum = 0;
+            int lineStart = 0;
+            while (lineStart <= text.length()) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                if (lineEnd < 0) lineEnd = text.length();
+                String line = text.substring(lineStart, lineEnd);
+                int start = -1;
+                int end = -1;
+                if (pattern != null) {
+                    Matcher matcher = pattern.matcher(line);
+                    if (matcher.find()) {
+                        start = matcher.start();
+                        end = matcher.end();
+                    }
+                } else {
+                    start = line.toLowerCase(Locale.ROOT).indexOf(lowerQuery);
+                    end = start + query.length();
+                }
+                if (start >= 0) {
+                    Match match = new Match();
+                    match.hub = hubAddress;
+                    match.doc = doc;
+                    match.line = lineNum;
+                    match.text = line;
+                    match.start = start;
+                    match.end = end;
+                    matchList.add(match);
+                    if (matchList.size() >= maxResults) return matchList;
+                }
+                lineNum++;
+                lineStart = lineEnd + 1;
+            }
+        }
+        return matchList;
+    }
+
+    /**
+     * @return full source (from cache or disk); null on error
+     */
+    public String getText(Doc doc) {
+        synchronized (this) {
+            String text = textCache.get(doc.key);
+            if (text != null) return text;
+        }
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(docsDir.resolve(doc.key + ".gz"))), StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder(doc.length);
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) > 0) sb.append(buffer, 0, read);
+            String text = sb.toString();
+            synchronized (this) {
+                cacheText(doc.key, text);
+            }
+            return text;
+        } catch (IOException e) {
+            log.error("getText: {}: {}", doc.key, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Doc> getCandidates(String literal) {
+        List<Doc> candidateList = new ArrayList<>();
+        int[] queryTrigrams = literal != null && literal.length() >= 3 ? trigrams(literal) : new int[0];
+        if (queryTrigrams.length == 0) {
+            // too short to narrow down; check everything
+            candidateList.addAll(docMap.values());
+            return candidateList;
+        }
+        BitSet result = null;
+        for (int trigram : queryTrigrams) {
+            BitSet docs = postingMap.get(trigram);
+            if (docs == null) return candidateList;
+            if (result == null) result = (BitSet) docs.clone();
+            else result.and(docs);
+        }
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            Doc doc = ordinalList.get(i);
+            if (doc != null) candidateList.add(doc);
+        }
+        return candidateList;
+    }
+
+    /**
+     * @return longest run of plain characters that every match of regex must contain (used to narrow candidates);
+     * null if none
+     * - text inside a group that's optional (?, *, {..}) or doesn't consume input (lookaround) isn't required
+     * - group prefixes (?: (?<name> (?i) are skipped, not treated as text
+     */
+    static String longestLiteral(String regex) {
+        // alternation (a|b) means no single literal is required
+        if (regex.indexOf('|') >= 0) return null;
+        int len = regex.length();
+        List<String> literalList = new ArrayList<>();
+        // for each open group: literalList size when it was opened (~size if nothing inside is required)
+        Deque<Integer> groupStack = new ArrayDeque<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < len; i++) {
+            char c = regex.charAt(i);
+            boolean isPlain = Character.isLetterOrDigit(c) || c == '_' || c == ' ' || c == ':' || c == '"' || c == '\'';
+            // a quantifier applies to the previous char; it may not be present
+            if (isPlain && !isQuantified(regex, i)) {
+                current.append(c);
+                continue;
+            }
+            if (current.length() > 0) literalList.add(current.toString());
+            current.setLength(0);
+            if (c == '\\') {
+                // escaped char (ie: \d, \.) -- skip it
+                i++;
+            } else if (c == '[') {
+                // character class (ie: [abc]) -- skip to end
+                int end = regex.indexOf(']', i + 2);
+                i = end > 0 ? end : len;
+            } else if (c == '(') {
+                boolean isRequired = true;
+                if (i + 2 < len && regex.charAt(i + 1) == '?') {
+                    char type = regex.charAt(i + 2);
+                    if (type == '=' || type == '!') {
+                        // lookahead
+                        isRequired = false;
+                        i += 2;
+                    } else if (type == '<' && i + 3 < len && (regex.charAt(i + 3) == '=' || regex.charAt(i + 3) == '!')) {
+                        // lookbehind
+                        isRequired = false;
+                        i += 3;
+                    } else if (type == '<') {
+                        // named group (?<name>
+                        i = regex.indexOf('>', i);
+                        if (i < 0) return null;
+                    } else if (type == ':' || type == '>') {
+                        i += 2;
+                    } else {
+                        // inline flags: (?i) or (?i:...)
+                        int end = i + 2;
+                        while (end < len && (Character.isLetter(regex.charAt(end)) || regex.charAt(end) == '-')) end++;
+                        // comments mode: whitespace and # aren't literal text
+                        if (regex.substring(i + 2, end).indexOf('x') >= 0) return null;
+                        i = end;
+                        // (?i) alone isn't a group
+                        if (end < len && regex.charAt(end) == ')') continue;
+                    }
+                }
+                groupStack.push(isRequired ? literalList.size() : ~literalList.size());
+            } else if (c == ')') {
+                if (groupStack.isEmpty()) return null;
+                int mark = groupStack.pop();
+                boolean isRequired = mark >= 0 && !isQuantified(regex, i);
+                // group may match without its text; drop what was collected inside it
+                if (!isRequired) literalList.subList(mark >= 0 ? mark : ~mark, literalList.size()).clear();
+            }
+        }
+        if (current.length() > 0) literalList.add(current.toString());
+        String best = null;
+        for (String literal : literalList) {
+            if (best == null || literal.length() > best.length()) best = literal;
+        }
+        return best;
+    }
+
+    /**
+     * @return true if char at index is followed by a quantifier that allows 0 (?, *, {..})
+     */
+    private static boolean isQuantified(String regex, int index) {
+        return index + 1 < regex.length() && "*?{".indexOf(regex.charAt(index + 1)) >= 0;
+    }
+
+    /**
+     * @return sorted, distinct trigram codes of lowercase text
+     */
+    static int[] trigrams(String text) {
+        int len = text.length();
+        if (len < 3) return new int[0];
+        int[] codes = new int[len - 2];
+        char c1 = Character.toLowerCase(text.charAt(0));
+        char c2 = Character.toLowerCase(text.charAt(1));
+        for (int i = 2; i < len; i++) {
+            char c3 = Character.toLowerCase(text.charAt(i));
+            codes[i - 2] = (c1 * 31 + c2) * 31 + c3;
+            c1 = c2;
+            c2 = c3;
+        }
+        Arrays.sort(codes);
+        int count = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (i == 0 || codes[i] != codes[i - 1]) codes[count++] = codes[i];
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    private void putDoc(Doc doc, int[] trigrams) {
+        Doc existing = docMap.get(doc.key);
+        if (existing != null) removePostings(existing);
+        doc.ordinal = ordinalList.size();
+        ordinalList.add(doc);
+        docMap.put(doc.key, doc);
+        for (int trigram : trigrams) {
+            postingMap.computeIfAbsent(trigram, k -> new BitSet()).set(doc.ordinal);
+        }
+    }
+
+    private void removeDoc(String key) {
+        Doc doc = docMap.remove(key);
+        if (doc == null) return;
+        removePostings(doc);
+        String text = textCache.remove(key);
+        if (text != null) cachedChars -= text.length();
+        try {
+            Files.deleteIfExists(docsDir.resolve(key + ".gz"));
+            Files.deleteIfExists(docsDir.resolve(key + ".tri"));
+        } catch (IOException e) {
+            log.error("removeDoc: {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void removePostings(Doc doc) {
+        // ordinal slot is left empty; candidates pointing at it are skipped
+        if (doc.ordinal >= 0) ordinalList.set(doc.ordinal, null);
+    }
+
+    private void cacheText(String key, String text) {
+        String old = textCache.put(key, text);
+        if (old != null) cachedChars -= old.length();
+        cachedChars += text.length();
+        Iterator<Map.Entry<String, String>> iterator = textCache.entrySet().iterator();
+        while (cachedChars > MAX_CACHED_CHARS && iterator.hasNext()) {
+            Map.Entry<String, String> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) continue;
+            cachedChars -= eldest.getValue().length();
+            iterator.remove();
+        }
+    }
+
+    private void writeDoc(Doc doc, String text, int[] trigrams) throws IOException {
+        Files.createDirectories(docsDir);
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(docsDir.resolve(doc.key + ".gz")))) {
+            os.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(docsDir.resolve(doc.key + ".tri"))))) {
+            os.writeInt(trigrams.length);
+            for (int trigram : trigrams) os.writeInt(trigram);
+        }
+    }
+
+    private int[] readTrigrams(String key) throws IOException {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(docsDir.resolve(key + ".tri"))))) {
+            int[] trigrams = new int[is.readInt()];
+            for (int i = 0; i < trigrams.length; i++) trigrams[i] = is.readInt();
+            return trigrams;
+        }
+    }
+
+    /**
+     * load manifest + trigrams from disk (sources stay on disk until searched)
+     */
+    private void ensureLoaded() {
+        if (isLoaded) return;
+        isLoaded = true;
+        Path manifest = baseDir.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) return;
+        try {
+            String json = Files.readString(manifest, StandardCharsets.UTF_8);
+            for (Doc doc : GsonHelper.stringToList(json, Doc.class)) {
+                try {
+                    putDoc(doc, readTrigrams(doc.key));
+                } catch (IOException e) {
+                    // missing segment; will be downloaded again on next refresh
+                    log.debug("ensureLoaded: {}: {}", doc.key, e.getMessage());
+                }
+            }
+            log.debug("ensureLoaded: {}: {} sources", hubAddress, docMap.size());
+        } catch (IOException e) {
+            log.error("ensureLoaded: {}", e.getMessage());
+        }
+    }
+
+    private void saveManifest() {
+        try {
+            Files.createDirectories(baseDir);
+            Path tmp = baseDir.resolve(MANIFEST_FILE + ".tmp");
+            Files.writeString(tmp, GsonHelper.toJson(new ArrayList<>(docMap.values())), StandardCharsets.UTF_8);
+            Files.move(tmp, baseDir.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("saveManifest: {}", e.getMessage());
+        }
+        // ordinals of replaced/removed docs leave holes; compact once there are too many
+        if (ordinalList.size() > docMap.size() * 2 + 64) compact();
+    }
+
+    private void compact() {
+        List<Doc> docList = new ArrayList<>(docMap.values());
+        docMap.clear();
+        ordinalList.clear();
+        postingMap.clear();
+        for (Doc doc : docList) {
+            try {
+                putDoc(doc, readTrigrams(doc.key));
+            } catch (IOException e) {
+                log.debug("compact: {}: {}", doc.key, e.getMessage());
+            }
+        }
+    }
+}
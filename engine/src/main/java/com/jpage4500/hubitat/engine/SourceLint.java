@@ -0,0 +1,300 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.utils.TextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Find app/driver code that tends to overload the hub
+ * <pre>
+ * runIn(1, "poll")                     TIGHT_SCHEDULE      (error if "poll" is the method calling it)
+ * schedule("0/5 * * * * ?", poll)      TIGHT_SCHEDULE      (error; runs more than once a minute)
+ * pauseExecution(2000)                 PAUSE_EXECUTION     (error if 1s or more)
+ * list.each { state.total += it }      STATE_WRITE_IN_LOOP
+ * for (x in list) { sendEvent(...) }   SEND_EVENT_IN_LOOP
+ * </pre>
+ * - text based (no Groovy parser): comments and string contents are ignored; loops are for/while/do and
+ *   closures passed to each/times/collect/...
+ * - a line containing "lint:ignore" is skipped
+ * - one pass over the text; cheap enough to run on every edit
+ */
+public class SourceLint {
+    public static final String IGNORE_COMMENT = "lint:ignore";
+    // shortest runIn() delay not reported
+    public static final int MIN_RUN_IN_SEC = 5;
+    // pauseExecution() at least this long is an error
+    private static final int MAX_PAUSE_MS = 1000;
+
+    private static final Pattern RUN_IN = Pattern.compile("(?<![.\\w])(runIn|runInMillis)\\s*\\(\\s*(\\d+)");
+    private static final Pattern SCHEDULE = Pattern.compile("(?<![.\\w])schedule\\s*\\(\\s*(['\"])");
+    private static final Pattern PAUSE = Pattern.compile("(?<![.\\w])pauseExecution\\s*\\(\\s*(\\d+)?");
+    private static final Pattern STATE_WRITE = Pattern.compile("(?<![.\\w])(state|atomicState)\\s*"
+        + "(?:(?:\\.\\s*\\w+|\\[[^\\]\\n]*\\])\\s*(?:=(?!=)|<<|\\+=|-=|\\*=|\\+\\+|--)|\\.\\s*(?:put|putAll|remove|clear)\\s*\\()");
+    private static final Pattern SEND_EVENT = Pattern.compile("(?<!\\w)sendEvent\\s*\\(");
+    // text before a '{' that makes it a loop body
+    private static final Pattern LOOP_HEAD = Pattern.compile("(?:\\b(?:for|while)\\s*\\(.*\\)|\\bdo"
+        + "|\\.\\s*(?:each|eachWithIndex|reverseEach|times|collect|collectMany|collectEntries|findAll|upto|downto|step|forEach|inject)"
+        + "\\s*(?:\\(.*\\))?)\\s*$");
+    // text before a '{' that starts a method: "def poll() {", "private void poll(Map data) {"
+    private static final Pattern METHOD_HEAD = Pattern.compile("(?:^|\\s)(?:def|void|boolean|int|long|double|float|[A-Z]\\w*(?:<[^>]*>)?)\\s+(\\w+)\\s*\\([^)]*\\)\\s*$");
+
+    public enum Rule {
+        TIGHT_SCHEDULE,
+        PAUSE_EXECUTION,
+        STATE_WRITE_IN_LOOP,
+        SEND_EVENT_IN_LOOP,
+    }
+
+    public enum Severity {
+        ERROR,
+        WARNING,
+    }
+
+    public static class Finding {
+        public Rule rule;
+        public Severity severity;
+        public int start;                   // offset in text
+        public int end;
+        public int line;                    // 1-based
+        public String message;
+        // optional fix: replace text[start, end) with 'replacement'
+        public String fixName;
+        public String replacement;
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + severity + ": " + message;
+        }
+    }
+
+    /**
+     * @return findings in text order
+     */
+    public static List<Finding> check(String text) {
+        List<Finding> findingList = new ArrayList<>();
+        if (TextUtils.isEmpty(text)) return findingList;
+        String code = mask(text);
+        Blocks blocks = new Blocks(code);
+
+        Matcher matcher = RUN_IN.matcher(code);
+        while (matcher.find()) {
+            boolean isMillis = matcher.group(1).equals("runInMillis");
+            long delay = Long.parseLong(matcher.group(2).length() > 9 ? "999999999" : matcher.group(2));
+            long delaySec = isMillis ? delay / 1000 : delay;
+            if (delaySec >= MIN_RUN_IN_SEC) continue;
+            String handler = getHandler(text, code, matcher.end());
+            String method = blocks.getMethod(matcher.start());
+            boolean isLoop = handler != null && handler.equals(method);
+            Finding finding = add(findingList, text, Rule.TIGHT_SCHEDULE, isLoop ? Severity.ERROR : Severity.WARNING,
+                matcher.start(2), matcher.end(2), matcher.group(1) + "(" + delay + ") "
+                    + (isLoop ? "reschedules " + method + "() every " + delay + (isMillis ? "ms" : "s") + "; this keeps the hub busy"
+                    : "delay is under " + MIN_RUN_IN_SEC + "s; repeated short timers keep the hub busy"));
+            if (finding != null) {
+                finding.fixName = "Use a " + MIN_RUN_IN_SEC + "s delay";
+                finding.replacement = String.valueOf(isMillis ? MIN_RUN_IN_SEC * 1000 : MIN_RUN_IN_SEC);
+            }
+        }
+
+        matcher = SCHEDULE.matcher(code);
+        while (matcher.find()) {
+            // cron expression is inside the (masked) string; read it from text
+            int start = matcher.end();
+            int end = text.indexOf(matcher.group(1), start);
+            if (end < 0) continue;
+            String[] fieldArr = text.substring(start, end).trim().split("\\s+");
+            // Quartz cron: seconds minutes hours ...
+            if (fieldArr.length < 6 || !TextUtils.containsAny(fieldArr[0], false, "*", "/", ",", "-")) continue;
+            int secondsStart = text.indexOf(fieldArr[0], start);
+            Finding finding = add(findingList, text, Rule.TIGHT_SCHEDULE, Severity.ERROR, secondsStart, secondsStart + fieldArr[0].length(),
+                "schedule(\"" + fieldArr[0] + " ...\") runs more than once a minute; use runEvery1Minute() or longer");
+            if (finding != null) {
+                finding.fixName = "Run once a minute";
+                finding.replacement = "0";
+            }
+        }
+
+        matcher = PAUSE.matcher(code);
+        while (matcher.find()) {
+            long delay = matcher.group(1) != null ? Long.parseLong(matcher.group(1).length() > 9 ? "999999999" : matcher.group(1)) : -1;
+            boolean isLong = delay >= MAX_PAUSE_MS;
+            add(findingList, text, Rule.PAUSE_EXECUTION, isLong ? Severity.ERROR : Severity.WARNING,
+                matcher.start(), matcher.start() + "pauseExecution".length(),
+                "pauseExecution(" + (delay >= 0 ? delay : "...") + ") holds a hub thread while it waits; use runInMillis() to continue later");
+        }
+
+        matcher = STATE_WRITE.matcher(code);
+        while (matcher.find()) {
+            if (!blocks.isInLoop(matcher.start())) continue;
+            add(findingList, text, Rule.STATE_WRITE_IN_LOOP, Severity.WARNING, matcher.start(), matcher.start() + matcher.group(1).length(),
+                matcher.group(1) + " written inside a loop; every write is saved to the hub database. Build the value in a local variable and assign it once");
+        }
+
+        matcher = SEND_EVENT.matcher(code);
+        while (matcher.find()) {
+            if (!blocks.isInLoop(matcher.start())) continue;
+            add(findingList, text, Rule.SEND_EVENT_IN_LOOP, Severity.WARNING, matcher.start(), matcher.start() + "sendEvent".length(),
+                "sendEvent() inside a loop can flood the hub with events; only send values that changed");
+        }
+
+        findingList.sort((f1, f2) -> Integer.compare(f1.start, f2.start));
+        int line = 1;
+        int offset = 0;
+        for (Finding finding : findingList) {
+            for (; offset < finding.start; offset++) {
+                if (text.charAt(offset) == '\n') line++;
+            }
+            finding.line = line;
+        }
+        return findingList;
+    }
+
+    public static boolean hasErrors(List<Finding> findingList) {
+        for (Finding finding : findingList) {
+            if (finding.severity == Severity.ERROR) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return null if line is marked with IGNORE_COMMENT
+     */
+    private static Finding add(List<Finding> findingList, String text, Rule rule, Severity severity, int start, int end, String message) {
+        int lineStart = text.lastIndexOf('\n', start - 1) + 1;
+        int lineEnd = text.indexOf('\n', start);
+        if (text.substring(lineStart, lineEnd < 0 ? text.length() : lineEnd).contains(IGNORE_COMMENT)) return null;
+        Finding finding = new Finding();
+        finding.rule = rule;
+        finding.severity = severity;
+        finding.start = start;
+        finding.end = end;
+        finding.message = message;
+        findingList.add(finding);
+        return finding;
+    }
+
+    /**
+     * runIn(1, "poll") / runIn(1, poll, [overwrite: true]) -> "poll"
+     *
+     * @param index just after the delay argument
+     */
+    private static String getHandler(String text, String code, int index) {
+        int comma = code.indexOf(',', index);
+        if (comma < 0 || !code.substring(index, comma).isBlank()) return null;
+        int end = comma + 1;
+        while (end < code.length() && code.charAt(end) != ',' && code.charAt(end) != ')') end++;
+        String handler = text.substring(comma + 1, end).trim();
+        if (handler.length() >= 2 && (handler.charAt(0) == '"' || handler.charAt(0) == '\'')) {
+            handler = handler.substring(1, handler.length() - 1);
+        }
+        return handler.matches("\\w+") ? handler : null;
+    }
+
+    /**
+     * @return text with comments and string contents replaced by spaces (offsets and newlines unchanged; quotes kept)
+     */
+    static String mask(String text) {
+        char[] chars = text.toCharArray();
+        int i = 0;
+        while (i < chars.length) {
+            char c = chars[i];
+            char next = i + 1 < chars.length ? chars[i + 1] : 0;
+            if (c == '/' && next == '/') {
+                while (i < chars.length && chars[i] != '\n') chars[i++] = ' ';
+            } else if (c == '/' && next == '*') {
+                int end = text.indexOf("*/", i + 2);
+                end = end < 0 ? chars.length : end + 2;
+                for (; i < end; i++) {
+                    if (chars[i] != '\n') chars[i] = ' ';
+                }
+            } else if (c == '"' || c == '\'') {
+                String quote = text.startsWith(String.valueOf(c).repeat(3), i) ? String.valueOf(c).repeat(3) : String.valueOf(c);
+                int end = i + quote.length();
+                while (end < chars.length && !text.startsWith(quote, end)) {
+                    // single-line strings end at the line (unterminated)
+                    if (quote.length() == 1 && text.charAt(end) == '\n') break;
+                    end += text.charAt(end) == '\\' ? 2 : 1;
+                }
+                end = Math.min(end, chars.length);
+                for (int j = i + quote.length(); j < end; j++) {
+                    if (chars[j] != '\n') chars[j] = ' ';
+                }
+                i = Math.min(end + quote.length(), chars.length);
+            } else {
+                i++;
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * loop/method structure of masked code, from '{' '}' pairs
+     */
+    private static class Blocks {
+        // number of loop bodies each offset is in
+        private final int[] loopDepth;
+        // method each offset is in (null outside methods)
+        private final String[] method;
+
+        Blocks(String code) {
+            int length = code.length();
+            loopDepth = new int[length];
+            method = new String[length];
+            // per open '{': is loop
+            List<Boolean> loopStack = new ArrayList<>();
+            int loopCount = 0;
+            String currentMethod = null;
+            int depth = 0;
+            int parenDepth = 0;
+            int statementStart = 0;
+            for (int i = 0; i < length; i++) {
+                char c = code.charAt(i);
+                if (c == '{') {
+                    String head = getHead(code, statementStart, i);
+                    boolean isLoop = LOOP_HEAD.matcher(head).find();
+                    loopStack.add(isLoop);
+                    if (isLoop) loopCount++;
+                    if (depth == 0) {
+                        Matcher matcher = METHOD_HEAD.matcher(head);
+                        currentMethod = matcher.find() ? matcher.group(1) : null;
+                    }
+                    depth++;
+                    statementStart = i + 1;
+                } else if (c == '}') {
+                    if (!loopStack.isEmpty() && loopStack.remove(loopStack.size() - 1)) loopCount--;
+                    depth = Math.max(0, depth - 1);
+                    if (depth == 0) currentMethod = null;
+                    statementStart = i + 1;
+                } else if (c == '(') {
+                    parenDepth++;
+                } else if (c == ')') {
+                    parenDepth = Math.max(0, parenDepth - 1);
+                } else if (c == ';' && parenDepth == 0) {
+                    // not the ';' in "for (int i = 0; i < 3; i++)"
+                    statementStart = i + 1;
+                }
+                loopDepth[i] = loopCount;
+                method[i] = currentMethod;
+            }
+        }
+
+        /**
+         * @return last non-blank line before a '{' (Groovy statements usually end at the line, not ';')
+         */
+        private static String getHead(String code, int start, int end) {
+            String head = code.substring(start, end).stripTrailing();
+            int newline = head.lastIndexOf('\n');
+            return newline >= 0 ? head.substring(newline + 1) : head;
+        }
+
+        boolean isInLoop(int offset) {
+            return offset < loopDepth.length && loopDepth[offset] > 0;
+        }
+
+        String getMethod(int offset) {
+            return offset < method.length ? method[offset] : null;
+        }
+    }
+}
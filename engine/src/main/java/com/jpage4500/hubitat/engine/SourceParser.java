@@ -0,0 +1,158 @@
+package com.jpage4500.hubitat.engine;
+
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parse app/driver details from Hubitat source
+ * <pre>
+ * // hubitat start
+ * // hub: 192.168.0.200
+ * // type: device
+ * // id: 1782
+ * // hubitat end
+ * definition(name: "File Manager Device", namespace: "jpage4500", author: "Joe Page") {
+ * </pre>
+ */
+public class SourceParser {
+    private static final Logger log = LoggerFactory.getLogger(SourceParser.class);
+
+    /**
+     * @return true if text looks like a Hubitat app/driver
+     */
+    public static boolean isHubitatSource(String text) {
+        return TextUtils.containsIgnoreCase(text, "definition");
+    }
+
+    /**
+     * parse everything available from source comments/definition (and file name)
+     * - hubIp, isApp, appId are null when not specified
+     *
+     * @return details or null if this is not a Hubitat app/driver (missing definition or name/namespace)
+     */
+    public static DriverDetails parse(String text, String fileName) {
+        if (!isHubitatSource(text)) return null;
+
+        DriverDetails details = new DriverDetails();
+        details.text = text;
+        // definition(name: "File Manager Device", namespace: "jpage4500", author: "Joe Page") {
+        details.name = parseValue(text, "name");
+        details.namespace = parseValue(text, "namespace");
+        if (TextUtils.isEmptyAny(details.name, details.namespace)) return null;
+
+        // get hub address from comments:
+        // hub: 192.168.0.200
+        // hub: hubitat.local
+        details.hubIp = parseValue(text, "hub");
+
+        // get type (app or device) from comments:
+        // type: device
+        details.isApp = isApp(text);
+        if (details.isApp == null) details.isApp = isAppFromFileName(fileName);
+
+        // get app/driver id from comments:
+        // id: 1711
+        details.appId = parseId(text);
+        return details;
+    }
+
+    /**
+     * Determine if this is an app or device driver
+     *
+     * @return true = app, false = device driver, null = unknown/cancel
+     */
+    public static Boolean isApp(String text) {
+        String type = parseValue(text, "type");
+        if (TextUtils.equalsIgnoreCase(type, "app")) {
+            log.debug("isApp: type=app");
+            return true;
+        } else if (TextUtils.equalsIgnoreCase(type, "device")) {
+            log.debug("isApp: type=device");
+            return false;
+        }
+
+        // Driver: Contains a metadata block with definition, and usually declares capability, attribute, and command.
+        // App: Contains a definition block (not inside metadata), and often uses app, section, and input for user configuration.
+        //   - Apps do not use the capability keyword
+        if (TextUtils.containsAny(text, true, "capability", "metadata")) {
+            // drivers contain capability/metadata keywords
+            log.debug("isApp: type=app (capability/metadata)");
+            return false;
+        } else if (TextUtils.containsAny(text, true, "definition", "section", "page")) {
+            log.debug("isApp: type=app (definition/etc)");
+            return true;
+        }
+        // unknown
+        return null;
+    }
+
+    /**
+     * guess type based on filename
+     *
+     * @return true = app, false = device driver, null = unknown
+     */
+    public static Boolean isAppFromFileName(String fileName) {
+        if (TextUtils.containsIgnoreCase(fileName, "app")) {
+            log.debug("isApp: filename is app: {}", fileName);
+            return true;
+        } else if (TextUtils.containsIgnoreCase(fileName, "driver")) {
+            log.debug("isApp: filename is driver: {}", fileName);
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * @return app/driver ID from "// id: 1711" comment; null if not specified
+     */
+    public static Integer parseId(String text) {
+        String idStr = parseValue(text, "id");
+        if (TextUtils.notEmpty(idStr)) {
+            int id = TextUtils.getNumberInt(idStr, 0);
+            if (id > 0) return id;
+        }
+        return null;
+    }
+
+    public static String parseValue(String text, String key) {
+        // hub: 192.168.0.200
+        // type: device
+        // id: 1711
+        // definition(name: "File Manager Device", namespace: "jpage4500", author: "Joe Page") {
+        // definition(
+        //    name: "File Manager Album",
+        //    namespace: "jpage4500",
+        //    oauth: true,
+        //    iconUrl: '',
+        String fullKey = key + ": ";
+        int index = text.indexOf(fullKey);
+        if (index < 0) return null;
+        int start = index + fullKey.length();
+        StringBuilder result = new StringBuilder();
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\"':
+                case '\'':
+                    continue;
+                case '\n':
+                case ',':
+                case ')':
+                    // remove spaces from beginning/end
+                    String resultStr = result.toString().trim();
+                    log.debug("parseValue: {} = \"{}\"", key, resultStr);
+                    return resultStr;
+                default:
+                    result.append(c);
+                    if (result.length() > 256) {
+                        log.error("parseValue: " + key + " exceeded max length");
+                        break;
+                    }
+            }
+        }
+        log.debug("parseValue: {} = \"{}\"", key, result);
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.jpage4500.hubitat.utils.ExcludeFromSerialization;
+
+import java.io.IOException;
+
+/**
+ * App/driver to deploy; parsed from source + user selections
+ */
+public class DriverDetails {
+    public String name;
+    public String namespace;
+    public String hubIp;
+    public Boolean isApp;
+    public Integer appId;
+    @ExcludeFromSerialization
+    public String text;
+
+    /**
+     * same JSON as the reflective version (lower_case_with_underscores names, text excluded)
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class Adapter extends TypeAdapter<DriverDetails> {
+        @Override
+        public void write(JsonWriter out, DriverDetails value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.name != null) out.name("name").value(value.name);
+            if (value.namespace != null) out.name("namespace").value(value.namespace);
+            if (value.hubIp != null) out.name("hub_ip").value(value.hubIp);
+            if (value.isApp != null) out.name("is_app").value(value.isApp);
+            if (value.appId != null) out.name("app_id").value(value.appId);
+            out.endObject();
+        }
+
+        @Override
+        public DriverDetails read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            DriverDetails details = new DriverDetails();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "name":
+                        details.name = in.nextString();
+                        break;
+                    case "namespace":
+                        details.namespace = in.nextString();
+                        break;
+                    case "hub_ip":
+                        details.hubIp = in.nextString();
+                        break;
+                    case "is_app":
+                        details.isApp = in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+                        break;
+                    case "app_id":
+                        details.appId = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return details;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * hub event (from /eventsocket)
+ */
+public class HubEvent {
+    public String source;           // DEVICE, APP, LOCATION, HUB
+    public String name;             // attribute name (ie: switch)
+    public String displayName;      // device label
+    public String value;
+    public String unit;
+    public int deviceId;
+    public String descriptionText;
+
+    //    {
+    //        "source": "DEVICE",
+    //        "name": "switch",
+    //        "displayName": "Office Lamp",
+    //        "value": "on",
+    //        "type": "digital",
+    //        "unit": null,
+    //        "deviceId": 34,
+    //        "hubId": 0,
+    //        "installedAppId": 0,
+    //        "descriptionText": "Office Lamp was turned on"
+    //    }
+
+    /**
+     * parse event with a streaming reader (no reflection)
+     *
+     * @return event or null if message isn't a JSON object
+     */
+    public static HubEvent parse(String json) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+            HubEvent event = new HubEvent();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "source":
+                        event.source = reader.nextString();
+                        break;
+                    case "name":
+                        event.name = reader.nextString();
+                        break;
+                    case "displayName":
+                        event.displayName = reader.nextString();
+                        break;
+                    case "value":
+                        event.value = reader.nextString();
+                        break;
+                    case "unit":
+                        event.unit = reader.nextString();
+                        break;
+                    case "deviceId":
+                        event.deviceId = (int) reader.nextLong();
+                        break;
+                    case "descriptionText":
+                        event.descriptionText = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            return event;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return null;
+        }
+    }
+}
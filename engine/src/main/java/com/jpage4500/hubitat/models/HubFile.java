@@ -0,0 +1,108 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File in the hub's File Manager
+ * GET /hub/fileManager/json -> {"files": [{"name": "config.json", "size": "1234", "date": "..."}], "freeSpace": ...}
+ */
+public class HubFile {
+    public String name;
+    public long size;               // -1 if unknown
+    public String date;
+
+    /**
+     * @return files in File Manager listing; empty if json can't be parsed
+     */
+    public static List<HubFile> parseList(String json) {
+        List<HubFile> fileList = new ArrayList<>();
+        if (json == null) return fileList;
+        Adapter adapter = new Adapter();
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("files") || in.peek() != JsonToken.BEGIN_ARRAY) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                while (in.hasNext()) {
+                    HubFile file = adapter.read(in);
+                    if (file != null && file.name != null) fileList.add(file);
+                }
+                in.endArray();
+            }
+            in.endObject();
+        } catch (IOException | IllegalStateException e) {
+            // not a listing (ie: login page)
+            fileList.clear();
+        }
+        return fileList;
+    }
+
+    /**
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class Adapter extends TypeAdapter<HubFile> {
+        @Override
+        public void write(JsonWriter out, HubFile value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.name != null) out.name("name").value(value.name);
+            out.name("size").value(value.size);
+            if (value.date != null) out.name("date").value(value.date);
+            out.endObject();
+        }
+
+        @Override
+        public HubFile read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            HubFile file = new HubFile();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "name":
+                        file.name = in.nextString();
+                        break;
+                    case "size":
+                        // hub sends size as a string; nextLong() accepts both
+                        try {
+                            file.size = in.nextLong();
+                        } catch (NumberFormatException e) {
+                            // not a plain byte count; size unknown
+                            in.nextString();
+                            file.size = -1;
+                        }
+                        break;
+                    case "date":
+                        file.date = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return file;
+        }
+    }
+}
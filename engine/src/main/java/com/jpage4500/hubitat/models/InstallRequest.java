@@ -0,0 +1,67 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class InstallRequest {
+    public String source;
+    public int version = 1;
+
+    /**
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class Adapter extends TypeAdapter<InstallRequest> {
+        @Override
+        public void write(JsonWriter out, InstallRequest value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.source != null) out.name("source").value(value.source);
+            out.name("version").value(value.version);
+            out.endObject();
+        }
+
+        @Override
+        public InstallRequest read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            InstallRequest request = new InstallRequest();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "source":
+                        request.source = in.nextString();
+                        break;
+                    case "version":
+                        request.version = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return request;
+        }
+    }
+}
+
+/*
+     {
+       "source": "CODE HERE",
+       "version": 1
+     }
+*/
@@ -0,0 +1,72 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class InstallResult {
+    public boolean success;
+    public String message;
+    public Integer id;                  // new app/driver id (install only)
+
+    /**
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class Adapter extends TypeAdapter<InstallResult> {
+        @Override
+        public void write(JsonWriter out, InstallResult value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("success").value(value.success);
+            if (value.message != null) out.name("message").value(value.message);
+            if (value.id != null) out.name("id").value(value.id);
+            out.endObject();
+        }
+
+        @Override
+        public InstallResult read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            InstallResult result = new InstallResult();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "success":
+                        // lenient: "true" is accepted too
+                        result.success = in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+                        break;
+                    case "message":
+                        result.message = in.nextString();
+                        break;
+                    case "id":
+                        // lenient: "1234" is accepted too
+                        result.id = in.peek() == JsonToken.STRING ? Integer.valueOf(in.nextString()) : in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return result;
+        }
+    }
+}
+
+/*
+     {"success":true,"message":null}
+     {"success":true,"message":"","id":1234,"version":1}      (saveOrUpdateJson)
+*/
@@ -0,0 +1,79 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * hub log message (from /logsocket)
+ */
+public class LogEntry {
+    public String name;         // device/app label
+    public String msg;
+    public int id;              // device/app instance id
+    public String time;
+    public String type;         // "dev" or "app"
+    public String level;        // trace, debug, info, warn, error
+
+    //    {
+    //        "name": "Office Lamp",
+    //        "msg": "switch is on",
+    //        "id": 34,
+    //        "time": "2025-06-12 18:39:52.123",
+    //        "type": "dev",
+    //        "level": "info"
+    //    }
+
+    /**
+     * parse log message with a streaming reader (no reflection)
+     *
+     * @return entry or null if message isn't a JSON object
+     */
+    public static LogEntry parse(String json) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+            LogEntry entry = new LogEntry();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "name":
+                        entry.name = reader.nextString();
+                        break;
+                    case "msg":
+                        entry.msg = reader.nextString();
+                        break;
+                    case "id":
+                        entry.id = (int) reader.nextLong();
+                        break;
+                    case "time":
+                        entry.time = reader.nextString();
+                        break;
+                    case "type":
+                        entry.type = reader.nextString();
+                        break;
+                    case "level":
+                        entry.level = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            return entry;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isApp() {
+        return "app".equals(type);
+    }
+}
@@ -0,0 +1,166 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hub runtime statistics (Logs > App Stats / Device Stats); totals are since the hub started
+ * GET /logs/json -> {"uptime": 86400, "appStats": [{"id": 12, "name": "Lights", "total": 5123, "count": 340, "pct": 0.01}],
+ * "deviceStats": [...]}
+ * NOTE: field names differ between hub versions; known alternatives are accepted (see Adapter)
+ */
+public class RuntimeStats {
+    public long uptimeSec;
+    public List<Entry> appStats = new ArrayList<>();
+    public List<Entry> deviceStats = new ArrayList<>();
+
+    /**
+     * one app or device instance
+     */
+    public static class Entry {
+        public Integer id;
+        public String name;
+        public long totalMs;            // time spent running
+        public long count;              // executions/events
+        public double busyPct;          // share of hub time, 0-100
+    }
+
+    /**
+     * @return stats; null if json can't be parsed (ie: login page)
+     */
+    public static RuntimeStats parse(String json) {
+        if (json == null) return null;
+        RuntimeStats stats = new RuntimeStats();
+        EntryAdapter adapter = new EntryAdapter();
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "uptime":
+                        stats.uptimeSec = readLong(in);
+                        break;
+                    case "appStats":
+                        readList(in, adapter, stats.appStats);
+                        break;
+                    case "deviceStats":
+                    case "devStats":
+                        readList(in, adapter, stats.deviceStats);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+        return stats;
+    }
+
+    private static void readList(JsonReader in, EntryAdapter adapter, List<Entry> entryList) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            Entry entry = adapter.read(in);
+            if (entry != null && entry.id != null) entryList.add(entry);
+        }
+        in.endArray();
+    }
+
+    /**
+     * number or numeric string ("1,234" / "12.5"); 0 if not a number
+     */
+    private static double readDouble(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NUMBER) return in.nextDouble();
+        String value = in.nextString().replace(",", "").replace("%", "").trim();
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long readLong(JsonReader in) throws IOException {
+        return (long) readDouble(in);
+    }
+
+    /**
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class EntryAdapter extends TypeAdapter<Entry> {
+        @Override
+        public void write(JsonWriter out, Entry value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            if (value.name != null) out.name("name").value(value.name);
+            out.name("total").value(value.totalMs);
+            out.name("count").value(value.count);
+            out.name("pct").value(value.busyPct);
+            out.endObject();
+        }
+
+        @Override
+        public Entry read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Entry entry = new Entry();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "id":
+                    case "appId":
+                    case "deviceId":
+                        entry.id = (int) readLong(in);
+                        break;
+                    case "name":
+                    case "label":
+                        entry.name = in.nextString();
+                        break;
+                    case "total":
+                    case "totalMs":
+                        entry.totalMs = readLong(in);
+                        break;
+                    case "count":
+                        entry.count = readLong(in);
+                        break;
+                    case "pct":
+                    case "pctTotal":
+                        entry.busyPct = readDouble(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return entry;
+        }
+    }
+}
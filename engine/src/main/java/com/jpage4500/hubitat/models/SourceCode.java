@@ -0,0 +1,77 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class SourceCode {
+    public int id;
+    public int version;
+    public String source;
+    public String status;
+
+    /**
+     * fetched for every app/driver when building the search index
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class Adapter extends TypeAdapter<SourceCode> {
+        @Override
+        public void write(JsonWriter out, SourceCode value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("version").value(value.version);
+            if (value.source != null) out.name("source").value(value.source);
+            if (value.status != null) out.name("status").value(value.status);
+            out.endObject();
+        }
+
+        @Override
+        public SourceCode read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            SourceCode sourceCode = new SourceCode();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "id":
+                        sourceCode.id = in.nextInt();
+                        break;
+                    case "version":
+                        sourceCode.version = in.nextInt();
+                        break;
+                    case "source":
+                        sourceCode.source = in.nextString();
+                        break;
+                    case "status":
+                        sourceCode.status = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return sourceCode;
+        }
+    }
+}
+
+/*
+     GET /driver/ajax/code?id=885
+     GET /app/ajax/code?id=884
+     {"id":885,"version":12,"source":"CODE HERE","status":"ok"}
+*/
@@ -0,0 +1,77 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * device or app instance using an app/driver (UserDeviceType.usedBy)
+ * NOTE: accepts either an object ({"id": 12, "name": "Lamp"}) or a plain id/name value
+ */
+@JsonAdapter(UsedBy.Adapter.class)
+public class UsedBy {
+    public Integer id;
+    public String name;
+
+    public static class Adapter extends TypeAdapter<UsedBy> {
+        @Override
+        public void write(JsonWriter out, UsedBy value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("name").value(value.name);
+            out.endObject();
+        }
+
+        @Override
+        public UsedBy read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            UsedBy usedBy = new UsedBy();
+            if (token == JsonToken.BEGIN_OBJECT) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    String key = in.nextName();
+                    if ("id".equals(key) && in.peek() != JsonToken.NULL) {
+                        usedBy.id = toId(in.nextString());
+                    } else if ("name".equals(key) && in.peek() != JsonToken.NULL) {
+                        usedBy.name = in.nextString();
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            } else if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+                String value = in.nextString();
+                usedBy.id = toId(value);
+                if (usedBy.id == null) usedBy.name = value;
+            } else {
+                in.skipValue();
+            }
+            return usedBy;
+        }
+
+        private static Integer toId(String value) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? name : String.valueOf(id);
+    }
+}
@@ -0,0 +1,101 @@
+package com.jpage4500.hubitat.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserDeviceType {
+    public int id;
+    public String name;
+    public String namespace;
+    public String oauth;
+    // NOTE: hub uses camelCase; override GsonHelper's lower_case_with_underscores naming policy
+    @SerializedName("lastModified")
+    public String lastModified;
+    @SerializedName("usedBy")
+    public List<UsedBy> usedBy;
+
+    /**
+     * app/driver lists can have hundreds of entries; parse without reflection
+     * NOTE: registered in GsonHelper.newInstance()
+     */
+    public static class Adapter extends TypeAdapter<UserDeviceType> {
+        private final UsedBy.Adapter usedByAdapter = new UsedBy.Adapter();
+
+        @Override
+        public void write(JsonWriter out, UserDeviceType value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            if (value.name != null) out.name("name").value(value.name);
+            if (value.namespace != null) out.name("namespace").value(value.namespace);
+            if (value.oauth != null) out.name("oauth").value(value.oauth);
+            if (value.lastModified != null) out.name("lastModified").value(value.lastModified);
+            if (value.usedBy != null) {
+                out.name("usedBy").beginArray();
+                for (UsedBy usedBy : value.usedBy) usedByAdapter.write(out, usedBy);
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public UserDeviceType read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            UserDeviceType type = new UserDeviceType();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (key) {
+                    case "id":
+                        type.id = in.nextInt();
+                        break;
+                    case "name":
+                        type.name = in.nextString();
+                        break;
+                    case "namespace":
+                        type.namespace = in.nextString();
+                        break;
+                    case "oauth":
+                        // usually "enabled"/"disabled"; keep whatever the hub sends as text
+                        type.oauth = in.peek() == JsonToken.BOOLEAN ? String.valueOf(in.nextBoolean()) : in.nextString();
+                        break;
+                    case "lastModified":
+                        type.lastModified = in.nextString();
+                        break;
+                    case "usedBy":
+                        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                            in.skipValue();
+                            break;
+                        }
+                        type.usedBy = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) type.usedBy.add(usedByAdapter.read(in));
+                        in.endArray();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return type;
+        }
+    }
+}
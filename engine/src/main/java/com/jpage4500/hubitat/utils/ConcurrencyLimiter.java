@@ -0,0 +1,201 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on in-flight requests to one hub (AIMD driven by a latency gradient)
+ * - additive increase: +1 per limit's worth of successful requests while latency stays near its baseline
+ * - multiplicative decrease: when latency climbs past TOLERANCE x baseline, or a request fails (timeout/5xx)
+ * - baseline tracks the fastest recent responses; short-term latency is a fast moving average
+ * - callers beyond the limit wait (FIFO is not guaranteed) up to a timeout
+ */
+public class ConcurrencyLimiter {
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 16;
+
+    // short-term latency must exceed baseline by this much before backing off
+    private static final double TOLERANCE = 1.5;
+    private static final double SHORT_ALPHA = 0.3;
+    // baseline follows faster responses quickly and slower ones over about a minute (time based, so it can't
+    // chase the latency it's supposed to detect during a burst, but still adapts to a hub that got slower)
+    private static final double BASELINE_DOWN_ALPHA = 0.5;
+    private static final long BASELINE_UP_WINDOW_MS = 60 * 1000;
+    private static final double ERROR_BACKOFF = 0.7;
+    // don't back off more than once per window (requests that were already in flight report the same problem)
+    private static final long DECREASE_WINDOW_MS = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    // guarded by 'lock'
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double shortRttMs;
+    private double longRttMs;
+    private long lastDecreaseMs;
+    private long lastSampleMs;
+    private long requests;
+    private long errors;
+    private long timeouts;
+    private long totalWaitMs;
+    private int maxQueued;
+
+    public static class Stats {
+        public int limit;
+        public int inFlight;
+        public int queued;
+        public int maxQueued;
+        public long requests;
+        public long errors;
+        public long timeouts;           // gave up waiting for a slot
+        public long avgWaitMs;          // time spent queued (per request)
+        public long latencyMs;          // short-term average
+        public long baselineMs;         // latency when hub isn't loaded
+
+        @Override
+        public String toString() {
+            return "limit:" + limit + ", in-flight:" + inFlight + ", queued:" + queued + " (max " + maxQueued + ")"
+                + ", latency:" + latencyMs + "ms (baseline " + baselineMs + "ms), avg wait:" + avgWaitMs + "ms"
+                + ", requests:" + requests + ", errors:" + errors;
+        }
+    }
+
+    public ConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * wait for a free slot; every successful acquire() must be followed by release()
+     *
+     * @return false if no slot became free within timeout (or thread was interrupted)
+     */
+    public boolean acquire(long timeout, TimeUnit unit) {
+        long startMs = System.currentTimeMillis();
+        long remainingNs = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                queued++;
+                maxQueued = Math.max(maxQueued, queued);
+                try {
+                    while (inFlight >= (int) limit) {
+                        if (remainingNs <= 0) {
+                            timeouts++;
+                            return false;
+                        }
+                        remainingNs = available.awaitNanos(remainingNs);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight++;
+            requests++;
+            totalWaitMs += System.currentTimeMillis() - startMs;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param latencyMs time the request took (not including time spent waiting for a slot)
+     * @param isError   request failed in a way that suggests the hub is struggling (timeout, 5xx)
+     */
+    public void release(long latencyMs, boolean isError) {
+        release(latencyMs, isError, true);
+    }
+
+    /**
+     * release without a latency sample; for transfers whose time depends on size, not hub load (uploads, downloads)
+     * - errors still back off; the limit doesn't grow
+     */
+    public void release(boolean isError) {
+        release(0, isError, false);
+    }
+
+    private void release(long latencyMs, boolean isError, boolean isSampled) {
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight;
+            inFlight--;
+            double oldLimit = limit;
+            if (isError) {
+                errors++;
+                decrease(ERROR_BACKOFF);
+            } else if (isSampled) {
+                long nowMs = System.currentTimeMillis();
+                if (longRttMs == 0) {
+                    shortRttMs = latencyMs;
+                    longRttMs = latencyMs;
+                } else {
+                    shortRttMs += SHORT_ALPHA * (latencyMs - shortRttMs);
+                    double upAlpha = Math.min(1.0, (nowMs - lastSampleMs) / (double) BASELINE_UP_WINDOW_MS);
+                    longRttMs += (latencyMs < longRttMs ? BASELINE_DOWN_ALPHA : upAlpha) * (latencyMs - longRttMs);
+                }
+                lastSampleMs = nowMs;
+                // 1.0 = latency flat; < 1.0 = latency climbing
+                double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttMs / Math.max(1, shortRttMs)));
+                if (gradient < 1.0) {
+                    decrease(gradient);
+                } else if (inFlightBefore * 2 >= (int) limit) {
+                    // only grow when the current limit is actually being used
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            }
+            if ((int) oldLimit != (int) limit) {
+                log.debug("release: limit {} -> {}, latency:{}ms, baseline:{}ms, error:{}", (int) oldLimit, (int) limit, (long) shortRttMs, (long) longRttMs, isError);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(double factor) {
+        long nowMs = System.currentTimeMillis();
+        if (nowMs - lastDecreaseMs < DECREASE_WINDOW_MS) return;
+        lastDecreaseMs = nowMs;
+        limit = Math.max(minLimit, limit * factor);
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            Stats stats = new Stats();
+            stats.limit = (int) limit;
+            stats.inFlight = inFlight;
+            stats.queued = queued;
+            stats.maxQueued = maxQueued;
+            stats.requests = requests;
+            stats.errors = errors;
+            stats.timeouts = timeouts;
+            stats.avgWaitMs = requests > 0 ? totalWaitMs / requests : 0;
+            stats.latencyMs = (long) shortRttMs;
+            stats.baselineMs = (long) longRttMs;
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Central queue for all uploads to a hub
+ * - uploads to the same target (hub + type + namespace:name) run one at a time, in order
+ * - uploads to different targets run concurrently
+ * - latest-wins: while an upload is running, only the newest queued upload for that target is kept
+ */
+public class DeployQueue {
+    private static final Logger log = LoggerFactory.getLogger(DeployQueue.class);
+
+    private static final DeployQueue instance = new DeployQueue();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "hubitat-deploy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // target key -> running/pending job; guarded by 'this'
+    private final Map<String, Slot> slotMap = new HashMap<>();
+
+    public interface Listener {
+        /**
+         * job is waiting for a previous upload to the same target to finish
+         *
+         * @param depth total number of running + queued uploads
+         */
+        default void onQueued(int depth) {
+        }
+
+        /**
+         * job is about to run
+         *
+         * @param waitMs time spent waiting in queue
+         */
+        default void onStarted(long waitMs) {
+        }
+
+        /**
+         * job was dropped because a newer upload for the same target was queued
+         */
+        default void onSuperseded() {
+        }
+    }
+
+    private static class Job {
+        final String key;
+        final Runnable task;
+        final Listener listener;
+        final long queuedAtMs = System.currentTimeMillis();
+
+        Job(String key, Runnable task, Listener listener) {
+            this.key = key;
+            this.task = task;
+            this.listener = listener;
+        }
+    }
+
+    private static class Slot {
+        Job running;
+        Job pending;
+    }
+
+    public static DeployQueue getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return key identifying an upload target
+     * NOTE: not the id; whether that's known at submit time depends on the caller, and the same app/driver must
+     * always get the same key
+     */
+    public static String key(String hub, boolean isApp, String namespace, String name) {
+        return hub + "/" + (isApp ? "app" : "driver") + "/" + namespace + ":" + name;
+    }
+
+    public void submit(String key, Runnable task, Listener listener) {
+        Job job = new Job(key, task, listener);
+        Job superseded = null;
+        boolean startNow;
+        int depth;
+        synchronized (this) {
+            Slot slot = slotMap.computeIfAbsent(key, k -> new Slot());
+            startNow = slot.running == null;
+            if (startNow) {
+                slot.running = job;
+            } else {
+                superseded = slot.pending;
+                slot.pending = job;
+            }
+            depth = getDepthLocked();
+        }
+        if (superseded != null) {
+            log.debug("submit: superseded: {}", key);
+            superseded.listener.onSuperseded();
+        }
+        if (startNow) {
+            start(job);
+        } else {
+            log.debug("submit: queued: {}, depth:{}", key, depth);
+            listener.onQueued(depth);
+        }
+    }
+
+    /**
+     * @return total number of running + queued uploads
+     */
+    public synchronized int getDepth() {
+        return getDepthLocked();
+    }
+
+    private int getDepthLocked() {
+        int depth = 0;
+        for (Slot slot : slotMap.values()) {
+            if (slot.running != null) depth++;
+            if (slot.pending != null) depth++;
+        }
+        return depth;
+    }
+
+    private void start(Job job) {
+        executor.execute(() -> {
+            long waitMs = System.currentTimeMillis() - job.queuedAtMs;
+            try {
+                job.listener.onStarted(waitMs);
+                job.task.run();
+            } catch (Exception e) {
+                log.error("start: {}, {}", job.key, e.getMessage(), e);
+            } finally {
+                onFinished(job);
+            }
+        });
+    }
+
+    private void onFinished(Job job) {
+        Job next;
+        synchronized (this) {
+            Slot slot = slotMap.get(job.key);
+            if (slot == null) return;
+            next = slot.pending;
+            slot.running = next;
+            slot.pending = null;
+            if (next == null) slotMap.remove(job.key);
+        }
+        if (next != null) start(next);
+    }
+}
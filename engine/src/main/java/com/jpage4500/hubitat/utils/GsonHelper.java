@@ -4,16 +4,29 @@ import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.internal.Primitives;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.models.HubFile;
+import com.jpage4500.hubitat.models.InstallRequest;
+import com.jpage4500.hubitat.models.InstallResult;
+import com.jpage4500.hubitat.models.RuntimeStats;
+import com.jpage4500.hubitat.models.SourceCode;
+import com.jpage4500.hubitat.models.UserDeviceType;
 
 import java.io.Reader;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GsonHelper {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(GsonHelper.class);
     private static volatile Gson instance;
 
+    // parameterized types are created once per element class instead of on every call
+    private static final Map<Class<?>, Type> listTypeMap = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Type> setTypeMap = new ConcurrentHashMap<>();
+    private static final Map<List<Class<?>>, Type> mapTypeMap = new ConcurrentHashMap<>();
+
     private static Gson getInstance() {
         if (instance == null) {
             synchronized (GsonHelper.class) {
@@ -33,6 +46,14 @@ public class GsonHelper {
         // converts between file_name to fileName
         gsonBuilder.setExclusionStrategies(new AnnotationExclusionStrategy());
         gsonBuilder.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
+        // hand-written adapters for models on hot paths (no reflection); must match the naming policy above
+        gsonBuilder.registerTypeAdapter(UserDeviceType.class, new UserDeviceType.Adapter());
+        gsonBuilder.registerTypeAdapter(InstallResult.class, new InstallResult.Adapter());
+        gsonBuilder.registerTypeAdapter(InstallRequest.class, new InstallRequest.Adapter());
+        gsonBuilder.registerTypeAdapter(DriverDetails.class, new DriverDetails.Adapter());
+        gsonBuilder.registerTypeAdapter(SourceCode.class, new SourceCode.Adapter());
+        gsonBuilder.registerTypeAdapter(HubFile.class, new HubFile.Adapter());
+        gsonBuilder.registerTypeAdapter(RuntimeStats.Entry.class, new RuntimeStats.EntryAdapter());
         return gsonBuilder.create();
     }
 
@@ -51,8 +72,8 @@ public class GsonHelper {
     public static <T> List<T> stringToList(String string, Class<T> classOfT) {
         if (TextUtils.notEmpty(string)) {
             try {
-                ListType<T> list = new ListType<>(classOfT);
-                return getInstance().fromJson(string, list);
+                Type type = listTypeMap.computeIfAbsent(classOfT, ListType::new);
+                return getInstance().fromJson(string, type);
             } catch (Exception e) {
                 //log.error("stringToList: JsonSyntaxException: {}, {}", string, e.getMessage());
                 log.error("stringToList: JsonSyntaxException: {}, {}", string, e.getMessage());
@@ -69,8 +90,8 @@ public class GsonHelper {
     public static <T> Set<T> stringToSet(String string, Class<T> classOfT) {
         if (TextUtils.notEmpty(string)) {
             try {
-                SetType<T> list = new SetType<>(classOfT);
-                return getInstance().fromJson(string, list);
+                Type type = setTypeMap.computeIfAbsent(classOfT, SetType::new);
+                return getInstance().fromJson(string, type);
             } catch (Exception e) {
                 log.error("stringToList: JsonSyntaxException: {}, {}", string, e.getMessage());
             }
@@ -86,8 +107,8 @@ public class GsonHelper {
     public static <T, K> Map<T, K> stringToMap(String string, Class<T> keyClass, Class<K> valueClass) {
         if (TextUtils.notEmpty(string)) {
             try {
-                MapType<T, K> list = new MapType<>(keyClass, valueClass);
-                return getInstance().fromJson(string, list);
+                Type type = mapTypeMap.computeIfAbsent(List.of(keyClass, valueClass), k -> new MapType<>(keyClass, valueClass));
+                return getInstance().fromJson(string, type);
             } catch (Exception e) {
                 log.error("stringToMap: JsonSyntaxException: {}, {}", string, e.getMessage());
             }
@@ -0,0 +1,43 @@
+package com.jpage4500.hubitat.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * content hashing helpers (used to detect changed sources/files)
+ */
+public class HashUtils {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * @return SHA-256 of UTF-8 text as lowercase hex
+     */
+    public static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256(byte[] data) {
+        MessageDigest digest = newSha256();
+        return toHex(digest.digest(data));
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // always available in the JDK
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            chars[i * 2] = HEX[v >>> 4];
+            chars[i * 2 + 1] = HEX[v & 0x0F];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,182 @@
+package com.jpage4500.hubitat.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary capture of hub HTTP exchanges (written by RecordingTransport, read by ReplayTransport)
+ * <pre>
+ * header:  int MAGIC, int VERSION, long startTimeMs                  (uncompressed)
+ * records: deflate stream, flushed after every record:
+ *   long offsetMs (since start), long elapsedMs, str method, str url, headers, bytes body,
+ *   boolean isResponse, then: int status, headers, bytes body  |  str error
+ * str:     int length (-1 = null) + UTF-8;  bytes: int length (-1 = null) + data
+ * headers: int count + (str name, str value) pairs; repeated names for multi-value headers
+ * </pre>
+ * - response bodies are kept exactly as the hub sent them (gzip/deflate stays encoded)
+ * - a file cut off mid-record (crash, kill) is read up to the last complete record
+ */
+public class HttpCapture {
+    private static final int MAGIC = 0x48434150;        // "HCAP"
+    private static final int VERSION = 1;
+    // sanity check for a corrupt length
+    private static final int MAX_BODY_BYTES = 64 * 1024 * 1024;
+
+    public static class Exchange {
+        public long offsetMs;
+        public long elapsedMs;
+        public HttpTransport.Request request;
+        public HttpTransport.Response response;         // null if request failed
+        public String error;                            // set if request failed
+    }
+
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final long startTimeMs = System.currentTimeMillis();
+
+        private Writer(OutputStream os) throws IOException {
+            DataOutputStream header = new DataOutputStream(os);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(startTimeMs);
+            // syncFlush: every record is readable as soon as it's written
+            out = new DataOutputStream(new DeflaterOutputStream(os, true));
+        }
+
+        /**
+         * @param startMs when the request was sent
+         */
+        public synchronized void write(Exchange exchange, long startMs) throws IOException {
+            out.writeLong(startMs - startTimeMs);
+            out.writeLong(exchange.elapsedMs);
+            writeString(out, exchange.request.method);
+            writeString(out, exchange.request.url);
+            writeHeaders(out, exchange.request.headers);
+            writeBytes(out, exchange.request.body);
+            out.writeBoolean(exchange.response != null);
+            if (exchange.response != null) {
+                out.writeInt(exchange.response.status);
+                writeMultiHeaders(out, exchange.response.headers);
+                writeBytes(out, exchange.response.body);
+            } else {
+                writeString(out, exchange.error);
+            }
+            out.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * create (overwrite) capture file
+     */
+    public static Writer create(Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        return new Writer(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    /**
+     * @return exchanges in the order they were recorded
+     */
+    public static List<Exchange> read(Path file) throws IOException {
+        List<Exchange> exchangeList = new ArrayList<>();
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream header = new DataInputStream(is);
+            if (header.readInt() != MAGIC) throw new IOException("not a capture file: " + file);
+            int version = header.readInt();
+            if (version != VERSION) throw new IOException("unsupported capture version: " + version);
+            header.readLong();
+            DataInputStream in = new DataInputStream(new InflaterInputStream(is));
+            while (true) {
+                try {
+                    exchangeList.add(readExchange(in));
+                } catch (EOFException e) {
+                    // end of file (or last record cut off)
+                    break;
+                }
+            }
+        }
+        return exchangeList;
+    }
+
+    private static Exchange readExchange(DataInputStream in) throws IOException {
+        Exchange exchange = new Exchange();
+        exchange.offsetMs = in.readLong();
+        exchange.elapsedMs = in.readLong();
+        exchange.request = new HttpTransport.Request();
+        exchange.request.method = readString(in);
+        exchange.request.url = readString(in);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) exchange.request.headers.put(readString(in), readString(in));
+        exchange.request.body = readBytes(in);
+        if (in.readBoolean()) {
+            exchange.response = new HttpTransport.Response();
+            exchange.response.status = in.readInt();
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                exchange.response.headers.computeIfAbsent(readString(in), k -> new ArrayList<>()).add(readString(in));
+            }
+            exchange.response.body = readBytes(in);
+        } else {
+            exchange.error = readString(in);
+        }
+        return exchange;
+    }
+
+    private static void writeHeaders(DataOutputStream out, Map<String, String> headers) throws IOException {
+        out.writeInt(headers.size());
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static void writeMultiHeaders(DataOutputStream out, Map<String, List<String>> headers) throws IOException {
+        int count = 0;
+        for (List<String> valueList : headers.values()) count += valueList.size();
+        out.writeInt(count);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            for (String value : entry.getValue()) {
+                writeString(out, entry.getKey());
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] data = readBytes(in);
+        return data != null ? new String(data, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        if (data == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length > MAX_BODY_BYTES) throw new IOException("corrupt capture: length " + length);
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+}
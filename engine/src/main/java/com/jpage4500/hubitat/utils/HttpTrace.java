@@ -0,0 +1,276 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Per-session trace of every hub request, for attaching to bug reports
+ * <pre>
+ * dir/
+ *   http-trace-20261019-091400.log       this session (rolled to .1, .2 when it gets too big)
+ *   http-trace-20261018-170212.log       earlier sessions (only the newest MAX_SESSIONS are kept)
+ * </pre>
+ * - disabled until start() is called; while disabled, record() callers skip building the record at all
+ * - nothing is created (directory, file, writer thread) until the first request is recorded
+ * - records are queued and written on a background thread; if the queue is full they are dropped, not waited on
+ * - cookie/authorization values are redacted; response bodies are only written for errors (capped)
+ * - past MAX_PER_SEC requests in a second, only every SAMPLE_RATE-th successful request is written
+ */
+public class HttpTrace {
+    private static final Logger log = LoggerFactory.getLogger(HttpTrace.class);
+
+    private static final long MAX_FILE_BYTES = 1024 * 1024;
+    private static final int MAX_ROLLS = 2;
+    private static final int MAX_SESSIONS = 5;
+    private static final int MAX_QUEUE = 1000;
+    private static final int MAX_PER_SEC = 20;
+    private static final int SAMPLE_RATE = 10;
+    private static final int MAX_BODY_LENGTH = 2000;
+    private static final String PREFIX = "http-trace-";
+
+    private static volatile HttpTrace instance;
+
+    private final Path dir;
+    // session start; file is only named on first record() (SimpleDateFormat pulls in the locale/calendar classes)
+    private final long startMs = System.currentTimeMillis();
+    private volatile Path file;
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(MAX_QUEUE);
+    private final Thread writerThread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean isStopping;
+    private volatile boolean isStarted;
+    // guarded by 'this'
+    private boolean isFailed;
+
+    // guarded by 'this'
+    private long windowSec;
+    private int windowCount;
+    private long sampledOut;
+
+    // writer thread only
+    private Writer writer;
+    private long fileBytes;
+
+    public static class Record {
+        public final long timeMs = System.currentTimeMillis();
+        public String method;
+        public String url;
+        public int status;
+        public long elapsedMs;
+        public long requestBytes;
+        public long responseBytes;
+        public Map<String, String> requestHeaders;
+        public Map<String, List<String>> responseHeaders;
+        public String errorBody;            // only kept for errors
+    }
+
+    private HttpTrace(Path dir) {
+        this.dir = dir;
+        writerThread = new Thread(this::writeLoop, "hubitat-trace");
+        writerThread.setDaemon(true);
+    }
+
+    /**
+     * start tracing this session to a new file in dir (no-op if already started)
+     * NOTE: cheap; the file and writer thread are created on first record()
+     */
+    public static synchronized void start(Path dir) {
+        if (instance != null) return;
+        instance = new HttpTrace(dir);
+    }
+
+    /**
+     * create dir, drop old sessions and start writer thread
+     *
+     * @return false if trace file can't be written
+     */
+    private boolean ensureStarted() {
+        if (isStarted) return true;
+        synchronized (this) {
+            return startLocked();
+        }
+    }
+
+    private boolean startLocked() {
+        if (isStarted || isFailed) return isStarted;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            log.error("startLocked: {}: {}", dir, e.getMessage());
+            isFailed = true;
+            return false;
+        }
+        file = dir.resolve(PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(startMs)) + ".log");
+        pruneSessions();
+        writerThread.start();
+        // write whatever is still queued on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "hubitat-trace-stop"));
+        isStarted = true;
+        log.debug("startLocked: {}", file);
+        return true;
+    }
+
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * @return trace file for this session; null until the first request is recorded
+     */
+    public static Path getFile() {
+        HttpTrace trace = instance;
+        return trace != null ? trace.file : null;
+    }
+
+    /**
+     * queue record to be written (never blocks)
+     */
+    public static void record(Record record) {
+        HttpTrace trace = instance;
+        if (trace == null || !trace.ensureStarted() || !trace.isSampled(record)) return;
+        if (!trace.queue.offer(record)) trace.dropped.incrementAndGet();
+    }
+
+    private synchronized boolean isSampled(Record record) {
+        long sec = record.timeMs / 1000;
+        if (sec != windowSec) {
+            windowSec = sec;
+            windowCount = 0;
+        }
+        windowCount++;
+        // errors are always interesting
+        if (windowCount <= MAX_PER_SEC || record.status < 200 || record.status >= 400) return true;
+        if ((windowCount - MAX_PER_SEC) % SAMPLE_RATE == 0) return true;
+        sampledOut++;
+        return false;
+    }
+
+    private synchronized long takeSampledOut() {
+        long count = sampledOut;
+        sampledOut = 0;
+        return count;
+    }
+
+    private void stop() {
+        isStopping = true;
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        StringBuilder sb = new StringBuilder();
+        while (!isStopping || !queue.isEmpty()) {
+            try {
+                Record record = queue.poll(1, TimeUnit.SECONDS);
+                if (record == null) continue;
+                do {
+                    format(record, timeFormat, sb);
+                    record = queue.poll();
+                } while (record != null);
+                long skipped = takeSampledOut();
+                if (skipped > 0) sb.append("  (").append(skipped).append(" successful requests not traced; sampling)\n");
+                long droppedCount = dropped.getAndSet(0);
+                if (droppedCount > 0) sb.append("  (").append(droppedCount).append(" requests not traced; queue full)\n");
+                write(sb.toString());
+                sb.setLength(0);
+                // let a burst collect into one write
+                if (!isStopping) TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.error("writeLoop: {}", e.getMessage());
+                sb.setLength(0);
+            }
+        }
+    }
+
+    private void format(Record record, SimpleDateFormat timeFormat, StringBuilder sb) {
+        sb.append(timeFormat.format(new Date(record.timeMs))).append(' ')
+            .append(record.method).append(' ').append(record.url)
+            .append(" -> ").append(record.status).append(' ').append(record.elapsedMs).append("ms")
+            .append(" sent:").append(record.requestBytes).append(" received:").append(record.responseBytes).append('\n');
+        for (Map.Entry<String, String> entry : LogUtils.redactHeaders(record.requestHeaders).entrySet()) {
+            sb.append("  > ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        if (record.responseHeaders != null) {
+            for (Map.Entry<String, List<String>> entry : record.responseHeaders.entrySet()) {
+                // status line has a null key
+                if (entry.getKey() == null) continue;
+                boolean isCookie = entry.getKey().equalsIgnoreCase("Set-Cookie");
+                for (String value : entry.getValue()) {
+                    sb.append("  < ").append(entry.getKey()).append(": ")
+                        .append(isCookie ? LogUtils.redactCookie(value) : value).append('\n');
+                }
+            }
+        }
+        if (record.errorBody != null) {
+            sb.append("  ! ").append(LogUtils.truncateNow(record.errorBody, MAX_BODY_LENGTH)).append('\n');
+        }
+    }
+
+    private void write(String text) throws IOException {
+        if (writer != null && fileBytes > MAX_FILE_BYTES) roll();
+        if (writer == null) {
+            writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            fileBytes = Files.size(file);
+        }
+        writer.write(text);
+        writer.flush();
+        fileBytes += text.length();
+    }
+
+    /**
+     * file -> file.1 -> file.2 ... (oldest dropped)
+     */
+    private void roll() throws IOException {
+        writer.close();
+        writer = null;
+        for (int i = MAX_ROLLS; i >= 1; i--) {
+            Path from = i == 1 ? file : Path.of(file + "." + (i - 1));
+            if (Files.exists(from)) Files.move(from, Path.of(file + "." + i), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * keep files from the newest MAX_SESSIONS - 1 earlier sessions
+     */
+    private void pruneSessions() {
+        try (Stream<Path> stream = Files.list(dir)) {
+            Map<String, List<Path>> sessionMap = new TreeMap<>(Comparator.reverseOrder());
+            stream.filter(path -> path.getFileName().toString().startsWith(PREFIX)).forEach(path -> {
+                String name = path.getFileName().toString();
+                int end = name.indexOf(".log");
+                String session = end > 0 ? name.substring(0, end) : name;
+                sessionMap.computeIfAbsent(session, k -> new ArrayList<>()).add(path);
+            });
+            int count = 0;
+            for (List<Path> pathList : sessionMap.values()) {
+                if (++count < MAX_SESSIONS) continue;
+                for (Path path : pathList) Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.error("pruneSessions: {}", e.getMessage());
+        }
+    }
+}
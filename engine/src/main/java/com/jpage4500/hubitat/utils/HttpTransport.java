@@ -0,0 +1,45 @@
+package com.jpage4500.hubitat.utils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends one request and returns the whole response; what NetworkHelper get/post requests go through
+ * - UrlConnectionTransport: the real network (default)
+ * - RecordingTransport: real network + save every exchange to an HttpCapture file
+ * - ReplayTransport: answer from an HttpCapture file; no hub needed
+ * NOTE: response body is returned as sent (still gzip/deflate encoded); NetworkHelper decodes it
+ */
+public interface HttpTransport {
+
+    class Request {
+        public String method;
+        public String url;
+        public Map<String, String> headers = new LinkedHashMap<>();
+        public byte[] body;                         // null for GET
+        public int timeoutMs;                       // connect/read timeout; 0 for none
+    }
+
+    class Response {
+        public int status;
+        public Map<String, List<String>> headers = new LinkedHashMap<>();
+        public byte[] body;                         // null if no body
+
+        /**
+         * @return first value of header (case-insensitive); null if not set
+         */
+        public String getHeader(String name) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) return entry.getValue().get(0);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @throws IOException if the hub can't be reached (NetworkHelper reports status -1)
+     */
+    Response execute(Request request) throws IOException;
+}
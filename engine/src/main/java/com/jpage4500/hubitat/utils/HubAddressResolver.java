@@ -0,0 +1,195 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Resolve hub addresses (IPv4, hostname, .local mDNS name or [IPv6], with optional :port)
+ * - IPv6 must be in brackets (ie: [fe80::1]:8080); bare IPv6 is rejected since the port would be ambiguous
+ * - lookups run asynchronously on a small background pool
+ * - successful lookups are cached for RESOLVED_TTL_MS; failures for FAILED_TTL_MS (negative cache)
+ * - concurrent lookups of the same name share a single request
+ */
+public class HubAddressResolver {
+    private static final Logger log = LoggerFactory.getLogger(HubAddressResolver.class);
+
+    private static final long RESOLVED_TTL_MS = 30 * 60 * 1000;
+    private static final long FAILED_TTL_MS = 30 * 1000;
+    // mDNS can be slow; don't block a deploy forever
+    private static final long RESOLVE_TIMEOUT_MS = 10 * 1000;
+
+    private static final Pattern IPV4_PATTERN = Pattern.compile(
+        "^(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
+            "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
+            "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
+            "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$");
+    // RFC 1123 hostname (ie: hubitat, hubitat.local, hub.example.com)
+    private static final Pattern HOSTNAME_PATTERN = Pattern.compile(
+        "^(?=.{1,253}$)[a-zA-Z0-9]([a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?(\\.[a-zA-Z0-9]([a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?)*\\.?$");
+    // top-level label can't be all-numeric (RFC 3696) -- rejects 999.1.1.1, 1.2.3, etc that aren't valid IPv4
+    private static final Pattern NUMERIC_TLD_PATTERN = Pattern.compile("(^|\\.)[0-9]+\\.?$");
+    private static final Pattern IPV6_PATTERN = Pattern.compile("^[0-9a-fA-F:.]*:[0-9a-fA-F:.]*(%[0-9a-zA-Z._-]+)?$");
+
+    private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "hubitat-resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class Entry {
+        final CompletableFuture<HubEndpoint> future;
+        volatile long expiresAtMs = Long.MAX_VALUE;   // set once lookup completes
+        volatile long completedAtMs;                  // 0 while lookup is running
+
+        Entry(CompletableFuture<HubEndpoint> future) {
+            this.future = future;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAtMs;
+        }
+    }
+
+    /**
+     * @return true if address is an IPv4 address, hostname or [IPv6] address with optional port (ie: hubitat.local:8080)
+     */
+    public static boolean isValidHubAddress(String address) {
+        if (TextUtils.isEmpty(address)) return false;
+        String host = getHost(address);
+        int port = getPort(address);
+        if (port == 0 || port > 65535) return false;
+        if (isBracketed(address)) return isIpv6(host);
+        if (IPV4_PATTERN.matcher(host).matches()) return true;
+        return HOSTNAME_PATTERN.matcher(host).matches() && !NUMERIC_TLD_PATTERN.matcher(host).find();
+    }
+
+    /**
+     * resolve address in the background; result is cached
+     * NOTE: completes exceptionally if address can't be resolved
+     */
+    public static CompletableFuture<HubEndpoint> resolveAsync(String address) {
+        Entry entry = cache.get(address);
+        if (entry != null && !entry.isExpired()) return entry.future;
+
+        Entry newEntry = new Entry(new CompletableFuture<>());
+        entry = cache.compute(address, (key, existing) ->
+            (existing != null && !existing.isExpired()) ? existing : newEntry);
+        if (entry != newEntry) return entry.future;
+
+        Entry lookup = newEntry;
+        executor.execute(() -> {
+            long startMs = System.currentTimeMillis();
+            try {
+                String host = getHost(address);
+                InetAddress inetAddress = InetAddress.getByName(host);
+                HubEndpoint endpoint = new HubEndpoint(host, getPort(address), inetAddress);
+                log.debug("resolveAsync: {} -> {}, {}ms", address, inetAddress.getHostAddress(), System.currentTimeMillis() - startMs);
+                lookup.completedAtMs = System.currentTimeMillis();
+                lookup.expiresAtMs = lookup.completedAtMs + RESOLVED_TTL_MS;
+                lookup.future.complete(endpoint);
+            } catch (Exception e) {
+                log.error("resolveAsync: unable to resolve: {}, {}ms, {}", address, System.currentTimeMillis() - startMs, e.getMessage());
+                lookup.completedAtMs = System.currentTimeMillis();
+                lookup.expiresAtMs = lookup.completedAtMs + FAILED_TTL_MS;
+                lookup.future.completeExceptionally(e);
+            }
+        });
+        return lookup.future;
+    }
+
+    /**
+     * blocking version of resolveAsync
+     * NOTE: call from a background thread
+     *
+     * @return resolved endpoint or null if address can't be resolved
+     */
+    public static HubEndpoint resolve(String address) {
+        try {
+            return resolveAsync(address).get(RESOLVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.error("resolve: timeout: {}", address);
+        } catch (ExecutionException e) {
+            // already logged
+        }
+        return null;
+    }
+
+    /**
+     * forget cached result (ie: hub changed IP and requests to old address are failing)
+     */
+    public static void invalidate(String address) {
+        cache.remove(address);
+    }
+
+    /**
+     * hub couldn't be reached at the resolved address; it may have a new one (DHCP) so look it up again
+     * - at most once per FAILED_TTL_MS, so an offline hub doesn't cause a lookup (mDNS) per request
+     */
+    public static void onConnectFailed(String address) {
+        Entry entry = cache.get(address);
+        // lookup still running, or looked up recently
+        if (entry == null || entry.completedAtMs == 0 || System.currentTimeMillis() - entry.completedAtMs < FAILED_TTL_MS) return;
+        cache.remove(address, entry);
+    }
+
+    private static boolean isBracketed(String address) {
+        return address.trim().startsWith("[");
+    }
+
+    /**
+     * @return true if host is an IPv6 literal (no DNS lookup)
+     */
+    private static boolean isIpv6(String host) {
+        if (!IPV6_PATTERN.matcher(host).matches()) return false;
+        try {
+            return InetAddress.getByName(host) instanceof Inet6Address;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return host from host[:port] or [v6][:port] (without brackets)
+     * NOTE: bare IPv6 (more than one ':') is returned as-is and fails validation
+     */
+    private static String getHost(String address) {
+        String value = address.trim();
+        if (isBracketed(value)) {
+            int close = value.indexOf(']');
+            return close > 0 ? value.substring(1, close) : value;
+        }
+        int colon = value.indexOf(':');
+        if (colon != value.lastIndexOf(':')) return value;
+        return colon > 0 ? value.substring(0, colon) : value;
+    }
+
+    /**
+     * @return port from host:port or [v6]:port; -1 if not specified; 0 if invalid
+     */
+    private static int getPort(String address) {
+        String value = address.trim();
+        int colon;
+        if (isBracketed(value)) {
+            int close = value.indexOf(']');
+            if (close < 0) return 0;
+            if (close == value.length() - 1) return -1;
+            if (value.charAt(close + 1) != ':') return 0;
+            colon = close + 1;
+        } else {
+            colon = value.indexOf(':');
+            if (colon <= 0 || colon != value.lastIndexOf(':')) return -1;
+        }
+        int port = TextUtils.getNumberInt(value.substring(colon + 1), 0);
+        return port > 0 ? port : 0;
+    }
+}
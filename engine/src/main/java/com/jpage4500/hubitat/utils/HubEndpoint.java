@@ -0,0 +1,41 @@
+package com.jpage4500.hubitat.utils;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+
+/**
+ * A hub address as entered by the user (IP, hostname or .local mDNS name) along with the address it resolved to
+ */
+public class HubEndpoint {
+    public final String host;           // as entered (without port or IPv6 brackets)
+    public final int port;              // -1 if not specified
+    public final InetAddress address;   // resolved address
+
+    public HubEndpoint(String host, int port, InetAddress address) {
+        this.host = host;
+        this.port = port;
+        this.address = address;
+    }
+
+    /**
+     * @return http://<resolved ip>[:port] -- connect using the resolved address so no lookup is needed per request
+     */
+    public String getBaseUrl() {
+        String ip = address.getHostAddress();
+        if (address instanceof Inet6Address) ip = "[" + ip + "]";
+        return "http://" + ip + (port > 0 ? ":" + port : "");
+    }
+
+    /**
+     * @return value for Host/Origin headers -- host as entered by user [:port]; IPv6 in brackets
+     */
+    public String getAuthority() {
+        String value = host.indexOf(':') >= 0 ? "[" + host + "]" : host;
+        return value + (port > 0 ? ":" + port : "");
+    }
+
+    @Override
+    public String toString() {
+        return getAuthority() + " (" + address.getHostAddress() + ")";
+    }
+}
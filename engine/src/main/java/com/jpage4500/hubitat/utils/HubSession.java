@@ -0,0 +1,321 @@
+package com.jpage4500.hubitat.utils;
+
+import com.jpage4500.hubitat.models.SourceCode;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+
+/**
+ * Per-hub connection state shared by all requests to the same hub
+ * - one NetworkHelper (and cookie store) per hub so a session only needs to be set up once
+ * - hub address (IP, hostname or .local name) resolved once via HubAddressResolver
+ * - short-lived cache of userAppTypes/userDeviceTypes so a deploy only needs the ideUpdate POST
+ * - concurrent requests for the same list share one fetch
+ */
+public class HubSession {
+    private static final Logger log = LoggerFactory.getLogger(HubSession.class);
+
+    // how long a fetched app/driver list is considered fresh
+    private static final long TYPE_LIST_TTL_MS = 60 * 1000;
+
+    private static final Map<String, HubSession> sessionMap = new ConcurrentHashMap<>();
+
+    // used to fetch app and driver lists at the same time
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "hubitat-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String hubAddress;
+    private final NetworkHelper networkHelper = new NetworkHelper();
+
+    private volatile CachedList appTypes;
+    private volatile CachedList deviceTypes;
+    // isApp -> list fetch in progress
+    private final Map<Boolean, CompletableFuture<NetworkHelper.HttpResponse>> fetchMap = new ConcurrentHashMap<>();
+
+    private static class CachedList {
+        final List<UserDeviceType> list;
+        final long fetchedAtMs;
+
+        CachedList(List<UserDeviceType> list) {
+            this.list = list;
+            this.fetchedAtMs = System.currentTimeMillis();
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - fetchedAtMs < TYPE_LIST_TTL_MS;
+        }
+    }
+
+    /**
+     * app/driver found by name/namespace
+     */
+    public static class TypeMatch {
+        public final boolean isApp;
+        public final UserDeviceType type;
+
+        TypeMatch(boolean isApp, UserDeviceType type) {
+            this.isApp = isApp;
+            this.type = type;
+        }
+    }
+
+    private HubSession(String hubAddress) {
+        this.hubAddress = hubAddress;
+    }
+
+    /**
+     * @return shared session for given hub address (created on first use)
+     */
+    public static HubSession get(String hubAddress) {
+        return sessionMap.computeIfAbsent(hubAddress, HubSession::new);
+    }
+
+    public String getHubAddress() {
+        return hubAddress;
+    }
+
+    public NetworkHelper getNetworkHelper() {
+        return networkHelper;
+    }
+
+    /**
+     * NOTE: blocking; call from a background thread
+     *
+     * @return resolved hub endpoint or null if address can't be resolved
+     */
+    public HubEndpoint getEndpoint() {
+        return HubAddressResolver.resolve(hubAddress);
+    }
+
+    /**
+     * @return full URL for given path (ie: "/hub2/userAppTypes") or null if address can't be resolved
+     */
+    public String getUrl(String path) {
+        HubEndpoint endpoint = getEndpoint();
+        return endpoint != null ? endpoint.getBaseUrl() + path : null;
+    }
+
+    /**
+     * @return value for Host/Origin headers
+     */
+    public String getAuthority() {
+        HubEndpoint endpoint = getEndpoint();
+        return endpoint != null ? endpoint.getAuthority() : hubAddress;
+    }
+
+    public Map<String, String> getHeaders() {
+        String authority = getAuthority();
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "text/plain; charset=ISO-8859-1");
+        headers.put("Origin", "http://" + authority);
+        headers.put("Host", authority);
+        headers.put("User-Agent", "Apache-HttpClient/4.5.14 (Java/21.0.8)");
+        headers.put("Accept-Encoding", "gzip,deflate");
+        return headers;
+    }
+
+    public NetworkHelper.HttpResponse getRequest(String path, Map<String, String> headers) {
+        String urlStr = getUrl(path);
+        if (urlStr == null) return unresolvedResponse();
+        return onResponse(networkHelper.getRequest(urlStr, headers));
+    }
+
+    public NetworkHelper.HttpResponse postRequest(String path, String body, Map<String, String> headers) {
+        String urlStr = getUrl(path);
+        if (urlStr == null) return unresolvedResponse();
+        return onResponse(networkHelper.postRequest(urlStr, body, headers));
+    }
+
+    /**
+     * upload file as multipart/form-data (streamed from disk)
+     */
+    public NetworkHelper.HttpResponse postFile(String path, Map<String, String> fields, String fileField, String fileName,
+                                               Path file, LongConsumer progress) {
+        String urlStr = getUrl(path);
+        if (urlStr == null) return unresolvedResponse();
+        return onResponse(networkHelper.postFile(urlStr, fields, fileField, fileName, file, getHeaders(), progress));
+    }
+
+    /**
+     * download path into 'out' (streamed; see NetworkHelper.download())
+     */
+    public NetworkHelper.HttpResponse download(String path, WritableByteChannel out, NetworkHelper.DownloadListener listener) {
+        String urlStr = getUrl(path);
+        if (urlStr == null) return unresolvedResponse();
+        Map<String, String> headers = getHeaders();
+        // files the hub serves are already compressed; and Content-Length must match what's written for progress
+        headers.put("Accept-Encoding", "identity");
+        headers.remove("Content-Type");
+        return onResponse(networkHelper.download(urlStr, headers, out, listener));
+    }
+
+    private NetworkHelper.HttpResponse onResponse(NetworkHelper.HttpResponse response) {
+        // hub not reachable; it may have a new address (DHCP) so look it up again
+        // NOTE: not on read timeouts/cancels (hub was reached)
+        if (response.isConnectError) HubAddressResolver.onConnectFailed(hubAddress);
+        return response;
+    }
+
+    private NetworkHelper.HttpResponse unresolvedResponse() {
+        NetworkHelper.HttpResponse response = new NetworkHelper.HttpResponse();
+        response.status = -1;
+        response.body = "Unable to resolve hub address: " + hubAddress;
+        return response;
+    }
+
+    /**
+     * @return cached app/driver list if fetched recently; null if missing or stale
+     */
+    public List<UserDeviceType> getCachedTypeList(boolean isApp) {
+        CachedList cached = isApp ? appTypes : deviceTypes;
+        if (cached == null || !cached.isFresh()) return null;
+        return cached.list;
+    }
+
+    /**
+     * fetch app/driver list from hub and cache it on success
+     * GET http://192.168.0.200/hub2/userAppTypes
+     * GET http://192.168.0.200/hub2/userDeviceTypes
+     * NOTE: if the same list is already being fetched, waits for (and returns) that response instead
+     */
+    public NetworkHelper.HttpResponse fetchTypeList(boolean isApp) {
+        CompletableFuture<NetworkHelper.HttpResponse> future = new CompletableFuture<>();
+        CompletableFuture<NetworkHelper.HttpResponse> existing = fetchMap.putIfAbsent(isApp, future);
+        if (existing != null) return existing.join();
+        try {
+            String path = "/hub2/" + (isApp ? "userAppTypes" : "userDeviceTypes");
+            NetworkHelper.HttpResponse response = getRequest(path, getHeaders());
+            if (response.status == 200) {
+                CachedList cached = new CachedList(GsonHelper.stringToList(response.body, UserDeviceType.class));
+                if (isApp) appTypes = cached;
+                else deviceTypes = cached;
+            }
+            future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            fetchMap.remove(isApp, future);
+        }
+    }
+
+    /**
+     * NOTE: blocking; call from a background thread
+     *
+     * @return cached app/driver list if fresh, otherwise fetched from hub; null if hub not reachable
+     */
+    public List<UserDeviceType> getTypeList(boolean isApp) {
+        List<UserDeviceType> typeList = getCachedTypeList(isApp);
+        if (typeList == null && fetchTypeList(isApp).status == 200) typeList = getCachedTypeList(isApp);
+        return typeList;
+    }
+
+    /**
+     * find app/driver by id (if not null) or namespace/name; uses cached list when fresh
+     * NOTE: blocking; call from a background thread
+     *
+     * @return matching app/driver or null if not found (or hub not reachable)
+     */
+    public UserDeviceType findType(boolean isApp, Integer id, String namespace, String name) {
+        List<UserDeviceType> typeList = getTypeList(isApp);
+        if (typeList == null) return null;
+        for (UserDeviceType type : typeList) {
+            if (id != null) {
+                if (type.id == id) return type;
+            } else if (TextUtils.equals(type.name, name) && TextUtils.equals(type.namespace, namespace)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * figure out whether namespace/name is an app or a driver (and its ID) by looking in both lists
+     * - app and driver lists are fetched in parallel (or taken from cache); both stay cached for the deploy
+     * NOTE: blocking; call from a background thread
+     *
+     * @return match or null if not found in either list, found in both (ambiguous), or hub not reachable
+     */
+    public TypeMatch resolveType(String namespace, String name) {
+        long startMs = System.currentTimeMillis();
+        CompletableFuture<UserDeviceType> appFuture = getCachedTypeList(true) != null
+            ? CompletableFuture.completedFuture(findType(true, null, namespace, name))
+            : CompletableFuture.supplyAsync(() -> findType(true, null, namespace, name), executor);
+        UserDeviceType driverType = findType(false, null, namespace, name);
+        UserDeviceType appType;
+        try {
+            appType = appFuture.join();
+        } catch (Exception e) {
+            log.error("resolveType: {}", e.getMessage());
+            appType = null;
+        }
+        log.debug("resolveType: {}:{}, app:{}, driver:{}, {}ms", namespace, name,
+            appType != null ? appType.id : null, driverType != null ? driverType.id : null, System.currentTimeMillis() - startMs);
+        if (appType != null && driverType == null) return new TypeMatch(true, appType);
+        else if (driverType != null && appType == null) return new TypeMatch(false, driverType);
+        return null;
+    }
+
+    /**
+     * fetch current source of an app/driver from hub
+     * NOTE: blocking; call from a background thread
+     *
+     * @return source or null on error
+     */
+    public SourceCode fetchSource(boolean isApp, int id) {
+        // GET http://192.168.0.200/driver/ajax/code?id=885
+        String path = (isApp ? "/app" : "/driver") + "/ajax/code?id=" + id;
+        NetworkHelper.HttpResponse response = getRequest(path, getHeaders());
+        if (response.status != 200) {
+            log.error("fetchSource: {}, http:{}, {}", path, response.status, LogUtils.truncate(response.body));
+            return null;
+        }
+        SourceCode sourceCode = GsonHelper.fromJson(response.body, SourceCode.class);
+        if (sourceCode == null || sourceCode.source == null) return null;
+        return sourceCode;
+    }
+
+    /**
+     * drop cached list (ie: after a new app/driver is installed)
+     */
+    public void invalidate(boolean isApp) {
+        if (isApp) appTypes = null;
+        else deviceTypes = null;
+    }
+
+    /**
+     * resolve hub address, open a connection/session to the hub and speculatively fetch both app/driver lists
+     * NOTE: blocking; call from a background thread. Stops early if the thread is interrupted
+     *
+     * @param isAppHint fetch this list first (null if unknown)
+     */
+    public void prewarm(Boolean isAppHint) {
+        boolean first = isAppHint == null || isAppHint;
+        for (boolean isApp : new boolean[]{first, !first}) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("prewarm: cancelled: {}", hubAddress);
+                return;
+            }
+            if (getCachedTypeList(isApp) != null) continue;
+            NetworkHelper.HttpResponse response = fetchTypeList(isApp);
+            log.debug("prewarm: {} {}, http:{}", hubAddress, isApp ? "apps" : "drivers", response.status);
+            // hub not reachable; don't bother with 2nd request
+            if (response.status == -1) return;
+        }
+    }
+}
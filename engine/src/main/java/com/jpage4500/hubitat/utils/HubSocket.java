@@ -0,0 +1,154 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket connection to a hub (ie: /logsocket, /eventsocket)
+ * - reconnects with backoff until stop() is called
+ * - requests one message at a time so a slow consumer pushes back on the socket instead of buffering
+ */
+public class HubSocket {
+    private static final Logger log = LoggerFactory.getLogger(HubSocket.class);
+
+    private static final long MIN_RECONNECT_MS = 1000;
+    private static final long MAX_RECONNECT_MS = 30 * 1000;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hubitat-socket");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private final String hubAddress;
+    private final String path;
+    private final Listener listener;
+
+    private volatile boolean isStopped;
+    private volatile boolean isConnected;
+    private volatile WebSocket webSocket;
+    private long reconnectMs = MIN_RECONNECT_MS;
+
+    public interface Listener {
+        /**
+         * NOTE: called on a background thread; the next message isn't requested until this returns
+         */
+        void onMessage(String text);
+
+        default void onStatus(boolean isConnected, String message) {
+        }
+    }
+
+    public HubSocket(String hubAddress, String path, Listener listener) {
+        this.hubAddress = hubAddress;
+        this.path = path;
+        this.listener = listener;
+    }
+
+    public String getHubAddress() {
+        return hubAddress;
+    }
+
+    public boolean isConnected() {
+        return isConnected;
+    }
+
+    public void start() {
+        isStopped = false;
+        connect();
+    }
+
+    public void stop() {
+        isStopped = true;
+        isConnected = false;
+        WebSocket ws = webSocket;
+        webSocket = null;
+        if (ws != null) ws.abort();
+    }
+
+    private void connect() {
+        if (isStopped) return;
+        HubAddressResolver.resolveAsync(hubAddress)
+            .thenCompose(endpoint -> {
+                URI uri = URI.create(endpoint.getBaseUrl().replaceFirst("^http", "ws") + path);
+                WebSocket.Builder builder = client.newWebSocketBuilder();
+                String cookie = HubSession.get(hubAddress).getNetworkHelper().getCookieHeader();
+                if (cookie != null) builder.header("Cookie", cookie);
+                log.debug("connect: {}", uri);
+                return builder.buildAsync(uri, new SocketListener());
+            })
+            .whenComplete((ws, error) -> {
+                if (error != null) {
+                    log.debug("connect: {}{}: {}", hubAddress, path, error.getMessage());
+                    onDisconnected("Unable to connect: " + error.getMessage());
+                } else if (isStopped) {
+                    ws.abort();
+                } else {
+                    webSocket = ws;
+                }
+            });
+    }
+
+    private void onDisconnected(String message) {
+        isConnected = false;
+        webSocket = null;
+        if (isStopped) return;
+        listener.onStatus(false, message);
+        long delayMs = reconnectMs;
+        reconnectMs = Math.min(reconnectMs * 2, MAX_RECONNECT_MS);
+        scheduler.schedule(this::connect, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private class SocketListener implements WebSocket.Listener {
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            isConnected = true;
+            reconnectMs = MIN_RECONNECT_MS;
+            listener.onStatus(true, "Connected to " + hubAddress);
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String text = partial.toString();
+                partial.setLength(0);
+                try {
+                    listener.onMessage(text);
+                } catch (Exception e) {
+                    log.error("onText: {}", e.getMessage(), e);
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            log.debug("onClose: {}{}: {}, {}", hubAddress, path, statusCode, reason);
+            onDisconnected("Disconnected: " + statusCode);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            log.debug("onError: {}{}: {}", hubAddress, path, error.getMessage());
+            onDisconnected("Disconnected: " + error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.jpage4500.hubitat.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Log argument helpers; the returned objects only do work in toString(), which slf4j calls only when the
+ * level is enabled
+ * - log.debug("x: {}", LogUtils.json(details))        instead of GsonHelper.toJson(details)
+ * - log.debug("x: {}", LogUtils.truncate(body))       caps long bodies at MAX_LENGTH chars
+ */
+public class LogUtils {
+    public static final int MAX_LENGTH = 500;
+
+    private static final String REDACTED = "<redacted>";
+
+    /**
+     * @return object that serializes value to JSON (capped at MAX_LENGTH) when logged
+     */
+    public static Object json(Object value) {
+        return lazy(() -> truncateNow(GsonHelper.toJson(value), MAX_LENGTH));
+    }
+
+    public static Object truncate(String text) {
+        return truncate(text, MAX_LENGTH);
+    }
+
+    public static Object truncate(String text, int maxLength) {
+        return lazy(() -> truncateNow(text, maxLength));
+    }
+
+    public static Object lazy(Supplier<String> supplier) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return supplier.get();
+            }
+        };
+    }
+
+    public static String truncateNow(String text, int maxLength) {
+        if (text == null || text.length() <= maxLength) return text;
+        return text.substring(0, maxLength) + "...(" + text.length() + " chars)";
+    }
+
+    /**
+     * @return copy of headers with cookie values replaced
+     */
+    public static Map<String, String> redactHeaders(Map<String, String> headers) {
+        Map<String, String> resultMap = new LinkedHashMap<>();
+        if (headers == null) return resultMap;
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            String key = entry.getKey();
+            boolean isCookie = key != null && (key.equalsIgnoreCase("Cookie") || key.equalsIgnoreCase("Set-Cookie")
+                || key.equalsIgnoreCase("Authorization"));
+            resultMap.put(key, isCookie ? redactCookie(entry.getValue()) : entry.getValue());
+        }
+        return resultMap;
+    }
+
+    /**
+     * "JSESSIONID=abc; HUBSESSION=xyz" -> "JSESSIONID=<redacted>; HUBSESSION=<redacted>"
+     */
+    public static String redactCookie(String value) {
+        if (value == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (String part : value.split(";")) {
+            if (!sb.isEmpty()) sb.append(";");
+            int eq = part.indexOf('=');
+            // keep attribute names (Path, HttpOnly, ...) - only the first name=value pair is secret
+            if (eq > 0 && sb.isEmpty()) sb.append(part, 0, eq + 1).append(REDACTED);
+            else if (eq > 0 && !isCookieAttribute(part.substring(0, eq).trim())) sb.append(part, 0, eq + 1).append(REDACTED);
+            else sb.append(part);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isCookieAttribute(String name) {
+        switch (name.toLowerCase()) {
+            case "path":
+            case "domain":
+            case "expires":
+            case "max-age":
+            case "samesite":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
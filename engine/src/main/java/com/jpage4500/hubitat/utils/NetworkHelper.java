@@ -0,0 +1,535 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class NetworkHelper {
+    private static final Logger log = LoggerFactory.getLogger(NetworkHelper.class);
+
+    // how long to wait for a free slot before giving up
+    private static final long ACQUIRE_TIMEOUT_SEC = 60;
+    // status returned when no slot became free (429: Too Many Requests)
+    public static final int HTTP_BUSY = 429;
+    // postFile()/download() stream in pieces of this size
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    // transport for hubs that don't have their own (see setDefaultTransport())
+    private static volatile HttpTransport defaultTransport = new UrlConnectionTransport();
+
+    // Simple cookie store for all requests (not domain/path specific)
+    // NOTE: shared between background pre-warm and deploy threads
+    private final Map<String, String> cookieStore = new ConcurrentHashMap<>();
+    // in-flight requests to this hub; adapts to how fast the hub responds
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+    private volatile HttpTransport transport;
+
+    public static class HttpResponse {
+        public int status;                          // -1 for error
+        public String body;                         // response body or error message
+        public boolean isConnectError;              // -1 because hub couldn't be reached (not a read timeout/cancel)
+    }
+
+    public interface DownloadListener {
+        /**
+         * @param totalBytes Content-Length; -1 if not known
+         */
+        void onProgress(long receivedBytes, long totalBytes);
+    }
+
+    /**
+     * transport used by getRequest()/postRequest() of every hub (ie: RecordingTransport, ReplayTransport)
+     * NOTE: postFile()/download() stream to/from the network directly and are not recorded/replayed
+     */
+    public static void setDefaultTransport(HttpTransport transport) {
+        defaultTransport = transport != null ? transport : new UrlConnectionTransport();
+    }
+
+    /**
+     * @param transport transport for this hub only; null to use the default
+     */
+    public void setTransport(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    private HttpTransport getTransport() {
+        HttpTransport hubTransport = transport;
+        return hubTransport != null ? hubTransport : defaultTransport;
+    }
+
+    public HttpResponse getRequest(String urlStr) {
+        // TODO: come up with some default headers
+        return getRequest(urlStr, null);
+    }
+
+    public HttpResponse getRequest(String urlStr, Map<String, String> headers) {
+        if (!limiter.acquire(ACQUIRE_TIMEOUT_SEC, TimeUnit.SECONDS)) return busyResponse(urlStr);
+        long startMs = System.currentTimeMillis();
+        HttpResponse response = null;
+        try {
+            response = doGetRequest(urlStr, headers);
+            return response;
+        } finally {
+            limiter.release(System.currentTimeMillis() - startMs, isOverloaded(response));
+        }
+    }
+
+    private HttpResponse doGetRequest(String urlStr, Map<String, String> headers) {
+        HttpTransport.Request request = newRequest("GET", urlStr, headers);
+        request.timeoutMs = 5000;
+        HttpResponse response = new HttpResponse();
+        long startMs = System.currentTimeMillis();
+        Map<String, List<String>> responseHeaders = null;
+        try {
+            HttpTransport.Response transportResponse = getTransport().execute(request);
+            response.status = transportResponse.status;
+            log.debug("getRequest: {}, http:{}", urlStr, response.status);
+            responseHeaders = transportResponse.headers;
+            storeCookies(responseHeaders);
+            // http:302 has no body
+            if (transportResponse.body == null) {
+                log.debug("getRequest: no body");
+                trace("GET", urlStr, headers, 0, response, responseHeaders, startMs);
+                return response;
+            }
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(decode(transportResponse)))) {
+                StringBuilder sb = new StringBuilder();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    sb.append(line);
+                }
+                response.body = sb.toString();
+            }
+            log.debug("getRequest: GOT: {}", response.body.length());
+        } catch (Exception e) {
+            log.error("getRequest: error connecting to hub: {}, {}", urlStr, e.getMessage());
+            response.status = -1;
+            response.body = e.getMessage();
+            response.isConnectError = isConnectError(e);
+        }
+        trace("GET", urlStr, headers, 0, response, responseHeaders, startMs);
+        return response;
+    }
+
+    /**
+     * request with caller's headers + Referer + session cookies
+     */
+    private HttpTransport.Request newRequest(String method, String urlStr, Map<String, String> headers) {
+        HttpTransport.Request request = new HttpTransport.Request();
+        request.method = method;
+        request.url = urlStr;
+        boolean hasReferer = false;
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                if ("Referer".equalsIgnoreCase(entry.getKey())) hasReferer = true;
+                request.headers.put(entry.getKey(), entry.getValue());
+            }
+        }
+        // always add referer header
+        if (!hasReferer) request.headers.put("Referer", urlStr);
+        String cookieHeader = getCookieHeader();
+        if (cookieHeader != null) request.headers.put("Cookie", cookieHeader);
+        return request;
+    }
+
+    /**
+     * @return response body, un-gzipped/inflated per Content-Encoding
+     */
+    private static InputStream decode(HttpTransport.Response response) throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(response.body);
+        String encoding = response.getHeader("Content-Encoding");
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            inputStream = new GZIPInputStream(inputStream);
+        } else if ("deflate".equalsIgnoreCase(encoding)) {
+            inputStream = new InflaterInputStream(inputStream);
+        }
+        return inputStream;
+    }
+
+    private InputStream getInputStream(HttpURLConnection conn) throws IOException {
+        int responseCode = conn.getResponseCode();
+        InputStream inputStream = (responseCode >= 200 && responseCode < 300) ? conn.getInputStream() : conn.getErrorStream();
+        String encoding = conn.getContentEncoding();
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            inputStream = new GZIPInputStream(inputStream);
+        } else if ("deflate".equalsIgnoreCase(encoding)) {
+            inputStream = new InflaterInputStream(inputStream);
+        }
+        return inputStream;
+    }
+
+    public HttpResponse postRequest(String urlStr, String body) {
+        // TODO: come up with some default headers
+        return postRequest(urlStr, body, null);
+    }
+
+    public HttpResponse postRequest(String urlStr, String body, Map<String, String> headers) {
+        if (!limiter.acquire(ACQUIRE_TIMEOUT_SEC, TimeUnit.SECONDS)) return busyResponse(urlStr);
+        long startMs = System.currentTimeMillis();
+        HttpResponse response = null;
+        try {
+            response = doPostRequest(urlStr, body, headers);
+            return response;
+        } finally {
+            limiter.release(System.currentTimeMillis() - startMs, isOverloaded(response));
+        }
+    }
+
+    private HttpResponse doPostRequest(String urlStr, String body, Map<String, String> headers) {
+        HttpTransport.Request request = newRequest("POST", urlStr, headers);
+        request.body = body.getBytes(StandardCharsets.UTF_8);
+        HttpResponse response = new HttpResponse();
+        long startMs = System.currentTimeMillis();
+        Map<String, List<String>> responseHeaders = null;
+        try {
+            HttpTransport.Response transportResponse = getTransport().execute(request);
+            response.status = transportResponse.status;
+            log.debug("postRequest: {}, http:{}, bodyLen:{}", urlStr, response.status, body.length());
+            responseHeaders = transportResponse.headers;
+            storeCookies(responseHeaders);
+            // http:302 has no body
+            if (transportResponse.body == null) {
+                trace("POST", urlStr, headers, body.length(), response, responseHeaders, startMs);
+                return response;
+            }
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(decode(transportResponse), StandardCharsets.UTF_8))) {
+                StringBuilder sb = new StringBuilder();
+                String line;
+                while ((line = br.readLine()) != null) {
+                    sb.append(line.trim());
+                }
+                response.body = sb.toString();
+            }
+            // only log body if error
+            if (response.status != 200) {
+                log.error("postRequest: http:{}: {}", response.status, LogUtils.truncate(response.body));
+            } else {
+                log.debug("postRequest: OK: {}", LogUtils.truncate(response.body));
+            }
+        } catch (Exception e) {
+            log.error("postRequest: error connecting to hub: {}, {}", urlStr, e.getMessage());
+            response.status = -1;
+            response.body = e.getMessage();
+            response.isConnectError = isConnectError(e);
+        }
+        trace("POST", urlStr, headers, body.length(), response, responseHeaders, startMs);
+        return response;
+    }
+
+    /**
+     * upload a file as multipart/form-data, streamed from disk in CHUNK_SIZE pieces (never held in memory)
+     *
+     * @param fields    extra form fields sent before the file
+     * @param fileField form field name for the file
+     * @param progress  called with the number of bytes sent after each chunk; can be null
+     */
+    public HttpResponse postFile(String urlStr, Map<String, String> fields, String fileField, String fileName, Path file,
+                                 Map<String, String> headers, LongConsumer progress) {
+        if (!limiter.acquire(ACQUIRE_TIMEOUT_SEC, TimeUnit.SECONDS)) return busyResponse(urlStr);
+        HttpResponse response = null;
+        try {
+            response = doPostFile(urlStr, fields, fileField, fileName, file, headers, progress);
+            return response;
+        } finally {
+            // transfer time depends on size; don't let it look like hub latency
+            limiter.release(isOverloaded(response));
+        }
+    }
+
+    private HttpResponse doPostFile(String urlStr, Map<String, String> fields, String fileField, String fileName, Path file,
+                                    Map<String, String> headers, LongConsumer progress) {
+        HttpResponse response = new HttpResponse();
+        long startMs = System.currentTimeMillis();
+        long sentBytes = 0;
+        Map<String, List<String>> responseHeaders = null;
+        String boundary = "----hubitat" + Long.toHexString(System.nanoTime());
+        try {
+            URL url = new URL(urlStr);
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("POST");
+            conn.setInstanceFollowRedirects(false);
+            conn.setDoOutput(true);
+            conn.setConnectTimeout(5000);
+            // hub may take a while to write a large file
+            conn.setReadTimeout(60 * 1000);
+            // don't let HttpURLConnection buffer the whole body to compute Content-Length
+            conn.setChunkedStreamingMode(CHUNK_SIZE);
+
+            addHeaders(conn, headers);
+            addCookies(conn);
+            conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+
+            try (OutputStream os = conn.getOutputStream(); InputStream is = Files.newInputStream(file)) {
+                StringBuilder sb = new StringBuilder();
+                if (fields != null) {
+                    for (Map.Entry<String, String> entry : fields.entrySet()) {
+                        sb.append("--").append(boundary).append("\r\n")
+                            .append("Content-Disposition: form-data; name=\"").append(entry.getKey()).append("\"\r\n\r\n")
+                            .append(entry.getValue()).append("\r\n");
+                    }
+                }
+                sb.append("--").append(boundary).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(fileField).append("\"; filename=\"").append(fileName).append("\"\r\n")
+                    .append("Content-Type: application/octet-stream\r\n\r\n");
+                os.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int count;
+                while ((count = is.read(buffer)) != -1) {
+                    os.write(buffer, 0, count);
+                    sentBytes += count;
+                    if (progress != null) progress.accept(sentBytes);
+                    if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("cancelled");
+                }
+                os.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            }
+
+            response.status = conn.getResponseCode();
+            log.debug("postFile: {}, http:{}, {}: {} bytes", urlStr, response.status, fileName, sentBytes);
+            responseHeaders = conn.getHeaderFields();
+            storeCookies(responseHeaders);
+            if (conn.getContentLength() != 0) {
+                try (BufferedReader br = new BufferedReader(new InputStreamReader(getInputStream(conn), StandardCharsets.UTF_8))) {
+                    StringBuilder sb = new StringBuilder();
+                    String line;
+                    while ((line = br.readLine()) != null) sb.append(line.trim());
+                    response.body = sb.toString();
+                }
+            }
+            if (response.status != 200) log.error("postFile: http:{}: {}", response.status, LogUtils.truncate(response.body));
+        } catch (Exception e) {
+            log.error("postFile: error uploading to hub: {}, {}: {}", urlStr, fileName, e.getMessage());
+            response.status = -1;
+            response.body = e.getMessage();
+            response.isConnectError = isConnectError(e);
+        }
+        trace("POST", urlStr, headers, sentBytes, response, responseHeaders, startMs);
+        return response;
+    }
+
+    /**
+     * download response body straight into 'out' through a CHUNK_SIZE direct buffer (never held in memory)
+     * - response.body is only set for errors; a non-2xx response is never written to 'out'
+     *
+     * @param listener called after each chunk; can be null
+     */
+    public HttpResponse download(String urlStr, Map<String, String> headers, WritableByteChannel out, DownloadListener listener) {
+        if (!limiter.acquire(ACQUIRE_TIMEOUT_SEC, TimeUnit.SECONDS)) return busyResponse(urlStr);
+        HttpResponse response = null;
+        try {
+            response = doDownload(urlStr, headers, out, listener);
+            return response;
+        } finally {
+            // transfer time depends on size; don't let it look like hub latency
+            limiter.release(isOverloaded(response));
+        }
+    }
+
+    private HttpResponse doDownload(String urlStr, Map<String, String> headers, WritableByteChannel out, DownloadListener listener) {
+        HttpResponse response = new HttpResponse();
+        long startMs = System.currentTimeMillis();
+        long receivedBytes = 0;
+        Map<String, List<String>> responseHeaders = null;
+        try {
+            URL url = new URL(urlStr);
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("GET");
+            conn.setConnectTimeout(5000);
+            // hub builds the file before sending the first byte
+            conn.setReadTimeout(120 * 1000);
+            conn.setInstanceFollowRedirects(false);
+
+            addHeaders(conn, headers);
+            addCookies(conn);
+
+            response.status = conn.getResponseCode();
+            responseHeaders = conn.getHeaderFields();
+            storeCookies(responseHeaders);
+            if (response.status < 200 || response.status >= 300) {
+                // ie: http:302 to login page
+                InputStream errorStream = conn.getErrorStream();
+                if (errorStream != null) {
+                    try (InputStream is = errorStream) {
+                        response.body = LogUtils.truncateNow(new String(is.readAllBytes(), StandardCharsets.UTF_8), LogUtils.MAX_LENGTH);
+                    }
+                }
+                if (response.body == null) response.body = "http:" + response.status;
+                log.error("download: {}, http:{}", urlStr, response.status);
+            } else {
+                // Content-Length is the encoded length; only meaningful when body isn't compressed
+                long totalBytes = conn.getContentEncoding() == null ? conn.getContentLengthLong() : -1;
+                ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+                try (ReadableByteChannel in = Channels.newChannel(getInputStream(conn))) {
+                    while (in.read(buffer) != -1) {
+                        buffer.flip();
+                        while (buffer.hasRemaining()) receivedBytes += out.write(buffer);
+                        buffer.clear();
+                        if (listener != null) listener.onProgress(receivedBytes, totalBytes);
+                        if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("cancelled");
+                    }
+                }
+                if (totalBytes > 0 && receivedBytes != totalBytes) {
+                    throw new EOFException("incomplete: " + receivedBytes + " of " + totalBytes + " bytes");
+                }
+                log.debug("download: {}, http:{}, {} bytes", urlStr, response.status, receivedBytes);
+            }
+        } catch (Exception e) {
+            log.error("download: error downloading from hub: {}, {}", urlStr, e.getMessage());
+            response.status = -1;
+            response.body = e.getMessage();
+            response.isConnectError = isConnectError(e);
+        }
+        trace("GET", urlStr, headers, 0, response, responseHeaders, startMs);
+        return response;
+    }
+
+    /**
+     * add request to HttpTrace (when enabled)
+     */
+    private void trace(String method, String urlStr, Map<String, String> headers, long requestBytes, HttpResponse response,
+                       Map<String, List<String>> responseHeaders, long startMs) {
+        if (!HttpTrace.isEnabled()) return;
+        HttpTrace.Record record = new HttpTrace.Record();
+        record.method = method;
+        record.url = urlStr;
+        record.status = response.status;
+        record.elapsedMs = System.currentTimeMillis() - startMs;
+        record.requestBytes = requestBytes;
+        record.responseBytes = response.body != null ? response.body.length() : 0;
+        record.requestHeaders = new LinkedHashMap<>();
+        if (headers != null) record.requestHeaders.putAll(headers);
+        String cookieHeader = getCookieHeader();
+        if (cookieHeader != null) record.requestHeaders.put("Cookie", cookieHeader);
+        record.responseHeaders = responseHeaders;
+        if (response.status != 200) record.errorBody = response.body;
+        HttpTrace.record(record);
+    }
+
+    /**
+     * NOTE: response is null if the request threw; treat that like a connection failure
+     *
+     * @return true if response suggests hub is struggling (no response / server error)
+     */
+    private static boolean isOverloaded(HttpResponse response) {
+        return response == null || response.status == -1 || response.status >= 500;
+    }
+
+    /**
+     * @return true if hub couldn't be reached at all (refused, no route, connect timeout); false for failures after
+     * connecting (read timeout, cancelled transfer)
+     */
+    private static boolean isConnectError(Exception e) {
+        if (e instanceof ConnectException || e instanceof NoRouteToHostException || e instanceof UnknownHostException) return true;
+        // read timeouts are SocketTimeoutException too ("Read timed out")
+        return e instanceof SocketTimeoutException && e.getMessage() != null && e.getMessage().toLowerCase().contains("connect");
+    }
+
+    private HttpResponse busyResponse(String urlStr) {
+        log.error("busyResponse: no free slot for {}: {}", urlStr, limiter.getStats());
+        HttpResponse response = new HttpResponse();
+        // not -1; hub is reachable, just busy
+        response.status = HTTP_BUSY;
+        response.body = "Hub is busy; too many requests waiting";
+        return response;
+    }
+
+    public ConcurrencyLimiter.Stats getLimiterStats() {
+        return limiter.getStats();
+    }
+
+    private void addHeaders(HttpURLConnection conn, Map<String, String> headers) {
+        // Set request headers if provided
+        boolean hasReferer = false;
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                String key = entry.getKey();
+                if ("Referer".equalsIgnoreCase(key)) {
+                    hasReferer = true;
+                }
+                String value = entry.getValue();
+                conn.setRequestProperty(key, value);
+            }
+        }
+        if (!hasReferer) {
+            // always add referer header
+            conn.setRequestProperty("Referer", conn.getURL().toString());
+            //log.trace("addHeaders: Referer: {}", conn.getURL().toString());
+        }
+    }
+
+    private void addCookies(HttpURLConnection conn) {
+        // Add cookies if present
+        String cookieHeader = getCookieHeader();
+        if (cookieHeader != null) {
+            log.trace("addCookies: {} cookies", cookieStore.size());
+            conn.setRequestProperty("Cookie", cookieHeader);
+        }
+    }
+
+    private void storeCookies(Map<String, List<String>> headers) {
+        if (headers == null) return;
+        List<String> setCookies = headers.get("Set-Cookie");
+        if (setCookies != null) {
+            for (String cookie : setCookies) {
+                int eq = cookie.indexOf('=');
+                int semi = cookie.indexOf(';');
+                if (eq > 0) {
+                    String name = cookie.substring(0, eq).trim();
+                    String value = semi > eq ? cookie.substring(eq + 1, semi) : cookie.substring(eq + 1);
+                    // NOTE: value not logged; it's a session token
+                    log.debug("storeCookies: {}", name);
+                    cookieStore.put(name, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Cookie header value for current session; null if no cookies
+     */
+    public String getCookieHeader() {
+        if (cookieStore.isEmpty()) return null;
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : cookieStore.entrySet()) {
+            if (!sb.isEmpty()) sb.append("; ");
+            sb.append(entry.getKey()).append("=").append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ensure url starts with http/https and does not end with /
+     */
+    public String formatUrl(String url) {
+        if (!TextUtils.startsWith(url, "http")) {
+            url = "https://" + url;
+        }
+        if (TextUtils.endsWith(url, "/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes requests to another transport and records every exchange (including failures) to an HttpCapture file
+ * - cookie/authorization values are redacted before they're written
+ */
+public class RecordingTransport implements HttpTransport {
+    private static final Logger log = LoggerFactory.getLogger(RecordingTransport.class);
+
+    private final HttpTransport delegate;
+    private final HttpCapture.Writer writer;
+
+    public RecordingTransport(HttpTransport delegate, HttpCapture.Writer writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        long startMs = System.currentTimeMillis();
+        HttpCapture.Exchange exchange = new HttpCapture.Exchange();
+        exchange.request = redact(request);
+        try {
+            Response response = delegate.execute(request);
+            exchange.elapsedMs = System.currentTimeMillis() - startMs;
+            exchange.response = redact(response);
+            return response;
+        } catch (IOException e) {
+            exchange.elapsedMs = System.currentTimeMillis() - startMs;
+            exchange.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            try {
+                writer.write(exchange, startMs);
+            } catch (IOException e) {
+                // don't fail the request because the capture couldn't be written
+                log.error("execute: unable to record {}: {}", request.url, e.getMessage());
+            }
+        }
+    }
+
+    private static Request redact(Request request) {
+        Request copy = new Request();
+        copy.method = request.method;
+        copy.url = request.url;
+        copy.headers = LogUtils.redactHeaders(request.headers);
+        copy.body = request.body;
+        copy.timeoutMs = request.timeoutMs;
+        return copy;
+    }
+
+    private static Response redact(Response response) {
+        Response copy = new Response();
+        copy.status = response.status;
+        copy.body = response.body;
+        for (Map.Entry<String, List<String>> entry : response.headers.entrySet()) {
+            List<String> valueList = entry.getValue();
+            if ("Set-Cookie".equalsIgnoreCase(entry.getKey())) {
+                valueList = new ArrayList<>();
+                for (String value : entry.getValue()) valueList.add(LogUtils.redactCookie(value));
+            }
+            copy.headers.put(entry.getKey(), valueList);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jpage4500.hubitat.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Answers requests from an HttpCapture file instead of the network
+ * - requests are matched by method + path/query (not host; replay works against any hub address); repeated
+ *   requests get the recorded responses in order, and the last one again once they run out
+ * - recorded failures are replayed as failures (IOException -> status -1)
+ * - each response is delayed by its recorded time * timeScale (1 = original timing, 0 = no delay)
+ */
+public class ReplayTransport implements HttpTransport {
+    private static final Logger log = LoggerFactory.getLogger(ReplayTransport.class);
+
+    private final double timeScale;
+    // method + path -> recorded exchanges, oldest first
+    private final Map<String, List<HttpCapture.Exchange>> exchangeMap = new HashMap<>();
+    // guarded by 'this'
+    private final Map<String, Integer> nextMap = new HashMap<>();
+
+    public ReplayTransport(List<HttpCapture.Exchange> exchangeList, double timeScale) {
+        this.timeScale = Math.max(0, timeScale);
+        for (HttpCapture.Exchange exchange : exchangeList) {
+            exchangeMap.computeIfAbsent(getKey(exchange.request), k -> new ArrayList<>()).add(exchange);
+        }
+    }
+
+    public static ReplayTransport load(Path file, double timeScale) throws IOException {
+        List<HttpCapture.Exchange> exchangeList = HttpCapture.read(file);
+        log.debug("load: {}: {} exchanges", file, exchangeList.size());
+        return new ReplayTransport(exchangeList, timeScale);
+    }
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        String key = getKey(request);
+        HttpCapture.Exchange exchange = next(key);
+        if (exchange == null) throw new IOException("no recorded response for " + key);
+
+        long delayMs = (long) (exchange.elapsedMs * timeScale);
+        if (delayMs > 0) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("cancelled");
+            }
+        }
+        if (exchange.response == null) throw new IOException(exchange.error);
+
+        // copy; caller may change it
+        Response response = new Response();
+        response.status = exchange.response.status;
+        for (Map.Entry<String, List<String>> entry : exchange.response.headers.entrySet()) {
+            response.headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        response.body = exchange.response.body != null ? exchange.response.body.clone() : null;
+        return response;
+    }
+
+    private synchronized HttpCapture.Exchange next(String key) {
+        List<HttpCapture.Exchange> exchangeList = exchangeMap.get(key);
+        if (exchangeList == null) return null;
+        int next = nextMap.getOrDefault(key, 0);
+        nextMap.put(key, next + 1);
+        return exchangeList.get(Math.min(next, exchangeList.size() - 1));
+    }
+
+    /**
+     * "POST http://192.168.0.100/app/ajax/update" -> "POST /app/ajax/update"
+     */
+    private static String getKey(Request request) {
+        String path = request.url;
+        try {
+            URI uri = new URI(request.url);
+            path = uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+        } catch (Exception e) {
+            // not a valid URI; match on the full url
+        }
+        return request.method + " " + path;
+    }
+}
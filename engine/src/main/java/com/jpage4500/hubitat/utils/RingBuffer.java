@@ -0,0 +1,96 @@
+package com.jpage4500.hubitat.utils;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size buffer that overwrites the oldest item when full
+ * - slots are allocated up front; memory use doesn't grow with the number of items added
+ * - every item gets a sequence number so readers can pick up where they left off
+ */
+public class RingBuffer<T> {
+    private final Object[] slots;
+    // sequence number of next item to add; guarded by 'this'
+    private long nextSeq;
+
+    public RingBuffer(int capacity) {
+        slots = new Object[capacity];
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return sequence number assigned to item
+     */
+    public synchronized long add(T item) {
+        long seq = nextSeq++;
+        slots[(int) (seq % slots.length)] = item;
+        return seq;
+    }
+
+    /**
+     * @return item with given sequence number or null if it was overwritten (or not added yet)
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T get(long seq) {
+        if (seq < getFirstSeqLocked() || seq >= nextSeq) return null;
+        return (T) slots[(int) (seq % slots.length)];
+    }
+
+    /**
+     * @return sequence number of oldest item still in buffer
+     */
+    public synchronized long getFirstSeq() {
+        return getFirstSeqLocked();
+    }
+
+    /**
+     * @return sequence number the next item will get
+     */
+    public synchronized long getNextSeq() {
+        return nextSeq;
+    }
+
+    /**
+     * result of copy()
+     */
+    public static class Range {
+        public final long startSeq;     // sequence number of out[0]
+        public final int count;         // number of items copied
+
+        Range(long startSeq, int count) {
+            this.startSeq = startSeq;
+            this.count = count;
+        }
+
+        /**
+         * @return sequence number to pass to the next copy() call
+         */
+        public long getNextSeq() {
+            return startSeq + count;
+        }
+    }
+
+    /**
+     * copy items starting at fromSeq (or the oldest available item if fromSeq was overwritten) into out
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Range copy(long fromSeq, T[] out) {
+        long startSeq = Math.max(fromSeq, getFirstSeqLocked());
+        int count = 0;
+        for (long seq = startSeq; seq < nextSeq && count < out.length; seq++) {
+            out[count++] = (T) slots[(int) (seq % slots.length)];
+        }
+        return new Range(startSeq, count);
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(slots, null);
+        nextSeq = 0;
+    }
+
+    private long getFirstSeqLocked() {
+        return Math.max(0, nextSeq - slots.length);
+    }
+}
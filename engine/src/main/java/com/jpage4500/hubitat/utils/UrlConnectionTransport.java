@@ -0,0 +1,51 @@
+package com.jpage4500.hubitat.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpTransport over HttpURLConnection (the real network)
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(request.url).openConnection();
+        conn.setRequestMethod(request.method);
+        conn.setInstanceFollowRedirects(false);
+        if (request.timeoutMs > 0) {
+            conn.setConnectTimeout(request.timeoutMs);
+            conn.setReadTimeout(request.timeoutMs);
+        }
+        for (Map.Entry<String, String> entry : request.headers.entrySet()) {
+            conn.setRequestProperty(entry.getKey(), entry.getValue());
+        }
+        if (request.body != null) {
+            conn.setDoOutput(true);
+            try (OutputStream os = conn.getOutputStream()) {
+                os.write(request.body);
+            }
+        }
+
+        Response response = new Response();
+        response.status = conn.getResponseCode();
+        for (Map.Entry<String, List<String>> entry : conn.getHeaderFields().entrySet()) {
+            // status line has a null key
+            if (entry.getKey() != null) response.headers.put(entry.getKey(), entry.getValue());
+        }
+        // http:302 has no body
+        if (conn.getContentLength() == 0) return response;
+        InputStream inputStream = (response.status >= 200 && response.status < 300) ? conn.getInputStream() : conn.getErrorStream();
+        if (inputStream != null) {
+            try (InputStream is = inputStream) {
+                response.body = is.readAllBytes();
+            }
+        }
+        return response;
+    }
+}
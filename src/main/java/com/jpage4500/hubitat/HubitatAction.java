@@ -1,8 +1,13 @@
 package com.jpage4500.hubitat;
 
+import com.intellij.diff.DiffContentFactory;
+import com.intellij.diff.DiffDialogHints;
+import com.intellij.diff.DiffManager;
+import com.intellij.diff.requests.SimpleDiffRequest;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
@@ -10,360 +15,270 @@ import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.jpage4500.hubitat.models.InstallRequest;
-import com.jpage4500.hubitat.models.InstallResult;
-import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.engine.DeployEngine;
+import com.jpage4500.hubitat.engine.DeployEvent;
+import com.jpage4500.hubitat.engine.HubSourceCheck;
+import com.jpage4500.hubitat.engine.SourceLint;
+import com.jpage4500.hubitat.engine.SourceParser;
+import com.jpage4500.hubitat.inspection.HubitatLintInspection;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.services.HubitatLogService;
 import com.jpage4500.hubitat.settings.HubitatInstallDialog;
+import com.jpage4500.hubitat.settings.HubitatProjectState;
 import com.jpage4500.hubitat.settings.HubitatSettingsState;
-import com.jpage4500.hubitat.utils.ExcludeFromSerialization;
-import com.jpage4500.hubitat.utils.GsonHelper;
-import com.jpage4500.hubitat.utils.NetworkHelper;
+import com.jpage4500.hubitat.toolwindow.HistoryPanel;
+import com.jpage4500.hubitat.utils.HubAddressResolver;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.LogUtils;
 import com.jpage4500.hubitat.utils.TextUtils;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class HubitatAction extends AnAction {
     private static final Logger log = LoggerFactory.getLogger(HubitatAction.class);
 
-    private static final String TITLE = "Hubitat Plugin";
-
-    private NetworkHelper networkHelper;
+    protected static final String TITLE = "Hubitat Plugin";
 
     public HubitatAction() {
         super("Install to Hubitat");
     }
 
-    public static class DriverDetails {
-        public String name;
-        public String namespace;
-        public String hubIp;
-        public Boolean isApp;
-        public Integer appId;
-        @ExcludeFromSerialization
-        public String text;
-    }
-
     @Override
     public void actionPerformed(@NotNull AnActionEvent e) {
         Project project = e.getProject();
         if (project == null) return;
 
-        // Get contents of current file in editor
+        Editor editor = getEditor(project);
+        if (editor == null) return;
+        DriverDetails details = loadDetails(project, editor);
+        if (details == null) return;
+        showInstallDialog(project, details, getFilePath(editor), null);
+    }
+
+    /**
+     * @return current editor; null (and warning shown) if none
+     */
+    protected Editor getEditor(Project project) {
         Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
         if (editor == null) {
-            log.error("actionPerformed: No active editor");
+            log.error("getEditor: No active editor");
             showWarning(project, "No active editor.");
-            return;
         }
+        return editor;
+    }
 
-        DriverDetails details = new DriverDetails();
+    protected String getFilePath(Editor editor) {
+        VirtualFile file = FileDocumentManager.getInstance().getFile(editor.getDocument());
+        return file != null ? file.getPath() : "";
+    }
 
+    /**
+     * parse app/driver in editor and fill in hub address/type from saved state
+     *
+     * @return null (and warning shown) if editor doesn't contain a Hubitat app/driver
+     */
+    protected DriverDetails loadDetails(Project project, Editor editor) {
         // get current editor text
         Document document = editor.getDocument();
-        details.text = document.getText();
+        String text = document.getText();
         VirtualFile file = FileDocumentManager.getInstance().getFile(document);
         String fileName = file != null ? file.getName() : "";
         String filePath = file != null ? file.getPath() : "";
 
-        log.debug("actionPerformed: {}", fileName);
+        log.debug("loadDetails: {}", fileName);
 
         // check if this looks like a Hubitat app/driver
-        if (!TextUtils.containsIgnoreCase(details.text, "definition")) {
-            log.error("actionPerformed: invalid app/driver file");
+        if (!SourceParser.isHubitatSource(text)) {
+            log.error("loadDetails: invalid app/driver file");
             showWarning(project, "This does not appear to be a Hubitat app or device driver (missing definition).");
-            return;
+            return null;
         }
 
-        // definition(name: "File Manager Device", namespace: "jpage4500", author: "Joe Page") {
-        details.name = parseValue(details.text, "name");
-        details.namespace = parseValue(details.text, "namespace");
-        if (TextUtils.isEmptyAny(details.name, details.namespace)) {
+        // parse name/namespace from definition and hub/type/id from comments
+        DriverDetails details = SourceParser.parse(text, fileName);
+        if (details == null) {
             showWarning(project, "This does not appear to be a Hubitat app or device driver (missing name/namespace).");
-            return;
+            return null;
         }
 
-        // get hub IP from comments:
-        // hub: 192.168.0.200
-        details.hubIp = parseValue(details.text, "hub");
-
-        // get type (app or device) from comments:
-        // type: device
-        details.isApp = isApp(details.text);
-
-        if (details.isApp == null) {
-            // guess type based on filename
-            if (TextUtils.containsIgnoreCase(fileName, "app")) {
-                log.debug("isApp: filename is app: {}", fileName);
-                details.isApp = true;
-            } else if (TextUtils.containsIgnoreCase(fileName, "driver")) {
-                log.debug("isApp: filename is driver: {}", fileName);
-                details.isApp = false;
-            }
+        // optional (Hubitat performance inspection setting)
+        List<SourceLint.Finding> errorList = HubitatLintInspection.getBlockingErrors(project, document);
+        if (!errorList.isEmpty()) {
+            StringBuilder sb = new StringBuilder("Deploy blocked by the Hubitat performance inspection:\n");
+            for (SourceLint.Finding finding : errorList.subList(0, Math.min(5, errorList.size()))) sb.append("\n").append(finding);
+            if (errorList.size() > 5) sb.append("\n... ").append(errorList.size() - 5).append(" more");
+            showWarning(project, sb.toString());
+            return null;
         }
 
         HubitatSettingsState state = HubitatSettingsState.getInstance();
-        if (state != null) {
-            // if IP address not specified, use saved IP address
-            if (TextUtils.isEmpty(details.hubIp)) {
-                details.hubIp = state.hubIp;
-                if (!TextUtils.isEmpty(details.hubIp)) log.debug("actionPerformed: cached IP: {}", details.hubIp);
-            }
-
-            if (details.isApp == null) {
-                // check if we cached this path -> app/driver type
-                details.isApp = state.getPathToApp(filePath);
-                if (details.isApp != null) log.debug("actionPerformed: cached isApp: {} -> {}", filePath, details.isApp);
-            }
+        // if IP address not specified, use saved IP address
+        if (state != null && TextUtils.isEmpty(details.hubIp)) {
+            details.hubIp = state.hubIp;
+            if (!TextUtils.isEmpty(details.hubIp)) log.debug("loadDetails: cached IP: {}", details.hubIp);
         }
+        if (details.isApp == null) {
+            // check if we cached this path -> app/driver type
+            details.isApp = HubitatProjectState.getInstance(project).getIsApp(filePath);
+            if (details.isApp != null) log.debug("loadDetails: cached isApp: {} -> {}", filePath, details.isApp);
+        }
+        return details;
+    }
 
+    /**
+     * @param reason why the dialog is shown instead of deploying right away (quick deploy); can be null
+     */
+    protected void showInstallDialog(Project project, DriverDetails details, String filePath, String reason) {
+        HubitatSettingsState state = HubitatSettingsState.getInstance();
+        HubitatProjectState projectState = HubitatProjectState.getInstance(project);
         HubitatInstallDialog dialog = new HubitatInstallDialog(project, details.hubIp, details.isApp);
+        // type unknown; look for name/namespace on the hub while the dialog is up
+        AtomicReference<HubSession.TypeMatch> typeMatch = new AtomicReference<>();
+        if (details.isApp == null && HubAddressResolver.isValidHubAddress(details.hubIp)) {
+            String hubIp = details.hubIp;
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                HubSession.TypeMatch match = HubSession.get(hubIp).resolveType(details.namespace, details.name);
+                if (match == null) return;
+                typeMatch.set(match);
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    // user may have picked one already
+                    if (dialog.isApp() != null) return;
+                    dialog.setIsApp(match.isApp);
+                    dialog.addResult("\uD83D\uDD39 Found " + (match.isApp ? "app" : "driver") + " ID: " + match.type.id + " on hub");
+                }, ModalityState.stateForComponent(dialog.getRootPane()));
+            });
+        }
         dialog.setListener((selectedIp, selectedIsApp) -> {
             if (selectedIsApp == null) {
                 dialog.addResult("Select an app/driver type to continue");
                 log.warn("app/driver not selected ");
                 return false;
-            } else if (!isValidIp(selectedIp)) {
-                dialog.addResult("Invalid IP address");
-                log.warn("Invalid IP address: {}", selectedIp);
+            } else if (!HubAddressResolver.isValidHubAddress(selectedIp)) {
+                dialog.addResult("Invalid hub address");
+                log.warn("Invalid hub address: {}", selectedIp);
                 return false;
             }
+            HubSession.TypeMatch match = typeMatch.get();
+            if (details.appId == null && match != null && match.isApp == selectedIsApp
+                && TextUtils.equals(selectedIp, details.hubIp)) {
+                // already looked up; skip the lookup during deploy
+                details.appId = match.type.id;
+            }
             details.hubIp = selectedIp;
             details.isApp = selectedIsApp;
 
             if (state != null) {
-                // save IP address for future use
+                // save hub address for future use
                 state.hubIp = selectedIp;
-                // save path -> app/driver type
-                state.setPathToApp(filePath, selectedIsApp);
-            }
-
-            String type = (selectedIsApp ? "app" : "driver");
-            // get app/driver id from comments:
-            // id: 1711
-            String idStr = parseValue(details.text, "id");
-            if (TextUtils.notEmpty(idStr)) {
-                int id = TextUtils.getNumberInt(idStr, 0);
-                if (id > 0) details.appId = id;
             }
-            log.debug("actionPerformed: GO: {}", GsonHelper.toJson(details));
-
-            // run network requests on background thread
-            new Thread(() -> {
-                if (details.appId == null || details.appId <= 0) {
-                    // lookup existing app/driver by name/namespace
-                    log.debug("actionPerformed: looking up ID: {}", GsonHelper.toJson(details));
-                    lookupAppId(dialog, details);
-                } else {
-                    log.debug("actionPerformed: updating: {}", GsonHelper.toJson(details));
-                    updateApp(dialog, details);
+            // save path -> app/driver type
+            projectState.setIsApp(filePath, selectedIsApp);
+
+            log.debug("showInstallDialog: GO: {}", LogUtils.json(details));
+
+            // start resolving hub address (hostname/mDNS) while dialog updates
+            HubAddressResolver.resolveAsync(selectedIp);
+
+            // compare with hub copy first; someone may have changed it in the web IDE
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                HubSourceCheck.Result check;
+                try {
+                    check = HubSourceCheck.getInstance().check(details, HistoryPanel.getHistory());
+                } catch (Exception e) {
+                    log.error("showInstallDialog: check: {}", e.getMessage(), e);
+                    check = null;
+                }
+                if (check == null || check.status != HubSourceCheck.Status.CHANGED) {
+                    deploy(project, dialog, details);
+                    return;
                 }
-            }).start();
+                dialog.addResult("⚠ Hub copy differs from local file (" + check.diff + ")");
+                HubSourceCheck.Result changed = check;
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    if (confirmOverwrite(project, details, changed)) {
+                        deploy(project, dialog, details);
+                    } else {
+                        dialog.addResult("Cancelled");
+                        dialog.done();
+                    }
+                }, ModalityState.stateForComponent(dialog.getRootPane()));
+            });
             return true;
         });
+        if (reason != null) dialog.addResult(reason);
         dialog.show();
     }
 
-    /**
-     * Determine if this is an app or device driver
-     *
-     * @return true = app, false = device driver, null = unknown/cancel
-     */
-    private Boolean isApp(String text) {
-        String type = parseValue(text, "type");
-        if (TextUtils.equalsIgnoreCase(type, "app")) {
-            log.debug("isApp: type=app");
-            return true;
-        } else if (TextUtils.equalsIgnoreCase(type, "device")) {
-            log.debug("isApp: type=device");
-            return false;
-        }
-
-        // Driver: Contains a metadata block with definition, and usually declares capability, attribute, and command.
-        // App: Contains a definition block (not inside metadata), and often uses app, section, and input for user configuration.
-        //   - Apps do not use the capability keyword
-        if (TextUtils.containsAny(text, true, "capability", "metadata")) {
-            // drivers contain capability/metadata keywords
-            log.debug("isApp: type=app (capability/metadata)");
-            return false;
-        } else if (TextUtils.containsAny(text, true, "definition", "section", "page")) {
-            log.debug("isApp: type=app (definition/etc)");
-            return true;
-        }
-        // unknown
-        return null;
-    }
-
-    private boolean installApp(HubitatInstallDialog dialog, DriverDetails details) {
-        // TODO: prompt user to confirm install of new app/driver
-        // this could be a new app/driver; prompt user to install
-//        String driverType = details.isApp ? "app" : "device driver";
-//        int rc = Messages.showYesNoDialog(dialog,
-//            "Existing " + driverType + " not found.\n\nInstall as new " + driverType + "?",
-//            TITLE, Messages.getQuestionIcon());
-//        if (rc != Messages.YES) return false;
-
-        String type = details.isApp ? "/app" : "/driver";
-        String createUrl = "http://" + details.hubIp + type + "/create";
-        if (networkHelper == null) networkHelper = new NetworkHelper();
-        networkHelper.getRequest(createUrl, getHeaders(details));
-
-        // install new app/driver
-        // POST http://192.168.0.200/driver/saveOrUpdateJson
-        // POST http://192.168.0.200/app/saveOrUpdateJson
-        String urlStr = "http://" + details.hubIp + type + "/saveOrUpdateJson";
-
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Accept", "*/*");
-        headers.put("Accept-Encoding", "gzip, deflate");
-        headers.put("Accept-Language", "en-US,en;q=0.9");
-        headers.put("Content-Type", "application/json");
-        headers.put("Host", details.hubIp);
-        headers.put("Origin", "http://" + details.hubIp);
-        headers.put("Referer", createUrl);
-        headers.put("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36");
-
-        InstallRequest request = new InstallRequest();
-        request.source = details.text;
-
-        NetworkHelper.HttpResponse response = networkHelper.postRequest(urlStr, GsonHelper.toJson(request), headers);
-        return handleResult(dialog, response);
-    }
-
-    private boolean updateApp(HubitatInstallDialog dialog, DriverDetails details) {
-        String type = details.isApp ? "/app" : "/device";
-        dialog.addResult("\uD83D\uDD39 Updating " + (details.isApp ? "app" : "device") + " on Hubitat...");
-
-        // POST /device/ideUpdate?id=885 HTTP/1.1
-        String urlStr = "http://" + details.hubIp + type + "/ideUpdate?id=" + details.appId;
-        if (networkHelper == null) networkHelper = new NetworkHelper();
-        Map<String, String> headers = getHeaders(details);
-        NetworkHelper.HttpResponse response = networkHelper.postRequest(urlStr, details.text, headers);
-        return handleResult(dialog, response);
-    }
-
-    private boolean handleResult(HubitatInstallDialog dialog, NetworkHelper.HttpResponse response) {
-        if (response.status != 200) {
-            dialog.addResult("❌ " + response.body);
-            dialog.done();
-            return false;
-        }
-        InstallResult result = GsonHelper.fromJson(response.body, InstallResult.class);
-        if (result == null || !result.success) {
-            String errorMsg = (result == null) ? "Unknown error" : result.message;
-            dialog.addResult("❌ Error: " + errorMsg);
-            dialog.done();
-            return false;
-        }
-
-        dialog.addResult("✅ Success!");
-        dialog.done();
-        return true;
+    private void deploy(Project project, HubitatInstallDialog dialog, DriverDetails details) {
+        // run network requests on background thread; uploads to the same app/driver are serialized
+        DeployEngine deployEngine = DeployEngine.getInstance();
+        // keep every successful upload so it can be rolled back from the History tab
+        deployEngine.setHistory(HistoryPanel.getHistory());
+        deployEngine.deploy(details, event -> onDeployEvent(dialog, event))
+            .thenAccept(result -> {
+                dialog.done();
+                // point Logs tab at the app/driver just deployed
+                if (result.isSuccess()) {
+                    ApplicationManager.getApplication().executeOnPooledThread(() ->
+                        HubitatLogService.getInstance(project).followDeploy(details.hubIp, details.isApp, result.appId));
+                }
+            });
     }
 
     /**
-     * Lookup app/driver ID by name/namespace
+     * show hub copy vs local file and ask before overwriting the hub copy
      *
-     * @return true if found or not found (but no error), false on error
+     * @return true to deploy anyway
      */
-    private boolean lookupAppId(HubitatInstallDialog dialog, DriverDetails details) {
-        // http://192.168.0.200/hub2/userDeviceTypes
-        // http://192.168.0.200/hub2/userAppTypes
-        String urlStr = "http://" + details.hubIp + "/hub2/" + (details.isApp ? "userAppTypes" : "userDeviceTypes");
-
-        String type = (details.isApp ? "app" : "driver");
-        dialog.addResult("\uD83D\uDD39 Looking up " + type + " ID for \"" + details.name + "\"...");
-
-        if (networkHelper == null) networkHelper = new NetworkHelper();
-        Map<String, String> headers = getHeaders(details);
-        NetworkHelper.HttpResponse response = networkHelper.getRequest(urlStr, headers);
-        if (response.status != 200) {
-            dialog.addResult("❌ " + response.body);
-            return false;
-        }
-
-        List<UserDeviceType> deviceTypeList = GsonHelper.stringToList(response.body, UserDeviceType.class);
-        //     {
-        //        "id": 884,
-        //        "name": "Dropbox Album",
-        //        "namespace": "jpage4500",
-        //        "oauth": "enabled",
-        //        "lastModified": "2025-06-12T18:39:52+0000",
-        //        "usedBy": []
-        //    },
-        for (UserDeviceType deviceType : deviceTypeList) {
-            if (TextUtils.equals(deviceType.name, details.name) &&
-                TextUtils.equals(deviceType.namespace, details.namespace)) {
-                dialog.addResult("\uD83D\uDD39 Found " + type + " ID: " + deviceType.id);
-                log.info("lookupAppId: FOUND: {}", GsonHelper.toJson(deviceType));
-                details.appId = deviceType.id;
-                updateApp(dialog, details);
-                return true;
-            }
-        }
-        dialog.addResult("❌ \"" + details.name + "\" not found");
-        log.error("lookupAppId: NOT_FOUND: results:{}, {}", deviceTypeList.size(), GsonHelper.toJson(details));
-
-        dialog.addResult("\uD83D\uDD39 Installing " + type + " on Hubitat...");
-        installApp(dialog, details);
-        return true;
-    }
-
-    private Map<String, String> getHeaders(DriverDetails details) {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "text/plain; charset=ISO-8859-1");
-        headers.put("Origin", "http://" + details.hubIp);
-        headers.put("Host", details.hubIp + ":8080");
-        headers.put("User-Agent", "Apache-HttpClient/4.5.14 (Java/21.0.8)");
-        headers.put("Accept-Encoding", "gzip,deflate");
-        return headers;
+    private boolean confirmOverwrite(Project project, DriverDetails details, HubSourceCheck.Result check) {
+        DiffContentFactory contentFactory = DiffContentFactory.getInstance();
+        SimpleDiffRequest request = new SimpleDiffRequest("Hubitat: " + details.name,
+            contentFactory.create(project, check.hubText), contentFactory.create(project, details.text),
+            check.lastModified != null ? "Hub (modified " + check.lastModified + ")" : "Hub", "Local");
+        DiffManager.getInstance().showDiff(project, request, DiffDialogHints.MODAL);
+        int choice = Messages.showYesNoDialog(project,
+            "The hub copy of \"" + details.name + "\" differs from the local file and is not the version last deployed from here ("
+                + check.diff + ").\n\nOverwrite hub copy?",
+            TITLE, "Overwrite", "Cancel", Messages.getWarningIcon());
+        return choice == Messages.YES;
     }
 
-    private String parseValue(String text, String key) {
-        // hub: 192.168.0.200
-        // type: device
-        // id: 1711
-        // definition(name: "File Manager Device", namespace: "jpage4500", author: "Joe Page") {
-        // definition(
-        //    name: "File Manager Album",
-        //    namespace: "jpage4500",
-        //    oauth: true,
-        //    iconUrl: '',
-        String fullKey = key + ": ";
-        int index = text.indexOf(fullKey);
-        if (index < 0) return null;
-        int start = index + fullKey.length();
-        StringBuilder result = new StringBuilder();
-        for (int i = start; i < text.length(); i++) {
-            char c = text.charAt(i);
-            switch (c) {
-                case '\"':
-                case '\'':
-                    continue;
-                case '\n':
-                case ',':
-                case ')':
-                    // remove spaces from beginning/end
-                    String resultStr = result.toString().trim();
-                    log.debug("parseValue: " + key + " = \"" + resultStr + "\"");
-                    return resultStr;
-                default:
-                    result.append(c);
-                    if (result.length() > 256) {
-                        log.error("parseValue: " + key + " exceeded max length");
-                        break;
-                    }
-            }
+    /**
+     * show deploy progress in install dialog
+     */
+    private void onDeployEvent(HubitatInstallDialog dialog, DeployEvent event) {
+        switch (event.type) {
+            case QUEUED:
+                dialog.addResult("⏳ " + event.message);
+                break;
+            case STARTED:
+                // only worth mentioning if we actually waited behind another upload
+                if (event.waitMs >= 100) dialog.addResult("\uD83D\uDD39 " + event.message);
+                break;
+            case SUPERSEDED:
+                dialog.addResult("⏭ " + event.message);
+                break;
+            case OUTBOX:
+                dialog.addResult("\uD83D\uDCE5 " + event.message);
+                break;
+            case SUCCESS:
+                dialog.addResult("✅ " + event.message);
+                break;
+            case ERROR:
+            case NOT_FOUND:
+                dialog.addResult("❌ " + event.message);
+                break;
+            default:
+                dialog.addResult("\uD83D\uDD39 " + event.message);
+                break;
         }
-        log.debug("parseValue: {} = \"{}\"", key, result);
-        return null;
     }
 
-    private void showWarning(Project project, String message) {
+    protected void showWarning(Project project, String message) {
         if (ApplicationManager.getApplication().isDispatchThread()) {
             Messages.showWarningDialog(project, message, HubitatAction.TITLE);
         } else {
@@ -371,15 +286,23 @@ public class HubitatAction extends AnAction {
         }
     }
 
-    private static boolean isValidIp(String ip) {
-        if (ip == null || ip.isEmpty()) return false;
-        // IPv4 regex
-        String ipv4Pattern =
-            "^(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
-                "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
-                "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
-                "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$";
-        return ip.matches(ipv4Pattern);
+    /**
+     * ask for a hub address (defaults to last used one) for actions that don't go through the install dialog
+     * NOTE: call on EDT
+     *
+     * @return valid hub address; null if cancelled/invalid
+     */
+    static String askHubAddress(Project project, String message) {
+        HubitatSettingsState state = HubitatSettingsState.getInstance();
+        String hubIp = Messages.showInputDialog(project, message, TITLE, Messages.getQuestionIcon(),
+            state != null ? state.hubIp : "", null);
+        if (TextUtils.isEmpty(hubIp)) return null;
+        hubIp = hubIp.trim();
+        if (!HubAddressResolver.isValidHubAddress(hubIp)) {
+            Messages.showWarningDialog(project, "Invalid hub address: " + hubIp, TITLE);
+            return null;
+        }
+        if (state != null) state.hubIp = hubIp;
+        return hubIp;
     }
-
 }
@@ -0,0 +1,75 @@
+package com.jpage4500.hubitat;
+
+import com.intellij.ide.actions.RevealFileAction;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationAction;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.jpage4500.hubitat.engine.HubBackup;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * "Backup Hub Database" (Tools menu): download the hub's latest database backup, ie: before a bulk deploy
+ * - saved to ~/hubitat-backups/<hub>/; the newest HubBackup.DEFAULT_KEEP are kept per hub
+ */
+public class HubitatBackupAction extends AnAction {
+
+    private static Path getBackupDir() {
+        return Path.of(System.getProperty("user.home"), "hubitat-backups");
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+        String hub = HubitatAction.askHubAddress(project, "Download database backup from hub:");
+        if (hub == null) return;
+
+        HubBackup backup = new HubBackup(hub, getBackupDir(), HubBackup.DEFAULT_KEEP);
+        new Task.Backgroundable(project, "Backing up " + hub, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setText("Downloading backup from " + hub + "...");
+                HubBackup.Result result = backup.download((received, total, bytesPerSec) -> {
+                    if (indicator.isCanceled()) backup.cancel();
+                    indicator.setIndeterminate(total <= 0);
+                    if (total > 0) indicator.setFraction((double) received / total);
+                    indicator.setText2(StringUtil.formatFileSize(received)
+                        + (total > 0 ? " of " + StringUtil.formatFileSize(total) : "")
+                        + " (" + StringUtil.formatFileSize(bytesPerSec) + "/s)");
+                });
+                Notification notification;
+                if (result.isSuccess()) {
+                    notification = NotificationGroupManager.getInstance().getNotificationGroup(HubitatQuickDeployAction.NOTIFICATION_GROUP)
+                        .createNotification(HubitatAction.TITLE, "✅ Backup saved: " + result.file.getFileName() + " ("
+                            + StringUtil.formatFileSize(result.bytes) + ", " + StringUtil.formatFileSize(result.getBytesPerSec()) + "/s)"
+                            + "<br>SHA-256: " + result.sha256, NotificationType.INFORMATION);
+                    notification.addAction(NotificationAction.createSimple("Show file", () -> RevealFileAction.openFile(result.file)));
+                } else {
+                    notification = NotificationGroupManager.getInstance().getNotificationGroup(HubitatQuickDeployAction.NOTIFICATION_GROUP)
+                        .createNotification(HubitatAction.TITLE, "❌ Backup of " + hub + " failed: " + result.error, NotificationType.ERROR);
+                }
+                notification.notify(project);
+            }
+        }.queue();
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
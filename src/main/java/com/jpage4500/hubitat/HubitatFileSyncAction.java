@@ -0,0 +1,91 @@
+package com.jpage4500.hubitat;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.jpage4500.hubitat.engine.HubFileSync;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * "Sync to Hub File Manager" (project view folder menu): upload the folder's files (JSON configs, images,
+ * dashboards, ...) to the hub's File Manager; unchanged files are skipped. See HubFileSync
+ */
+public class HubitatFileSyncAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile folder = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        if (project == null || folder == null || !folder.isDirectory()) return;
+
+        String hub = HubitatAction.askHubAddress(project, "Upload files in \"" + folder.getName() + "\" to the File Manager of hub:");
+        if (hub == null) return;
+
+        // NOTE: unsaved editor changes aren't on disk yet
+        FileDocumentManager.getInstance().saveAllDocuments();
+        HubFileSync sync = new HubFileSync(hub, Path.of(folder.getPath()), HubFileSync.DEFAULT_PARALLEL);
+        new Task.Backgroundable(project, "Syncing " + folder.getName() + " to hub", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                indicator.setText("Checking files on " + hub + "...");
+                CompletableFuture<HubFileSync.Result> future = CompletableFuture.supplyAsync(() -> sync.sync((sent, total, file) -> {
+                    indicator.setText("Uploading to " + hub + "...");
+                    indicator.setText2(file);
+                    if (total > 0) indicator.setFraction((double) sent / total);
+                }));
+                HubFileSync.Result result;
+                try {
+                    // poll so Cancel stops the uploads
+                    while (true) {
+                        if (indicator.isCanceled()) sync.cancel();
+                        try {
+                            result = future.get(200, TimeUnit.MILLISECONDS);
+                            break;
+                        } catch (TimeoutException ignored) {
+                        }
+                    }
+                } catch (Exception ex) {
+                    notify(project, "❌ Sync failed: " + ex.getMessage(), NotificationType.ERROR);
+                    return;
+                }
+                if (!result.errorList.isEmpty()) {
+                    notify(project, "❌ " + folder.getName() + " → " + hub + ": " + result + "<br>"
+                        + String.join("<br>", result.errorList.subList(0, Math.min(5, result.errorList.size()))), NotificationType.ERROR);
+                } else {
+                    notify(project, "✅ " + folder.getName() + " → " + hub + ": " + result, NotificationType.INFORMATION);
+                }
+            }
+        }.queue();
+    }
+
+    private static void notify(Project project, String message, NotificationType type) {
+        NotificationGroupManager.getInstance().getNotificationGroup(HubitatQuickDeployAction.NOTIFICATION_GROUP)
+            .createNotification(HubitatAction.TITLE, message, type)
+            .notify(project);
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null && file != null && file.isDirectory() && file.isInLocalFileSystem());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
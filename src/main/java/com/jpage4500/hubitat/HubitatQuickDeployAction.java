@@ -0,0 +1,160 @@
+package com.jpage4500.hubitat;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.jpage4500.hubitat.engine.DeployEngine;
+import com.jpage4500.hubitat.engine.DeployResult;
+import com.jpage4500.hubitat.engine.HubSourceCheck;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.services.HubitatLogService;
+import com.jpage4500.hubitat.settings.HubitatProjectState;
+import com.jpage4500.hubitat.toolwindow.HistoryPanel;
+import com.jpage4500.hubitat.utils.HubAddressResolver;
+import com.jpage4500.hubitat.utils.HubSession;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deploy current file without the install dialog when hub, type and app/driver are all known
+ * (from // hub: / type: / id: comments, saved state, or by finding name/namespace on the hub)
+ * - runs as a background task; result is shown as a balloon notification
+ * - falls back to the install dialog when something is missing, the app/driver isn't on the hub yet,
+ *   the hub copy was changed elsewhere, or the deploy fails
+ * - hub not reachable: deploy is kept in the outbox (see HubitatStartupActivity)
+ */
+public class HubitatQuickDeployAction extends HubitatAction {
+    private static final Logger log = LoggerFactory.getLogger(HubitatQuickDeployAction.class);
+
+    public static final String NOTIFICATION_GROUP = "Hubitat";
+    private static final long DEPLOY_TIMEOUT_SEC = 120;
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        Editor editor = getEditor(project);
+        if (editor == null) return;
+        DriverDetails details = loadDetails(project, editor);
+        if (details == null) return;
+        String filePath = getFilePath(editor);
+
+        if (!HubAddressResolver.isValidHubAddress(details.hubIp)) {
+            showInstallDialog(project, details, filePath, "Enter hub address to continue");
+            return;
+        }
+        // start resolving hub address (hostname/mDNS) before the task starts
+        HubAddressResolver.resolveAsync(details.hubIp);
+
+        new Task.Backgroundable(project, "Deploying " + details.name, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                quickDeploy(project, details, filePath, indicator);
+            }
+        }.queue();
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void quickDeploy(Project project, DriverDetails details, String filePath, ProgressIndicator indicator) {
+        if (details.isApp == null) {
+            // type not in comments or saved state; look for name/namespace in both hub lists
+            indicator.setText("Looking up \"" + details.name + "\" on hub...");
+            HubSession.TypeMatch match = HubSession.get(details.hubIp).resolveType(details.namespace, details.name);
+            if (match == null) {
+                fallback(project, details, filePath, "Select an app/driver type to continue");
+                return;
+            }
+            details.isApp = match.isApp;
+            if (details.appId == null) details.appId = match.type.id;
+            HubitatProjectState.getInstance(project).setIsApp(filePath, match.isApp);
+        }
+        String type = details.isApp ? "app" : "driver";
+        indicator.setText("Checking hub copy of \"" + details.name + "\"...");
+        HubSourceCheck.Result check;
+        try {
+            check = HubSourceCheck.getInstance().check(details, HistoryPanel.getHistory());
+        } catch (Exception e) {
+            log.error("quickDeploy: check: {}", e.getMessage(), e);
+            check = null;
+        }
+        boolean isNotFound = check != null && check.status == HubSourceCheck.Status.NOT_FOUND;
+        if ((check == null || check.status == HubSourceCheck.Status.UNKNOWN || isNotFound) && details.appId == null) {
+            // new app/driver (or hub not reachable); let user confirm hub and type before installing
+            fallback(project, details, filePath, isNotFound
+                ? "\"" + details.name + "\" " + type + " not found on " + details.hubIp
+                : "Unable to reach " + details.hubIp + " to look up \"" + details.name + "\"");
+            return;
+        } else if (check != null && check.status == HubSourceCheck.Status.CHANGED) {
+            fallback(project, details, filePath, "⚠ Hub copy differs from local file (" + check.diff + ")");
+            return;
+        } else if (check != null && check.status == HubSourceCheck.Status.SAME) {
+            notify(project, "\"" + details.name + "\" is already up to date", NotificationType.INFORMATION);
+            return;
+        }
+        if (indicator.isCanceled()) return;
+
+        // skip the ID lookup; check already found it
+        if (details.appId == null && check != null) details.appId = check.appId;
+        // NOTE: with a known ID, a hub that isn't reachable is handled by the outbox
+        indicator.setText("Uploading \"" + details.name + "\"...");
+        DeployEngine deployEngine = DeployEngine.getInstance();
+        deployEngine.setHistory(HistoryPanel.getHistory());
+        DeployResult result;
+        try {
+            result = deployEngine.deploy(details, event -> indicator.setText2(event.message))
+                .get(DEPLOY_TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("quickDeploy: {}", e.getMessage(), e);
+            fallback(project, details, filePath, "❌ Deploy failed: " + e.getMessage());
+            return;
+        }
+
+        switch (result.status) {
+            case UPDATED:
+            case INSTALLED:
+                notify(project, "✅ Deployed \"" + details.name + "\" (" + result.elapsedMs + "ms)", NotificationType.INFORMATION);
+                // point Logs tab at the app/driver just deployed
+                HubitatLogService.getInstance(project).followDeploy(details.hubIp, details.isApp, result.appId);
+                break;
+            case SUPERSEDED:
+                // a newer quick deploy of the same file will report
+                break;
+            case OUTBOX:
+                notify(project, "\uD83D\uDCE5 Hub not reachable; \"" + details.name + "\" will be deployed when it's back", NotificationType.WARNING);
+                break;
+            case FAILED:
+            default:
+                fallback(project, details, filePath, "❌ Deploy failed: " + result.message);
+                break;
+        }
+    }
+
+    private void fallback(Project project, DriverDetails details, String filePath, String reason) {
+        log.debug("fallback: {}", reason);
+        ApplicationManager.getApplication().invokeLater(() ->
+            showInstallDialog(project, details, filePath, reason), o -> project.isDisposed());
+    }
+
+    private void notify(Project project, String message, NotificationType type) {
+        NotificationGroupManager.getInstance().getNotificationGroup(NOTIFICATION_GROUP)
+            .createNotification(TITLE, message, type)
+            .notify(project);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,100 @@
+package com.jpage4500.hubitat.editor;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.EditorNotificationPanel;
+import com.intellij.ui.EditorNotificationProvider;
+import com.intellij.ui.EditorNotifications;
+import com.jpage4500.hubitat.engine.HubRuntimeStats;
+import com.jpage4500.hubitat.engine.SourceParser;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.services.HubitatStatsService;
+import com.jpage4500.hubitat.settings.HubitatSettingsState;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Banner above a Hubitat app/driver showing its runtime stats on the hub
+ * - "slower/faster since last deploy" once the hub has run it before and after the last deploy from this IDE
+ * - opening the file starts polling its hub (HubitatStatsService); banner is refreshed after every poll
+ */
+public class HubitatStatsNotificationProvider implements EditorNotificationProvider, DumbAware {
+    // change in avg time per execution that's worth a warning
+    private static final double SLOWER_WARN_PCT = 20;
+
+    // files the banner was closed for (until restart)
+    private static final Set<String> hiddenSet = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public @Nullable Function<? super @NotNull FileEditor, ? extends @Nullable JComponent> collectNotificationData(@NotNull Project project, @NotNull VirtualFile file) {
+        if (!"groovy".equals(file.getExtension()) || hiddenSet.contains(file.getUrl())) return null;
+        Document document = FileDocumentManager.getInstance().getDocument(file);
+        if (document == null) return null;
+        String text = document.getText();
+        if (!SourceParser.isHubitatSource(text)) return null;
+        DriverDetails details = SourceParser.parse(text, file.getName());
+        if (details == null || details.isApp == null) return null;
+
+        String hub = details.hubIp;
+        if (TextUtils.isEmpty(hub)) {
+            HubitatSettingsState state = HubitatSettingsState.getInstance();
+            if (state != null) hub = state.hubIp;
+        }
+        if (TextUtils.isEmpty(hub)) return null;
+        HubitatStatsService service = HubitatStatsService.getInstance();
+        service.watch(hub);
+
+        HubRuntimeStats.TypeStats stats = HubRuntimeStats.get(hub).find(details.isApp, details.appId, details.namespace, details.name);
+        if (stats == null) return null;
+        HubRuntimeStats.Comparison comparison = null;
+        long deployMs = HubitatStatsService.getLastDeployMs(stats.item);
+        if (deployMs > 0) comparison = stats.compare(deployMs);
+        boolean isSlower = comparison != null && comparison.getChangePct() >= SLOWER_WARN_PCT;
+        String message = getMessage(stats, deployMs, comparison);
+        String statsHub = hub;
+
+        return fileEditor -> {
+            EditorNotificationPanel panel = new EditorNotificationPanel(fileEditor,
+                isSlower ? EditorNotificationPanel.Status.Warning : EditorNotificationPanel.Status.Info);
+            panel.setText(message);
+            panel.createActionLabel("Refresh", () -> service.pollInBackground(statsHub));
+            panel.createActionLabel("Hide", () -> {
+                hiddenSet.add(file.getUrl());
+                EditorNotifications.getInstance(project).updateNotifications(file);
+            });
+            return panel;
+        };
+    }
+
+    /**
+     * "Hub: 2 devices, 24 runs, avg 35.0 ms, 1.6% busy | 125% slower since last deploy (26.7 -> 60.0 ms over 6 runs)"
+     */
+    static String getMessage(HubRuntimeStats.TypeStats stats, long deployMs, HubRuntimeStats.Comparison comparison) {
+        StringBuilder sb = new StringBuilder("Hub: ");
+        sb.append(stats.instances).append(stats.item.isApp ? " app" : " device").append(stats.instances == 1 ? "" : "s");
+        sb.append(", ").append(stats.count).append(" runs");
+        sb.append(String.format(Locale.US, ", avg %.1f ms, %.1f%% busy", stats.getAvgMs(), stats.busyPct));
+        if (deployMs == 0) return sb.toString();
+
+        sb.append("  |  ");
+        if (comparison == null || !comparison.isKnown()) {
+            sb.append("not enough runs since last deploy to compare");
+        } else {
+            double changePct = comparison.getChangePct();
+            sb.append(String.format(Locale.US, "%.0f%% %s since last deploy (%.1f -> %.1f ms over %d runs)",
+                Math.abs(changePct), changePct >= 0 ? "slower" : "faster", comparison.beforeAvgMs, comparison.afterAvgMs, comparison.afterCount));
+        }
+        return sb.toString();
+    }
+}
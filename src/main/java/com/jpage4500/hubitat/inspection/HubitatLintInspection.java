@@ -0,0 +1,142 @@
+package com.jpage4500.hubitat.inspection;
+
+import com.intellij.codeInsight.daemon.HighlightDisplayKey;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.options.OptPane;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.jpage4500.hubitat.engine.SourceLint;
+import com.jpage4500.hubitat.engine.SourceParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.intellij.codeInspection.options.OptPane.checkbox;
+import static com.intellij.codeInspection.options.OptPane.pane;
+
+/**
+ * Settings > Editor > Inspections > Hubitat: report SourceLint findings in Hubitat apps/drivers
+ * - only .groovy files that SourceParser.isApp() recognizes (definition/capability/metadata)
+ * - runs for any file type (plugin doesn't depend on the Groovy plugin); the .groovy name check comes first so other
+ *   files are never read
+ * - error findings are errors; the rest use the inspection's level (warning by default)
+ * - "Block deploy" option: HubitatAction won't deploy a file with error findings
+ */
+public class HubitatLintInspection extends LocalInspectionTool {
+    public static final String SHORT_NAME = "HubitatPerformance";
+
+    // inspection option; saved with the inspection profile
+    public boolean blockDeploy = false;
+
+    @Override
+    public @NotNull OptPane getOptionsPane() {
+        return pane(checkbox("blockDeploy", "Block deploy when there are error-level findings"));
+    }
+
+    @Override
+    public ProblemDescriptor @NotNull [] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        // check name before file.getText() -- it can be a large non-Groovy file
+        if (!isGroovyFile(file.getName())) return ProblemDescriptor.EMPTY_ARRAY;
+        String text = file.getText();
+        if (!isHubitatFile(file.getName(), text)) return ProblemDescriptor.EMPTY_ARRAY;
+
+        List<ProblemDescriptor> descriptorList = new ArrayList<>();
+        for (SourceLint.Finding finding : SourceLint.check(text)) {
+            List<LocalQuickFix> fixList = new ArrayList<>();
+            if (finding.replacement != null) {
+                fixList.add(new ReplaceFix(finding.fixName, text.substring(finding.start, finding.end), finding.replacement));
+            }
+            fixList.add(new IgnoreLineFix());
+            descriptorList.add(manager.createProblemDescriptor(file, new TextRange(finding.start, finding.end), finding.message,
+                finding.severity == SourceLint.Severity.ERROR ? ProblemHighlightType.GENERIC_ERROR : ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                isOnTheFly, fixList.toArray(LocalQuickFix.EMPTY_ARRAY)));
+        }
+        return descriptorList.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+
+    private static boolean isGroovyFile(String fileName) {
+        return fileName.endsWith(".groovy");
+    }
+
+    static boolean isHubitatFile(String fileName, String text) {
+        return isGroovyFile(fileName) && SourceParser.isHubitatSource(text) && SourceParser.isApp(text) != null;
+    }
+
+    /**
+     * NOTE: call on EDT or in a read action
+     *
+     * @return error findings if this inspection is enabled with "Block deploy" for document's file; otherwise empty
+     */
+    public static List<SourceLint.Finding> getBlockingErrors(Project project, Document document) {
+        List<SourceLint.Finding> errorList = new ArrayList<>();
+        PsiFile file = PsiDocumentManager.getInstance(project).getPsiFile(document);
+        if (file == null || !isGroovyFile(file.getName()) || !isHubitatFile(file.getName(), document.getText())) return errorList;
+        InspectionProfile profile = InspectionProjectProfileManager.getInstance(project).getCurrentProfile();
+        HighlightDisplayKey key = HighlightDisplayKey.find(SHORT_NAME);
+        if (key == null || !profile.isToolEnabled(key, file)) return errorList;
+        HubitatLintInspection inspection = (HubitatLintInspection) profile.getUnwrappedTool(SHORT_NAME, file);
+        if (inspection == null || !inspection.blockDeploy) return errorList;
+        for (SourceLint.Finding finding : SourceLint.check(document.getText())) {
+            if (finding.severity == SourceLint.Severity.ERROR) errorList.add(finding);
+        }
+        return errorList;
+    }
+
+    /**
+     * replace the reported text (ie: runIn delay) with a safer value
+     */
+    private static class ReplaceFix implements LocalQuickFix {
+        private final String name;
+        private final String original;
+        private final String replacement;
+
+        ReplaceFix(String name, String original, String replacement) {
+            this.name = name;
+            this.original = original;
+            this.replacement = replacement;
+        }
+
+        @Override
+        public @NotNull String getFamilyName() {
+            return name;
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            PsiFile file = descriptor.getPsiElement().getContainingFile();
+            Document document = file != null ? PsiDocumentManager.getInstance(project).getDocument(file) : null;
+            TextRange range = descriptor.getTextRangeInElement();
+            if (document == null || range == null || range.getEndOffset() > document.getTextLength()) return;
+            // file changed since it was inspected
+            if (!document.getText(range).equals(original)) return;
+            document.replaceString(range.getStartOffset(), range.getEndOffset(), replacement);
+            PsiDocumentManager.getInstance(project).commitDocument(document);
+        }
+    }
+
+    /**
+     * add "// lint:ignore" to the end of the line
+     */
+    private static class IgnoreLineFix implements LocalQuickFix {
+        @Override
+        public @NotNull String getFamilyName() {
+            return "Ignore on this line";
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            PsiFile file = descriptor.getPsiElement().getContainingFile();
+            Document document = file != null ? PsiDocumentManager.getInstance(project).getDocument(file) : null;
+            TextRange range = descriptor.getTextRangeInElement();
+            if (document == null || range == null || range.getStartOffset() > document.getTextLength()) return;
+            int line = document.getLineNumber(range.getStartOffset());
+            document.insertString(document.getLineEndOffset(line), " // " + SourceLint.IGNORE_COMMENT);
+            PsiDocumentManager.getInstance(project).commitDocument(document);
+        }
+    }
+}
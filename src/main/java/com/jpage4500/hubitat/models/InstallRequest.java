@@ -1,13 +0,0 @@
-package com.jpage4500.hubitat.models;
-
-public class InstallRequest {
-    public String source;
-    public int version = 1;
-}
-
-/*
-     {
-       "source": "CODE HERE",
-       "version": 1
-     }
-*/
\ No newline at end of file
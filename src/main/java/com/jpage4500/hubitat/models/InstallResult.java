@@ -1,10 +0,0 @@
-package com.jpage4500.hubitat.models;
-
-public class InstallResult {
-    public boolean success;
-    public String message;
-}
-
-/*
-     {"success":true,"message":null}
-*/
\ No newline at end of file
@@ -1,12 +0,0 @@
-package com.jpage4500.hubitat.models;
-
-import java.util.List;
-
-public class UserDeviceType {
-    public int id;
-    public String name;
-    public String namespace;
-    public String oauth;
-    public String lastModified;
-    public List<String> usedBy;
-}
@@ -0,0 +1,88 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.jpage4500.hubitat.engine.HubSourceCheck;
+import com.jpage4500.hubitat.engine.SourceParser;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.settings.HubitatSettingsState;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Future;
+
+/**
+ * Pre-warm a connection/session to the hub when a Hubitat app/driver is opened or focused so that
+ * pressing Install only needs the ideUpdate POST
+ * - runs on a pooled thread (never the EDT); only .groovy files are looked at
+ * - only 1 warm-up per project at a time; a newer request cancels the previous one
+ */
+@Service(Service.Level.PROJECT)
+public final class HubConnectionWarmer implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(HubConnectionWarmer.class);
+
+    private final Project project;
+    private Future<?> pending;
+
+    public HubConnectionWarmer(Project project) {
+        this.project = project;
+    }
+
+    public static HubConnectionWarmer getInstance(Project project) {
+        return project.getService(HubConnectionWarmer.class);
+    }
+
+    public synchronized void warm(VirtualFile file) {
+        if (file == null || file.isDirectory() || project.isDisposed()) return;
+        // every editor restored on project open comes through here; don't load other files at all
+        if (!"groovy".equals(file.getExtension())) return;
+        cancel();
+        pending = ApplicationManager.getApplication().executeOnPooledThread(() -> doWarm(file));
+    }
+
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    private void doWarm(VirtualFile file) {
+        String text = ReadAction.compute(() -> {
+            if (!file.isValid()) return null;
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            return document != null ? document.getText() : null;
+        });
+        // only warm up for files that look like a Hubitat app/driver
+        if (!SourceParser.isHubitatSource(text)) return;
+
+        String hubIp = SourceParser.parseValue(text, "hub");
+        if (TextUtils.isEmpty(hubIp)) {
+            HubitatSettingsState state = HubitatSettingsState.getInstance();
+            if (state != null) hubIp = state.hubIp;
+        }
+        if (TextUtils.isEmpty(hubIp) || Thread.currentThread().isInterrupted()) return;
+
+        log.debug("doWarm: {} -> {}", file.getName(), hubIp);
+        Boolean isApp = SourceParser.isApp(text);
+        HubSession.get(hubIp).prewarm(isApp);
+
+        // download hub copy now so the pre-deploy check doesn't have to
+        DriverDetails details = SourceParser.parse(text, file.getName());
+        if (details == null || isApp == null || Thread.currentThread().isInterrupted()) return;
+        HubSourceCheck.getInstance().prefetch(hubIp, isApp, details.appId, details.namespace, details.name);
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+    }
+}
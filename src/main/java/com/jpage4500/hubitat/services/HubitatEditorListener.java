@@ -0,0 +1,29 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Kick off a hub connection warm-up when an editor is opened (including on project open) or focused
+ */
+public class HubitatEditorListener implements FileEditorManagerListener {
+    private final Project project;
+
+    public HubitatEditorListener(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void fileOpened(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+        HubConnectionWarmer.getInstance(project).warm(file);
+    }
+
+    @Override
+    public void selectionChanged(@NotNull FileEditorManagerEvent event) {
+        HubConnectionWarmer.getInstance(project).warm(event.getNewFile());
+    }
+}
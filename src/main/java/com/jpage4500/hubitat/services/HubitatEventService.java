@@ -0,0 +1,88 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.jpage4500.hubitat.engine.HubEventStream;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * Owns the hub event stream for a project
+ */
+@Service(Service.Level.PROJECT)
+public final class HubitatEventService implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(HubitatEventService.class);
+
+    private HubEventStream stream;
+    private volatile String followLabel;
+
+    public static HubitatEventService getInstance(Project project) {
+        return project.getService(HubitatEventService.class);
+    }
+
+    /**
+     * @return current stream or null if not connected
+     */
+    public synchronized HubEventStream getStream() {
+        return stream;
+    }
+
+    /**
+     * connect to hub events (no-op if already connected to this hub)
+     */
+    public synchronized HubEventStream connect(String hubAddress) {
+        if (stream != null && TextUtils.equals(stream.getHubAddress(), hubAddress)) return stream;
+        if (stream != null) stream.stop();
+        // device ids are per hub; start watching all devices on new hub
+        followLabel = null;
+        stream = new HubEventStream(hubAddress);
+        stream.start();
+        return stream;
+    }
+
+    public synchronized void disconnect() {
+        if (stream != null) stream.stop();
+        stream = null;
+    }
+
+    /**
+     * @return description of devices being watched; null if all devices
+     */
+    public String getFollowLabel() {
+        return followLabel;
+    }
+
+    /**
+     * only watch devices using given driver
+     * NOTE: call from a background thread (may fetch driver list from hub)
+     *
+     * @return false if driver wasn't found on hub
+     */
+    public boolean followDriver(String hubAddress, String namespace, String name) {
+        UserDeviceType type = HubSession.get(hubAddress).findType(false, null, namespace, name);
+        if (type == null) return false;
+        Set<Integer> ids = HubitatLogService.getUsedByIds(type);
+        log.debug("followDriver: {}: {} -> {}", hubAddress, name, ids);
+        HubEventStream eventStream = connect(hubAddress);
+        eventStream.setDeviceIds(ids);
+        followLabel = "\"" + name + "\" (" + ids.size() + " devices)";
+        return true;
+    }
+
+    public void followAll() {
+        HubEventStream eventStream = getStream();
+        if (eventStream != null) eventStream.setDeviceIds(null);
+        followLabel = null;
+    }
+
+    @Override
+    public void dispose() {
+        disconnect();
+    }
+}
@@ -0,0 +1,42 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.jpage4500.hubitat.settings.HubitatProjectState;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Keep HubitatProjectState in sync when files are renamed, moved or deleted
+ * NOTE: content changes (the vast majority of events) are skipped without touching the state
+ */
+public class HubitatFileListener implements BulkFileListener {
+    private final Project project;
+
+    public HubitatFileListener(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+        if (project.isDisposed()) return;
+        HubitatProjectState state = null;
+        for (VFileEvent event : events) {
+            if (event instanceof VFileMoveEvent moveEvent) {
+                if (state == null) state = HubitatProjectState.getInstance(project);
+                state.onMoved(moveEvent.getOldPath(), moveEvent.getNewPath());
+            } else if (event instanceof VFilePropertyChangeEvent propertyEvent && propertyEvent.isRename()) {
+                if (state == null) state = HubitatProjectState.getInstance(project);
+                state.onMoved(propertyEvent.getOldPath(), propertyEvent.getNewPath());
+            } else if (event instanceof VFileDeleteEvent) {
+                if (state == null) state = HubitatProjectState.getInstance(project);
+                state.onDeleted(event.getPath());
+            }
+        }
+    }
+}
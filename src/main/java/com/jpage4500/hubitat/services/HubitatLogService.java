@@ -0,0 +1,106 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.jpage4500.hubitat.engine.HubLogStream;
+import com.jpage4500.hubitat.engine.LogFilter;
+import com.jpage4500.hubitat.models.UsedBy;
+import com.jpage4500.hubitat.models.UserDeviceType;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the hub log stream for a project and the current log filter
+ * - the Logs tab connects on demand; a successful deploy switches the filter to that app/driver
+ */
+@Service(Service.Level.PROJECT)
+public final class HubitatLogService implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(HubitatLogService.class);
+
+    private HubLogStream stream;
+    private volatile LogFilter filter = LogFilter.NONE;
+    // incremented every time filter changes so consumers know to re-filter
+    private final AtomicInteger filterVersion = new AtomicInteger();
+
+    public static HubitatLogService getInstance(Project project) {
+        return project.getService(HubitatLogService.class);
+    }
+
+    /**
+     * @return current stream or null if not connected
+     */
+    public synchronized HubLogStream getStream() {
+        return stream;
+    }
+
+    /**
+     * connect to hub logs (no-op if already connected to this hub)
+     */
+    public synchronized HubLogStream connect(String hubAddress) {
+        if (stream != null && TextUtils.equals(stream.getHubAddress(), hubAddress)) return stream;
+        if (stream != null) stream.stop();
+        stream = new HubLogStream(hubAddress, HubLogStream.DEFAULT_CAPACITY);
+        stream.start();
+        return stream;
+    }
+
+    public synchronized void disconnect() {
+        if (stream != null) stream.stop();
+        stream = null;
+    }
+
+    public LogFilter getFilter() {
+        return filter;
+    }
+
+    public int getFilterVersion() {
+        return filterVersion.get();
+    }
+
+    public void setFilter(LogFilter filter) {
+        this.filter = filter;
+        filterVersion.incrementAndGet();
+    }
+
+    /**
+     * show only logs from the app/driver just deployed (devices/apps using it)
+     * NOTE: call from a background thread (may fetch app/driver list from hub)
+     */
+    public void followDeploy(String hubAddress, boolean isApp, Integer typeId) {
+        if (typeId == null) return;
+        UserDeviceType type = HubSession.get(hubAddress).findType(isApp, typeId, null, null);
+        Set<Integer> ids = getUsedByIds(type);
+        String label = (isApp ? "app " : "driver ") + typeId + " (" + ids.size() + (isApp ? " instances)" : " devices)");
+        log.debug("followDeploy: {} {}", hubAddress, label);
+        setFilter(new LogFilter(isApp, ids, filter.text, label));
+
+        synchronized (this) {
+            // already watching logs; switch to the hub we just deployed to
+            if (stream != null) connect(hubAddress);
+        }
+    }
+
+    /**
+     * @return ids of devices/app instances using given app/driver
+     */
+    public static Set<Integer> getUsedByIds(UserDeviceType type) {
+        Set<Integer> ids = new HashSet<>();
+        if (type == null || type.usedBy == null) return ids;
+        for (UsedBy usedBy : type.usedBy) {
+            if (usedBy != null && usedBy.id != null) ids.add(usedBy.id);
+        }
+        return ids;
+    }
+
+    @Override
+    public void dispose() {
+        disconnect();
+    }
+}
@@ -0,0 +1,100 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.jpage4500.hubitat.engine.HubInventory;
+import com.jpage4500.hubitat.engine.SourceParser;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.settings.HubitatSettingsState;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps Hubitat apps/drivers in the project to their definition (type + namespace:name) so hub entries can be
+ * linked to local sources
+ */
+@Service(Service.Level.PROJECT)
+public final class HubitatSourceIndex {
+    private static final Logger log = LoggerFactory.getLogger(HubitatSourceIndex.class);
+
+    private final Project project;
+    // sourceKey -> file
+    private final Map<String, VirtualFile> fileMap = new ConcurrentHashMap<>();
+    // hubs referenced by "// hub:" comments
+    private final Set<String> hubSet = ConcurrentHashMap.newKeySet();
+
+    public HubitatSourceIndex(Project project) {
+        this.project = project;
+    }
+
+    public static HubitatSourceIndex getInstance(Project project) {
+        return project.getService(HubitatSourceIndex.class);
+    }
+
+    /**
+     * scan project .groovy files for app/driver definitions
+     * NOTE: blocking; call from a background thread
+     */
+    public void scan() {
+        long startMs = System.currentTimeMillis();
+        Collection<VirtualFile> fileList = DumbService.getInstance(project).runReadActionInSmartMode(() ->
+            new ArrayList<>(FilenameIndex.getAllFilesByExt(project, "groovy", GlobalSearchScope.projectScope(project))));
+
+        Map<String, VirtualFile> newFileMap = new HashMap<>();
+        Set<String> newHubSet = new HashSet<>();
+        for (VirtualFile file : fileList) {
+            if (Thread.currentThread().isInterrupted()) return;
+            DriverDetails details = parse(file);
+            if (details == null || details.isApp == null) continue;
+            newFileMap.put(HubInventory.sourceKey(details.isApp, details.namespace, details.name), file);
+            if (TextUtils.notEmpty(details.hubIp)) newHubSet.add(details.hubIp);
+        }
+        fileMap.keySet().retainAll(newFileMap.keySet());
+        fileMap.putAll(newFileMap);
+        hubSet.retainAll(newHubSet);
+        hubSet.addAll(newHubSet);
+        log.debug("scan: files:{}, sources:{}, hubs:{}, {}ms", fileList.size(), newFileMap.size(), newHubSet, System.currentTimeMillis() - startMs);
+    }
+
+    /**
+     * @return local source for app/driver or null if not in project
+     */
+    public VirtualFile findFile(boolean isApp, String namespace, String name) {
+        VirtualFile file = fileMap.get(HubInventory.sourceKey(isApp, namespace, name));
+        return file != null && file.isValid() ? file : null;
+    }
+
+    /**
+     * @return saved hub + all hubs referenced by project sources
+     */
+    public List<String> getHubs() {
+        Set<String> hubs = new LinkedHashSet<>();
+        HubitatSettingsState state = HubitatSettingsState.getInstance();
+        if (state != null && TextUtils.notEmpty(state.hubIp)) hubs.add(state.hubIp);
+        hubs.addAll(hubSet);
+        return new ArrayList<>(hubs);
+    }
+
+    /**
+     * @return parsed details or null if file is not a Hubitat app/driver
+     */
+    public static DriverDetails parse(VirtualFile file) {
+        try {
+            if (!file.isValid() || file.isDirectory()) return null;
+            String text = VfsUtilCore.loadText(file);
+            return SourceParser.parse(text, file.getName());
+        } catch (Exception e) {
+            log.debug("parse: {}, {}", file.getPath(), e.getMessage());
+            return null;
+        }
+    }
+}
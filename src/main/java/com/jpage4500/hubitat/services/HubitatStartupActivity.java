@@ -0,0 +1,50 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import com.jpage4500.hubitat.HubitatQuickDeployAction;
+import com.jpage4500.hubitat.engine.DeployOutbox;
+import com.jpage4500.hubitat.engine.EngineStartup;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * When a project opens:
+ * - hook up the deploy outbox, so deploys left over from the last session (hub was offline) go out as soon as
+ *   the hub is reachable again
+ * - enable this session's HTTP trace (IDE log directory)
+ * NOTE: runs on every project open; keep it to EngineStartup.start() (startup budget: ./gradlew :bench:startupBudget)
+ */
+public class HubitatStartupActivity implements StartupActivity.DumbAware {
+
+    /**
+     * @return plugin data directory (under the IDE system directory)
+     */
+    public static Path getBaseDir() {
+        return Path.of(PathManager.getSystemPath(), "hubitat");
+    }
+
+    /**
+     * @return deploy outbox (stored under the IDE system directory)
+     */
+    public static DeployOutbox getOutbox() {
+        return EngineStartup.getOutbox(getBaseDir());
+    }
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        EngineStartup.start(getBaseDir(), Path.of(PathManager.getLogPath(), "hubitat"), (entry, result) -> {
+            boolean isSuccess = result.isSuccess();
+            String message = isSuccess
+                ? "✅ Deployed \"" + entry.details.name + "\" (queued while hub was offline)"
+                : "❌ Queued deploy of \"" + entry.details.name + "\" failed: " + result.message;
+            NotificationGroupManager.getInstance().getNotificationGroup(HubitatQuickDeployAction.NOTIFICATION_GROUP)
+                .createNotification("Hubitat Plugin", message, isSuccess ? NotificationType.INFORMATION : NotificationType.ERROR)
+                .notify(null);
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.jpage4500.hubitat.services;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.ui.EditorNotifications;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jpage4500.hubitat.engine.DeployHistory;
+import com.jpage4500.hubitat.engine.HubInventory;
+import com.jpage4500.hubitat.engine.HubRuntimeStats;
+import com.jpage4500.hubitat.toolwindow.HistoryPanel;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls hub runtime stats (HubRuntimeStats) for the editor banner and the Stats tab
+ * - 1 shared low-frequency schedule for all projects; only hubs watched recently are polled
+ * - watch() is called by whatever shows stats (open editors, Stats tab); a hub stops being polled once nothing
+ *   has asked for it in WATCH_TIMEOUT_MIN
+ */
+@Service(Service.Level.APP)
+public final class HubitatStatsService implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(HubitatStatsService.class);
+
+    private static final long POLL_INTERVAL_MIN = 5;
+    private static final long WATCH_TIMEOUT_MIN = 30;
+
+    public interface Listener {
+        /**
+         * NOTE: called on background thread
+         */
+        void onStatsUpdated(String hub);
+    }
+
+    // hub -> last time it was watched
+    private final Map<String, Long> watchMap = new ConcurrentHashMap<>();
+    private final List<Listener> listenerList = new CopyOnWriteArrayList<>();
+    private ScheduledFuture<?> pollFuture;
+
+    public static HubitatStatsService getInstance() {
+        return ApplicationManager.getApplication().getService(HubitatStatsService.class);
+    }
+
+    /**
+     * keep polling hub; polls right away if hub has never been polled
+     */
+    public void watch(String hub) {
+        if (TextUtils.isEmpty(hub)) return;
+        boolean isNew = watchMap.put(hub, System.currentTimeMillis()) == null;
+        synchronized (this) {
+            if (pollFuture == null) {
+                pollFuture = AppExecutorUtil.getAppScheduledExecutorService()
+                    .scheduleWithFixedDelay(this::pollWatched, POLL_INTERVAL_MIN, POLL_INTERVAL_MIN, TimeUnit.MINUTES);
+            }
+        }
+        if (isNew && HubRuntimeStats.get(hub).getLastPollMs() == 0) pollInBackground(hub);
+    }
+
+    public void pollInBackground(String hub) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> poll(hub));
+    }
+
+    public void addListener(Listener listener) {
+        listenerList.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listenerList.remove(listener);
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void pollWatched() {
+        long expiredMs = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(WATCH_TIMEOUT_MIN);
+        watchMap.values().removeIf(watchMs -> watchMs < expiredMs);
+        for (String hub : new ArrayList<>(watchMap.keySet())) {
+            poll(hub);
+        }
+    }
+
+    private void poll(String hub) {
+        try {
+            HubRuntimeStats.get(hub).poll();
+        } catch (Exception e) {
+            log.debug("poll: {}: {}", hub, e.getMessage());
+        }
+        for (Listener listener : listenerList) {
+            listener.onStatsUpdated(hub);
+        }
+        // re-evaluate editor banners
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (!project.isDisposed()) EditorNotifications.getInstance(project).updateAllNotifications();
+        }
+    }
+
+    /**
+     * @return time app/driver was last deployed from this IDE; 0 if never
+     */
+    public static long getLastDeployMs(HubInventory.Item item) {
+        DeployHistory history = HistoryPanel.getHistory();
+        List<DeployHistory.Version> versionList = history.getVersions(
+            DeployHistory.target(item.hub, item.isApp, item.type.id, item.type.namespace, item.type.name));
+        return versionList.isEmpty() ? 0 : versionList.get(0).timeMs;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (pollFuture != null) pollFuture.cancel(true);
+        listenerList.clear();
+    }
+}
@@ -57,7 +57,7 @@ public class HubitatInstallDialog extends DialogWrapper {
         dgbc.gridy = 0;
         dgbc.anchor = GridBagConstraints.WEST;
         dgbc.fill = GridBagConstraints.NONE;
-        detailsPanel.add(new JLabel("Hubitat IP Address:"), dgbc);
+        detailsPanel.add(new JLabel("Hubitat Address:"), dgbc);
         dgbc.gridx = 1;
         dgbc.weightx = 1.0;
         dgbc.fill = GridBagConstraints.HORIZONTAL;
@@ -123,6 +123,14 @@ public class HubitatInstallDialog extends DialogWrapper {
         else return null;
     }
 
+    /**
+     * select app/driver type (ie: once it's been looked up on the hub)
+     */
+    public void setIsApp(boolean isApp) {
+        if (isApp) appRadio.setSelected(true);
+        else driverRadio.setSelected(true);
+    }
+
     public void setResult(String text) {
         resultsArea.setText(text);
     }
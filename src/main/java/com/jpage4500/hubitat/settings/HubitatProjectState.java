@@ -0,0 +1,166 @@
+package com.jpage4500.hubitat.settings;
+
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.util.xmlb.annotations.MapAnnotation;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Per-project state (saved in the workspace file, not shared with VCS)
+ * - file -> app/driver type selected in the install dialog, keyed by project-relative path
+ * - bounded (least recently used entries are dropped) and pruned of files that no longer exist,
+ *   so load/save cost stays the same no matter how big the project gets
+ * - renames/moves/deletes are applied by HubitatFileListener
+ */
+@Service(Service.Level.PROJECT)
+@State(
+    name = "HubitatProjectState",
+    storages = @Storage(StoragePathMacros.WORKSPACE_FILE)
+)
+public final class HubitatProjectState implements PersistentStateComponent<HubitatProjectState.State> {
+    private static final Logger log = LoggerFactory.getLogger(HubitatProjectState.class);
+
+    public static final int MAX_PATHS = 200;
+
+    private final Project project;
+    // guarded by 'this'; access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Boolean> pathToAppMap = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_PATHS;
+        }
+    };
+    private boolean isPruned;
+
+    public static class State {
+        // least recently used first
+        @MapAnnotation(sortBeforeSave = false)
+        public Map<String, Boolean> pathToApp = new LinkedHashMap<>();
+    }
+
+    public HubitatProjectState(Project project) {
+        this.project = project;
+    }
+
+    public static HubitatProjectState getInstance(Project project) {
+        return project.getService(HubitatProjectState.class);
+    }
+
+    @Override
+    public synchronized State getState() {
+        State state = new State();
+        state.pathToApp.putAll(pathToAppMap);
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull State state) {
+        pathToAppMap.clear();
+        if (state.pathToApp != null) pathToAppMap.putAll(state.pathToApp);
+        isPruned = false;
+    }
+
+    @Override
+    public void noStateLoaded() {
+        migrate();
+    }
+
+    /**
+     * @return app/driver type last selected for file; null if unknown
+     */
+    public synchronized Boolean getIsApp(String path) {
+        prune();
+        return pathToAppMap.get(toKey(path));
+    }
+
+    public synchronized void setIsApp(String path, Boolean isApp) {
+        if (isApp == null) pathToAppMap.remove(toKey(path));
+        else pathToAppMap.put(toKey(path), isApp);
+    }
+
+    /**
+     * file was renamed/moved; keep its type
+     */
+    public synchronized void onMoved(String oldPath, String newPath) {
+        String oldKey = toKey(oldPath);
+        String newKey = toKey(newPath);
+        Boolean isApp = pathToAppMap.remove(oldKey);
+        if (isApp != null) {
+            pathToAppMap.put(newKey, isApp);
+            return;
+        }
+        // directory renamed/moved; move everything under it
+        Map<String, Boolean> movedMap = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, Boolean>> iterator = pathToAppMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Boolean> entry = iterator.next();
+            if (entry.getKey().startsWith(oldKey + "/")) {
+                movedMap.put(newKey + entry.getKey().substring(oldKey.length()), entry.getValue());
+                iterator.remove();
+            }
+        }
+        pathToAppMap.putAll(movedMap);
+    }
+
+    public synchronized void onDeleted(String path) {
+        String key = toKey(path);
+        if (pathToAppMap.remove(key) == null) {
+            // directory deleted; drop everything under it
+            pathToAppMap.keySet().removeIf(k -> k.startsWith(key + "/"));
+        }
+    }
+
+    /**
+     * @return path relative to project (absolute if outside of project)
+     */
+    private String toKey(String path) {
+        String basePath = project.getBasePath();
+        if (basePath != null && path.startsWith(basePath + "/")) return path.substring(basePath.length() + 1);
+        return path;
+    }
+
+    private String toPath(String key) {
+        String basePath = project.getBasePath();
+        if (basePath == null || key.startsWith("/") || key.matches("^[A-Za-z]:.*")) return key;
+        return basePath + "/" + key;
+    }
+
+    /**
+     * drop entries for files that were deleted while the project was closed (at most MAX_PATHS lookups)
+     */
+    private void prune() {
+        if (isPruned) return;
+        isPruned = true;
+        LocalFileSystem fileSystem = LocalFileSystem.getInstance();
+        int before = pathToAppMap.size();
+        // NOTE: iterating doesn't change access order
+        pathToAppMap.keySet().removeIf(key -> fileSystem.findFileByPath(toPath(key)) == null);
+        if (pathToAppMap.size() != before) log.debug("prune: removed {} of {}", before - pathToAppMap.size(), before);
+    }
+
+    /**
+     * move this project's entries out of the (unbounded) application-level map used by older versions
+     */
+    private synchronized void migrate() {
+        HubitatSettingsState settings = HubitatSettingsState.getInstance();
+        String basePath = project.getBasePath();
+        if (settings == null || settings.pathToAppMap == null || basePath == null) return;
+        Iterator<Map.Entry<String, Boolean>> iterator = settings.pathToAppMap.entrySet().iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<String, Boolean> entry = iterator.next();
+            if (entry.getKey() != null && entry.getKey().startsWith(basePath + "/")) {
+                if (entry.getValue() != null) pathToAppMap.put(toKey(entry.getKey()), entry.getValue());
+                iterator.remove();
+                count++;
+            }
+        }
+        if (settings.pathToAppMap.isEmpty()) settings.pathToAppMap = null;
+        if (count > 0) log.debug("migrate: moved {} paths to project state", count);
+    }
+}
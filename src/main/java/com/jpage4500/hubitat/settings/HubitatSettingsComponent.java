@@ -8,7 +8,7 @@ public class HubitatSettingsComponent {
 
     public HubitatSettingsComponent() {
         panel = new JPanel();
-        JLabel label = new JLabel("Hubitat IP Address:");
+        JLabel label = new JLabel("Hubitat Address:");
         ipTextField = new JTextField(20);
         panel.add(label);
         panel.add(ipTextField);
@@ -6,7 +6,6 @@ import com.intellij.openapi.components.Storage;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @State(
@@ -16,6 +15,7 @@ import java.util.Map;
 public class HubitatSettingsState implements PersistentStateComponent<HubitatSettingsState> {
     // values to be persisted
     public String hubIp = "";
+    // NOTE: no longer written; entries are moved to HubitatProjectState when each project is opened
     public Map<String, Boolean> pathToAppMap;
 
     public static HubitatSettingsState getInstance() {
@@ -34,14 +34,4 @@ public class HubitatSettingsState implements PersistentStateComponent<HubitatSet
         this.pathToAppMap = state.pathToAppMap;
     }
 
-    public Boolean getPathToApp(String appName) {
-        if (pathToAppMap == null) return null;
-        return pathToAppMap.get(appName);
-    }
-
-    public void setPathToApp(String path, Boolean isApp) {
-        if (pathToAppMap == null) pathToAppMap = new HashMap<>();
-        pathToAppMap.put(path, isApp);
-    }
-
 }
@@ -0,0 +1,185 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jpage4500.hubitat.engine.EventAggregator;
+import com.jpage4500.hubitat.engine.HubEventStream;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.services.HubitatEventService;
+import com.jpage4500.hubitat.services.HubitatSourceIndex;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live device attribute values
+ * - pulls at most MAX_BATCH changed attributes every UPDATE_INTERVAL_MS; the rest wait (coalesced) for the next tick
+ */
+public class EventPanel extends SimpleToolWindowPanel implements Disposable {
+    private static final long UPDATE_INTERVAL_MS = 500;
+    private static final int MAX_BATCH = 500;
+    // how long setStatus() text replaces the stream status
+    private static final long MESSAGE_MS = 5000;
+
+    private final Project project;
+    private final HubitatEventService eventService;
+    private final EventTableModel model = new EventTableModel();
+    private final JBTable table = new JBTable(model);
+    private final JBLabel statusLabel = new JBLabel();
+    private final ScheduledFuture<?> updateFuture;
+
+    // background state; only touched by updateTick()
+    private HubEventStream lastStream;
+    private int lastFilterVersion = -1;
+    private long lastReceived;
+    private String lastStatus;
+
+    // shown instead of the stream status until it expires (or is replaced); set from any thread
+    private volatile String message;
+    private volatile long messageUntilMs;
+
+    public EventPanel(Project project) {
+        super(true, true);
+        this.project = project;
+        this.eventService = HubitatEventService.getInstance(project);
+
+        table.setRowSorter(new TableRowSorter<>(model));
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Connect", "Connect to hub events", AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                connect();
+            }
+        });
+        group.add(new DumbAwareAction("Disconnect", "Disconnect from hub events", AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                eventService.disconnect();
+            }
+        });
+        group.add(new DumbAwareAction("Follow Current Driver", "Only show devices using the driver in the editor", AllIcons.General.Locate) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                followCurrentFile();
+            }
+        });
+        group.add(new DumbAwareAction("Show All", "Show events from all devices", AllIcons.Actions.Close) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                eventService.followAll();
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("HubitatEvents", group, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(new JBScrollPane(table), BorderLayout.CENTER);
+        content.add(statusLabel, BorderLayout.SOUTH);
+        setContent(content);
+
+        updateFuture = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(this::updateTick, UPDATE_INTERVAL_MS, UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void connect() {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<String> hubList = HubitatSourceIndex.getInstance(project).getHubs();
+            if (!hubList.isEmpty()) eventService.connect(hubList.get(0));
+        });
+    }
+
+    private void followCurrentFile() {
+        VirtualFile[] selectedFiles = FileEditorManager.getInstance(project).getSelectedFiles();
+        if (selectedFiles.length == 0) return;
+        VirtualFile file = selectedFiles[0];
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            DriverDetails details = HubitatSourceIndex.parse(file);
+            if (details == null || !Boolean.FALSE.equals(details.isApp)) {
+                setStatus(file.getName() + " is not a Hubitat device driver");
+                return;
+            }
+            String hub = details.hubIp;
+            if (TextUtils.isEmpty(hub)) {
+                List<String> hubList = HubitatSourceIndex.getInstance(project).getHubs();
+                if (hubList.isEmpty()) return;
+                hub = hubList.get(0);
+            }
+            if (!eventService.followDriver(hub, details.namespace, details.name)) {
+                setStatus("\"" + details.name + "\" not found on " + hub);
+            }
+        });
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void updateTick() {
+        HubEventStream stream = eventService.getStream();
+        boolean isReset = stream != lastStream;
+        List<EventAggregator.AttributeState> changeList = List.of();
+        String status = "Not connected";
+        if (stream != null) {
+            int filterVersion = stream.getFilterVersion();
+            isReset |= filterVersion != lastFilterVersion;
+            lastFilterVersion = filterVersion;
+
+            EventAggregator aggregator = stream.getAggregator();
+            changeList = aggregator.drainChanges(MAX_BATCH);
+            long received = aggregator.getReceived();
+            long perSecond = Math.max(0, received - lastReceived) * 1000 / UPDATE_INTERVAL_MS;
+            lastReceived = received;
+            String follow = eventService.getFollowLabel();
+            status = stream.getStatus() + (follow != null ? "; following " + follow : "")
+                + "; " + perSecond + " events/s, received:" + received + ", coalesced:" + aggregator.getCoalesced()
+                + ", pending:" + aggregator.getPendingCount() + ", other devices:" + stream.getFiltered();
+        }
+        lastStream = stream;
+        String text = message;
+        if (text != null && System.currentTimeMillis() < messageUntilMs) status = text;
+        // nothing to repaint
+        if (!isReset && changeList.isEmpty() && TextUtils.equals(status, lastStatus)) return;
+        lastStatus = status;
+
+        boolean reset = isReset;
+        List<EventAggregator.AttributeState> changes = changeList;
+        String statusText = status;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (reset) model.clear();
+            if (!changes.isEmpty()) model.apply(changes);
+            statusLabel.setText(statusText);
+        }, o -> project.isDisposed());
+    }
+
+    /**
+     * show text for MESSAGE_MS (instead of stream status)
+     * NOTE: shown by the next updateTick()
+     */
+    private void setStatus(String text) {
+        messageUntilMs = System.currentTimeMillis() + MESSAGE_MS;
+        message = text;
+    }
+
+    @Override
+    public void dispose() {
+        updateFuture.cancel(true);
+    }
+}
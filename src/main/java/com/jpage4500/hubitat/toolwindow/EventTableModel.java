@@ -0,0 +1,91 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.jpage4500.hubitat.engine.EventAggregator;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Latest value per device attribute; rows are updated in place
+ * NOTE: only modified on EDT
+ */
+public class EventTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Device", "ID", "Attribute", "Value", "Unit", "Count", "Last Update"};
+
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+    private final List<EventAggregator.AttributeState> rowList = new ArrayList<>();
+    // key -> row index
+    private final Map<String, Integer> indexMap = new HashMap<>();
+
+    @Override
+    public int getRowCount() {
+        return rowList.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 1:
+                return Integer.class;
+            case 5:
+                return Long.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        EventAggregator.AttributeState state = rowList.get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return state.displayName;
+            case 1:
+                return state.deviceId;
+            case 2:
+                return state.attribute;
+            case 3:
+                return state.value;
+            case 4:
+                return state.unit;
+            case 5:
+                return state.count;
+            case 6:
+                return timeFormat.format(new Date(state.lastTimeMs));
+            default:
+                return null;
+        }
+    }
+
+    public void apply(List<EventAggregator.AttributeState> changeList) {
+        int firstAdded = rowList.size();
+        for (EventAggregator.AttributeState state : changeList) {
+            Integer index = indexMap.get(state.key);
+            if (index != null) {
+                rowList.set(index, state);
+                if (index < firstAdded) fireTableRowsUpdated(index, index);
+            } else {
+                indexMap.put(state.key, rowList.size());
+                rowList.add(state);
+            }
+        }
+        if (rowList.size() > firstAdded) fireTableRowsInserted(firstAdded, rowList.size() - 1);
+    }
+
+    public void clear() {
+        rowList.clear();
+        indexMap.clear();
+        fireTableDataChanged();
+    }
+}
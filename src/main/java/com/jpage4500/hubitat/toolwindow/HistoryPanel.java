@@ -0,0 +1,200 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jpage4500.hubitat.engine.DeployEngine;
+import com.jpage4500.hubitat.engine.DeployHistory;
+import com.jpage4500.hubitat.engine.DeployResult;
+import com.jpage4500.hubitat.engine.EngineStartup;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.services.HubitatStartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every successful deploy (newest first)
+ * - "Redeploy" uploads the selected version again, straight from history
+ * - "Redeploy Previous" rolls the selected app/driver back to the version before its latest deploy
+ * - double-click opens a read-only copy of the deployed source
+ */
+public class HistoryPanel extends SimpleToolWindowPanel implements Disposable {
+    private static final long UPDATE_INTERVAL_SEC = 2;
+
+    private final Project project;
+    private final HistoryTableModel model = new HistoryTableModel();
+    private final JBTable table = new JBTable(model);
+    private final JBLabel statusLabel = new JBLabel();
+    private final ScheduledFuture<?> updateFuture;
+    private volatile int lastModCount = -1;
+
+    public HistoryPanel(Project project) {
+        super(true, true);
+        this.project = project;
+
+        table.setRowSorter(new TableRowSorter<>(model));
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(HistoryTableModel.COL_TIME).setPreferredWidth(150);
+        table.getColumnModel().getColumn(HistoryTableModel.COL_NAME).setPreferredWidth(220);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) openSelected();
+            }
+        });
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Redeploy", "Upload the selected version again", AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                DeployHistory.Version version = getSelected();
+                if (version != null) redeploy(version);
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(table.getSelectedRow() >= 0);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                // reads table selection
+                return ActionUpdateThread.EDT;
+            }
+        });
+        group.add(new DumbAwareAction("Redeploy Previous", "Roll back to the version deployed before the latest one", AllIcons.Actions.Rollback) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                DeployHistory.Version version = getSelected();
+                if (version == null) return;
+                DeployHistory.Version previous = getHistory().getPrevious(version.target);
+                if (previous == null) {
+                    statusLabel.setText("No previous version of \"" + version.name + "\"");
+                    return;
+                }
+                redeploy(previous);
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(table.getSelectedRow() >= 0);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                // reads table selection
+                return ActionUpdateThread.EDT;
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("HubitatHistory", group, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(new JBScrollPane(table), BorderLayout.CENTER);
+        content.add(statusLabel, BorderLayout.SOUTH);
+        setContent(content);
+
+        // history is in memory; polling only reloads the table when something was recorded
+        updateFuture = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(this::updateTable, 0, UPDATE_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return deploy history (stored under the IDE system directory)
+     */
+    public static DeployHistory getHistory() {
+        return EngineStartup.getHistory(HubitatStartupActivity.getBaseDir());
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void updateTable() {
+        DeployHistory history = getHistory();
+        int modCount = history.getModCount();
+        if (modCount == lastModCount || project.isDisposed()) return;
+        lastModCount = modCount;
+        List<DeployHistory.Version> versionList = history.getAllVersions();
+        String status = versionList.size() + " versions (" + (history.getTotalBytes() / 1024) + " KB)";
+        ApplicationManager.getApplication().invokeLater(() -> {
+            model.setVersions(versionList);
+            statusLabel.setText(status);
+        }, o -> project.isDisposed());
+    }
+
+    private DeployHistory.Version getSelected() {
+        int viewRow = table.getSelectedRow();
+        if (viewRow < 0) return null;
+        return model.getVersion(table.convertRowIndexToModel(viewRow));
+    }
+
+    private void redeploy(DeployHistory.Version version) {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(version.timeMs));
+        statusLabel.setText("Redeploying \"" + version.name + "\" from " + time + "...");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            DriverDetails details = getHistory().toDetails(version);
+            if (details == null) {
+                setStatus("Source for \"" + version.name + "\" is no longer in history");
+                return;
+            }
+            DeployEngine deployEngine = DeployEngine.getInstance();
+            deployEngine.setHistory(getHistory());
+            deployEngine.deploy(details, null).thenAccept(result -> {
+                if (result.isSuccess()) {
+                    setStatus("✅ Redeployed \"" + version.name + "\" from " + time + " (" + result.elapsedMs + "ms)");
+                } else if (result.status == DeployResult.Status.FAILED) {
+                    setStatus("❌ Redeploy failed: " + result.message);
+                } else if (result.status == DeployResult.Status.OUTBOX) {
+                    setStatus("\uD83D\uDCE5 Hub not reachable; \"" + version.name + "\" will be redeployed when it's back");
+                }
+            });
+        });
+    }
+
+    private void openSelected() {
+        DeployHistory.Version version = getSelected();
+        if (version == null) return;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            String text = getHistory().getText(version);
+            if (text == null) {
+                setStatus("Source for \"" + version.name + "\" is no longer in history");
+                return;
+            }
+            ApplicationManager.getApplication().invokeLater(() -> {
+                LightVirtualFile file = new LightVirtualFile(version.name + " (" + version.hash.substring(0, 8) + ").groovy", text);
+                file.setWritable(false);
+                FileEditorManager.getInstance(project).openFile(file, true);
+            }, o -> project.isDisposed());
+        });
+    }
+
+    private void setStatus(String text) {
+        ApplicationManager.getApplication().invokeLater(() -> statusLabel.setText(text), o -> project.isDisposed());
+    }
+
+    @Override
+    public void dispose() {
+        updateFuture.cancel(true);
+    }
+}
@@ -0,0 +1,87 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.jpage4500.hubitat.engine.DeployHistory;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Table model for deploy history (newest first)
+ */
+public class HistoryTableModel extends AbstractTableModel {
+    public static final int COL_TIME = 0;
+    public static final int COL_HUB = 1;
+    public static final int COL_TYPE = 2;
+    public static final int COL_ID = 3;
+    public static final int COL_NAME = 4;
+    public static final int COL_SIZE = 5;
+    public static final int COL_HASH = 6;
+
+    private static final String[] COLUMNS = {"Deployed", "Hub", "Type", "ID", "Name", "Size", "Hash"};
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final List<DeployHistory.Version> rowList = new ArrayList<>();
+
+    @Override
+    public int getRowCount() {
+        return rowList.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case COL_ID:
+            case COL_SIZE:
+                return Integer.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        DeployHistory.Version version = rowList.get(rowIndex);
+        switch (columnIndex) {
+            case COL_TIME:
+                // sortable as text
+                return dateFormat.format(new Date(version.timeMs));
+            case COL_HUB:
+                return version.hub;
+            case COL_TYPE:
+                return version.isApp ? "app" : "driver";
+            case COL_ID:
+                return version.appId;
+            case COL_NAME:
+                return version.name;
+            case COL_SIZE:
+                return version.length;
+            case COL_HASH:
+                return version.hash.substring(0, 12);
+            default:
+                return null;
+        }
+    }
+
+    public DeployHistory.Version getVersion(int rowIndex) {
+        return rowList.get(rowIndex);
+    }
+
+    public void setVersions(List<DeployHistory.Version> versionList) {
+        rowList.clear();
+        rowList.addAll(versionList);
+        fireTableDataChanged();
+    }
+}
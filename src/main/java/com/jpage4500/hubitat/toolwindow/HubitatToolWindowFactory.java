@@ -0,0 +1,70 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.content.ContentManager;
+import com.intellij.ui.content.ContentManagerEvent;
+import com.intellij.ui.content.ContentManagerListener;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.Supplier;
+
+/**
+ * "Hubitat" tool window
+ * - each tab's panel is created the first time the tab is selected; panels start refreshing/polling as soon as
+ *   they exist, so a tool window restored at IDE startup only pays for the tab that's showing
+ */
+public class HubitatToolWindowFactory implements ToolWindowFactory, DumbAware {
+    // set on tabs whose panel hasn't been created yet
+    private static final Key<Supplier<SimpleToolWindowPanel>> PANEL_FACTORY = Key.create("hubitat.panelFactory");
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        ContentManager contentManager = toolWindow.getContentManager();
+        addTab(contentManager, "Inventory", () -> new InventoryPanel(project));
+        addTab(contentManager, "Logs", () -> new LogPanel(project));
+        addTab(contentManager, "Events", () -> new EventPanel(project));
+        addTab(contentManager, "Search", () -> new SearchPanel(project));
+        addTab(contentManager, "History", () -> new HistoryPanel(project));
+        addTab(contentManager, "Stats", () -> new StatsPanel(project));
+
+        contentManager.addContentManagerListener(new ContentManagerListener() {
+            @Override
+            public void selectionChanged(@NotNull ContentManagerEvent event) {
+                if (event.getOperation() == ContentManagerEvent.ContentOperation.add) createPanel(event.getContent());
+            }
+        });
+        // first tab was selected before the listener was added
+        Content selected = contentManager.getSelectedContent();
+        if (selected != null) createPanel(selected);
+    }
+
+    private static void addTab(ContentManager contentManager, String name, Supplier<SimpleToolWindowPanel> factory) {
+        Content content = ContentFactory.getInstance().createContent(new JPanel(new BorderLayout()), name, false);
+        content.putUserData(PANEL_FACTORY, factory);
+        contentManager.addContent(content);
+    }
+
+    /**
+     * NOTE: called on EDT
+     */
+    private static void createPanel(Content content) {
+        Supplier<SimpleToolWindowPanel> factory = content.getUserData(PANEL_FACTORY);
+        if (factory == null) return;
+        content.putUserData(PANEL_FACTORY, null);
+        SimpleToolWindowPanel panel = factory.get();
+        JComponent placeholder = content.getComponent();
+        placeholder.add(panel, BorderLayout.CENTER);
+        placeholder.revalidate();
+        if (panel instanceof Disposable) content.setDisposer((Disposable) panel);
+    }
+}
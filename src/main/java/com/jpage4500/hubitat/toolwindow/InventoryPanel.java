@@ -0,0 +1,227 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.ide.BrowserUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jpage4500.hubitat.engine.HubInventory;
+import com.jpage4500.hubitat.models.DriverDetails;
+import com.jpage4500.hubitat.services.HubitatSourceIndex;
+import com.jpage4500.hubitat.utils.ConcurrencyLimiter;
+import com.jpage4500.hubitat.utils.HubSession;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lists all apps/drivers on each hub (saved hub + hubs referenced by project sources)
+ * - refreshed in the background; only changed rows are updated
+ * - double-click opens the local source (or the hub editor if there isn't one)
+ */
+public class InventoryPanel extends SimpleToolWindowPanel implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(InventoryPanel.class);
+
+    private static final long REFRESH_INTERVAL_MIN = 5;
+    private static final long LOAD_INTERVAL_SEC = 1;
+
+    private final Project project;
+    private final InventoryTableModel model = new InventoryTableModel();
+    private final JBTable table = new JBTable(model);
+    private final JBLabel statusLabel = new JBLabel();
+    private final JBLabel loadLabel = new JBLabel();
+    private final AtomicBoolean isRefreshing = new AtomicBoolean();
+    private final ScheduledFuture<?> refreshFuture;
+    private final ScheduledFuture<?> loadFuture;
+
+    public InventoryPanel(Project project) {
+        super(true, true);
+        this.project = project;
+
+        table.setRowSorter(new TableRowSorter<>(model));
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(InventoryTableModel.COL_NAME).setPreferredWidth(220);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) openSelected();
+            }
+        });
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Refresh", "Refresh apps/drivers from hub", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refreshInBackground();
+            }
+        });
+        group.add(new DumbAwareAction("Locate Current File", "Select the app/driver for the file in the editor", AllIcons.General.Locate) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                locateCurrentFile();
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("HubitatInventory", group, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(loadLabel, BorderLayout.EAST);
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(new JBScrollPane(table), BorderLayout.CENTER);
+        content.add(statusPanel, BorderLayout.SOUTH);
+        setContent(content);
+
+        refreshFuture = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(this::refresh, 0, REFRESH_INTERVAL_MIN, TimeUnit.MINUTES);
+        loadFuture = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(this::updateLoad, LOAD_INTERVAL_SEC, LOAD_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    private void refreshInBackground() {
+        ApplicationManager.getApplication().executeOnPooledThread(this::refresh);
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void refresh() {
+        if (project.isDisposed() || !isRefreshing.compareAndSet(false, true)) return;
+        try {
+            setStatus("Refreshing...");
+            HubitatSourceIndex sourceIndex = HubitatSourceIndex.getInstance(project);
+            sourceIndex.scan();
+            List<String> hubList = sourceIndex.getHubs();
+            if (hubList.isEmpty()) {
+                setStatus("No hub configured");
+                return;
+            }
+            List<String> errorList = new ArrayList<>();
+            int total = 0;
+            for (String hub : hubList) {
+                HubInventory inventory = HubInventory.get(hub);
+                inventory.refresh();
+                if (inventory.getLastError() != null) errorList.add(hub + ": " + inventory.getLastError());
+                List<HubInventory.Item> itemList = inventory.getItems();
+                total += itemList.size();
+
+                Set<String> localKeys = new HashSet<>();
+                for (HubInventory.Item item : itemList) {
+                    if (sourceIndex.findFile(item.isApp, item.type.namespace, item.type.name) != null) {
+                        localKeys.add(item.getKey());
+                    }
+                }
+                // NOTE: inventory is shared with other projects on the same hub; diff against this table, not the last refresh
+                ApplicationManager.getApplication().invokeLater(() -> model.setItems(hub, itemList, localKeys), o -> project.isDisposed());
+            }
+            String time = new SimpleDateFormat("HH:mm:ss").format(new Date());
+            setStatus(total + " apps/drivers on " + hubList.size() + " hub(s); updated " + time
+                + (errorList.isEmpty() ? "" : "; ERROR: " + String.join(", ", errorList)));
+        } catch (Exception e) {
+            log.error("refresh: {}", e.getMessage(), e);
+            setStatus("ERROR: " + e.getMessage());
+        } finally {
+            isRefreshing.set(false);
+        }
+    }
+
+    /**
+     * show request limit/queue of each hub (limit adapts to hub response times)
+     * NOTE: runs on background thread
+     */
+    private void updateLoad() {
+        if (project.isDisposed()) return;
+        StringBuilder text = new StringBuilder();
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (String hub : HubitatSourceIndex.getInstance(project).getHubs()) {
+            ConcurrencyLimiter.Stats stats = HubSession.get(hub).getNetworkHelper().getLimiterStats();
+            if (stats.requests == 0) continue;
+            if (text.length() > 0) text.append("  |  ");
+            text.append(hub).append(": ").append(stats.inFlight).append("/").append(stats.limit)
+                .append(" in flight, ").append(stats.queued).append(" queued, ").append(stats.latencyMs).append("ms");
+            tooltip.append(hub).append(": ").append(stats).append("<br>");
+        }
+        String loadText = text.toString();
+        String loadTooltip = tooltip.toString();
+        ApplicationManager.getApplication().invokeLater(() -> {
+            loadLabel.setText(loadText);
+            loadLabel.setToolTipText(loadTooltip);
+        }, o -> project.isDisposed());
+    }
+
+    private void setStatus(String text) {
+        ApplicationManager.getApplication().invokeLater(() -> statusLabel.setText(text), o -> project.isDisposed());
+    }
+
+    private void openSelected() {
+        int viewRow = table.getSelectedRow();
+        if (viewRow < 0) return;
+        HubInventory.Item item = model.getItem(table.convertRowIndexToModel(viewRow));
+        VirtualFile file = HubitatSourceIndex.getInstance(project).findFile(item.isApp, item.type.namespace, item.type.name);
+        if (file != null) {
+            FileEditorManager.getInstance(project).openFile(file, true);
+        } else {
+            // no local source; open hub code editor
+            // http://192.168.0.200/driver/editor/885
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                String url = HubSession.get(item.hub).getUrl((item.isApp ? "/app" : "/driver") + "/editor/" + item.type.id);
+                if (url != null) BrowserUtil.browse(url);
+            });
+        }
+    }
+
+    private void locateCurrentFile() {
+        VirtualFile[] selectedFiles = FileEditorManager.getInstance(project).getSelectedFiles();
+        if (selectedFiles.length == 0) return;
+        VirtualFile file = selectedFiles[0];
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            DriverDetails details = HubitatSourceIndex.parse(file);
+            if (details == null || details.isApp == null) {
+                setStatus(file.getName() + " is not a Hubitat app/driver");
+                return;
+            }
+            String sourceKey = HubInventory.sourceKey(details.isApp, details.namespace, details.name);
+            String hub = TextUtils.isEmpty(details.hubIp) ? null : details.hubIp;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                int modelRow = model.findBySourceKey(hub, sourceKey);
+                if (modelRow < 0) modelRow = model.findBySourceKey(null, sourceKey);
+                if (modelRow < 0) {
+                    statusLabel.setText("\"" + details.name + "\" not found on hub");
+                    return;
+                }
+                int viewRow = table.convertRowIndexToView(modelRow);
+                table.setRowSelectionInterval(viewRow, viewRow);
+                table.scrollRectToVisible(table.getCellRect(viewRow, 0, true));
+            }, o -> project.isDisposed());
+        });
+    }
+
+    @Override
+    public void dispose() {
+        refreshFuture.cancel(true);
+        loadFuture.cancel(true);
+    }
+}
@@ -0,0 +1,169 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.jpage4500.hubitat.engine.HubInventory;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+/**
+ * Table model for hub inventory; applies HubInventory diffs so only changed rows are repainted
+ */
+public class InventoryTableModel extends AbstractTableModel {
+    public static final int COL_HUB = 0;
+    public static final int COL_TYPE = 1;
+    public static final int COL_ID = 2;
+    public static final int COL_NAME = 3;
+    public static final int COL_NAMESPACE = 4;
+    public static final int COL_MODIFIED = 5;
+    public static final int COL_USED_BY = 6;
+    public static final int COL_LOCAL = 7;
+
+    private static final String[] COLUMNS = {"Hub", "Type", "ID", "Name", "Namespace", "Last Modified", "Used By", "Local"};
+
+    private final List<HubInventory.Item> rowList = new ArrayList<>();
+    // item key -> row index
+    private final Map<String, Integer> indexMap = new HashMap<>();
+    // item key -> local source found
+    private final Set<String> localSet = new HashSet<>();
+
+    @Override
+    public int getRowCount() {
+        return rowList.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case COL_ID:
+            case COL_USED_BY:
+                return Integer.class;
+            case COL_LOCAL:
+                return Boolean.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        HubInventory.Item item = rowList.get(rowIndex);
+        switch (columnIndex) {
+            case COL_HUB:
+                return item.hub;
+            case COL_TYPE:
+                return item.isApp ? "app" : "driver";
+            case COL_ID:
+                return item.type.id;
+            case COL_NAME:
+                return item.type.name;
+            case COL_NAMESPACE:
+                return item.type.namespace;
+            case COL_MODIFIED:
+                return item.type.lastModified;
+            case COL_USED_BY:
+                return item.type.usedBy != null ? item.type.usedBy.size() : 0;
+            case COL_LOCAL:
+                return localSet.contains(item.getKey());
+            default:
+                return null;
+        }
+    }
+
+    public HubInventory.Item getItem(int rowIndex) {
+        return rowList.get(rowIndex);
+    }
+
+    /**
+     * @return model row for item key; -1 if not found
+     */
+    public int indexOf(String key) {
+        Integer index = indexMap.get(key);
+        return index != null ? index : -1;
+    }
+
+    public int findBySourceKey(String hub, String sourceKey) {
+        for (int i = 0; i < rowList.size(); i++) {
+            HubInventory.Item item = rowList.get(i);
+            if ((hub == null || hub.equals(item.hub)) && sourceKey.equals(item.getSourceKey())) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * make rows for hub match itemList (ie: HubInventory.getItems()); only changed rows are updated
+     * - diffs against this table's own rows, so a new table (or a 2nd project on the same hub) starts out complete
+     * NOTE: must be called on EDT
+     */
+    public void setItems(String hub, List<HubInventory.Item> itemList, Set<String> localKeys) {
+        List<HubInventory.Item> hubRowList = new ArrayList<>();
+        for (HubInventory.Item item : rowList) {
+            if (hub.equals(item.hub)) hubRowList.add(item);
+        }
+        applyDiff(hub, HubInventory.diff(hubRowList, itemList), localKeys);
+    }
+
+    /**
+     * apply changes to rows for hub
+     * NOTE: must be called on EDT
+     */
+    private void applyDiff(String hub, HubInventory.Diff diff, Set<String> localKeys) {
+        if (!diff.removed.isEmpty()) {
+            Set<String> removedKeys = new HashSet<>();
+            for (HubInventory.Item item : diff.removed) removedKeys.add(item.getKey());
+            // remove from the end so earlier indexes stay valid
+            for (int i = rowList.size() - 1; i >= 0; i--) {
+                if (removedKeys.contains(rowList.get(i).getKey())) {
+                    rowList.remove(i);
+                    fireTableRowsDeleted(i, i);
+                }
+            }
+            rebuildIndex();
+        }
+        for (HubInventory.Item item : diff.changed) {
+            int index = indexOf(item.getKey());
+            if (index < 0) continue;
+            rowList.set(index, item);
+            fireTableRowsUpdated(index, index);
+        }
+        if (!diff.added.isEmpty()) {
+            int first = rowList.size();
+            for (HubInventory.Item item : diff.added) {
+                indexMap.put(item.getKey(), rowList.size());
+                rowList.add(item);
+            }
+            fireTableRowsInserted(first, rowList.size() - 1);
+        }
+        updateLocal(hub, localKeys);
+    }
+
+    /**
+     * update "Local" column for hub's rows (localKeys only covers that hub); only rows whose value changed are repainted
+     */
+    public void updateLocal(String hub, Set<String> localKeys) {
+        for (int i = 0; i < rowList.size(); i++) {
+            HubInventory.Item item = rowList.get(i);
+            if (!hub.equals(item.hub)) continue;
+            String key = item.getKey();
+            boolean isLocal = localKeys.contains(key);
+            boolean changed = isLocal ? localSet.add(key) : localSet.remove(key);
+            if (changed) fireTableCellUpdated(i, COL_LOCAL);
+        }
+    }
+
+    private void rebuildIndex() {
+        indexMap.clear();
+        for (int i = 0; i < rowList.size(); i++) {
+            indexMap.put(rowList.get(i).getKey(), i);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.jpage4500.hubitat.models.LogEntry;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded list model for filtered log rows; oldest rows are dropped when full
+ * NOTE: only modified on EDT
+ */
+public class LogListModel extends AbstractListModel<LogListModel.LogRow> {
+    private final LogRow[] rows;
+    private int start;
+    private int size;
+
+    public static class LogRow {
+        public final LogEntry entry;
+        public final int highlight;         // index of filter match in entry.msg; -1 if none
+        public final int highlightLength;
+
+        public LogRow(LogEntry entry, int highlight, int highlightLength) {
+            this.entry = entry;
+            this.highlight = highlight;
+            this.highlightLength = highlightLength;
+        }
+    }
+
+    public LogListModel(int capacity) {
+        rows = new LogRow[capacity];
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public LogRow getElementAt(int index) {
+        return rows[(start + index) % rows.length];
+    }
+
+    /**
+     * add a batch of rows; fires at most 1 removed + 1 added event
+     */
+    public void append(List<LogRow> newRows) {
+        if (newRows.isEmpty()) return;
+        int dropped = 0;
+        for (LogRow row : newRows) {
+            if (size == rows.length) {
+                rows[start] = row;
+                start = (start + 1) % rows.length;
+                dropped++;
+            } else {
+                rows[(start + size) % rows.length] = row;
+                size++;
+            }
+        }
+        if (dropped > 0) fireIntervalRemoved(this, 0, Math.min(dropped, size) - 1);
+        int added = Math.min(newRows.size(), size);
+        fireIntervalAdded(this, size - added, size - 1);
+    }
+
+    /**
+     * replace all rows (ie: filter changed)
+     */
+    public void replace(List<LogRow> newRows) {
+        clear();
+        append(newRows);
+    }
+
+    public void clear() {
+        int oldSize = size;
+        Arrays.fill(rows, null);
+        start = 0;
+        size = 0;
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+    }
+}
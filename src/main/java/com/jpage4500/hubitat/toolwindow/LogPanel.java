@@ -0,0 +1,224 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.DumbAwareToggleAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jpage4500.hubitat.engine.HubLogStream;
+import com.jpage4500.hubitat.engine.LogFilter;
+import com.jpage4500.hubitat.models.LogEntry;
+import com.jpage4500.hubitat.services.HubitatLogService;
+import com.jpage4500.hubitat.services.HubitatSourceIndex;
+import com.jpage4500.hubitat.utils.RingBuffer;
+import com.jpage4500.hubitat.utils.TextUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live hub logs
+ * - messages are filtered/highlighted on a background thread every UPDATE_INTERVAL_MS
+ * - the list is updated once per batch, not once per message
+ */
+public class LogPanel extends SimpleToolWindowPanel implements Disposable {
+    private static final long UPDATE_INTERVAL_MS = 200;
+
+    private final Project project;
+    private final HubitatLogService logService;
+    private final LogListModel model = new LogListModel(HubLogStream.DEFAULT_CAPACITY);
+    private final JBList<LogListModel.LogRow> list = new JBList<>(model);
+    private final SearchTextField searchField = new SearchTextField(false);
+    private final JBLabel filterLabel = new JBLabel();
+    private final JBLabel statusLabel = new JBLabel();
+    private final ScheduledFuture<?> updateFuture;
+    private volatile boolean isAutoScroll = true;
+
+    // background filter state; only touched by updateTick()
+    private final LogEntry[] scratch = new LogEntry[HubLogStream.DEFAULT_CAPACITY];
+    private HubLogStream lastStream;
+    private long nextSeq;
+    private int lastFilterVersion = -1;
+    private String lastStatus;
+
+    public LogPanel(Project project) {
+        super(true, true);
+        this.project = project;
+        this.logService = HubitatLogService.getInstance(project);
+
+        list.setCellRenderer(new LogRenderer());
+        // fixed height lets the list skip measuring every row
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 2);
+
+        searchField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                logService.setFilter(logService.getFilter().withText(searchField.getText().trim()));
+            }
+        });
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Connect", "Connect to hub logs", AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                connect();
+            }
+        });
+        group.add(new DumbAwareAction("Disconnect", "Disconnect from hub logs", AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                logService.disconnect();
+            }
+        });
+        group.add(new DumbAwareAction("Show All", "Show logs from all devices/apps", AllIcons.Actions.Close) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                logService.setFilter(logService.getFilter().withoutIds());
+            }
+        });
+        group.add(new DumbAwareAction("Clear", "Clear log view", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                HubLogStream stream = logService.getStream();
+                if (stream != null) stream.getBuffer().clear();
+                // force re-filter from (now empty) buffer
+                logService.setFilter(logService.getFilter());
+            }
+        });
+        group.add(new DumbAwareToggleAction("Scroll to End", "Scroll to newest message", AllIcons.RunConfigurations.Scroll_down) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return isAutoScroll;
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                isAutoScroll = state;
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.BGT;
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("HubitatLogs", group, true);
+        toolbar.setTargetComponent(this);
+
+        JPanel top = new JPanel(new BorderLayout());
+        top.add(toolbar.getComponent(), BorderLayout.WEST);
+        top.add(searchField, BorderLayout.CENTER);
+        top.add(filterLabel, BorderLayout.EAST);
+        setToolbar(top);
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(new JBScrollPane(list), BorderLayout.CENTER);
+        content.add(statusLabel, BorderLayout.SOUTH);
+        setContent(content);
+
+        connect();
+        updateFuture = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(this::updateTick, UPDATE_INTERVAL_MS, UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void connect() {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<String> hubList = HubitatSourceIndex.getInstance(project).getHubs();
+            if (!hubList.isEmpty()) logService.connect(hubList.get(0));
+        });
+    }
+
+    /**
+     * pick up new messages from ring buffer, filter them and hand a single batch to the EDT
+     * NOTE: runs on background thread
+     */
+    private void updateTick() {
+        HubLogStream stream = logService.getStream();
+        LogFilter filter = logService.getFilter();
+        int filterVersion = logService.getFilterVersion();
+        String status = stream != null ? stream.getStatus() : "Not connected";
+        String filterText = filter.label != null ? "Following " + filter.label : "";
+
+        boolean isRebuild = stream != lastStream || filterVersion != lastFilterVersion;
+        List<LogListModel.LogRow> rowList = new ArrayList<>();
+        int highlightLength = filter.text != null ? filter.text.length() : 0;
+        if (stream != null) {
+            RingBuffer<LogEntry> buffer = stream.getBuffer();
+            if (isRebuild) nextSeq = buffer.getFirstSeq();
+            RingBuffer.Range range = buffer.copy(nextSeq, scratch);
+            nextSeq = range.getNextSeq();
+            for (int i = 0; i < range.count; i++) {
+                LogEntry entry = scratch[i];
+                if (filter.matches(entry)) rowList.add(new LogListModel.LogRow(entry, filter.findHighlight(entry), highlightLength));
+            }
+            // don't hold on to entries the ring buffer may overwrite
+            Arrays.fill(scratch, 0, range.count, null);
+        }
+        lastStream = stream;
+        lastFilterVersion = filterVersion;
+
+        if (!isRebuild && rowList.isEmpty() && TextUtils.equals(status, lastStatus)) return;
+        lastStatus = status;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            statusLabel.setText(status);
+            filterLabel.setText(filterText);
+            if (isRebuild) model.replace(rowList);
+            else model.append(rowList);
+            if (isAutoScroll && model.getSize() > 0) list.ensureIndexIsVisible(model.getSize() - 1);
+        }, o -> project.isDisposed());
+    }
+
+    private static class LogRenderer extends ColoredListCellRenderer<LogListModel.LogRow> {
+        private static final SimpleTextAttributes MATCH_ATTRIBUTES = new SimpleTextAttributes(SimpleTextAttributes.STYLE_SEARCH_MATCH, null);
+
+        @Override
+        protected void customizeCellRenderer(@NotNull JList<? extends LogListModel.LogRow> list, LogListModel.LogRow row,
+                                             int index, boolean selected, boolean hasFocus) {
+            if (row == null) return;
+            LogEntry entry = row.entry;
+            append(TextUtils.notNull(entry.time) + " ", SimpleTextAttributes.GRAY_ATTRIBUTES);
+            append(String.format("%-5s ", TextUtils.notNull(entry.level)), getLevelAttributes(entry.level));
+            append(TextUtils.notNull(entry.name) + ": ", SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+            String msg = TextUtils.notNull(entry.msg);
+            int matchLen = row.highlightLength;
+            if (row.highlight >= 0 && matchLen > 0 && row.highlight + matchLen <= msg.length()) {
+                append(msg.substring(0, row.highlight), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+                append(msg.substring(row.highlight, row.highlight + matchLen), MATCH_ATTRIBUTES);
+                append(msg.substring(row.highlight + matchLen), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            } else {
+                append(msg, SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            }
+        }
+
+        private static SimpleTextAttributes getLevelAttributes(String level) {
+            if (TextUtils.equalsIgnoreCase(level, "error")) return SimpleTextAttributes.ERROR_ATTRIBUTES;
+            if (TextUtils.equalsIgnoreCase(level, "warn")) return SimpleTextAttributes.LINK_ATTRIBUTES;
+            if (TextUtils.equalsIgnoreCase(level, "trace") || TextUtils.equalsIgnoreCase(level, "debug")) {
+                return SimpleTextAttributes.GRAYED_ATTRIBUTES;
+            }
+            return SimpleTextAttributes.REGULAR_ATTRIBUTES;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        updateFuture.cancel(true);
+    }
+}
@@ -0,0 +1,219 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.jpage4500.hubitat.engine.SourceIndex;
+import com.jpage4500.hubitat.services.HubitatSourceIndex;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Search the source of every app/driver on the hub(s)
+ * - sources are downloaded once and kept in a local index (only changed sources are downloaded again)
+ * - double-click opens the local file at the matching line (or a read-only copy of the hub source)
+ */
+public class SearchPanel extends SimpleToolWindowPanel implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(SearchPanel.class);
+
+    private static final int MAX_RESULTS = 1000;
+
+    private final Project project;
+    private final DefaultListModel<SourceIndex.Match> model = new DefaultListModel<>();
+    private final JBList<SourceIndex.Match> list = new JBList<>(model);
+    private final SearchTextField searchField = new SearchTextField(true);
+    private final JBCheckBox regexCheckBox = new JBCheckBox("Regex");
+    private final JBLabel statusLabel = new JBLabel();
+    private final AtomicBoolean isRefreshing = new AtomicBoolean();
+    private Future<?> searchFuture;
+
+    public SearchPanel(Project project) {
+        super(true, true);
+        this.project = project;
+
+        list.setCellRenderer(new MatchRenderer());
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) openSelected();
+            }
+        });
+        searchField.getTextEditor().addActionListener(e -> search());
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Update Index", "Download new/changed sources from hub", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                ApplicationManager.getApplication().executeOnPooledThread(SearchPanel.this::refreshIndex);
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("HubitatSearch", group, true);
+        toolbar.setTargetComponent(this);
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(toolbar.getComponent(), BorderLayout.WEST);
+        header.add(searchField, BorderLayout.CENTER);
+        header.add(regexCheckBox, BorderLayout.EAST);
+        setToolbar(header);
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(new JBScrollPane(list), BorderLayout.CENTER);
+        content.add(statusLabel, BorderLayout.SOUTH);
+        setContent(content);
+    }
+
+    /**
+     * @return index for hub (stored under the IDE system directory)
+     */
+    public static SourceIndex getIndex(String hub) {
+        return SourceIndex.get(hub, Path.of(PathManager.getSystemPath(), "hubitat", "index"));
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void refreshIndex() {
+        if (project.isDisposed() || !isRefreshing.compareAndSet(false, true)) return;
+        try {
+            List<String> hubList = HubitatSourceIndex.getInstance(project).getHubs();
+            if (hubList.isEmpty()) {
+                setStatus("No hub configured");
+                return;
+            }
+            List<String> errorList = new ArrayList<>();
+            int total = 0;
+            int downloaded = 0;
+            for (String hub : hubList) {
+                setStatus("Updating index for " + hub + "...");
+                SourceIndex.RefreshResult result = getIndex(hub).refresh();
+                total += result.total;
+                downloaded += result.downloaded;
+                if (result.error != null) errorList.add(hub + ": " + result.error);
+                else if (result.failed > 0) errorList.add(hub + ": " + result.failed + " source(s) failed to download");
+            }
+            setStatus("Indexed " + total + " apps/drivers (" + downloaded + " downloaded)"
+                + (errorList.isEmpty() ? "" : "; ERROR: " + String.join(", ", errorList)));
+        } catch (Exception e) {
+            log.error("refreshIndex: {}", e.getMessage(), e);
+            setStatus("ERROR: " + e.getMessage());
+        } finally {
+            isRefreshing.set(false);
+        }
+    }
+
+    private void search() {
+        String query = searchField.getText().trim();
+        boolean isRegex = regexCheckBox.isSelected();
+        if (query.isEmpty()) return;
+        searchField.addCurrentTextToHistory();
+        if (searchFuture != null) searchFuture.cancel(true);
+        statusLabel.setText("Searching...");
+        searchFuture = ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                long startMs = System.currentTimeMillis();
+                List<String> hubList = HubitatSourceIndex.getInstance(project).getHubs();
+                List<SourceIndex.Match> matchList = new ArrayList<>();
+                int docCount = 0;
+                for (String hub : hubList) {
+                    SourceIndex index = getIndex(hub);
+                    // first search; download sources
+                    if (index.getDocCount() == 0) refreshIndex();
+                    docCount += index.getDocCount();
+                    matchList.addAll(index.search(query, isRegex, MAX_RESULTS - matchList.size()));
+                    if (matchList.size() >= MAX_RESULTS || Thread.currentThread().isInterrupted()) break;
+                }
+                long elapsedMs = System.currentTimeMillis() - startMs;
+                String status = matchList.size() + (matchList.size() >= MAX_RESULTS ? "+" : "") + " matches in "
+                    + docCount + " apps/drivers (" + elapsedMs + "ms)";
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    model.clear();
+                    model.addAll(matchList);
+                    statusLabel.setText(status);
+                }, o -> project.isDisposed());
+            } catch (PatternSyntaxException e) {
+                setStatus("Invalid regex: " + e.getDescription());
+            } catch (Exception e) {
+                log.error("search: {}", e.getMessage(), e);
+                setStatus("ERROR: " + e.getMessage());
+            }
+        });
+    }
+
+    private void setStatus(String text) {
+        ApplicationManager.getApplication().invokeLater(() -> statusLabel.setText(text), o -> project.isDisposed());
+    }
+
+    private void openSelected() {
+        SourceIndex.Match match = list.getSelectedValue();
+        if (match == null) return;
+        SourceIndex.Doc doc = match.doc;
+        VirtualFile file = HubitatSourceIndex.getInstance(project).findFile(doc.isApp, doc.namespace, doc.name);
+        if (file != null) {
+            new OpenFileDescriptor(project, file, match.line, match.start).navigate(true);
+            return;
+        }
+        // no local source; open a read-only copy of the hub source
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            String text = getIndex(match.hub).getText(doc);
+            if (text == null) {
+                setStatus("Unable to load source for \"" + doc.name + "\"");
+                return;
+            }
+            ApplicationManager.getApplication().invokeLater(() -> {
+                LightVirtualFile lightFile = new LightVirtualFile(doc.name + ".groovy", text);
+                lightFile.setWritable(false);
+                new OpenFileDescriptor(project, lightFile, match.line, match.start).navigate(true);
+            }, o -> project.isDisposed());
+        });
+    }
+
+    @Override
+    public void dispose() {
+        if (searchFuture != null) searchFuture.cancel(true);
+    }
+
+    private static class MatchRenderer extends ColoredListCellRenderer<SourceIndex.Match> {
+        @Override
+        protected void customizeCellRenderer(@NotNull JList<? extends SourceIndex.Match> list, SourceIndex.Match match,
+                                             int index, boolean selected, boolean hasFocus) {
+            setIcon(match.doc.isApp ? AllIcons.Nodes.Module : AllIcons.Nodes.Plugin);
+            append(match.doc.name + ":" + (match.line + 1) + "  ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            String text = match.text;
+            // trim leading whitespace, keeping match positions valid
+            int offset = 0;
+            while (offset < match.start && Character.isWhitespace(text.charAt(offset))) offset++;
+            int end = Math.min(match.end, text.length());
+            append(text.substring(offset, match.start));
+            append(text.substring(match.start, end), SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+            append(text.substring(end));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.jpage4500.hubitat.engine.HubRuntimeStats;
+import com.jpage4500.hubitat.services.HubitatSourceIndex;
+import com.jpage4500.hubitat.services.HubitatStatsService;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Hub runtime stats per app/driver (summed over all of its apps/devices); busiest first, sortable by any column
+ * - polled by HubitatStatsService while this tab or a Hubitat source is open
+ * - "Since Deploy %" compares avg time per run before/after the last deploy from this IDE (positive = slower)
+ * - double-click opens the local source
+ */
+public class StatsPanel extends SimpleToolWindowPanel implements Disposable, HubitatStatsService.Listener {
+    private static final Logger log = LoggerFactory.getLogger(StatsPanel.class);
+
+    private final Project project;
+    private final StatsTableModel model = new StatsTableModel();
+    private final JBTable table = new JBTable(model);
+    private final JBLabel statusLabel = new JBLabel();
+
+    public StatsPanel(Project project) {
+        super(true, true);
+        this.project = project;
+
+        TableRowSorter<StatsTableModel> sorter = new TableRowSorter<>(model);
+        sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(StatsTableModel.COL_TOTAL, SortOrder.DESCENDING)));
+        table.setRowSorter(sorter);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(StatsTableModel.COL_NAME).setPreferredWidth(220);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) openSelected();
+            }
+        });
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Refresh", "Fetch runtime stats from hub", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refreshInBackground();
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("HubitatStats", group, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(new JBScrollPane(table), BorderLayout.CENTER);
+        content.add(statusLabel, BorderLayout.SOUTH);
+        setContent(content);
+
+        HubitatStatsService.getInstance().addListener(this);
+        ApplicationManager.getApplication().executeOnPooledThread(this::watchHubs);
+    }
+
+    private void refreshInBackground() {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            HubitatStatsService service = HubitatStatsService.getInstance();
+            for (String hub : getHubs()) {
+                service.pollInBackground(hub);
+            }
+        });
+    }
+
+    /**
+     * NOTE: runs on background thread
+     */
+    private void watchHubs() {
+        if (project.isDisposed()) return;
+        List<String> hubList = getHubs();
+        if (hubList.isEmpty()) {
+            setStatus("No hub configured");
+            return;
+        }
+        setStatus("Loading stats...");
+        HubitatStatsService service = HubitatStatsService.getInstance();
+        for (String hub : hubList) {
+            service.watch(hub);
+            // already polled (ie: by an editor banner)
+            if (HubRuntimeStats.get(hub).getLastPollMs() > 0) onStatsUpdated(hub);
+        }
+    }
+
+    private List<String> getHubs() {
+        HubitatSourceIndex sourceIndex = HubitatSourceIndex.getInstance(project);
+        sourceIndex.scan();
+        return sourceIndex.getHubs();
+    }
+
+    /**
+     * NOTE: called on background thread
+     */
+    @Override
+    public void onStatsUpdated(String hub) {
+        if (project.isDisposed()) return;
+        // keep polling while this tab is open
+        HubitatStatsService.getInstance().watch(hub);
+        HubRuntimeStats runtimeStats = HubRuntimeStats.get(hub);
+        List<StatsTableModel.Row> rowList = new ArrayList<>();
+        for (HubRuntimeStats.TypeStats stats : runtimeStats.getStats()) {
+            Double changePct = null;
+            long deployMs = HubitatStatsService.getLastDeployMs(stats.item);
+            if (deployMs > 0) {
+                HubRuntimeStats.Comparison comparison = stats.compare(deployMs);
+                if (comparison.isKnown()) changePct = comparison.getChangePct();
+            }
+            rowList.add(new StatsTableModel.Row(stats, changePct));
+        }
+        long lastPollMs = runtimeStats.getLastPollMs();
+        String time = lastPollMs > 0 ? new SimpleDateFormat("HH:mm:ss").format(new Date(lastPollMs)) : "never";
+        String error = runtimeStats.getLastError();
+        log.debug("onStatsUpdated: {}: {} apps/drivers, error:{}", hub, rowList.size(), error);
+        ApplicationManager.getApplication().invokeLater(() -> {
+            model.setRows(hub, rowList);
+            statusLabel.setText(hub + ": " + rowList.size() + " apps/drivers; updated " + time + (error != null ? "; ERROR: " + error : ""));
+        }, o -> project.isDisposed());
+    }
+
+    private void setStatus(String text) {
+        ApplicationManager.getApplication().invokeLater(() -> statusLabel.setText(text), o -> project.isDisposed());
+    }
+
+    private void openSelected() {
+        int viewRow = table.getSelectedRow();
+        if (viewRow < 0) return;
+        HubRuntimeStats.TypeStats stats = model.getRow(table.convertRowIndexToModel(viewRow)).stats;
+        VirtualFile file = HubitatSourceIndex.getInstance(project).findFile(stats.item.isApp, stats.item.type.namespace, stats.item.type.name);
+        if (file != null) FileEditorManager.getInstance(project).openFile(file, true);
+        else statusLabel.setText("No local source for \"" + stats.item.type.name + "\"");
+    }
+
+    @Override
+    public void dispose() {
+        HubitatStatsService.getInstance().removeListener(this);
+    }
+}
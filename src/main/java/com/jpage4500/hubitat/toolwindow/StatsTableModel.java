@@ -0,0 +1,115 @@
+package com.jpage4500.hubitat.toolwindow;
+
+import com.jpage4500.hubitat.engine.HubRuntimeStats;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table model for hub runtime stats (1 row per app/driver)
+ */
+public class StatsTableModel extends AbstractTableModel {
+    public static final int COL_HUB = 0;
+    public static final int COL_TYPE = 1;
+    public static final int COL_NAME = 2;
+    public static final int COL_INSTANCES = 3;
+    public static final int COL_COUNT = 4;
+    public static final int COL_TOTAL = 5;
+    public static final int COL_AVG = 6;
+    public static final int COL_BUSY = 7;
+    public static final int COL_CHANGE = 8;
+
+    private static final String[] COLUMNS = {"Hub", "Type", "Name", "Instances", "Runs", "Total ms", "Avg ms", "Busy %", "Since Deploy %"};
+
+    private final List<Row> rowList = new ArrayList<>();
+
+    public static class Row {
+        public final HubRuntimeStats.TypeStats stats;
+        // % change in avg ms since last deploy; null if not deployed or not enough runs
+        public final Double changePct;
+
+        public Row(HubRuntimeStats.TypeStats stats, Double changePct) {
+            this.stats = stats;
+            this.changePct = changePct;
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowList.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case COL_INSTANCES:
+                return Integer.class;
+            case COL_COUNT:
+            case COL_TOTAL:
+                return Long.class;
+            case COL_AVG:
+            case COL_BUSY:
+            case COL_CHANGE:
+                return Double.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Row row = rowList.get(rowIndex);
+        HubRuntimeStats.TypeStats stats = row.stats;
+        switch (columnIndex) {
+            case COL_HUB:
+                return stats.item.hub;
+            case COL_TYPE:
+                return stats.item.isApp ? "app" : "driver";
+            case COL_NAME:
+                return stats.item.type.name;
+            case COL_INSTANCES:
+                return stats.instances;
+            case COL_COUNT:
+                return stats.count;
+            case COL_TOTAL:
+                return stats.totalMs;
+            case COL_AVG:
+                return round(stats.getAvgMs());
+            case COL_BUSY:
+                return round(stats.busyPct);
+            case COL_CHANGE:
+                return row.changePct != null ? round(row.changePct) : null;
+            default:
+                return null;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    public Row getRow(int rowIndex) {
+        return rowList.get(rowIndex);
+    }
+
+    /**
+     * replace all rows for hub
+     * NOTE: must be called on EDT
+     */
+    public void setRows(String hub, List<Row> newRowList) {
+        rowList.removeIf(row -> row.stats.item.hub.equals(hub));
+        rowList.addAll(newRowList);
+        fireTableDataChanged();
+    }
+}